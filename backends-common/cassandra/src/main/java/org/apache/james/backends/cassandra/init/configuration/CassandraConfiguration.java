@@ -33,6 +33,7 @@ import com.google.common.base.Preconditions;
 
 public class CassandraConfiguration {
     public static final int DEFAULT_MESSAGE_CHUNK_SIZE_ON_READ = 100;
+    public static final int DEFAULT_MESSAGE_READ_BATCH_SIZE = 10;
     public static final int DEFAULT_EXPUNGE_BATCH_SIZE = 50;
     public static final int DEFAULT_UPDATE_FLAGS_BATCH_SIZE = 20;
     public static final int DEFAULT_FLAGS_UPDATE_MESSAGE_MAX_RETRY = 1000;
@@ -42,6 +43,7 @@ public class CassandraConfiguration {
     public static final int DEFAULT_ACL_MAX_RETRY = 1000;
     public static final int DEFAULT_FETCH_NEXT_PAGE_ADVANCE_IN_ROW = 100;
     public static final int DEFAULT_BLOB_PART_SIZE = 100 * 1024;
+    public static final int DEFAULT_BLOB_READ_AHEAD_WINDOW = 4;
     public static final int DEFAULT_ATTACHMENT_V2_MIGRATION_READ_TIMEOUT = toIntExact(TimeUnit.HOURS.toMillis(1));
     public static final int DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT = toIntExact(TimeUnit.HOURS.toMillis(1));
 
@@ -53,8 +55,11 @@ public class CassandraConfiguration {
     private static final String MAILBOX_MAX_RETRY_MESSAGE_ID_FLAGS_UPDATE = "mailbox.max.retry.message.id.flags.update";
     private static final String FETCH_ADVANCE_ROW_COUNT = "fetch.advance.row.count";
     private static final String CHUNK_SIZE_MESSAGE_READ = "chunk.size.message.read";
+    private static final String BATCH_SIZE_MESSAGE_READ = "batch.size.message.read";
     private static final String CHUNK_SIZE_EXPUNGE = "chunk.size.expunge";
     private static final String BLOB_PART_SIZE = "mailbox.blob.part.size";
+    private static final String BLOB_READ_AHEAD_WINDOW = "mailbox.blob.read.ahead.window";
+    private static final String BLOB_COMPRESSION_ENABLED = "mailbox.blob.compression.enabled";
     private static final String ATTACHMENT_V2_MIGRATION_READ_TIMEOUT = "attachment.v2.migration.read.timeout";
     private static final String MESSAGE_ATTACHMENTID_READ_TIMEOUT = "message.attachmentids.read.timeout";
 
@@ -62,6 +67,7 @@ public class CassandraConfiguration {
 
     public static class Builder {
         private Optional<Integer> messageReadChunkSize = Optional.empty();
+        private Optional<Integer> messageReadBatchSize = Optional.empty();
         private Optional<Integer> expungeChunkSize = Optional.empty();
         private Optional<Integer> flagsUpdateMessageIdMaxRetry = Optional.empty();
         private Optional<Integer> flagsUpdateMessageMaxRetry = Optional.empty();
@@ -70,6 +76,8 @@ public class CassandraConfiguration {
         private Optional<Integer> aclMaxRetry = Optional.empty();
         private Optional<Integer> fetchNextPageInAdvanceRow = Optional.empty();
         private Optional<Integer> blobPartSize = Optional.empty();
+        private Optional<Integer> blobReadAheadWindow = Optional.empty();
+        private Optional<Boolean> blobCompressionEnabled = Optional.empty();
         private Optional<Integer> attachmentV2MigrationReadTimeout = Optional.empty();
         private Optional<Integer> messageAttachmentIdsReadTimeout = Optional.empty();
 
@@ -79,6 +87,12 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder messageReadBatchSize(int value) {
+            Preconditions.checkArgument(value > 0, "messageReadBatchSize needs to be strictly positive");
+            this.messageReadBatchSize = Optional.of(value);
+            return this;
+        }
+
         public Builder expungeChunkSize(int value) {
             Preconditions.checkArgument(value > 0, "expungeChunkSize needs to be strictly positive");
             this.expungeChunkSize = Optional.of(value);
@@ -127,6 +141,17 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder blobReadAheadWindow(int value) {
+            Preconditions.checkArgument(value > 0, "blobReadAheadWindow needs to be strictly positive");
+            this.blobReadAheadWindow = Optional.of(value);
+            return this;
+        }
+
+        public Builder blobCompressionEnabled(boolean value) {
+            this.blobCompressionEnabled = Optional.of(value);
+            return this;
+        }
+
         public Builder attachmentV2MigrationReadTimeout(int value) {
             Preconditions.checkArgument(value > 0, "attachmentV2MigrationReadTimeout needs to be strictly positive");
             this.attachmentV2MigrationReadTimeout = Optional.of(value);
@@ -144,6 +169,11 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder messageReadBatchSize(Optional<Integer> value) {
+            value.ifPresent(this::messageReadBatchSize);
+            return this;
+        }
+
         public Builder expungeChunkSize(Optional<Integer> value) {
             value.ifPresent(this::expungeChunkSize);
             return this;
@@ -184,6 +214,16 @@ public class CassandraConfiguration {
             return this;
         }
 
+        public Builder blobReadAheadWindow(Optional<Integer> value) {
+            value.ifPresent(this::blobReadAheadWindow);
+            return this;
+        }
+
+        public Builder blobCompressionEnabled(Optional<Boolean> value) {
+            value.ifPresent(this::blobCompressionEnabled);
+            return this;
+        }
+
         public Builder attachmentV2MigrationReadTimeout(Optional<Integer> value) {
             value.ifPresent(this::attachmentV2MigrationReadTimeout);
             return this;
@@ -197,6 +237,7 @@ public class CassandraConfiguration {
         public CassandraConfiguration build() {
             return new CassandraConfiguration(aclMaxRetry.orElse(DEFAULT_ACL_MAX_RETRY),
                 messageReadChunkSize.orElse(DEFAULT_MESSAGE_CHUNK_SIZE_ON_READ),
+                messageReadBatchSize.orElse(DEFAULT_MESSAGE_READ_BATCH_SIZE),
                 expungeChunkSize.orElse(DEFAULT_EXPUNGE_BATCH_SIZE),
                 flagsUpdateMessageIdMaxRetry.orElse(DEFAULT_FLAGS_UPDATE_MESSAGE_ID_MAX_RETRY),
                 flagsUpdateMessageMaxRetry.orElse(DEFAULT_FLAGS_UPDATE_MESSAGE_MAX_RETRY),
@@ -204,6 +245,8 @@ public class CassandraConfiguration {
                 uidMaxRetry.orElse(DEFAULT_UID_MAX_RETRY),
                 fetchNextPageInAdvanceRow.orElse(DEFAULT_FETCH_NEXT_PAGE_ADVANCE_IN_ROW),
                 blobPartSize.orElse(DEFAULT_BLOB_PART_SIZE),
+                blobReadAheadWindow.orElse(DEFAULT_BLOB_READ_AHEAD_WINDOW),
+                blobCompressionEnabled.orElse(false),
                 attachmentV2MigrationReadTimeout.orElse(DEFAULT_ATTACHMENT_V2_MIGRATION_READ_TIMEOUT),
                 messageAttachmentIdsReadTimeout.orElse(DEFAULT_MESSAGE_ATTACHMENT_ID_MIGRATION_READ_TIMEOUT));
         }
@@ -229,10 +272,16 @@ public class CassandraConfiguration {
                 propertiesConfiguration.getInteger(FETCH_ADVANCE_ROW_COUNT, null)))
             .messageReadChunkSize(Optional.ofNullable(
                 propertiesConfiguration.getInteger(CHUNK_SIZE_MESSAGE_READ, null)))
+            .messageReadBatchSize(Optional.ofNullable(
+                propertiesConfiguration.getInteger(BATCH_SIZE_MESSAGE_READ, null)))
             .expungeChunkSize(Optional.ofNullable(
                 propertiesConfiguration.getInteger(CHUNK_SIZE_EXPUNGE, null)))
             .blobPartSize(Optional.ofNullable(
                 propertiesConfiguration.getInteger(BLOB_PART_SIZE, null)))
+            .blobReadAheadWindow(Optional.ofNullable(
+                propertiesConfiguration.getInteger(BLOB_READ_AHEAD_WINDOW, null)))
+            .blobCompressionEnabled(Optional.ofNullable(
+                propertiesConfiguration.getBoolean(BLOB_COMPRESSION_ENABLED, null)))
             .attachmentV2MigrationReadTimeout(Optional.ofNullable(
                 propertiesConfiguration.getInteger(ATTACHMENT_V2_MIGRATION_READ_TIMEOUT, null)))
             .messageAttachmentIdsReadTimeout(Optional.ofNullable(
@@ -241,6 +290,7 @@ public class CassandraConfiguration {
     }
 
     private final int messageReadChunkSize;
+    private final int messageReadBatchSize;
     private final int expungeChunkSize;
     private final int flagsUpdateMessageIdMaxRetry;
     private final int flagsUpdateMessageMaxRetry;
@@ -249,16 +299,20 @@ public class CassandraConfiguration {
     private final int aclMaxRetry;
     private final int fetchNextPageInAdvanceRow;
     private final int blobPartSize;
+    private final int blobReadAheadWindow;
+    private final boolean blobCompressionEnabled;
     private final int attachmentV2MigrationReadTimeout;
     private final int messageAttachmentIdsReadTimeout;
 
     @VisibleForTesting
-    CassandraConfiguration(int aclMaxRetry, int messageReadChunkSize, int expungeChunkSize,
+    CassandraConfiguration(int aclMaxRetry, int messageReadChunkSize, int messageReadBatchSize, int expungeChunkSize,
                            int flagsUpdateMessageIdMaxRetry, int flagsUpdateMessageMaxRetry,
                            int modSeqMaxRetry, int uidMaxRetry, int fetchNextPageInAdvanceRow,
-                           int blobPartSize, final int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout) {
+                           int blobPartSize, int blobReadAheadWindow, boolean blobCompressionEnabled,
+                           int attachmentV2MigrationReadTimeout, int messageAttachmentIdsReadTimeout) {
         this.aclMaxRetry = aclMaxRetry;
         this.messageReadChunkSize = messageReadChunkSize;
+        this.messageReadBatchSize = messageReadBatchSize;
         this.expungeChunkSize = expungeChunkSize;
         this.flagsUpdateMessageIdMaxRetry = flagsUpdateMessageIdMaxRetry;
         this.flagsUpdateMessageMaxRetry = flagsUpdateMessageMaxRetry;
@@ -266,6 +320,8 @@ public class CassandraConfiguration {
         this.uidMaxRetry = uidMaxRetry;
         this.fetchNextPageInAdvanceRow = fetchNextPageInAdvanceRow;
         this.blobPartSize = blobPartSize;
+        this.blobReadAheadWindow = blobReadAheadWindow;
+        this.blobCompressionEnabled = blobCompressionEnabled;
         this.attachmentV2MigrationReadTimeout = attachmentV2MigrationReadTimeout;
         this.messageAttachmentIdsReadTimeout = messageAttachmentIdsReadTimeout;
     }
@@ -274,6 +330,17 @@ public class CassandraConfiguration {
         return blobPartSize;
     }
 
+    public int getBlobReadAheadWindow() {
+        return blobReadAheadWindow;
+    }
+
+    /**
+     * @return whether blobs are compressed, whatever their storage policy
+     */
+    public boolean isBlobCompressionEnabled() {
+        return blobCompressionEnabled;
+    }
+
     public int getAclMaxRetry() {
         return aclMaxRetry;
     }
@@ -282,6 +349,10 @@ public class CassandraConfiguration {
         return messageReadChunkSize;
     }
 
+    public int getMessageReadBatchSize() {
+        return messageReadBatchSize;
+    }
+
     public int getExpungeChunkSize() {
         return expungeChunkSize;
     }
@@ -321,6 +392,7 @@ public class CassandraConfiguration {
 
             return Objects.equals(this.aclMaxRetry, that.aclMaxRetry)
                 && Objects.equals(this.messageReadChunkSize, that.messageReadChunkSize)
+                && Objects.equals(this.messageReadBatchSize, that.messageReadBatchSize)
                 && Objects.equals(this.expungeChunkSize, that.expungeChunkSize)
                 && Objects.equals(this.flagsUpdateMessageIdMaxRetry, that.flagsUpdateMessageIdMaxRetry)
                 && Objects.equals(this.flagsUpdateMessageMaxRetry, that.flagsUpdateMessageMaxRetry)
@@ -328,6 +400,8 @@ public class CassandraConfiguration {
                 && Objects.equals(this.uidMaxRetry, that.uidMaxRetry)
                 && Objects.equals(this.fetchNextPageInAdvanceRow, that.fetchNextPageInAdvanceRow)
                 && Objects.equals(this.blobPartSize, that.blobPartSize)
+                && Objects.equals(this.blobReadAheadWindow, that.blobReadAheadWindow)
+                && Objects.equals(this.blobCompressionEnabled, that.blobCompressionEnabled)
                 && Objects.equals(this.attachmentV2MigrationReadTimeout, that.attachmentV2MigrationReadTimeout)
                 && Objects.equals(this.messageAttachmentIdsReadTimeout, that.messageAttachmentIdsReadTimeout);
         }
@@ -336,9 +410,9 @@ public class CassandraConfiguration {
 
     @Override
     public final int hashCode() {
-        return Objects.hash(aclMaxRetry, messageReadChunkSize, expungeChunkSize, flagsUpdateMessageIdMaxRetry,
+        return Objects.hash(aclMaxRetry, messageReadChunkSize, messageReadBatchSize, expungeChunkSize, flagsUpdateMessageIdMaxRetry,
             flagsUpdateMessageMaxRetry, modSeqMaxRetry, uidMaxRetry, fetchNextPageInAdvanceRow,
-            blobPartSize, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout);
+            blobPartSize, blobReadAheadWindow, blobCompressionEnabled, attachmentV2MigrationReadTimeout, messageAttachmentIdsReadTimeout);
     }
 
     @Override
@@ -346,6 +420,7 @@ public class CassandraConfiguration {
         return MoreObjects.toStringHelper(this)
             .add("aclMaxRetry", aclMaxRetry)
             .add("messageReadChunkSize", messageReadChunkSize)
+            .add("messageReadBatchSize", messageReadBatchSize)
             .add("expungeChunkSize", expungeChunkSize)
             .add("flagsUpdateMessageIdMaxRetry", flagsUpdateMessageIdMaxRetry)
             .add("flagsUpdateMessageMaxRetry", flagsUpdateMessageMaxRetry)
@@ -353,6 +428,8 @@ public class CassandraConfiguration {
             .add("fetchNextPageInAdvanceRow", fetchNextPageInAdvanceRow)
             .add("uidMaxRetry", uidMaxRetry)
             .add("blobPartSize", blobPartSize)
+            .add("blobReadAheadWindow", blobReadAheadWindow)
+            .add("blobCompressionEnabled", blobCompressionEnabled)
             .add("attachmentV2MigrationReadTimeout", attachmentV2MigrationReadTimeout)
             .add("messageAttachmentIdsReadTimeout", messageAttachmentIdsReadTimeout)
             .toString();
@@ -56,8 +56,10 @@ class CassandraConfigurationReadingTest {
                 .flagsUpdateMessageIdMaxRetry(5)
                 .fetchNextPageInAdvanceRow(6)
                 .messageReadChunkSize(7)
+                .messageReadBatchSize(14)
                 .expungeChunkSize(8)
                 .blobPartSize(9)
+                .blobReadAheadWindow(13)
                 .attachmentV2MigrationReadTimeout(10)
                 .messageAttachmentIdsReadTimeout(11)
                 .build());
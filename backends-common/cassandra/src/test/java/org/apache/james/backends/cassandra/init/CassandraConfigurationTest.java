@@ -22,6 +22,7 @@ package org.apache.james.backends.cassandra.init;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Test;
@@ -182,6 +183,55 @@ class CassandraConfigurationTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    void messageReadBatchSizeShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .messageReadBatchSize(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void messageReadBatchSizeShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .messageReadBatchSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void blobReadAheadWindowShouldThrowOnNegativeValue() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .blobReadAheadWindow(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void blobReadAheadWindowShouldThrowOnZero() {
+        assertThatThrownBy(() -> CassandraConfiguration.builder()
+                .blobReadAheadWindow(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void blobCompressionShouldBeDisabledByDefault() {
+        assertThat(CassandraConfiguration.DEFAULT_CONFIGURATION.isBlobCompressionEnabled())
+            .isFalse();
+    }
+
+    @Test
+    void fromShouldParseBlobCompressionEnabled() {
+        PropertiesConfiguration propertiesConfiguration = new PropertiesConfiguration();
+        propertiesConfiguration.addProperty("mailbox.blob.compression.enabled", "true");
+
+        assertThat(CassandraConfiguration.from(propertiesConfiguration).isBlobCompressionEnabled())
+            .isTrue();
+    }
+
+    @Test
+    void fromShouldDisableBlobCompressionByDefault() {
+        assertThat(CassandraConfiguration.from(new PropertiesConfiguration()).isBlobCompressionEnabled())
+            .isFalse();
+    }
+
     @Test
     void builderShouldCreateTheRightObject() {
         int aclMaxRetry = 1;
@@ -193,8 +243,11 @@ class CassandraConfigurationTest {
         int messageReadChunkSize = 8;
         int expungeChunkSize = 9;
         int blobPartSize = 10;
+        int blobReadAheadWindow = 13;
+        int messageReadBatchSize = 14;
         int attachmentV2MigrationReadTimeout = 11;
         int messageAttachmentIdReadTimeout = 12;
+        boolean blobCompressionEnabled = true;
 
         CassandraConfiguration configuration = CassandraConfiguration.builder()
             .aclMaxRetry(aclMaxRetry)
@@ -206,6 +259,9 @@ class CassandraConfigurationTest {
             .messageReadChunkSize(messageReadChunkSize)
             .expungeChunkSize(expungeChunkSize)
             .blobPartSize(blobPartSize)
+            .blobReadAheadWindow(blobReadAheadWindow)
+            .blobCompressionEnabled(blobCompressionEnabled)
+            .messageReadBatchSize(messageReadBatchSize)
             .attachmentV2MigrationReadTimeout(attachmentV2MigrationReadTimeout)
             .messageAttachmentIdsReadTimeout(messageAttachmentIdReadTimeout)
             .build();
@@ -220,6 +276,9 @@ class CassandraConfigurationTest {
             softly.assertThat(configuration.getMessageReadChunkSize()).isEqualTo(messageReadChunkSize);
             softly.assertThat(configuration.getExpungeChunkSize()).isEqualTo(expungeChunkSize);
             softly.assertThat(configuration.getBlobPartSize()).isEqualTo(blobPartSize);
+            softly.assertThat(configuration.getBlobReadAheadWindow()).isEqualTo(blobReadAheadWindow);
+            softly.assertThat(configuration.isBlobCompressionEnabled()).isEqualTo(blobCompressionEnabled);
+            softly.assertThat(configuration.getMessageReadBatchSize()).isEqualTo(messageReadBatchSize);
             softly.assertThat(configuration.getAttachmentV2MigrationReadTimeout()).isEqualTo(attachmentV2MigrationReadTimeout);
             softly.assertThat(configuration.getMessageAttachmentIdsReadTimeout()).isEqualTo(messageAttachmentIdReadTimeout);
         });
@@ -0,0 +1,298 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Accumulates index, update and delete requests issued by concurrent callers into shared {@link BulkRequest}s.
+ *
+ * A bulk is sent once it holds {@code bulkSize} requests or after {@code bulkLinger}, whichever comes first. Bulks are
+ * sent one at a time, which preserves the ordering of the requests targeting a given document. Each request keeps its
+ * own routing key, thus a bulk can span several routing keys.
+ *
+ * The returned {@link Mono}s complete once the request has been acknowledged by ElasticSearch, and fail if it was
+ * rejected or not acknowledged within {@link #REQUEST_TIMEOUT}. Callers waiting on them bound the number of pending
+ * requests, and retry failures as they see fit. Updates and deletes of missing documents, for instance of already
+ * expunged messages, are no-ops and succeed. A failing bulk only fails its own requests.
+ *
+ * Bulks waiting for ElasticSearch are buffered, so that a slow cluster delays the requests without breaking the
+ * accumulation. Should the accumulation still fail, the requests it holds are failed and a new one takes over.
+ *
+ * A bulk size of 1 disables accumulation: each call then sends its own bulk right away.
+ */
+public class ElasticSearchBulkIndexer {
+    public static final int DEFAULT_BULK_SIZE = 1;
+    public static final Duration DEFAULT_BULK_LINGER = Duration.ofMillis(10);
+    public static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+    static final String BULK_TIME_METRIC_NAME = "elasticSearchBulkTime";
+    static final String BULK_FAILURE_METRIC_NAME = "elasticSearchBulkFailures";
+
+    private static final int DEBUG_MAX_LENGTH_CONTENT = 1000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchBulkIndexer.class);
+
+    private static class PendingRequest {
+        private final DocWriteRequest<?> request;
+        private final MonoProcessor<Void> result;
+
+        PendingRequest(DocWriteRequest<?> request) {
+            this.request = request;
+            this.result = MonoProcessor.create();
+        }
+    }
+
+    /**
+     * Accumulation of the submitted requests into bulks. Requests are tracked until they are part of a bulk, so that
+     * they can be failed if the accumulation stops.
+     */
+    private class Bulking {
+        private final FluxSink<PendingRequest> sink;
+        private final Set<PendingRequest> queued;
+        private final Disposable subscription;
+
+        Bulking(int bulkSize, Duration bulkLinger) {
+            UnicastProcessor<PendingRequest> processor = UnicastProcessor.create();
+            this.sink = processor.sink();
+            this.queued = ConcurrentHashMap.newKeySet();
+            this.subscription = processor.bufferTimeout(bulkSize, bulkLinger)
+                .onBackpressureBuffer()
+                .publishOn(Schedulers.elastic())
+                .concatMap(bulk -> {
+                    queued.removeAll(bulk);
+                    return sendBulk(bulk);
+                })
+                .subscribe(
+                    any -> { },
+                    e -> restart(this, e, bulkSize, bulkLinger));
+        }
+
+        void submit(List<PendingRequest> pending) {
+            queued.addAll(pending);
+            pending.forEach(sink::next);
+        }
+
+        void failQueued(Throwable e) {
+            failPending(ImmutableList.copyOf(queued), e);
+        }
+
+        void dispose() {
+            subscription.dispose();
+        }
+    }
+
+    private final RestHighLevelClient client;
+    private final AliasName aliasName;
+    private final MetricFactory metricFactory;
+    private final Metric bulkFailureMetric;
+    private final Optional<AtomicReference<Bulking>> bulking;
+
+    public ElasticSearchBulkIndexer(RestHighLevelClient client, WriteAliasName aliasName, MetricFactory metricFactory) {
+        this(client, aliasName, metricFactory, DEFAULT_BULK_SIZE, DEFAULT_BULK_LINGER);
+    }
+
+    public ElasticSearchBulkIndexer(RestHighLevelClient client, WriteAliasName aliasName, MetricFactory metricFactory,
+                                    int bulkSize, Duration bulkLinger) {
+        Preconditions.checkArgument(bulkSize > 0, "bulkSize needs to be strictly positive");
+        Preconditions.checkArgument(!bulkLinger.isNegative() && !bulkLinger.isZero(), "bulkLinger needs to be strictly positive");
+
+        this.client = client;
+        this.aliasName = aliasName;
+        this.metricFactory = metricFactory;
+        this.bulkFailureMetric = metricFactory.generate(BULK_FAILURE_METRIC_NAME);
+        this.bulking = Optional.of(bulkSize)
+            .filter(size -> size > 1)
+            .map(size -> new AtomicReference<>(new Bulking(size, bulkLinger)));
+    }
+
+    /**
+     * Requests submitted to the failed accumulation before it is replaced are not tracked anymore, they fail once
+     * {@link #REQUEST_TIMEOUT} is elapsed.
+     */
+    private void restart(Bulking failed, Throwable e, int bulkSize, Duration bulkLinger) {
+        LOGGER.error("ElasticSearch bulk indexing on {} failed, restarting it", aliasName.getValue(), e);
+        bulking.ifPresent(reference -> reference.compareAndSet(failed, new Bulking(bulkSize, bulkLinger)));
+        failed.failQueued(e);
+    }
+
+    @PreDestroy
+    public void close() {
+        bulking.ifPresent(reference -> reference.get().dispose());
+    }
+
+    public Mono<Void> index(DocumentId id, String content, RoutingKey routingKey) {
+        Preconditions.checkArgument(content != null, "content should be provided");
+        return index(ImmutableMap.of(id, content), routingKey);
+    }
+
+    public Mono<Void> index(Map<DocumentId, String> documents, RoutingKey routingKey) {
+        Preconditions.checkNotNull(documents);
+        Preconditions.checkNotNull(routingKey);
+
+        return submit(documents.entrySet().stream()
+            .map(document -> indexRequest(document.getKey(), document.getValue(), routingKey))
+            .collect(ImmutableList.toImmutableList()));
+    }
+
+    private IndexRequest indexRequest(DocumentId id, String content, RoutingKey routingKey) {
+        Preconditions.checkArgument(content != null, "content should be provided");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Indexing {}: {}", id.asString(), StringUtils.left(content, DEBUG_MAX_LENGTH_CONTENT));
+        }
+
+        return new IndexRequest(aliasName.getValue())
+            .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+            .id(id.asString())
+            .source(content, XContentType.JSON)
+            .routing(routingKey.asString());
+    }
+
+    public Mono<Void> update(List<UpdatedRepresentation> updatedDocumentParts, RoutingKey routingKey) {
+        Preconditions.checkNotNull(updatedDocumentParts);
+        Preconditions.checkNotNull(routingKey);
+
+        return submit(updatedDocumentParts.stream()
+            .map(updatedDocumentPart -> new UpdateRequest(aliasName.getValue(),
+                    NodeMappingFactory.DEFAULT_MAPPING_NAME,
+                    updatedDocumentPart.getId().asString())
+                .doc(updatedDocumentPart.getUpdatedDocumentPart(), XContentType.JSON)
+                .routing(routingKey.asString()))
+            .collect(ImmutableList.toImmutableList()));
+    }
+
+    public Mono<Void> delete(List<DocumentId> ids, RoutingKey routingKey) {
+        Preconditions.checkNotNull(ids);
+        Preconditions.checkNotNull(routingKey);
+
+        return submit(ids.stream()
+            .map(id -> new DeleteRequest(aliasName.getValue())
+                .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+                .id(id.asString())
+                .routing(routingKey.asString()))
+            .collect(ImmutableList.toImmutableList()));
+    }
+
+    private Mono<Void> submit(List<? extends DocWriteRequest<?>> requests) {
+        if (requests.isEmpty()) {
+            return Mono.empty();
+        }
+        ImmutableList<PendingRequest> pending = requests.stream()
+            .map(PendingRequest::new)
+            .collect(ImmutableList.toImmutableList());
+
+        return Mono.defer(() -> bulking
+                .map(reference -> {
+                    reference.get().submit(pending);
+                    return Mono.<Void>empty();
+                })
+                .orElseGet(() -> sendBulk(pending)))
+            .then(Flux.fromIterable(pending)
+                .concatMap(pendingRequest -> pendingRequest.result)
+                .then())
+            .timeout(REQUEST_TIMEOUT, Mono.defer(() -> Mono.error(new IOException(
+                "Timeout while waiting for ElasticSearch to acknowledge " + requests.size() + " requests"))));
+    }
+
+    private Mono<Void> sendBulk(List<PendingRequest> bulk) {
+        return Mono.defer(() -> {
+                BulkRequest request = new BulkRequest();
+                bulk.forEach(pendingRequest -> request.add(pendingRequest.request));
+
+                return metricFactory.runPublishingTimerMetric(BULK_TIME_METRIC_NAME,
+                    Mono.fromCallable(() -> client.bulk(request, RequestOptions.DEFAULT)));
+            })
+            .doOnNext(response -> completeItems(bulk, response))
+            .then(Mono.fromRunnable(() -> failPending(bulk, new IOException("ElasticSearch did not answer some requests of a bulk"))))
+            .onErrorResume(e -> {
+                LOGGER.error("Failed to send a bulk of {} requests to ElasticSearch", bulk.size(), e);
+                bulkFailureMetric.increment();
+                failPending(bulk, e);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void completeItems(List<PendingRequest> bulk, BulkResponse response) {
+        boolean hasFailures = false;
+        for (BulkItemResponse item : response.getItems()) {
+            PendingRequest pendingRequest = bulk.get(item.getItemId());
+            if (item.isFailed() && !isMissingDocument(item)) {
+                hasFailures = true;
+                LOGGER.warn("ElasticSearch rejected {} of {}: {}", item.getOpType(), item.getId(), item.getFailureMessage());
+                pendingRequest.result.onError(new IOException("ElasticSearch rejected " + item.getOpType() + " of "
+                    + item.getId() + ": " + item.getFailureMessage()));
+            } else {
+                pendingRequest.result.onComplete();
+            }
+        }
+        if (hasFailures) {
+            bulkFailureMetric.increment();
+        }
+    }
+
+    private boolean isMissingDocument(BulkItemResponse item) {
+        return (item.getOpType() == DocWriteRequest.OpType.UPDATE || item.getOpType() == DocWriteRequest.OpType.DELETE)
+            && item.getFailure().getStatus() == RestStatus.NOT_FOUND;
+    }
+
+    private void failPending(List<PendingRequest> bulk, Throwable e) {
+        bulk.stream()
+            .filter(pendingRequest -> !pendingRequest.result.isTerminated())
+            .forEach(pendingRequest -> pendingRequest.result.onError(e));
+    }
+}
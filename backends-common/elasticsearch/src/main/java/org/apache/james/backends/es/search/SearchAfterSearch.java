@@ -0,0 +1,113 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es.search;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.james.backends.es.ListenerToFuture;
+import org.apache.james.util.streams.Iterators;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.search.SearchHit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Pages through the results of a search using <code>search_after</code>, which, unlike scrolling, keeps no search
+ * context alive on the ElasticSearch side.
+ *
+ * Pages are only requested once the previous one has been fully consumed, thus a caller stopping early, for instance
+ * because its limit is reached, does not trigger further requests.
+ *
+ * The sorts of the search request need to define a total order on the documents, for instance by ending with a
+ * unique field. The search request is updated from page to page and should not be shared.
+ */
+public class SearchAfterSearch {
+    private class SearchAfterIterator implements Iterator<SearchResponse> {
+        private Optional<SearchResponse> nextPage;
+        private Optional<Object[]> lastSortValues;
+        private boolean lastPageReached;
+
+        SearchAfterIterator() {
+            this.nextPage = Optional.empty();
+            this.lastSortValues = Optional.empty();
+            this.lastPageReached = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!nextPage.isPresent() && !lastPageReached) {
+                nextPage = Optional.of(fetchPage());
+            }
+            return nextPage
+                .map(page -> page.getHits().getHits().length > 0)
+                .orElse(false);
+        }
+
+        @Override
+        public SearchResponse next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SearchResponse page = nextPage.get();
+            SearchHit[] hits = page.getHits().getHits();
+
+            nextPage = Optional.empty();
+            lastPageReached = hits.length < searchRequest.source().size();
+            lastSortValues = Optional.of(hits[hits.length - 1].getSortValues());
+            return page;
+        }
+
+        private SearchResponse fetchPage() {
+            lastSortValues.ifPresent(searchRequest.source()::searchAfter);
+            ListenerToFuture<SearchResponse> listener = new ListenerToFuture<>();
+            client.searchAsync(searchRequest, RequestOptions.DEFAULT, listener);
+            return listener.getFuture().join();
+        }
+    }
+
+    private final RestHighLevelClient client;
+    private final SearchRequest searchRequest;
+
+    public SearchAfterSearch(RestHighLevelClient client, SearchRequest searchRequest) {
+        Preconditions.checkArgument(searchRequest.source() != null, "search request source should be specified");
+        Preconditions.checkArgument(searchRequest.source().sorts() != null && !searchRequest.source().sorts().isEmpty(),
+            "search_after requires the search request to be sorted");
+        Preconditions.checkArgument(searchRequest.scroll() == null, "search_after can not be combined with scrolling");
+
+        this.client = client;
+        this.searchRequest = searchRequest;
+    }
+
+    public Stream<SearchHit> searchHits() {
+        return searchResponses()
+            .flatMap(searchResponse -> Arrays.stream(searchResponse.getHits().getHits()));
+    }
+
+    public Stream<SearchResponse> searchResponses() {
+        return Iterators.toStream(new SearchAfterIterator());
+    }
+}
@@ -0,0 +1,223 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es;
+
+import static org.apache.james.backends.es.ElasticSearchBulkIndexer.BULK_FAILURE_METRIC_NAME;
+import static org.apache.james.backends.es.ElasticSearchBulkIndexer.BULK_TIME_METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ElasticSearchBulkIndexerTest {
+    private static final int BULK_SIZE = 10;
+    private static final Duration BULK_LINGER = Duration.ofMillis(50);
+    private static final IndexName INDEX_NAME = new IndexName("index_name");
+    private static final WriteAliasName ALIAS_NAME = new WriteAliasName("alias_name");
+    private static final RoutingKey ROUTING = RoutingKey.fromString("routing");
+    private static final DocumentId DOCUMENT_ID = DocumentId.fromString("1");
+    private static final String CONTENT = "{\"message\": \"trying out Elasticsearch\"}";
+    private static final String INVALID_CONTENT = "{\"message\": ";
+
+    @RegisterExtension
+    public DockerElasticSearchExtension elasticSearch = new DockerElasticSearchExtension();
+    private RecordingMetricFactory metricFactory;
+    private ElasticSearchBulkIndexer testee;
+    private RestHighLevelClient client;
+
+    @BeforeEach
+    void setup() {
+        client = elasticSearch.getDockerElasticSearch().clientProvider().get();
+        new IndexCreationFactory(ElasticSearchConfiguration.DEFAULT_CONFIGURATION)
+            .useIndex(INDEX_NAME)
+            .addAlias(ALIAS_NAME)
+            .createIndexAndAliases(client);
+        metricFactory = new RecordingMetricFactory();
+        testee = new ElasticSearchBulkIndexer(client, ALIAS_NAME, metricFactory, BULK_SIZE, BULK_LINGER);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        testee.close();
+        client.close();
+    }
+
+    @Test
+    void constructorShouldThrowWhenBulkSizeIsNotPositive() {
+        assertThatThrownBy(() -> new ElasticSearchBulkIndexer(client, ALIAS_NAME, metricFactory, 0, BULK_LINGER))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorShouldThrowWhenBulkLingerIsZero() {
+        assertThatThrownBy(() -> new ElasticSearchBulkIndexer(client, ALIAS_NAME, metricFactory, BULK_SIZE, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void indexShouldThrowWhenJsonIsNull() {
+        assertThatThrownBy(() -> testee.index(DOCUMENT_ID, null, ROUTING))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void indexShouldWork() throws Exception {
+        testee.index(DOCUMENT_ID, CONTENT, ROUTING).block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "trying")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentIndexingShouldBeGroupedInBulks() throws Exception {
+        int documentCount = 5 * BULK_SIZE;
+
+        Flux.range(0, documentCount)
+            .flatMap(i -> testee.index(DocumentId.fromString(String.valueOf(i)), CONTENT, RoutingKey.fromString(String.valueOf(i))), documentCount)
+            .then()
+            .block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "trying")).isEqualTo(documentCount);
+        assertThat(metricFactory.executionTimesFor(BULK_TIME_METRIC_NAME).size()).isLessThan(documentCount);
+    }
+
+    @Test
+    void updateShouldApplyAfterIndexingOfTheSameDocument() throws Exception {
+        String content = "{\"message\": \"trying out Elasticsearch\",\"field\":\"Should be unchanged\"}";
+
+        Flux.merge(
+                testee.index(DOCUMENT_ID, content, ROUTING),
+                testee.update(ImmutableList.of(new UpdatedRepresentation(DOCUMENT_ID, "{\"message\": \"mastering out Elasticsearch\"}")), ROUTING))
+            .then()
+            .block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "mastering")).isEqualTo(1);
+        assertThat(countMatching("field", "unchanged")).isEqualTo(1);
+    }
+
+    @Test
+    void deleteShouldWork() throws Exception {
+        testee.index(DOCUMENT_ID, CONTENT, ROUTING).block();
+        elasticSearch.awaitForElasticSearch();
+
+        testee.delete(ImmutableList.of(DOCUMENT_ID), ROUTING).block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "trying")).isEqualTo(0);
+    }
+
+    @Test
+    void updateShouldSucceedWhenDocumentIsMissing() {
+        assertThatCode(() -> testee.update(ImmutableList.of(new UpdatedRepresentation(DOCUMENT_ID, CONTENT)), ROUTING).block())
+            .doesNotThrowAnyException();
+
+        assertThat(metricFactory.countFor(BULK_FAILURE_METRIC_NAME)).isZero();
+    }
+
+    @Test
+    void deleteShouldSucceedWhenDocumentIsMissing() {
+        assertThatCode(() -> testee.delete(ImmutableList.of(DOCUMENT_ID), ROUTING).block())
+            .doesNotThrowAnyException();
+
+        assertThat(metricFactory.countFor(BULK_FAILURE_METRIC_NAME)).isZero();
+    }
+
+    @Test
+    void indexShouldFailWhenContentIsRejected() {
+        assertThatThrownBy(() -> testee.index(DOCUMENT_ID, INVALID_CONTENT, ROUTING).block())
+            .hasCauseInstanceOf(IOException.class);
+
+        assertThat(metricFactory.countFor(BULK_FAILURE_METRIC_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void failureOfARequestShouldNotFailOtherRequestsOfTheBulk() throws Exception {
+        DocumentId rejectedDocument = DocumentId.fromString("2");
+
+        Flux.merge(
+                testee.index(DOCUMENT_ID, CONTENT, ROUTING),
+                testee.index(rejectedDocument, INVALID_CONTENT, ROUTING)
+                    .onErrorResume(e -> Mono.empty()))
+            .then()
+            .block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "trying")).isEqualTo(1);
+    }
+
+    @Test
+    void failureOfABulkShouldNotPreventFollowingBulks() throws Exception {
+        testee.index(DOCUMENT_ID, INVALID_CONTENT, ROUTING)
+            .onErrorResume(e -> Mono.empty())
+            .block();
+
+        testee.index(DocumentId.fromString("2"), CONTENT, ROUTING).block();
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "trying")).isEqualTo(1);
+    }
+
+    @Test
+    void bulksLingeringWhileElasticSearchIsBusyShouldNotFailTheIndexing() throws Exception {
+        ElasticSearchBulkIndexer lingeringIndexer = new ElasticSearchBulkIndexer(client, ALIAS_NAME, metricFactory, 2, Duration.ofMillis(1));
+        int documentCount = 200;
+
+        try {
+            Flux.range(0, documentCount)
+                .flatMap(i -> lingeringIndexer.index(DocumentId.fromString(String.valueOf(i)), CONTENT, ROUTING), documentCount)
+                .then()
+                .block();
+        } finally {
+            lingeringIndexer.close();
+        }
+        elasticSearch.awaitForElasticSearch();
+
+        assertThat(countMatching("message", "trying")).isEqualTo(documentCount);
+    }
+
+    private long countMatching(String field, String value) throws IOException {
+        SearchResponse searchResponse = client.search(
+            new SearchRequest(INDEX_NAME.getValue())
+                .source(new SearchSourceBuilder().query(QueryBuilders.matchQuery(field, value))),
+            RequestOptions.DEFAULT);
+        return searchResponse.getHits().getTotalHits();
+    }
+}
@@ -0,0 +1,203 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.backends.es.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+
+import org.apache.james.backends.es.DockerElasticSearchExtension;
+import org.apache.james.backends.es.ElasticSearchConfiguration;
+import org.apache.james.backends.es.IndexCreationFactory;
+import org.apache.james.backends.es.IndexName;
+import org.apache.james.backends.es.NodeMappingFactory;
+import org.apache.james.backends.es.ReadAliasName;
+import org.awaitility.Duration;
+import org.awaitility.core.ConditionFactory;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class SearchAfterSearchTest {
+    private static final int SIZE = 2;
+    private static final String MESSAGE = "message";
+    private static final String RANK = "rank";
+    private static final IndexName INDEX_NAME = new IndexName("index");
+    private static final ReadAliasName ALIAS_NAME = new ReadAliasName("alias");
+
+    private static final ConditionFactory WAIT_CONDITION = await().timeout(Duration.FIVE_SECONDS);
+
+    @RegisterExtension
+    public DockerElasticSearchExtension elasticSearch = new DockerElasticSearchExtension();
+    private RestHighLevelClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = elasticSearch.getDockerElasticSearch().clientProvider().get();
+        new IndexCreationFactory(ElasticSearchConfiguration.DEFAULT_CONFIGURATION)
+            .useIndex(INDEX_NAME)
+            .addAlias(ALIAS_NAME)
+            .createIndexAndAliases(client);
+        elasticSearch.awaitForElasticSearch();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+    }
+
+    @Test
+    void constructorShouldThrowWhenSearchRequestIsNotSorted() {
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(new SearchSourceBuilder()
+                .query(QueryBuilders.matchAllQuery())
+                .size(SIZE));
+
+        assertThatThrownBy(() -> new SearchAfterSearch(client, searchRequest))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorShouldThrowWhenSearchRequestIsScrolled() {
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .scroll(TimeValue.timeValueMinutes(1))
+            .source(sortedSearch());
+
+        assertThatThrownBy(() -> new SearchAfterSearch(client, searchRequest))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void searchHitsShouldWorkWhenEmpty() {
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(sortedSearch());
+
+        assertThat(new SearchAfterSearch(client, searchRequest).searchHits())
+            .isEmpty();
+    }
+
+    @Test
+    void searchHitsShouldWorkWhenOneElement() throws Exception {
+        index("1", 1);
+        elasticSearch.awaitForElasticSearch();
+        WAIT_CONDITION.untilAsserted(() -> hasIdsInIndex(client, "1"));
+
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(sortedSearch());
+
+        assertThat(new SearchAfterSearch(client, searchRequest).searchHits())
+            .extracting(SearchHit::getId)
+            .containsExactly("1");
+    }
+
+    @Test
+    void searchHitsShouldWorkWhenSizeElement() throws Exception {
+        index("1", 1);
+        index("2", 2);
+        elasticSearch.awaitForElasticSearch();
+        WAIT_CONDITION.untilAsserted(() -> hasIdsInIndex(client, "1", "2"));
+
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(sortedSearch());
+
+        assertThat(new SearchAfterSearch(client, searchRequest).searchHits())
+            .extracting(SearchHit::getId)
+            .containsExactly("1", "2");
+    }
+
+    @Test
+    void searchHitsShouldReturnAllPagesInOrderWhenMoreThanSizeElement() throws Exception {
+        index("3", 3);
+        index("1", 1);
+        index("5", 5);
+        index("2", 2);
+        index("4", 4);
+        elasticSearch.awaitForElasticSearch();
+        WAIT_CONDITION.untilAsserted(() -> hasIdsInIndex(client, "1", "2", "3", "4", "5"));
+
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(sortedSearch());
+
+        assertThat(new SearchAfterSearch(client, searchRequest).searchHits())
+            .extracting(SearchHit::getId)
+            .containsExactly("1", "2", "3", "4", "5");
+    }
+
+    @Test
+    void searchResponsesShouldNotFetchPagesBeyondTheConsumedOnes() throws Exception {
+        index("1", 1);
+        index("2", 2);
+        index("3", 3);
+        index("4", 4);
+        index("5", 5);
+        elasticSearch.awaitForElasticSearch();
+        WAIT_CONDITION.untilAsserted(() -> hasIdsInIndex(client, "1", "2", "3", "4", "5"));
+
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(sortedSearch());
+
+        assertThat(new SearchAfterSearch(client, searchRequest).searchHits().limit(SIZE))
+            .extracting(SearchHit::getId)
+            .containsExactly("1", "2");
+        assertThat(searchRequest.source().searchAfter())
+            .isNull();
+    }
+
+    private SearchSourceBuilder sortedSearch() {
+        return new SearchSourceBuilder()
+            .query(QueryBuilders.matchAllQuery())
+            .sort(RANK, SortOrder.ASC)
+            .size(SIZE);
+    }
+
+    private void index(String id, int rank) throws IOException {
+        client.index(new IndexRequest(INDEX_NAME.getValue())
+                .type(NodeMappingFactory.DEFAULT_MAPPING_NAME)
+                .id(id)
+                .source(MESSAGE, "Sample message", RANK, rank),
+            RequestOptions.DEFAULT);
+    }
+
+    private void hasIdsInIndex(RestHighLevelClient client, String... ids) throws IOException {
+        SearchRequest searchRequest = new SearchRequest(INDEX_NAME.getValue())
+            .source(new SearchSourceBuilder()
+                .query(QueryBuilders.matchAllQuery()));
+
+        SearchHit[] hits = client.search(searchRequest, RequestOptions.DEFAULT)
+            .getHits()
+            .getHits();
+
+        assertThat(hits)
+            .extracting(SearchHit::getId)
+            .contains(ids);
+    }
+}
@@ -19,6 +19,10 @@
 
 package org.apache.james.mailbox.indexer;
 
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
@@ -26,15 +30,165 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.task.Task;
 
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
 public interface ReIndexer {
 
+    class RunningOptions {
+        public static class Builder {
+            private Optional<Integer> messagesPerSecond = Optional.empty();
+            private Optional<Integer> mailboxConcurrency = Optional.empty();
+            private Optional<Integer> messageConcurrency = Optional.empty();
+            private Optional<Integer> batchSize = Optional.empty();
+
+            public Builder messagesPerSecond(int messagesPerSecond) {
+                Preconditions.checkArgument(messagesPerSecond > 0, "'messagesPerSecond' needs to be strictly positive");
+                this.messagesPerSecond = Optional.of(messagesPerSecond);
+                return this;
+            }
+
+            public Builder messagesPerSecond(Optional<Integer> messagesPerSecond) {
+                messagesPerSecond.ifPresent(this::messagesPerSecond);
+                return this;
+            }
+
+            public Builder mailboxConcurrency(int mailboxConcurrency) {
+                Preconditions.checkArgument(mailboxConcurrency > 0, "'mailboxConcurrency' needs to be strictly positive");
+                this.mailboxConcurrency = Optional.of(mailboxConcurrency);
+                return this;
+            }
+
+            public Builder mailboxConcurrency(Optional<Integer> mailboxConcurrency) {
+                mailboxConcurrency.ifPresent(this::mailboxConcurrency);
+                return this;
+            }
+
+            public Builder messageConcurrency(int messageConcurrency) {
+                Preconditions.checkArgument(messageConcurrency > 0, "'messageConcurrency' needs to be strictly positive");
+                this.messageConcurrency = Optional.of(messageConcurrency);
+                return this;
+            }
+
+            public Builder messageConcurrency(Optional<Integer> messageConcurrency) {
+                messageConcurrency.ifPresent(this::messageConcurrency);
+                return this;
+            }
+
+            public Builder batchSize(int batchSize) {
+                Preconditions.checkArgument(batchSize > 0, "'batchSize' needs to be strictly positive");
+                this.batchSize = Optional.of(batchSize);
+                return this;
+            }
+
+            public Builder batchSize(Optional<Integer> batchSize) {
+                batchSize.ifPresent(this::batchSize);
+                return this;
+            }
+
+            public RunningOptions build() {
+                return new RunningOptions(messagesPerSecond,
+                    mailboxConcurrency.orElse(DEFAULT_CONCURRENCY),
+                    messageConcurrency.orElse(DEFAULT_CONCURRENCY),
+                    batchSize.orElse(DEFAULT_BATCH_SIZE));
+            }
+        }
+
+        private static final int DEFAULT_CONCURRENCY = 1;
+        private static final int DEFAULT_BATCH_SIZE = 1;
+
+        public static final RunningOptions DEFAULT = builder().build();
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final Optional<Integer> messagesPerSecond;
+        private final int mailboxConcurrency;
+        private final int messageConcurrency;
+        private final int batchSize;
+
+        private RunningOptions(Optional<Integer> messagesPerSecond, int mailboxConcurrency, int messageConcurrency, int batchSize) {
+            this.messagesPerSecond = messagesPerSecond;
+            this.mailboxConcurrency = mailboxConcurrency;
+            this.messageConcurrency = messageConcurrency;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Maximum count of messages re-indexed per second across the whole task. Unthrottled when empty.
+         */
+        public Optional<Integer> getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        /**
+         * Count of mailboxes re-indexed concurrently.
+         */
+        public int getMailboxConcurrency() {
+            return mailboxConcurrency;
+        }
+
+        /**
+         * Count of message batches of a given mailbox re-indexed concurrently.
+         */
+        public int getMessageConcurrency() {
+            return messageConcurrency;
+        }
+
+        /**
+         * Count of messages read and written to the search index at once. 1 disables bulk indexing.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof RunningOptions) {
+                RunningOptions that = (RunningOptions) o;
+
+                return Objects.equals(this.mailboxConcurrency, that.mailboxConcurrency)
+                    && Objects.equals(this.messageConcurrency, that.messageConcurrency)
+                    && Objects.equals(this.batchSize, that.batchSize)
+                    && Objects.equals(this.messagesPerSecond, that.messagesPerSecond);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(messagesPerSecond, mailboxConcurrency, messageConcurrency, batchSize);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("messagesPerSecond", messagesPerSecond)
+                .add("mailboxConcurrency", mailboxConcurrency)
+                .add("messageConcurrency", messageConcurrency)
+                .add("batchSize", batchSize)
+                .toString();
+        }
+    }
+
     Task reIndex(Username username) throws MailboxException;
 
     Task reIndex(MailboxPath path) throws MailboxException;
 
     Task reIndex(MailboxId mailboxId) throws MailboxException;
 
-    Task reIndex() throws MailboxException;
+    default Task reIndex() throws MailboxException {
+        return reIndex(RunningOptions.DEFAULT);
+    }
+
+    Task reIndex(RunningOptions runningOptions) throws MailboxException;
+
+    /**
+     * Resumes a full re-indexing, skipping the given mailboxes, as reported completed by a previous full
+     * re-indexing task.
+     */
+    Task resumeReIndex(Set<MailboxId> completedMailboxes, RunningOptions runningOptions) throws MailboxException;
 
     Task reIndex(MailboxPath path, MessageUid uid) throws MailboxException;
 
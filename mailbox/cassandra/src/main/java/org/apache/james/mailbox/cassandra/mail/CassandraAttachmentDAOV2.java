@@ -45,6 +45,7 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraAttachmentDAOV2 {
@@ -124,6 +125,7 @@ public class CassandraAttachmentDAOV2 {
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insertStatement;
     private final PreparedStatement selectStatement;
+    private final PreparedStatement listBlobsStatement;
 
     @Inject
     public CassandraAttachmentDAOV2(BlobId.Factory blobIdFactory, Session session) {
@@ -132,6 +134,12 @@ public class CassandraAttachmentDAOV2 {
 
         this.selectStatement = prepareSelect(session);
         this.insertStatement = prepareInsert(session);
+        this.listBlobsStatement = prepareListBlobs(session);
+    }
+
+    private PreparedStatement prepareListBlobs(Session session) {
+        return session.prepare(select(BLOB_ID)
+            .from(TABLE_NAME));
     }
 
     private PreparedStatement prepareInsert(Session session) {
@@ -168,4 +176,9 @@ public class CassandraAttachmentDAOV2 {
                 .setString(BLOB_ID, attachment.getBlobId().asString()));
     }
 
+    public Flux<BlobId> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(listBlobsStatement.bind())
+            .map(row -> blobIdFactory.from(row.getString(BLOB_ID)));
+    }
+
 }
@@ -21,6 +21,7 @@ package org.apache.james.mailbox.cassandra.mail;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
@@ -43,9 +44,11 @@ import static org.apache.james.mailbox.cassandra.table.CassandraMessageV2Table.T
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -74,6 +77,8 @@ import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.mail.model.Property;
 import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.util.streams.Limit;
 
 import com.datastax.driver.core.BoundStatement;
@@ -98,7 +103,10 @@ import reactor.util.function.Tuple2;
 
 public class CassandraMessageDAO {
     public static final long DEFAULT_LONG_VALUE = 0L;
+    public static final String READ_QUERIES_METRIC_NAME = "cassandraMessageReadQueries";
+    public static final String READ_MESSAGES_METRIC_NAME = "cassandraMessageReadMessages";
     private static final byte[] EMPTY_BYTE_ARRAY = {};
+    private static final String MESSAGE_IDS = "messageIds";
 
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final CassandraTypesProvider typesProvider;
@@ -112,13 +120,20 @@ public class CassandraMessageDAO {
     private final PreparedStatement selectHeaders;
     private final PreparedStatement selectFields;
     private final PreparedStatement selectBody;
+    private final PreparedStatement selectMetadataBatch;
+    private final PreparedStatement selectHeadersBatch;
+    private final PreparedStatement selectFieldsBatch;
+    private final PreparedStatement selectBodyBatch;
     private final PreparedStatement selectAllMessagesWithAttachment;
+    private final PreparedStatement selectAllBlobIds;
     private final Cid.CidParser cidParser;
+    private final Metric readQueries;
+    private final Metric readMessages;
 
     @Inject
     public CassandraMessageDAO(Session session, CassandraTypesProvider typesProvider, BlobStore blobStore,
             BlobId.Factory blobIdFactory, CassandraConfiguration cassandraConfiguration,
-            CassandraMessageId.Factory messageIdFactory) {
+            CassandraMessageId.Factory messageIdFactory, MetricFactory metricFactory) {
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
         this.typesProvider = typesProvider;
         this.blobStore = blobStore;
@@ -132,14 +147,21 @@ public class CassandraMessageDAO {
         this.selectHeaders = prepareSelect(session, HEADERS);
         this.selectFields = prepareSelect(session, FIELDS);
         this.selectBody = prepareSelect(session, BODY);
+        this.selectMetadataBatch = prepareSelectBatch(session, METADATA);
+        this.selectHeadersBatch = prepareSelectBatch(session, HEADERS);
+        this.selectFieldsBatch = prepareSelectBatch(session, FIELDS);
+        this.selectBodyBatch = prepareSelectBatch(session, BODY);
         this.selectAllMessagesWithAttachment = prepareSelectAllMessagesWithAttachment(session);
+        this.selectAllBlobIds = prepareSelectAllBlobIds(session);
         this.cidParser = Cid.parser().relaxed();
+        this.readQueries = metricFactory.generate(READ_QUERIES_METRIC_NAME);
+        this.readMessages = metricFactory.generate(READ_MESSAGES_METRIC_NAME);
     }
 
     @VisibleForTesting
     public CassandraMessageDAO(Session session, CassandraTypesProvider typesProvider, BlobStore blobStore,
-                               BlobId.Factory blobIdFactory, CassandraMessageId.Factory messageIdFactory) {
-        this(session, typesProvider, blobStore,  blobIdFactory, CassandraConfiguration.DEFAULT_CONFIGURATION, messageIdFactory);
+                               BlobId.Factory blobIdFactory, CassandraMessageId.Factory messageIdFactory, MetricFactory metricFactory) {
+        this(session, typesProvider, blobStore,  blobIdFactory, CassandraConfiguration.DEFAULT_CONFIGURATION, messageIdFactory, metricFactory);
     }
 
     private PreparedStatement prepareSelect(Session session, String[] fields) {
@@ -148,11 +170,22 @@ public class CassandraMessageDAO {
             .where(eq(MESSAGE_ID, bindMarker(MESSAGE_ID))));
     }
 
+    private PreparedStatement prepareSelectBatch(Session session, String[] fields) {
+        return session.prepare(select(fields)
+            .from(TABLE_NAME)
+            .where(in(MESSAGE_ID, bindMarker(MESSAGE_IDS))));
+    }
+
     private PreparedStatement prepareSelectAllMessagesWithAttachment(Session session) {
         return session.prepare(select(MESSAGE_ID, ATTACHMENTS)
             .from(TABLE_NAME));
     }
 
+    private PreparedStatement prepareSelectAllBlobIds(Session session) {
+        return session.prepare(select(HEADER_CONTENT, BODY_CONTENT)
+            .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
             .value(MESSAGE_ID, bindMarker(MESSAGE_ID))
@@ -236,30 +269,67 @@ public class CassandraMessageDAO {
             .collect(Guavate.toImmutableList());
     }
 
+    /**
+     * Messages are read by batches of {@link CassandraConfiguration#getMessageReadBatchSize()} ids, each batch
+     * being loaded with a single IN query. Batches are kept small as each IN query fans out to the replicas of
+     * every partition it targets.
+     */
     public Flux<MessageResult> retrieveMessages(List<ComposedMessageIdWithMetaData> messageIds, FetchType fetchType, Limit limit) {
+        int batchSize = configuration.getMessageReadBatchSize();
+        int batchConcurrency = Math.max(1, configuration.getMessageReadChunkSize() / batchSize);
+
         return Flux.fromStream(limit.applyOnStream(messageIds.stream().distinct()))
+            .buffer(batchSize)
             .publishOn(Schedulers.elastic())
-            .flatMap(id -> retrieveRow(id, fetchType)
-                .flatMap(resultSet -> message(resultSet, id, fetchType)), configuration.getMessageReadChunkSize());
+            .flatMap(batch -> retrieveBatch(batch, fetchType), batchConcurrency)
+            .doOnNext(any -> readMessages.increment());
     }
 
-    private Mono<ResultSet> retrieveRow(ComposedMessageIdWithMetaData messageId, FetchType fetchType) {
-        CassandraMessageId cassandraMessageId = (CassandraMessageId) messageId.getComposedMessageId().getMessageId();
+    private Flux<MessageResult> retrieveBatch(List<ComposedMessageIdWithMetaData> batch, FetchType fetchType) {
+        if (batch.size() == 1) {
+            ComposedMessageIdWithMetaData id = batch.get(0);
+            return retrieveRow(id, fetchType)
+                .flatMap(resultSet -> message(Optional.ofNullable(resultSet.one()), id, fetchType))
+                .flux();
+        }
+
+        return retrieveRows(batch, fetchType)
+            .flatMapMany(rows -> Flux.fromIterable(batch)
+                .flatMap(id -> message(Optional.ofNullable(rows.get(cassandraMessageId(id).get())), id, fetchType), batch.size()));
+    }
 
+    private Mono<ResultSet> retrieveRow(ComposedMessageIdWithMetaData messageId, FetchType fetchType) {
+        readQueries.increment();
         return cassandraAsyncExecutor.execute(retrieveSelect(fetchType)
             .bind()
-            .setUUID(MESSAGE_ID, cassandraMessageId.get()));
+            .setUUID(MESSAGE_ID, cassandraMessageId(messageId).get()));
     }
 
-    private Mono<MessageResult>
-    message(ResultSet rows,ComposedMessageIdWithMetaData messageIdWithMetaData, FetchType fetchType) {
+    private Mono<Map<UUID, Row>> retrieveRows(List<ComposedMessageIdWithMetaData> messageIds, FetchType fetchType) {
+        List<UUID> uuids = messageIds.stream()
+            .map(id -> cassandraMessageId(id).get())
+            .distinct()
+            .collect(Guavate.toImmutableList());
+
+        readQueries.increment();
+        return cassandraAsyncExecutor.executeRows(retrieveBatchSelect(fetchType)
+                .bind()
+                .setList(MESSAGE_IDS, uuids))
+            .collectMap(row -> row.getUUID(MESSAGE_ID));
+    }
+
+    private CassandraMessageId cassandraMessageId(ComposedMessageIdWithMetaData messageId) {
+        return (CassandraMessageId) messageId.getComposedMessageId().getMessageId();
+    }
+
+    private Mono<MessageResult> message(Optional<Row> maybeRow, ComposedMessageIdWithMetaData messageIdWithMetaData, FetchType fetchType) {
         ComposedMessageId messageId = messageIdWithMetaData.getComposedMessageId();
 
-        if (rows.isExhausted()) {
+        if (!maybeRow.isPresent()) {
             return Mono.just(notFound(messageIdWithMetaData));
         }
 
-        Row row = rows.one();
+        Row row = maybeRow.get();
         return buildContentRetriever(fetchType, row).map(content -> {
             MessageWithoutAttachment messageWithoutAttachment =
                 new MessageWithoutAttachment(
@@ -330,6 +400,21 @@ public class CassandraMessageDAO {
         }
     }
 
+    private PreparedStatement retrieveBatchSelect(FetchType fetchType) {
+        switch (fetchType) {
+            case Body:
+                return selectBodyBatch;
+            case Full:
+                return selectFieldsBatch;
+            case Headers:
+                return selectHeadersBatch;
+            case Metadata:
+                return selectMetadataBatch;
+            default:
+                throw new RuntimeException("Unknown FetchType " + fetchType);
+        }
+    }
+
     public Mono<Void> delete(CassandraMessageId messageId) {
         return cassandraAsyncExecutor.executeVoid(delete.bind()
             .setUUID(MESSAGE_ID, messageId.get()));
@@ -406,6 +491,13 @@ public class CassandraMessageDAO {
             .filter(MessageIdAttachmentIds::hasAttachment);
     }
 
+    public Flux<BlobId> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(selectAllBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobIdFactory.from(row.getString(HEADER_CONTENT)),
+                blobIdFactory.from(row.getString(BODY_CONTENT))));
+    }
+
     private MessageIdAttachmentIds fromRow(Row row) {
         MessageId messageId = messageIdFactory.of(row.getUUID(MESSAGE_ID));
         Set<AttachmentId> attachmentIds = attachmentByIds(row.getList(ATTACHMENTS, UDTValue.class))
@@ -27,8 +27,15 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.BODY_START_OCTET;
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.FIELDS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.FULL_CONTENT_OCTETS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.HAS_ATTACHMENT;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.INTERNAL_DATE;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.METADATA_FIELDS;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.PROPERTIES;
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable.TEXTUAL_LINE_COUNT;
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.IMAP_UID;
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MAILBOX_ID;
 import static org.apache.james.mailbox.cassandra.table.CassandraMessageIds.MESSAGE_ID;
@@ -42,26 +49,37 @@ import static org.apache.james.mailbox.cassandra.table.Flag.USER;
 import static org.apache.james.mailbox.cassandra.table.Flag.USER_FLAGS;
 import static org.apache.james.mailbox.cassandra.table.MessageIdToImapUid.MOD_SEQ;
 
+import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
 
+import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
 import org.apache.james.mailbox.cassandra.ids.CassandraMessageId.Factory;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageMetadata.MessageMetadata;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageIdTable;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageV2Table;
+import org.apache.james.mailbox.cassandra.table.CassandraMessageV2Table.Properties;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.mail.model.Property;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.UDTValue;
+import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableSet;
 
 import reactor.core.publisher.Flux;
@@ -73,26 +91,44 @@ public class CassandraMessageIdDAO {
     private static final String IMAP_UID_LTE = IMAP_UID + "_LTE";
 
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final CassandraTypesProvider typesProvider;
     private final Factory messageIdFactory;
     private final PreparedStatement delete;
     private final PreparedStatement insert;
-    private final PreparedStatement select;
-    private final PreparedStatement selectAllUids;
-    private final PreparedStatement selectUidGte;
-    private final PreparedStatement selectUidRange;
+    private final PreparedStatement insertWithMessageMetadata;
+    private final Selects selects;
+    private final Selects metadataSelects;
     private final PreparedStatement update;
 
     @Inject
-    public CassandraMessageIdDAO(Session session, CassandraMessageId.Factory messageIdFactory) {
+    public CassandraMessageIdDAO(Session session, CassandraTypesProvider typesProvider, CassandraMessageId.Factory messageIdFactory) {
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.typesProvider = typesProvider;
         this.messageIdFactory = messageIdFactory;
         this.delete = prepareDelete(session);
         this.insert = prepareInsert(session);
+        this.insertWithMessageMetadata = prepareInsertWithMessageMetadata(session);
         this.update = prepareUpdate(session);
-        this.select = prepareSelect(session);
-        this.selectAllUids = prepareSelectAllUids(session);
-        this.selectUidGte = prepareSelectUidGte(session);
-        this.selectUidRange = prepareSelectUidRange(session);
+        this.selects = new Selects(session, FIELDS);
+        this.metadataSelects = new Selects(session, METADATA_FIELDS);
+    }
+
+    /**
+     * Select statements sharing the same projection: flag only reads use {@link CassandraMessageIdTable#FIELDS}
+     * while only the denormalized metadata path pays for reading {@link CassandraMessageIdTable#METADATA_FIELDS}.
+     */
+    private static class Selects {
+        private final PreparedStatement select;
+        private final PreparedStatement selectAllUids;
+        private final PreparedStatement selectUidGte;
+        private final PreparedStatement selectUidRange;
+
+        Selects(Session session, String[] fields) {
+            this.select = prepareSelect(session, fields);
+            this.selectAllUids = prepareSelectAllUids(session, fields);
+            this.selectUidGte = prepareSelectUidGte(session, fields);
+            this.selectUidRange = prepareSelectUidRange(session, fields);
+        }
     }
 
     private PreparedStatement prepareDelete(Session session) {
@@ -103,7 +139,21 @@ public class CassandraMessageIdDAO {
     }
 
     private PreparedStatement prepareInsert(Session session) {
-        return session.prepare(insertInto(TABLE_NAME)
+        return session.prepare(insertStatement());
+    }
+
+    private PreparedStatement prepareInsertWithMessageMetadata(Session session) {
+        return session.prepare(insertStatement()
+                .value(INTERNAL_DATE, bindMarker(INTERNAL_DATE))
+                .value(BODY_START_OCTET, bindMarker(BODY_START_OCTET))
+                .value(FULL_CONTENT_OCTETS, bindMarker(FULL_CONTENT_OCTETS))
+                .value(TEXTUAL_LINE_COUNT, bindMarker(TEXTUAL_LINE_COUNT))
+                .value(PROPERTIES, bindMarker(PROPERTIES))
+                .value(HAS_ATTACHMENT, bindMarker(HAS_ATTACHMENT)));
+    }
+
+    private Insert insertStatement() {
+        return insertInto(TABLE_NAME)
                 .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
                 .value(IMAP_UID, bindMarker(IMAP_UID))
                 .value(MOD_SEQ, bindMarker(MOD_SEQ))
@@ -115,7 +165,7 @@ public class CassandraMessageIdDAO {
                 .value(RECENT, bindMarker(RECENT))
                 .value(SEEN, bindMarker(SEEN))
                 .value(USER, bindMarker(USER))
-                .value(USER_FLAGS, bindMarker(USER_FLAGS)));
+                .value(USER_FLAGS, bindMarker(USER_FLAGS));
     }
 
     private PreparedStatement prepareUpdate(Session session) {
@@ -133,28 +183,28 @@ public class CassandraMessageIdDAO {
                 .and(eq(IMAP_UID, bindMarker(IMAP_UID))));
     }
 
-    private PreparedStatement prepareSelect(Session session) {
-        return session.prepare(select(FIELDS)
+    private static PreparedStatement prepareSelect(Session session, String[] fields) {
+        return session.prepare(select(fields)
                 .from(TABLE_NAME)
                 .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
                 .and(eq(IMAP_UID, bindMarker(IMAP_UID))));
     }
 
-    private PreparedStatement prepareSelectAllUids(Session session) {
-        return session.prepare(select(FIELDS)
+    private static PreparedStatement prepareSelectAllUids(Session session, String[] fields) {
+        return session.prepare(select(fields)
                 .from(TABLE_NAME)
                 .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
     }
 
-    private PreparedStatement prepareSelectUidGte(Session session) {
-        return session.prepare(select(FIELDS)
+    private static PreparedStatement prepareSelectUidGte(Session session, String[] fields) {
+        return session.prepare(select(fields)
                 .from(TABLE_NAME)
                 .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
                 .and(gte(IMAP_UID, bindMarker(IMAP_UID))));
     }
 
-    private PreparedStatement prepareSelectUidRange(Session session) {
-        return session.prepare(select(FIELDS)
+    private static PreparedStatement prepareSelectUidRange(Session session, String[] fields) {
+        return session.prepare(select(fields)
                 .from(TABLE_NAME)
                 .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
                 .and(gte(IMAP_UID, bindMarker(IMAP_UID_GTE)))
@@ -168,9 +218,26 @@ public class CassandraMessageIdDAO {
     }
 
     public Mono<Void> insert(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
+        return cassandraAsyncExecutor.executeVoid(bindInsert(insert.bind(), composedMessageIdWithMetaData));
+    }
+
+    public Mono<Void> insert(CassandraMessageMetadata metadata) {
+        return metadata.getMessageMetadata()
+            .map(messageMetadata -> cassandraAsyncExecutor.executeVoid(
+                bindInsert(insertWithMessageMetadata.bind(), metadata.getComposedMessageId())
+                    .setTimestamp(INTERNAL_DATE, messageMetadata.getInternalDate())
+                    .setInt(BODY_START_OCTET, messageMetadata.getBodyStartOctet())
+                    .setLong(FULL_CONTENT_OCTETS, messageMetadata.getSize())
+                    .setLong(TEXTUAL_LINE_COUNT, messageMetadata.getTextualLineCount())
+                    .setList(PROPERTIES, buildPropertiesUdt(messageMetadata.getProperties()))
+                    .setBool(HAS_ATTACHMENT, messageMetadata.hasAttachment())))
+            .orElseGet(() -> insert(metadata.getComposedMessageId()));
+    }
+
+    private BoundStatement bindInsert(BoundStatement statement, ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
         ComposedMessageId composedMessageId = composedMessageIdWithMetaData.getComposedMessageId();
         Flags flags = composedMessageIdWithMetaData.getFlags();
-        return cassandraAsyncExecutor.executeVoid(insert.bind()
+        return statement
                 .setUUID(MAILBOX_ID, ((CassandraId) composedMessageId.getMailboxId()).asUuid())
                 .setLong(IMAP_UID, composedMessageId.getUid().asLong())
                 .setUUID(MESSAGE_ID, ((CassandraMessageId) composedMessageId.getMessageId()).get())
@@ -182,7 +249,17 @@ public class CassandraMessageIdDAO {
                 .setBool(RECENT, flags.contains(Flag.RECENT))
                 .setBool(SEEN, flags.contains(Flag.SEEN))
                 .setBool(USER, flags.contains(Flag.USER))
-                .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags())));
+                .setSet(USER_FLAGS, ImmutableSet.copyOf(flags.getUserFlags()));
+    }
+
+    private List<UDTValue> buildPropertiesUdt(List<Property> properties) {
+        return properties.stream()
+            .map(property -> typesProvider.getDefinedUserType(CassandraMessageV2Table.PROPERTIES)
+                .newValue()
+                .setString(Properties.NAMESPACE, property.getNamespace())
+                .setString(Properties.NAME, property.getLocalName())
+                .setString(Properties.VALUE, property.getValue()))
+            .collect(Guavate.toImmutableList());
     }
 
     public Mono<Void> updateMetadata(ComposedMessageIdWithMetaData composedMessageIdWithMetaData) {
@@ -203,7 +280,7 @@ public class CassandraMessageIdDAO {
     }
 
     public Mono<Optional<ComposedMessageIdWithMetaData>> retrieve(CassandraId mailboxId, MessageUid uid) {
-        return asOptionalOfCassandraMessageId(selectOneRow(mailboxId, uid));
+        return asOptionalOfCassandraMessageId(selectOneRow(selects, mailboxId, uid));
     }
 
     private Mono<Optional<ComposedMessageIdWithMetaData>> asOptionalOfCassandraMessageId(Mono<Row> row) {
@@ -213,44 +290,53 @@ public class CassandraMessageIdDAO {
                 .switchIfEmpty(Mono.just(Optional.empty()));
     }
 
-    private Mono<Row> selectOneRow(CassandraId mailboxId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeSingleRow(select.bind()
+    private Mono<Row> selectOneRow(Selects statements, CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeSingleRow(statements.select.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
                 .setLong(IMAP_UID, uid.asLong()));
     }
 
     public Flux<ComposedMessageIdWithMetaData> retrieveMessages(CassandraId mailboxId, MessageRange set) {
-        return retrieveRows(mailboxId, set)
+        return retrieveRows(selects, mailboxId, set)
             .map(this::fromRowToComposedMessageIdWithFlags);
     }
 
-    private Flux<Row> retrieveRows(CassandraId mailboxId, MessageRange set) {
+    /**
+     * Like {@link #retrieveMessages(CassandraId, MessageRange)}, also returning the denormalized message metadata
+     * when the entry carries it.
+     */
+    public Flux<CassandraMessageMetadata> retrieveMessagesMetadata(CassandraId mailboxId, MessageRange set) {
+        return retrieveRows(metadataSelects, mailboxId, set)
+            .map(row -> new CassandraMessageMetadata(fromRowToComposedMessageIdWithFlags(row), messageMetadata(row)));
+    }
+
+    private Flux<Row> retrieveRows(Selects statements, CassandraId mailboxId, MessageRange set) {
         switch (set.getType()) {
         case ALL:
-            return selectAll(mailboxId);
+            return selectAll(statements, mailboxId);
         case FROM:
-            return selectFrom(mailboxId, set.getUidFrom());
+            return selectFrom(statements, mailboxId, set.getUidFrom());
         case RANGE:
-            return selectRange(mailboxId, set.getUidFrom(), set.getUidTo());
+            return selectRange(statements, mailboxId, set.getUidFrom(), set.getUidTo());
         case ONE:
-            return Flux.concat(selectOneRow(mailboxId, set.getUidFrom()));
+            return Flux.concat(selectOneRow(statements, mailboxId, set.getUidFrom()));
         }
         throw new UnsupportedOperationException();
     }
 
-    private Flux<Row> selectAll(CassandraId mailboxId) {
-        return cassandraAsyncExecutor.executeRows(selectAllUids.bind()
+    private Flux<Row> selectAll(Selects statements, CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeRows(statements.selectAllUids.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid()));
     }
 
-    private Flux<Row> selectFrom(CassandraId mailboxId, MessageUid uid) {
-        return cassandraAsyncExecutor.executeRows(selectUidGte.bind()
+    private Flux<Row> selectFrom(Selects statements, CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeRows(statements.selectUidGte.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
                 .setLong(IMAP_UID, uid.asLong()));
     }
 
-    private Flux<Row> selectRange(CassandraId mailboxId, MessageUid from, MessageUid to) {
-        return cassandraAsyncExecutor.executeRows(selectUidRange.bind()
+    private Flux<Row> selectRange(Selects statements, CassandraId mailboxId, MessageUid from, MessageUid to) {
+        return cassandraAsyncExecutor.executeRows(statements.selectUidRange.bind()
                 .setUUID(MAILBOX_ID, mailboxId.asUuid())
                 .setLong(IMAP_UID_GTE, from.asLong())
                 .setLong(IMAP_UID_LTE, to.asLong()));
@@ -266,4 +352,23 @@ public class CassandraMessageIdDAO {
                 .modSeq(ModSeq.of(row.getLong(MOD_SEQ)))
                 .build();
     }
+
+    private Optional<MessageMetadata> messageMetadata(Row row) {
+        if (row.isNull(INTERNAL_DATE)) {
+            return Optional.empty();
+        }
+        return Optional.of(new MessageMetadata(
+            row.getTimestamp(INTERNAL_DATE),
+            row.getLong(FULL_CONTENT_OCTETS),
+            row.getInt(BODY_START_OCTET),
+            row.getLong(TEXTUAL_LINE_COUNT),
+            row.getList(PROPERTIES, UDTValue.class).stream()
+                .map(this::toProperty)
+                .collect(Guavate.toImmutableList()),
+            row.getBool(HAS_ATTACHMENT)));
+    }
+
+    private Property toProperty(UDTValue udtValue) {
+        return new Property(udtValue.getString(Properties.NAMESPACE), udtValue.getString(Properties.NAME), udtValue.getString(Properties.VALUE));
+    }
 }
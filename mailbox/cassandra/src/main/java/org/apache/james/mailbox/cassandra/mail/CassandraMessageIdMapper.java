@@ -128,7 +128,7 @@ public class CassandraMessageIdMapper implements MessageIdMapper {
         messageDAO.save(mailboxMessage)
             .thenMany(Flux.merge(
                 imapUidDAO.insert(composedMessageIdWithMetaData),
-                messageIdDAO.insert(composedMessageIdWithMetaData)))
+                messageIdDAO.insert(CassandraMessageMetadata.from(composedMessageIdWithMetaData, mailboxMessage))))
             .thenEmpty(indexTableHandler.updateIndexOnAdd(mailboxMessage, mailboxId))
             .block();
     }
@@ -140,7 +140,7 @@ public class CassandraMessageIdMapper implements MessageIdMapper {
         ComposedMessageIdWithMetaData composedMessageIdWithMetaData = createMetadataFor(mailboxMessage);
         Flux.merge(
                 imapUidDAO.insert(composedMessageIdWithMetaData),
-                messageIdDAO.insert(composedMessageIdWithMetaData))
+                messageIdDAO.insert(CassandraMessageMetadata.from(composedMessageIdWithMetaData, mailboxMessage)))
             .thenEmpty(indexTableHandler.updateIndexOnAdd(mailboxMessage, mailboxId))
             .block();
     }
@@ -171,6 +171,12 @@ public class CassandraMessageMapper implements MessageMapper {
     @Override
     public Iterator<MailboxMessage> findInMailbox(Mailbox mailbox, MessageRange messageRange, FetchType ftype, int max) {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        if (ftype == FetchType.Metadata) {
+            return retrieveMessagesMetadata(mailboxId, messageRange, Limit.from(max))
+                .sort(Comparator.comparing(MailboxMessage::getUid))
+                .toIterable()
+                .iterator();
+        }
         return retrieveMessages(retrieveMessageIds(mailboxId, messageRange), ftype, Limit.from(max))
             .map(MailboxMessage.class::cast)
             .sort(Comparator.comparing(MailboxMessage::getUid))
@@ -178,6 +184,33 @@ public class CassandraMessageMapper implements MessageMapper {
             .iterator();
     }
 
+    /**
+     * Metadata is served from the messageIdTable entries carrying it, without reading the messageV2 table: the
+     * messageIdTable is authoritative for the content of a mailbox. Entries written before this denormalization
+     * fall back to a messageV2 read.
+     */
+    private Flux<MailboxMessage> retrieveMessagesMetadata(CassandraId mailboxId, MessageRange messageRange, Limit limit) {
+        List<CassandraMessageMetadata> entries = limit.applyOnStream(
+                messageIdDAO.retrieveMessagesMetadata(mailboxId, messageRange)
+                    .collect(Guavate.toImmutableList())
+                    .block()
+                    .stream())
+            .collect(Guavate.toImmutableList());
+
+        Flux<MailboxMessage> denormalized = Flux.fromIterable(entries)
+            .flatMapIterable(entry -> OptionalUtils.toList(entry.asMessageWithoutContent()))
+            .map(message -> message.toMailboxMessage(ImmutableList.of()));
+
+        List<ComposedMessageIdWithMetaData> legacyEntries = entries.stream()
+            .filter(entry -> !entry.getMessageMetadata().isPresent())
+            .map(CassandraMessageMetadata::getComposedMessageId)
+            .collect(Guavate.toImmutableList());
+        if (legacyEntries.isEmpty()) {
+            return denormalized;
+        }
+        return Flux.concat(denormalized, retrieveMessages(legacyEntries, FetchType.Metadata, Limit.unlimited()));
+    }
+
     private List<ComposedMessageIdWithMetaData> retrieveMessageIds(CassandraId mailboxId, MessageRange messageRange) {
         return messageIdDAO.retrieveMessages(mailboxId, messageRange)
             .collect(Guavate.toImmutableList())
@@ -404,7 +437,7 @@ public class CassandraMessageMapper implements MessageMapper {
                 .modSeq(message.getModSeq())
                 .build();
         return Flux.merge(
-                messageIdDAO.insert(composedMessageIdWithMetaData),
+                messageIdDAO.insert(CassandraMessageMetadata.from(composedMessageIdWithMetaData, message)),
                 imapUidDAO.insert(composedMessageIdWithMetaData))
             .then();
     }
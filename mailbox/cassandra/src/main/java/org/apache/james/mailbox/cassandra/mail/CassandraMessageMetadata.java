@@ -0,0 +1,194 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.Property;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Entry of the messageIdTable.
+ *
+ * Besides the UID, MODSEQ and flags, an entry can hold a copy of the immutable message metadata (internal date, sizes,
+ * properties) allowing {@link org.apache.james.mailbox.store.mail.MessageMapper.FetchType#Metadata} reads to be served
+ * without reading the messageV2 table. Entries written before this denormalization do not carry it.
+ */
+public class CassandraMessageMetadata {
+    private static final byte[] EMPTY_BYTE_ARRAY = {};
+
+    public static class MessageMetadata {
+        public static MessageMetadata from(MailboxMessage message) {
+            return new MessageMetadata(message.getInternalDate(),
+                message.getFullContentOctets(),
+                (int) message.getHeaderOctets(),
+                Optional.ofNullable(message.getTextualLineCount()).orElse(CassandraMessageDAO.DEFAULT_LONG_VALUE),
+                message.getProperties(),
+                message.hasAttachment());
+        }
+
+        private final Date internalDate;
+        private final long size;
+        private final int bodyStartOctet;
+        private final long textualLineCount;
+        private final List<Property> properties;
+        private final boolean hasAttachment;
+
+        public MessageMetadata(Date internalDate, long size, int bodyStartOctet, long textualLineCount, List<Property> properties, boolean hasAttachment) {
+            this.internalDate = internalDate;
+            this.size = size;
+            this.bodyStartOctet = bodyStartOctet;
+            this.textualLineCount = textualLineCount;
+            this.properties = ImmutableList.copyOf(properties);
+            this.hasAttachment = hasAttachment;
+        }
+
+        public Date getInternalDate() {
+            return internalDate;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public int getBodyStartOctet() {
+            return bodyStartOctet;
+        }
+
+        public long getTextualLineCount() {
+            return textualLineCount;
+        }
+
+        public List<Property> getProperties() {
+            return properties;
+        }
+
+        public boolean hasAttachment() {
+            return hasAttachment;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof MessageMetadata) {
+                MessageMetadata that = (MessageMetadata) o;
+
+                return Objects.equals(this.size, that.size)
+                    && Objects.equals(this.bodyStartOctet, that.bodyStartOctet)
+                    && Objects.equals(this.textualLineCount, that.textualLineCount)
+                    && Objects.equals(this.hasAttachment, that.hasAttachment)
+                    && Objects.equals(this.internalDate, that.internalDate)
+                    && Objects.equals(this.properties, that.properties);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(internalDate, size, bodyStartOctet, textualLineCount, properties, hasAttachment);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("internalDate", internalDate)
+                .add("size", size)
+                .add("bodyStartOctet", bodyStartOctet)
+                .add("textualLineCount", textualLineCount)
+                .add("properties", properties)
+                .add("hasAttachment", hasAttachment)
+                .toString();
+        }
+    }
+
+    public static CassandraMessageMetadata from(ComposedMessageIdWithMetaData composedMessageId, MailboxMessage message) {
+        return new CassandraMessageMetadata(composedMessageId, Optional.of(MessageMetadata.from(message)));
+    }
+
+    private final ComposedMessageIdWithMetaData composedMessageId;
+    private final Optional<MessageMetadata> messageMetadata;
+
+    public CassandraMessageMetadata(ComposedMessageIdWithMetaData composedMessageId, Optional<MessageMetadata> messageMetadata) {
+        this.composedMessageId = composedMessageId;
+        this.messageMetadata = messageMetadata;
+    }
+
+    public ComposedMessageIdWithMetaData getComposedMessageId() {
+        return composedMessageId;
+    }
+
+    public Optional<MessageMetadata> getMessageMetadata() {
+        return messageMetadata;
+    }
+
+    public Optional<MessageWithoutAttachment> asMessageWithoutContent() {
+        ComposedMessageId messageId = composedMessageId.getComposedMessageId();
+        return messageMetadata.map(metadata -> {
+            PropertyBuilder propertyBuilder = new PropertyBuilder(metadata.getProperties());
+            propertyBuilder.setTextualLineCount(metadata.getTextualLineCount());
+            return new MessageWithoutAttachment(
+                messageId.getMessageId(),
+                metadata.getInternalDate(),
+                metadata.getSize(),
+                metadata.getBodyStartOctet(),
+                new SharedByteArrayInputStream(EMPTY_BYTE_ARRAY),
+                composedMessageId.getFlags(),
+                propertyBuilder,
+                messageId.getMailboxId(),
+                messageId.getUid(),
+                composedMessageId.getModSeq(),
+                metadata.hasAttachment());
+        });
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof CassandraMessageMetadata) {
+            CassandraMessageMetadata that = (CassandraMessageMetadata) o;
+
+            return Objects.equals(this.composedMessageId, that.composedMessageId)
+                && Objects.equals(this.messageMetadata, that.messageMetadata);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(composedMessageId, messageMetadata);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("composedMessageId", composedMessageId)
+            .add("messageMetadata", messageMetadata)
+            .toString();
+    }
+}
@@ -43,7 +43,8 @@ public interface CassandraMessageModule {
 
     CassandraModule MODULE = CassandraModule.builder()
         .table(CassandraMessageIdTable.TABLE_NAME)
-        .comment("Holds mailbox and flags for each message, lookup by mailbox ID + UID")
+        .comment("Holds mailbox and flags for each message, lookup by mailbox ID + UID. Also denormalizes immutable message " +
+            "metadata in order to serve metadata reads without reading the `messageV2` table.")
         .options(options -> options
             .compactionOptions(SchemaBuilder.leveledStrategy())
             .caching(SchemaBuilder.KeyCaching.ALL,
@@ -60,7 +61,13 @@ public interface CassandraMessageModule {
             .addColumn(Flag.RECENT, cboolean())
             .addColumn(Flag.SEEN, cboolean())
             .addColumn(Flag.USER, cboolean())
-            .addColumn(Flag.USER_FLAGS, set(text())))
+            .addColumn(Flag.USER_FLAGS, set(text()))
+            .addColumn(CassandraMessageIdTable.INTERNAL_DATE, timestamp())
+            .addColumn(CassandraMessageIdTable.BODY_START_OCTET, cint())
+            .addColumn(CassandraMessageIdTable.FULL_CONTENT_OCTETS, bigint())
+            .addColumn(CassandraMessageIdTable.TEXTUAL_LINE_COUNT, bigint())
+            .addUDTListColumn(CassandraMessageIdTable.PROPERTIES, SchemaBuilder.frozen(CassandraMessageV2Table.PROPERTIES))
+            .addColumn(CassandraMessageIdTable.HAS_ATTACHMENT, cboolean()))
         .table(MessageIdToImapUid.TABLE_NAME)
         .comment("Holds mailbox and flags for each message, lookup by message ID")
         .options(options -> options
@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.modules;
+
+import static com.datastax.driver.core.DataType.bigint;
+import static com.datastax.driver.core.DataType.cboolean;
+import static com.datastax.driver.core.DataType.set;
+import static com.datastax.driver.core.DataType.text;
+import static com.datastax.driver.core.DataType.timestamp;
+import static com.datastax.driver.core.DataType.timeuuid;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchFlagTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchHeaderTrigramTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchInternalDateTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchMessageMetadataTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchMessageTrigramsTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchSizeTable;
+
+import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+
+public interface CassandraSearchModule {
+    CassandraModule MODULE = CassandraModule.builder()
+        .table(CassandraSearchHeaderTrigramTable.TABLE_NAME)
+        .comment("Inverted index of the trigrams of the From, To, Cc, Bcc and Subject headers of the messages of a " +
+            "mailbox. Allows to restrict IMAP SEARCH header criteria to the messages holding all the searched trigrams.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy())
+            .clusteringOrder(CassandraSearchHeaderTrigramTable.UID, SchemaBuilder.Direction.ASC))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraSearchHeaderTrigramTable.MAILBOX_ID, timeuuid())
+            .addPartitionKey(CassandraSearchHeaderTrigramTable.FIELD, text())
+            .addPartitionKey(CassandraSearchHeaderTrigramTable.TRIGRAM, text())
+            .addClusteringColumn(CassandraSearchHeaderTrigramTable.UID, bigint()))
+        .table(CassandraSearchMessageTrigramsTable.TABLE_NAME)
+        .comment("Holds the header trigrams indexed for each message. Allows to clean up the searchHeaderTrigram " +
+            "table once the message is expunged or its mailbox deleted.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraSearchMessageTrigramsTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraSearchMessageTrigramsTable.UID, bigint())
+            .addColumn(CassandraSearchMessageTrigramsTable.TRIGRAMS, set(text())))
+        .table(CassandraSearchFlagTable.TABLE_NAME)
+        .comment("Messages of a mailbox by flag. System flags are indexed whether they are set or not, user flags only " +
+            "when they are set. Allows to answer IMAP SEARCH flag criteria, UNSEEN included, without reading the messages.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy())
+            .clusteringOrder(CassandraSearchFlagTable.UID, SchemaBuilder.Direction.ASC))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraSearchFlagTable.MAILBOX_ID, timeuuid())
+            .addPartitionKey(CassandraSearchFlagTable.FLAG, text())
+            .addPartitionKey(CassandraSearchFlagTable.IS_SET, cboolean())
+            .addClusteringColumn(CassandraSearchFlagTable.UID, bigint()))
+        .table(CassandraSearchInternalDateTable.TABLE_NAME)
+        .comment("Messages of a mailbox clustered by internal date. Allows to answer IMAP SEARCH SINCE, BEFORE and ON " +
+            "criteria with a slice query.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraSearchInternalDateTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraSearchInternalDateTable.INTERNAL_DATE, timestamp())
+            .addClusteringColumn(CassandraSearchInternalDateTable.UID, bigint()))
+        .table(CassandraSearchSizeTable.TABLE_NAME)
+        .comment("Messages of a mailbox clustered by size. Allows to answer IMAP SEARCH LARGER and SMALLER criteria " +
+            "with a slice query.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraSearchSizeTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraSearchSizeTable.SIZE, bigint())
+            .addClusteringColumn(CassandraSearchSizeTable.UID, bigint()))
+        .table(CassandraSearchMessageMetadataTable.TABLE_NAME)
+        .comment("Holds the flags, internal date and size indexed for each message. Allows to clean up the searchFlag, " +
+            "searchInternalDate and searchSize tables once the message is expunged or its mailbox deleted.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy()))
+        .statement(statement -> statement
+            .addPartitionKey(CassandraSearchMessageMetadataTable.MAILBOX_ID, timeuuid())
+            .addClusteringColumn(CassandraSearchMessageMetadataTable.UID, bigint())
+            .addColumn(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS, set(text()))
+            .addColumn(CassandraSearchMessageMetadataTable.USER_FLAGS, set(text()))
+            .addColumn(CassandraSearchMessageMetadataTable.INTERNAL_DATE, timestamp())
+            .addColumn(CassandraSearchMessageMetadataTable.SIZE, bigint()))
+        .build();
+}
@@ -0,0 +1,184 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchHeaderTrigramTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchMessageTrigramsTable;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class CassandraHeaderTrigramDAO {
+    private static final int CONCURRENCY = 8;
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insertTrigram;
+    private final PreparedStatement deleteTrigram;
+    private final PreparedStatement selectUids;
+    private final PreparedStatement insertMessageTrigrams;
+    private final PreparedStatement deleteMessageTrigrams;
+    private final PreparedStatement selectMessageTrigrams;
+    private final PreparedStatement selectIndexedUids;
+
+    @Inject
+    public CassandraHeaderTrigramDAO(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.insertTrigram = prepareInsertTrigram(session);
+        this.deleteTrigram = prepareDeleteTrigram(session);
+        this.selectUids = prepareSelectUids(session);
+        this.insertMessageTrigrams = prepareInsertMessageTrigrams(session);
+        this.deleteMessageTrigrams = prepareDeleteMessageTrigrams(session);
+        this.selectMessageTrigrams = prepareSelectMessageTrigrams(session);
+        this.selectIndexedUids = prepareSelectIndexedUids(session);
+    }
+
+    private PreparedStatement prepareInsertTrigram(Session session) {
+        return session.prepare(insertInto(CassandraSearchHeaderTrigramTable.TABLE_NAME)
+            .value(CassandraSearchHeaderTrigramTable.MAILBOX_ID, bindMarker(CassandraSearchHeaderTrigramTable.MAILBOX_ID))
+            .value(CassandraSearchHeaderTrigramTable.FIELD, bindMarker(CassandraSearchHeaderTrigramTable.FIELD))
+            .value(CassandraSearchHeaderTrigramTable.TRIGRAM, bindMarker(CassandraSearchHeaderTrigramTable.TRIGRAM))
+            .value(CassandraSearchHeaderTrigramTable.UID, bindMarker(CassandraSearchHeaderTrigramTable.UID)));
+    }
+
+    private PreparedStatement prepareDeleteTrigram(Session session) {
+        return session.prepare(QueryBuilder.delete()
+            .from(CassandraSearchHeaderTrigramTable.TABLE_NAME)
+            .where(eq(CassandraSearchHeaderTrigramTable.MAILBOX_ID, bindMarker(CassandraSearchHeaderTrigramTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchHeaderTrigramTable.FIELD, bindMarker(CassandraSearchHeaderTrigramTable.FIELD)))
+            .and(eq(CassandraSearchHeaderTrigramTable.TRIGRAM, bindMarker(CassandraSearchHeaderTrigramTable.TRIGRAM)))
+            .and(eq(CassandraSearchHeaderTrigramTable.UID, bindMarker(CassandraSearchHeaderTrigramTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectUids(Session session) {
+        return session.prepare(select(CassandraSearchHeaderTrigramTable.UID)
+            .from(CassandraSearchHeaderTrigramTable.TABLE_NAME)
+            .where(eq(CassandraSearchHeaderTrigramTable.MAILBOX_ID, bindMarker(CassandraSearchHeaderTrigramTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchHeaderTrigramTable.FIELD, bindMarker(CassandraSearchHeaderTrigramTable.FIELD)))
+            .and(eq(CassandraSearchHeaderTrigramTable.TRIGRAM, bindMarker(CassandraSearchHeaderTrigramTable.TRIGRAM))));
+    }
+
+    private PreparedStatement prepareInsertMessageTrigrams(Session session) {
+        return session.prepare(insertInto(CassandraSearchMessageTrigramsTable.TABLE_NAME)
+            .value(CassandraSearchMessageTrigramsTable.MAILBOX_ID, bindMarker(CassandraSearchMessageTrigramsTable.MAILBOX_ID))
+            .value(CassandraSearchMessageTrigramsTable.UID, bindMarker(CassandraSearchMessageTrigramsTable.UID))
+            .value(CassandraSearchMessageTrigramsTable.TRIGRAMS, bindMarker(CassandraSearchMessageTrigramsTable.TRIGRAMS)));
+    }
+
+    private PreparedStatement prepareDeleteMessageTrigrams(Session session) {
+        return session.prepare(QueryBuilder.delete()
+            .from(CassandraSearchMessageTrigramsTable.TABLE_NAME)
+            .where(eq(CassandraSearchMessageTrigramsTable.MAILBOX_ID, bindMarker(CassandraSearchMessageTrigramsTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchMessageTrigramsTable.UID, bindMarker(CassandraSearchMessageTrigramsTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectMessageTrigrams(Session session) {
+        return session.prepare(select(CassandraSearchMessageTrigramsTable.TRIGRAMS)
+            .from(CassandraSearchMessageTrigramsTable.TABLE_NAME)
+            .where(eq(CassandraSearchMessageTrigramsTable.MAILBOX_ID, bindMarker(CassandraSearchMessageTrigramsTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchMessageTrigramsTable.UID, bindMarker(CassandraSearchMessageTrigramsTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectIndexedUids(Session session) {
+        return session.prepare(select(CassandraSearchMessageTrigramsTable.UID)
+            .from(CassandraSearchMessageTrigramsTable.TABLE_NAME)
+            .where(eq(CassandraSearchMessageTrigramsTable.MAILBOX_ID, bindMarker(CassandraSearchMessageTrigramsTable.MAILBOX_ID))));
+    }
+
+    /**
+     * The trigrams of the message are recorded before being indexed so that a partially indexed message can still be
+     * cleaned up.
+     */
+    public Mono<Void> index(CassandraId mailboxId, MessageUid uid, Set<HeaderTrigram> trigrams) {
+        return cassandraAsyncExecutor.executeVoid(insertMessageTrigrams.bind()
+                .setUUID(CassandraSearchMessageTrigramsTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageTrigramsTable.UID, uid.asLong())
+                .setSet(CassandraSearchMessageTrigramsTable.TRIGRAMS, trigrams.stream()
+                    .map(HeaderTrigram::serialize)
+                    .collect(Guavate.toImmutableSet())))
+            .thenMany(Flux.fromIterable(trigrams)
+                .flatMap(trigram -> insertTrigram(mailboxId, uid, trigram), CONCURRENCY))
+            .then();
+    }
+
+    private Mono<Void> insertTrigram(CassandraId mailboxId, MessageUid uid, HeaderTrigram trigram) {
+        return cassandraAsyncExecutor.executeVoid(insertTrigram.bind()
+            .setUUID(CassandraSearchHeaderTrigramTable.MAILBOX_ID, mailboxId.asUuid())
+            .setString(CassandraSearchHeaderTrigramTable.FIELD, trigram.getField())
+            .setString(CassandraSearchHeaderTrigramTable.TRIGRAM, trigram.getTrigram())
+            .setLong(CassandraSearchHeaderTrigramTable.UID, uid.asLong()));
+    }
+
+    public Flux<MessageUid> retrieveUids(CassandraId mailboxId, HeaderTrigram trigram) {
+        return cassandraAsyncExecutor.executeRows(selectUids.bind()
+                .setUUID(CassandraSearchHeaderTrigramTable.MAILBOX_ID, mailboxId.asUuid())
+                .setString(CassandraSearchHeaderTrigramTable.FIELD, trigram.getField())
+                .setString(CassandraSearchHeaderTrigramTable.TRIGRAM, trigram.getTrigram()))
+            .map(row -> MessageUid.of(row.getLong(CassandraSearchHeaderTrigramTable.UID)));
+    }
+
+    public Flux<MessageUid> retrieveIndexedUids(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeRows(selectIndexedUids.bind()
+                .setUUID(CassandraSearchMessageTrigramsTable.MAILBOX_ID, mailboxId.asUuid()))
+            .map(row -> MessageUid.of(row.getLong(CassandraSearchMessageTrigramsTable.UID)));
+    }
+
+    public Mono<Void> delete(CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeRows(selectMessageTrigrams.bind()
+                .setUUID(CassandraSearchMessageTrigramsTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageTrigramsTable.UID, uid.asLong()))
+            .flatMapIterable(row -> row.getSet(CassandraSearchMessageTrigramsTable.TRIGRAMS, String.class))
+            .map(HeaderTrigram::parse)
+            .flatMap(trigram -> deleteTrigram(mailboxId, uid, trigram), CONCURRENCY)
+            .then(cassandraAsyncExecutor.executeVoid(deleteMessageTrigrams.bind()
+                .setUUID(CassandraSearchMessageTrigramsTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageTrigramsTable.UID, uid.asLong())));
+    }
+
+    private Mono<Void> deleteTrigram(CassandraId mailboxId, MessageUid uid, HeaderTrigram trigram) {
+        return cassandraAsyncExecutor.executeVoid(deleteTrigram.bind()
+            .setUUID(CassandraSearchHeaderTrigramTable.MAILBOX_ID, mailboxId.asUuid())
+            .setString(CassandraSearchHeaderTrigramTable.FIELD, trigram.getField())
+            .setString(CassandraSearchHeaderTrigramTable.TRIGRAM, trigram.getTrigram())
+            .setLong(CassandraSearchHeaderTrigramTable.UID, uid.asLong()));
+    }
+
+    public Mono<Void> deleteAll(CassandraId mailboxId) {
+        return retrieveIndexedUids(mailboxId)
+            .concatMap(uid -> delete(mailboxId, uid))
+            .then();
+    }
+}
@@ -0,0 +1,409 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.apache.james.mailbox.MailboxManager.MessageCapabilities;
+import org.apache.james.mailbox.MailboxManager.SearchCapabilities;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.SessionProvider;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageIdDAO;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageMetadata;
+import org.apache.james.mailbox.events.Group;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.Mailbox;
+import org.apache.james.mailbox.model.MailboxId;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.ConjunctionCriterion;
+import org.apache.james.mailbox.model.SearchQuery.Criterion;
+import org.apache.james.mailbox.model.SearchQuery.CustomFlagCriterion;
+import org.apache.james.mailbox.model.SearchQuery.FlagCriterion;
+import org.apache.james.mailbox.model.SearchQuery.HeaderCriterion;
+import org.apache.james.mailbox.model.SearchQuery.InternalDateCriterion;
+import org.apache.james.mailbox.model.SearchQuery.SizeCriterion;
+import org.apache.james.mailbox.model.UpdatedFlags;
+import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MessageSearchPlan;
+import org.apache.james.mailbox.store.search.MessageSearches;
+import org.apache.james.mailbox.store.search.SearchUtil;
+import org.apache.james.util.OptionalUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link ListeningMessageSearchIndex} relying only on Cassandra.
+ *
+ * From, To, Cc, Bcc and Subject criteria are answered by a trigram inverted index, restricting the messages to read
+ * to the ones holding all the searched trigrams. Flags criteria are answered by a per mailbox flag index, internal date
+ * and size criteria by per mailbox tables clustered by internal date and by size.
+ *
+ * The metadata of these candidates is read from the messageIdTable, against which Flags, UID, MODSEQ, internal date,
+ * size and attachment criteria are evaluated without reading the messages. Only the remaining candidates are then read
+ * (headers only unless a text criterion is involved) and matched by {@link MessageSearches}, which keeps the semantic
+ * of {@link org.apache.james.mailbox.store.search.SimpleMessageSearchIndex}.
+ *
+ * A query none of whose criteria is indexed, for instance a UID or a body criterion alone, reads the metadata of the
+ * whole mailbox from the messageIdTable.
+ */
+public class CassandraMessageSearchIndex extends ListeningMessageSearchIndex {
+    public static class CassandraMessageSearchIndexGroup extends Group {
+
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CassandraMessageSearchIndex.class);
+    private static final Group GROUP = new CassandraMessageSearchIndexGroup();
+
+    private final MailboxSessionMapperFactory factory;
+    private final CassandraHeaderTrigramDAO headerTrigramDAO;
+    private final CassandraSearchMetadataDAO searchMetadataDAO;
+    private final CassandraMessageIdDAO messageIdDAO;
+    private final TextExtractor textExtractor;
+
+    @Inject
+    public CassandraMessageSearchIndex(MailboxSessionMapperFactory factory, SessionProvider sessionProvider,
+                                       CassandraHeaderTrigramDAO headerTrigramDAO, CassandraSearchMetadataDAO searchMetadataDAO,
+                                       CassandraMessageIdDAO messageIdDAO, TextExtractor textExtractor) {
+        super(factory, sessionProvider);
+        this.factory = factory;
+        this.headerTrigramDAO = headerTrigramDAO;
+        this.searchMetadataDAO = searchMetadataDAO;
+        this.messageIdDAO = messageIdDAO;
+        this.textExtractor = textExtractor;
+    }
+
+    @Override
+    public Group getDefaultGroup() {
+        return GROUP;
+    }
+
+    @Override
+    public EnumSet<SearchCapabilities> getSupportedCapabilities(EnumSet<MessageCapabilities> messageCapabilities) {
+        return EnumSet.of(SearchCapabilities.MultimailboxSearch,
+            SearchCapabilities.Text,
+            SearchCapabilities.Attachment,
+            SearchCapabilities.PartialEmailMatch,
+            SearchCapabilities.AttachmentFileName);
+    }
+
+    @Override
+    public Stream<MessageUid> search(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery) throws MailboxException {
+        Preconditions.checkArgument(session != null, "'session' is mandatory");
+
+        return searchResults(session, mailbox, searchQuery)
+            .stream()
+            .map(SearchResult::getMessageUid);
+    }
+
+    @Override
+    public List<MessageId> search(MailboxSession session, Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
+        Preconditions.checkArgument(session != null, "'session' is mandatory");
+
+        return mailboxIds.stream()
+            .map(Throwing.function(factory.getMailboxMapper(session)::findMailboxById).sneakyThrow())
+            .flatMap(Throwing.<Mailbox, Stream<SearchResult>>function(mailbox -> searchResults(session, mailbox, searchQuery).stream()).sneakyThrow())
+            .map(searchResult -> searchResult.getMessageId().get())
+            .filter(SearchUtil.distinct())
+            .limit(limit)
+            .collect(Guavate.toImmutableList());
+    }
+
+    private List<SearchResult> searchResults(MailboxSession session, Mailbox mailbox, SearchQuery query) throws MailboxException {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        MessageSearchPlan plan = MessageSearchPlan.of(query, textExtractor);
+
+        ImmutableList.Builder<MailboxMessage> matchingMetadata = ImmutableList.builder();
+        ImmutableList.Builder<MessageUid> candidates = ImmutableList.builder();
+        for (CassandraMessageMetadata metadata : retrieveMetadata(mailboxId, query).toIterable()) {
+            Optional<MailboxMessage> message = metadata.asMessageWithoutContent()
+                .map(messageWithoutContent -> messageWithoutContent.toMailboxMessage(ImmutableList.of()));
+            if (!message.isPresent()) {
+                candidates.add(metadata.getComposedMessageId().getComposedMessageId().getUid());
+            } else if (plan.matchesMetadataCriteria(message.get())) {
+                if (plan.isMetadataOnly()) {
+                    matchingMetadata.add(message.get());
+                } else {
+                    candidates.add(message.get().getUid());
+                }
+            }
+        }
+
+        List<MailboxMessage> messages = ImmutableList.<MailboxMessage>builder()
+            .addAll(matchingMetadata.build())
+            .addAll(retrieveMessages(session, mailbox, candidates.build(), plan.candidatesFetchType()))
+            .build()
+            .stream()
+            .sorted()
+            .collect(Guavate.toImmutableList());
+        return ImmutableList.copyOf(new MessageSearches(messages.iterator(), query, textExtractor).iterator());
+    }
+
+    private Flux<CassandraMessageMetadata> retrieveMetadata(CassandraId mailboxId, SearchQuery query) {
+        return indexedCandidates(mailboxId, SearchQuery.and(query.getCriterias()))
+            .map(uids -> Flux.fromIterable(MessageRange.toRanges(uids))
+                .concatMap(range -> messageIdDAO.retrieveMessagesMetadata(mailboxId, range)))
+            .orElseGet(() -> scanMetadata(mailboxId));
+    }
+
+    private Flux<CassandraMessageMetadata> scanMetadata(CassandraId mailboxId) {
+        LOGGER.debug("No indexed criterion, scanning the metadata of mailbox {}", mailboxId.serialize());
+        return messageIdDAO.retrieveMessagesMetadata(mailboxId, MessageRange.all());
+    }
+
+    /**
+     * @return a superset of the UIDs matching the criterion, or empty if the criterion can not be answered by the
+     * indexes
+     */
+    private Optional<Set<MessageUid>> indexedCandidates(CassandraId mailboxId, Criterion criterion) {
+        if (criterion instanceof HeaderCriterion) {
+            return headerCandidates(mailboxId, (HeaderCriterion) criterion);
+        }
+        if (criterion instanceof FlagCriterion) {
+            return flagCandidates(mailboxId, (FlagCriterion) criterion);
+        }
+        if (criterion instanceof CustomFlagCriterion) {
+            return customFlagCandidates(mailboxId, (CustomFlagCriterion) criterion);
+        }
+        if (criterion instanceof InternalDateCriterion) {
+            return internalDateCandidates(mailboxId, ((InternalDateCriterion) criterion).getOperator())
+                .map(this::collect);
+        }
+        if (criterion instanceof SizeCriterion) {
+            return sizeCandidates(mailboxId, ((SizeCriterion) criterion).getOperator())
+                .map(this::collect);
+        }
+        if (criterion instanceof ConjunctionCriterion) {
+            return indexedCandidates(mailboxId, (ConjunctionCriterion) criterion);
+        }
+        return Optional.empty();
+    }
+
+    private Set<MessageUid> collect(Flux<MessageUid> uids) {
+        return uids.collect(Guavate.toImmutableSet())
+            .block();
+    }
+
+    /**
+     * Recent is not stored with the message flags, it is thus not indexed.
+     */
+    private Optional<Set<MessageUid>> flagCandidates(CassandraId mailboxId, FlagCriterion criterion) {
+        if (!CassandraSearchMetadataDAO.isIndexed(criterion.getFlag())) {
+            return Optional.empty();
+        }
+        return Optional.of(collect(searchMetadataDAO.retrieveUids(mailboxId, criterion.getFlag(), criterion.getOperator().isSet())));
+    }
+
+    /**
+     * User flags are only indexed when set, the messages lacking a user flag can not be looked up.
+     */
+    private Optional<Set<MessageUid>> customFlagCandidates(CassandraId mailboxId, CustomFlagCriterion criterion) {
+        if (!criterion.getOperator().isSet()) {
+            return Optional.empty();
+        }
+        return Optional.of(collect(searchMetadataDAO.retrieveUids(mailboxId, criterion.getFlag())));
+    }
+
+    /**
+     * The slice is widened to whole days, as {@link MessageSearches} compares dates with a day or coarser precision
+     * consistently but not finer ones. Candidates are then matched exactly by {@link MessageSearches}.
+     */
+    private Optional<Flux<MessageUid>> internalDateCandidates(CassandraId mailboxId, SearchQuery.DateOperator operator) {
+        ZonedDateTime start = truncate(operator.getDate(), operator.getDateResultion());
+        Optional<Date> lowerBound = Optional.of(Date.from(start.toInstant()));
+        Optional<Date> upperBound = Optional.of(Date.from(next(start, operator.getDateResultion()).toInstant()));
+        switch (operator.getType()) {
+        case ON:
+            return Optional.of(searchMetadataDAO.retrieveUidsByInternalDate(mailboxId, lowerBound, upperBound));
+        case BEFORE:
+            return Optional.of(searchMetadataDAO.retrieveUidsByInternalDate(mailboxId, Optional.empty(), upperBound));
+        case AFTER:
+            return Optional.of(searchMetadataDAO.retrieveUidsByInternalDate(mailboxId, lowerBound, Optional.empty()));
+        default:
+            return Optional.empty();
+        }
+    }
+
+    private ZonedDateTime truncate(Date date, SearchQuery.DateResolution resolution) {
+        ZonedDateTime day = date.toInstant().atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        switch (resolution) {
+        case Year:
+            return day.withDayOfYear(1);
+        case Month:
+            return day.withDayOfMonth(1);
+        default:
+            return day;
+        }
+    }
+
+    private ZonedDateTime next(ZonedDateTime start, SearchQuery.DateResolution resolution) {
+        switch (resolution) {
+        case Year:
+            return start.plusYears(1);
+        case Month:
+            return start.plusMonths(1);
+        default:
+            return start.plusDays(1);
+        }
+    }
+
+    private Optional<Flux<MessageUid>> sizeCandidates(CassandraId mailboxId, SearchQuery.NumericOperator operator) {
+        long value = operator.getValue();
+        switch (operator.getType()) {
+        case LESS_THAN:
+            return Optional.of(searchMetadataDAO.retrieveUidsBySize(mailboxId, Long.MIN_VALUE, value - 1));
+        case GREATER_THAN:
+            return Optional.of(searchMetadataDAO.retrieveUidsBySize(mailboxId, value + 1, Long.MAX_VALUE));
+        case EQUALS:
+            return Optional.of(searchMetadataDAO.retrieveUidsBySize(mailboxId, value, value));
+        default:
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Set<MessageUid>> headerCandidates(CassandraId mailboxId, HeaderCriterion criterion) {
+        Optional<String> searchedValue = searchedValue(criterion.getOperator());
+        return HeaderTrigrams.indexedField(criterion.getHeaderName())
+            .flatMap(field -> searchedValue
+                .map(HeaderTrigrams::trigrams)
+                .filter(trigrams -> !trigrams.isEmpty())
+                .map(trigrams -> trigrams.stream()
+                    .map(trigram -> HeaderTrigram.of(field, trigram))
+                    .collect(Guavate.toImmutableSet())))
+            .map(trigrams -> Flux.fromIterable(trigrams)
+                .concatMap(trigram -> headerTrigramDAO.retrieveUids(mailboxId, trigram)
+                    .collect(Guavate.toImmutableSet()))
+                .reduce((uids1, uids2) -> Sets.intersection(uids1, uids2).immutableCopy())
+                .map(uids -> (Set<MessageUid>) uids)
+                .block());
+    }
+
+    private Optional<String> searchedValue(SearchQuery.HeaderOperator operator) {
+        if (operator instanceof SearchQuery.ContainsOperator) {
+            return Optional.of(((SearchQuery.ContainsOperator) operator).getValue());
+        }
+        if (operator instanceof SearchQuery.AddressOperator) {
+            return Optional.of(((SearchQuery.AddressOperator) operator).getAddress());
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Set<MessageUid>> indexedCandidates(CassandraId mailboxId, ConjunctionCriterion criterion) {
+        List<Optional<Set<MessageUid>>> candidates = criterion.getCriteria()
+            .stream()
+            .map(subCriterion -> indexedCandidates(mailboxId, subCriterion))
+            .collect(Guavate.toImmutableList());
+
+        switch (criterion.getType()) {
+        case AND:
+            return candidates.stream()
+                .flatMap(OptionalUtils::toStream)
+                .reduce((uids1, uids2) -> Sets.intersection(uids1, uids2).immutableCopy());
+        case OR:
+            if (candidates.isEmpty() || !candidates.stream().allMatch(Optional::isPresent)) {
+                return Optional.empty();
+            }
+            return Optional.of(candidates.stream()
+                .flatMap(uids -> uids.get().stream())
+                .collect(Guavate.toImmutableSet()));
+        default:
+            return Optional.empty();
+        }
+    }
+
+    private List<MailboxMessage> retrieveMessages(MailboxSession session, Mailbox mailbox, List<MessageUid> uids, FetchType fetchType) throws MailboxException {
+        if (uids.isEmpty()) {
+            return ImmutableList.of();
+        }
+        MessageMapper mapper = factory.getMessageMapper(session);
+        ImmutableList.Builder<MailboxMessage> messages = ImmutableList.builder();
+        for (MessageRange range : MessageRange.toRanges(uids)) {
+            mapper.findInMailbox(mailbox, range, fetchType, UNLIMITED)
+                .forEachRemaining(messages::add);
+        }
+        return messages.build();
+    }
+
+    @Override
+    public void add(MailboxSession session, Mailbox mailbox, MailboxMessage message) throws Exception {
+        LOGGER.debug("Indexing message {} of mailbox {}", message.getUid(), mailbox.getMailboxId().serialize());
+
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+        headerTrigramDAO.index(mailboxId, message.getUid(), HeaderTrigrams.of(message))
+            .then(searchMetadataDAO.index(mailboxId, message.getUid(), message.createFlags(), message.getInternalDate(), message.getFullContentOctets()))
+            .block();
+    }
+
+    @Override
+    public void delete(MailboxSession session, Mailbox mailbox, Collection<MessageUid> expungedUids) {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+
+        Flux.fromIterable(expungedUids)
+            .concatMap(uid -> headerTrigramDAO.delete(mailboxId, uid)
+                .then(searchMetadataDAO.delete(mailboxId, uid)))
+            .then()
+            .block();
+    }
+
+    @Override
+    public void deleteAll(MailboxSession session, MailboxId mailboxId) {
+        headerTrigramDAO.deleteAll((CassandraId) mailboxId)
+            .then(searchMetadataDAO.deleteAll((CassandraId) mailboxId))
+            .block();
+    }
+
+    @Override
+    public void update(MailboxSession session, Mailbox mailbox, List<UpdatedFlags> updatedFlagsList) {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+
+        Flux.fromIterable(updatedFlagsList)
+            .filter(UpdatedFlags::flagsChanged)
+            .concatMap(updatedFlags -> searchMetadataDAO.updateFlags(mailboxId, updatedFlags.getUid(), updatedFlags.getNewFlags()))
+            .then()
+            .block();
+    }
+}
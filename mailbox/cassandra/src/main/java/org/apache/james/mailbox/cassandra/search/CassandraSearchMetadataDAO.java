@@ -0,0 +1,460 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchFlagTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchInternalDateTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchMessageMetadataTable;
+import org.apache.james.mailbox.cassandra.table.CassandraSearchSizeTable;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per mailbox indexes of the message flags, internal dates and sizes, allowing to answer the corresponding IMAP SEARCH
+ * criteria by reading only the matching UIDs.
+ */
+public class CassandraSearchMetadataDAO {
+    private static class FlagEntry {
+        private final String flag;
+        private final boolean isSet;
+
+        FlagEntry(String flag, boolean isSet) {
+            this.flag = flag;
+            this.isSet = isSet;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof FlagEntry) {
+                FlagEntry that = (FlagEntry) o;
+
+                return Objects.equals(this.isSet, that.isSet)
+                    && Objects.equals(this.flag, that.flag);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(flag, isSet);
+        }
+    }
+
+    private static final int CONCURRENCY = 8;
+    private static final String LOWER_BOUND = "lowerBound";
+    private static final String UPPER_BOUND = "upperBound";
+    private static final Date MIN_DATE = new Date(Long.MIN_VALUE);
+    private static final Date MAX_DATE = new Date(Long.MAX_VALUE);
+
+    /**
+     * Recent is not part of the stored flags, the search relies on the recent UIDs of the session for it.
+     */
+    private static final ImmutableMap<Flags.Flag, String> INDEXED_SYSTEM_FLAGS = ImmutableMap.of(
+        Flags.Flag.ANSWERED, "\\Answered",
+        Flags.Flag.DELETED, "\\Deleted",
+        Flags.Flag.DRAFT, "\\Draft",
+        Flags.Flag.FLAGGED, "\\Flagged",
+        Flags.Flag.SEEN, "\\Seen");
+
+    public static boolean isIndexed(Flags.Flag flag) {
+        return INDEXED_SYSTEM_FLAGS.containsKey(flag);
+    }
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insertFlag;
+    private final PreparedStatement deleteFlag;
+    private final PreparedStatement selectUidsByFlag;
+    private final PreparedStatement insertInternalDate;
+    private final PreparedStatement deleteInternalDate;
+    private final PreparedStatement selectUidsByInternalDate;
+    private final PreparedStatement insertSize;
+    private final PreparedStatement deleteSize;
+    private final PreparedStatement selectUidsBySize;
+    private final PreparedStatement insertMessageMetadata;
+    private final PreparedStatement updateMessageFlags;
+    private final PreparedStatement deleteMessageMetadata;
+    private final PreparedStatement selectMessageMetadata;
+    private final PreparedStatement selectIndexedUids;
+
+    @Inject
+    public CassandraSearchMetadataDAO(Session session) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.insertFlag = prepareInsertFlag(session);
+        this.deleteFlag = prepareDeleteFlag(session);
+        this.selectUidsByFlag = prepareSelectUidsByFlag(session);
+        this.insertInternalDate = prepareInsertInternalDate(session);
+        this.deleteInternalDate = prepareDeleteInternalDate(session);
+        this.selectUidsByInternalDate = prepareSelectUidsByInternalDate(session);
+        this.insertSize = prepareInsertSize(session);
+        this.deleteSize = prepareDeleteSize(session);
+        this.selectUidsBySize = prepareSelectUidsBySize(session);
+        this.insertMessageMetadata = prepareInsertMessageMetadata(session);
+        this.updateMessageFlags = prepareUpdateMessageFlags(session);
+        this.deleteMessageMetadata = prepareDeleteMessageMetadata(session);
+        this.selectMessageMetadata = prepareSelectMessageMetadata(session);
+        this.selectIndexedUids = prepareSelectIndexedUids(session);
+    }
+
+    private PreparedStatement prepareInsertFlag(Session session) {
+        return session.prepare(insertInto(CassandraSearchFlagTable.TABLE_NAME)
+            .value(CassandraSearchFlagTable.MAILBOX_ID, bindMarker(CassandraSearchFlagTable.MAILBOX_ID))
+            .value(CassandraSearchFlagTable.FLAG, bindMarker(CassandraSearchFlagTable.FLAG))
+            .value(CassandraSearchFlagTable.IS_SET, bindMarker(CassandraSearchFlagTable.IS_SET))
+            .value(CassandraSearchFlagTable.UID, bindMarker(CassandraSearchFlagTable.UID)));
+    }
+
+    private PreparedStatement prepareDeleteFlag(Session session) {
+        return session.prepare(QueryBuilder.delete()
+            .from(CassandraSearchFlagTable.TABLE_NAME)
+            .where(eq(CassandraSearchFlagTable.MAILBOX_ID, bindMarker(CassandraSearchFlagTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchFlagTable.FLAG, bindMarker(CassandraSearchFlagTable.FLAG)))
+            .and(eq(CassandraSearchFlagTable.IS_SET, bindMarker(CassandraSearchFlagTable.IS_SET)))
+            .and(eq(CassandraSearchFlagTable.UID, bindMarker(CassandraSearchFlagTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectUidsByFlag(Session session) {
+        return session.prepare(select(CassandraSearchFlagTable.UID)
+            .from(CassandraSearchFlagTable.TABLE_NAME)
+            .where(eq(CassandraSearchFlagTable.MAILBOX_ID, bindMarker(CassandraSearchFlagTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchFlagTable.FLAG, bindMarker(CassandraSearchFlagTable.FLAG)))
+            .and(eq(CassandraSearchFlagTable.IS_SET, bindMarker(CassandraSearchFlagTable.IS_SET))));
+    }
+
+    private PreparedStatement prepareInsertInternalDate(Session session) {
+        return session.prepare(insertInto(CassandraSearchInternalDateTable.TABLE_NAME)
+            .value(CassandraSearchInternalDateTable.MAILBOX_ID, bindMarker(CassandraSearchInternalDateTable.MAILBOX_ID))
+            .value(CassandraSearchInternalDateTable.INTERNAL_DATE, bindMarker(CassandraSearchInternalDateTable.INTERNAL_DATE))
+            .value(CassandraSearchInternalDateTable.UID, bindMarker(CassandraSearchInternalDateTable.UID)));
+    }
+
+    private PreparedStatement prepareDeleteInternalDate(Session session) {
+        return session.prepare(QueryBuilder.delete()
+            .from(CassandraSearchInternalDateTable.TABLE_NAME)
+            .where(eq(CassandraSearchInternalDateTable.MAILBOX_ID, bindMarker(CassandraSearchInternalDateTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchInternalDateTable.INTERNAL_DATE, bindMarker(CassandraSearchInternalDateTable.INTERNAL_DATE)))
+            .and(eq(CassandraSearchInternalDateTable.UID, bindMarker(CassandraSearchInternalDateTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectUidsByInternalDate(Session session) {
+        return session.prepare(select(CassandraSearchInternalDateTable.UID)
+            .from(CassandraSearchInternalDateTable.TABLE_NAME)
+            .where(eq(CassandraSearchInternalDateTable.MAILBOX_ID, bindMarker(CassandraSearchInternalDateTable.MAILBOX_ID)))
+            .and(gte(CassandraSearchInternalDateTable.INTERNAL_DATE, bindMarker(LOWER_BOUND)))
+            .and(lt(CassandraSearchInternalDateTable.INTERNAL_DATE, bindMarker(UPPER_BOUND))));
+    }
+
+    private PreparedStatement prepareInsertSize(Session session) {
+        return session.prepare(insertInto(CassandraSearchSizeTable.TABLE_NAME)
+            .value(CassandraSearchSizeTable.MAILBOX_ID, bindMarker(CassandraSearchSizeTable.MAILBOX_ID))
+            .value(CassandraSearchSizeTable.SIZE, bindMarker(CassandraSearchSizeTable.SIZE))
+            .value(CassandraSearchSizeTable.UID, bindMarker(CassandraSearchSizeTable.UID)));
+    }
+
+    private PreparedStatement prepareDeleteSize(Session session) {
+        return session.prepare(QueryBuilder.delete()
+            .from(CassandraSearchSizeTable.TABLE_NAME)
+            .where(eq(CassandraSearchSizeTable.MAILBOX_ID, bindMarker(CassandraSearchSizeTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchSizeTable.SIZE, bindMarker(CassandraSearchSizeTable.SIZE)))
+            .and(eq(CassandraSearchSizeTable.UID, bindMarker(CassandraSearchSizeTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectUidsBySize(Session session) {
+        return session.prepare(select(CassandraSearchSizeTable.UID)
+            .from(CassandraSearchSizeTable.TABLE_NAME)
+            .where(eq(CassandraSearchSizeTable.MAILBOX_ID, bindMarker(CassandraSearchSizeTable.MAILBOX_ID)))
+            .and(gte(CassandraSearchSizeTable.SIZE, bindMarker(LOWER_BOUND)))
+            .and(lte(CassandraSearchSizeTable.SIZE, bindMarker(UPPER_BOUND))));
+    }
+
+    private PreparedStatement prepareInsertMessageMetadata(Session session) {
+        return session.prepare(insertInto(CassandraSearchMessageMetadataTable.TABLE_NAME)
+            .value(CassandraSearchMessageMetadataTable.MAILBOX_ID, bindMarker(CassandraSearchMessageMetadataTable.MAILBOX_ID))
+            .value(CassandraSearchMessageMetadataTable.UID, bindMarker(CassandraSearchMessageMetadataTable.UID))
+            .value(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS, bindMarker(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS))
+            .value(CassandraSearchMessageMetadataTable.USER_FLAGS, bindMarker(CassandraSearchMessageMetadataTable.USER_FLAGS))
+            .value(CassandraSearchMessageMetadataTable.INTERNAL_DATE, bindMarker(CassandraSearchMessageMetadataTable.INTERNAL_DATE))
+            .value(CassandraSearchMessageMetadataTable.SIZE, bindMarker(CassandraSearchMessageMetadataTable.SIZE)));
+    }
+
+    private PreparedStatement prepareUpdateMessageFlags(Session session) {
+        return session.prepare(QueryBuilder.update(CassandraSearchMessageMetadataTable.TABLE_NAME)
+            .with(set(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS, bindMarker(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS)))
+            .and(set(CassandraSearchMessageMetadataTable.USER_FLAGS, bindMarker(CassandraSearchMessageMetadataTable.USER_FLAGS)))
+            .where(eq(CassandraSearchMessageMetadataTable.MAILBOX_ID, bindMarker(CassandraSearchMessageMetadataTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchMessageMetadataTable.UID, bindMarker(CassandraSearchMessageMetadataTable.UID))));
+    }
+
+    private PreparedStatement prepareDeleteMessageMetadata(Session session) {
+        return session.prepare(QueryBuilder.delete()
+            .from(CassandraSearchMessageMetadataTable.TABLE_NAME)
+            .where(eq(CassandraSearchMessageMetadataTable.MAILBOX_ID, bindMarker(CassandraSearchMessageMetadataTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchMessageMetadataTable.UID, bindMarker(CassandraSearchMessageMetadataTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectMessageMetadata(Session session) {
+        return session.prepare(select()
+            .from(CassandraSearchMessageMetadataTable.TABLE_NAME)
+            .where(eq(CassandraSearchMessageMetadataTable.MAILBOX_ID, bindMarker(CassandraSearchMessageMetadataTable.MAILBOX_ID)))
+            .and(eq(CassandraSearchMessageMetadataTable.UID, bindMarker(CassandraSearchMessageMetadataTable.UID))));
+    }
+
+    private PreparedStatement prepareSelectIndexedUids(Session session) {
+        return session.prepare(select(CassandraSearchMessageMetadataTable.UID)
+            .from(CassandraSearchMessageMetadataTable.TABLE_NAME)
+            .where(eq(CassandraSearchMessageMetadataTable.MAILBOX_ID, bindMarker(CassandraSearchMessageMetadataTable.MAILBOX_ID))));
+    }
+
+    /**
+     * The indexed values are recorded before being indexed so that a partially indexed message can still be cleaned up.
+     */
+    public Mono<Void> index(CassandraId mailboxId, MessageUid uid, Flags flags, Date internalDate, long size) {
+        return cassandraAsyncExecutor.executeVoid(insertMessageMetadata.bind()
+                .setUUID(CassandraSearchMessageMetadataTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageMetadataTable.UID, uid.asLong())
+                .setSet(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS, systemFlags(flags))
+                .setSet(CassandraSearchMessageMetadataTable.USER_FLAGS, userFlags(flags))
+                .setTimestamp(CassandraSearchMessageMetadataTable.INTERNAL_DATE, internalDate)
+                .setLong(CassandraSearchMessageMetadataTable.SIZE, size))
+            .then(Flux.fromIterable(flagEntries(systemFlags(flags), userFlags(flags)))
+                .flatMap(entry -> insertFlag(mailboxId, uid, entry), CONCURRENCY)
+                .then())
+            .then(cassandraAsyncExecutor.executeVoid(insertInternalDate.bind()
+                .setUUID(CassandraSearchInternalDateTable.MAILBOX_ID, mailboxId.asUuid())
+                .setTimestamp(CassandraSearchInternalDateTable.INTERNAL_DATE, internalDate)
+                .setLong(CassandraSearchInternalDateTable.UID, uid.asLong())))
+            .then(cassandraAsyncExecutor.executeVoid(insertSize.bind()
+                .setUUID(CassandraSearchSizeTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchSizeTable.SIZE, size)
+                .setLong(CassandraSearchSizeTable.UID, uid.asLong())));
+    }
+
+    /**
+     * Flags updates can be applied out of order, hence the previous flags of the update are not trusted. Every indexed
+     * system flag has its entry written and its opposite entry deleted. User flag entries are rewritten from the user
+     * flags recorded in the message metadata.
+     *
+     * The new flags are recorded first: an entry left behind by a failure is only a false positive, filtered out by the
+     * search against the message metadata.
+     */
+    public Mono<Void> updateFlags(CassandraId mailboxId, MessageUid uid, Flags newFlags) {
+        Set<String> newSystemFlags = systemFlags(newFlags);
+        Set<String> newUserFlags = userFlags(newFlags);
+
+        return recordedUserFlags(mailboxId, uid)
+            .flatMap(recordedUserFlags -> cassandraAsyncExecutor.executeVoid(updateMessageFlags.bind()
+                    .setUUID(CassandraSearchMessageMetadataTable.MAILBOX_ID, mailboxId.asUuid())
+                    .setLong(CassandraSearchMessageMetadataTable.UID, uid.asLong())
+                    .setSet(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS, newSystemFlags)
+                    .setSet(CassandraSearchMessageMetadataTable.USER_FLAGS, newUserFlags))
+                .then(Flux.fromIterable(flagEntries(newSystemFlags, newUserFlags))
+                    .flatMap(entry -> insertFlag(mailboxId, uid, entry), CONCURRENCY)
+                    .then())
+                .then(Flux.fromIterable(staleFlagEntries(newSystemFlags, newUserFlags, recordedUserFlags))
+                    .flatMap(entry -> deleteFlag(mailboxId, uid, entry), CONCURRENCY)
+                    .then()));
+    }
+
+    private Mono<Set<String>> recordedUserFlags(CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeSingleRow(selectMessageMetadata.bind()
+                .setUUID(CassandraSearchMessageMetadataTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageMetadataTable.UID, uid.asLong()))
+            .<Set<String>>map(row -> row.getSet(CassandraSearchMessageMetadataTable.USER_FLAGS, String.class))
+            .defaultIfEmpty(ImmutableSet.of());
+    }
+
+    public Flux<MessageUid> retrieveUids(CassandraId mailboxId, Flags.Flag flag, boolean isSet) {
+        Preconditions.checkArgument(isIndexed(flag), "%s is not indexed", flag);
+
+        return retrieveUids(mailboxId, new FlagEntry(INDEXED_SYSTEM_FLAGS.get(flag), isSet));
+    }
+
+    /**
+     * User flags are only indexed when they are set.
+     */
+    public Flux<MessageUid> retrieveUids(CassandraId mailboxId, String userFlag) {
+        return retrieveUids(mailboxId, new FlagEntry(userFlag, true));
+    }
+
+    private Flux<MessageUid> retrieveUids(CassandraId mailboxId, FlagEntry entry) {
+        return cassandraAsyncExecutor.executeRows(selectUidsByFlag.bind()
+                .setUUID(CassandraSearchFlagTable.MAILBOX_ID, mailboxId.asUuid())
+                .setString(CassandraSearchFlagTable.FLAG, entry.flag)
+                .setBool(CassandraSearchFlagTable.IS_SET, entry.isSet))
+            .map(row -> MessageUid.of(row.getLong(CassandraSearchFlagTable.UID)));
+    }
+
+    /**
+     * @param lowerBound inclusive, unbounded when empty
+     * @param upperBound exclusive, unbounded when empty
+     */
+    public Flux<MessageUid> retrieveUidsByInternalDate(CassandraId mailboxId, Optional<Date> lowerBound, Optional<Date> upperBound) {
+        return cassandraAsyncExecutor.executeRows(selectUidsByInternalDate.bind()
+                .setUUID(CassandraSearchInternalDateTable.MAILBOX_ID, mailboxId.asUuid())
+                .setTimestamp(LOWER_BOUND, lowerBound.orElse(MIN_DATE))
+                .setTimestamp(UPPER_BOUND, upperBound.orElse(MAX_DATE)))
+            .map(row -> MessageUid.of(row.getLong(CassandraSearchInternalDateTable.UID)));
+    }
+
+    /**
+     * @param lowerBound inclusive
+     * @param upperBound inclusive
+     */
+    public Flux<MessageUid> retrieveUidsBySize(CassandraId mailboxId, long lowerBound, long upperBound) {
+        if (lowerBound > upperBound) {
+            return Flux.empty();
+        }
+        return cassandraAsyncExecutor.executeRows(selectUidsBySize.bind()
+                .setUUID(CassandraSearchSizeTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(LOWER_BOUND, lowerBound)
+                .setLong(UPPER_BOUND, upperBound))
+            .map(row -> MessageUid.of(row.getLong(CassandraSearchSizeTable.UID)));
+    }
+
+    public Flux<MessageUid> retrieveIndexedUids(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeRows(selectIndexedUids.bind()
+                .setUUID(CassandraSearchMessageMetadataTable.MAILBOX_ID, mailboxId.asUuid()))
+            .map(row -> MessageUid.of(row.getLong(CassandraSearchMessageMetadataTable.UID)));
+    }
+
+    public Mono<Void> delete(CassandraId mailboxId, MessageUid uid) {
+        return cassandraAsyncExecutor.executeSingleRow(selectMessageMetadata.bind()
+                .setUUID(CassandraSearchMessageMetadataTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageMetadataTable.UID, uid.asLong()))
+            .flatMap(row -> deleteIndexedValues(mailboxId, uid, row))
+            .then(cassandraAsyncExecutor.executeVoid(deleteMessageMetadata.bind()
+                .setUUID(CassandraSearchMessageMetadataTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchMessageMetadataTable.UID, uid.asLong())));
+    }
+
+    public Mono<Void> deleteAll(CassandraId mailboxId) {
+        return retrieveIndexedUids(mailboxId)
+            .concatMap(uid -> delete(mailboxId, uid))
+            .then();
+    }
+
+    /**
+     * A row only created by a flags update, for a message that was never indexed, holds no internal date nor size.
+     */
+    private Mono<Void> deleteIndexedValues(CassandraId mailboxId, MessageUid uid, Row row) {
+        Set<FlagEntry> flagEntries = flagEntries(
+            row.getSet(CassandraSearchMessageMetadataTable.SYSTEM_FLAGS, String.class),
+            row.getSet(CassandraSearchMessageMetadataTable.USER_FLAGS, String.class));
+        Mono<Void> deleteInternalDateEntry = Mono.justOrEmpty(row.getTimestamp(CassandraSearchMessageMetadataTable.INTERNAL_DATE))
+            .flatMap(internalDate -> cassandraAsyncExecutor.executeVoid(deleteInternalDate.bind()
+                .setUUID(CassandraSearchInternalDateTable.MAILBOX_ID, mailboxId.asUuid())
+                .setTimestamp(CassandraSearchInternalDateTable.INTERNAL_DATE, internalDate)
+                .setLong(CassandraSearchInternalDateTable.UID, uid.asLong())));
+        Mono<Void> deleteSizeEntry = Mono.just(row)
+            .filter(metadata -> !metadata.isNull(CassandraSearchMessageMetadataTable.SIZE))
+            .flatMap(metadata -> cassandraAsyncExecutor.executeVoid(deleteSize.bind()
+                .setUUID(CassandraSearchSizeTable.MAILBOX_ID, mailboxId.asUuid())
+                .setLong(CassandraSearchSizeTable.SIZE, metadata.getLong(CassandraSearchMessageMetadataTable.SIZE))
+                .setLong(CassandraSearchSizeTable.UID, uid.asLong())));
+
+        return Flux.fromIterable(flagEntries)
+            .flatMap(entry -> deleteFlag(mailboxId, uid, entry), CONCURRENCY)
+            .then(deleteInternalDateEntry)
+            .then(deleteSizeEntry);
+    }
+
+    private Mono<Void> insertFlag(CassandraId mailboxId, MessageUid uid, FlagEntry entry) {
+        return cassandraAsyncExecutor.executeVoid(insertFlag.bind()
+            .setUUID(CassandraSearchFlagTable.MAILBOX_ID, mailboxId.asUuid())
+            .setString(CassandraSearchFlagTable.FLAG, entry.flag)
+            .setBool(CassandraSearchFlagTable.IS_SET, entry.isSet)
+            .setLong(CassandraSearchFlagTable.UID, uid.asLong()));
+    }
+
+    private Mono<Void> deleteFlag(CassandraId mailboxId, MessageUid uid, FlagEntry entry) {
+        return cassandraAsyncExecutor.executeVoid(deleteFlag.bind()
+            .setUUID(CassandraSearchFlagTable.MAILBOX_ID, mailboxId.asUuid())
+            .setString(CassandraSearchFlagTable.FLAG, entry.flag)
+            .setBool(CassandraSearchFlagTable.IS_SET, entry.isSet)
+            .setLong(CassandraSearchFlagTable.UID, uid.asLong()));
+    }
+
+    private Set<String> systemFlags(Flags flags) {
+        return Arrays.stream(flags.getSystemFlags())
+            .filter(CassandraSearchMetadataDAO::isIndexed)
+            .map(INDEXED_SYSTEM_FLAGS::get)
+            .collect(Guavate.toImmutableSet());
+    }
+
+    private Set<String> userFlags(Flags flags) {
+        return ImmutableSet.copyOf(flags.getUserFlags());
+    }
+
+    private Set<FlagEntry> staleFlagEntries(Set<String> setSystemFlags, Set<String> userFlags, Set<String> recordedUserFlags) {
+        return Stream.concat(
+                INDEXED_SYSTEM_FLAGS.values()
+                    .stream()
+                    .map(flag -> new FlagEntry(flag, !setSystemFlags.contains(flag))),
+                Sets.difference(recordedUserFlags, userFlags)
+                    .stream()
+                    .map(flag -> new FlagEntry(flag, true)))
+            .collect(Guavate.toImmutableSet());
+    }
+
+    /**
+     * Every indexed system flag has an entry, telling whether it is set. User flags only have an entry when set.
+     */
+    private Set<FlagEntry> flagEntries(Set<String> setSystemFlags, Set<String> userFlags) {
+        return Stream.concat(
+                INDEXED_SYSTEM_FLAGS.values()
+                    .stream()
+                    .map(flag -> new FlagEntry(flag, setSystemFlags.contains(flag))),
+                userFlags.stream()
+                    .map(flag -> new FlagEntry(flag, true)))
+            .collect(Guavate.toImmutableSet());
+    }
+}
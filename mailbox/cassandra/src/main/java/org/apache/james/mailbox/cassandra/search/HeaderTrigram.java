@@ -0,0 +1,87 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+
+public class HeaderTrigram {
+    private static final char SEPARATOR = ':';
+    private static final Splitter SPLITTER = Splitter.on(SEPARATOR).limit(2);
+
+    public static HeaderTrigram of(String field, String trigram) {
+        return new HeaderTrigram(field, trigram);
+    }
+
+    public static HeaderTrigram parse(String serialized) {
+        List<String> parts = SPLITTER.splitToList(serialized);
+        Preconditions.checkArgument(parts.size() == 2, "'%s' is not a valid header trigram", serialized);
+        return new HeaderTrigram(parts.get(0), parts.get(1));
+    }
+
+    private final String field;
+    private final String trigram;
+
+    private HeaderTrigram(String field, String trigram) {
+        Preconditions.checkArgument(field.indexOf(SEPARATOR) < 0, "field should not contain '%s'", SEPARATOR);
+        this.field = field;
+        this.trigram = trigram;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getTrigram() {
+        return trigram;
+    }
+
+    public String serialize() {
+        return field + SEPARATOR + trigram;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof HeaderTrigram) {
+            HeaderTrigram that = (HeaderTrigram) o;
+
+            return Objects.equals(this.field, that.field)
+                && Objects.equals(this.trigram, that.trigram);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(field, trigram);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("field", field)
+            .add("trigram", trigram)
+            .toString();
+    }
+}
@@ -0,0 +1,111 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.store.ResultUtils;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mime4j.dom.address.Address;
+import org.apache.james.mime4j.dom.address.Group;
+import org.apache.james.mime4j.dom.address.Mailbox;
+import org.apache.james.mime4j.field.address.AddressFormatter;
+import org.apache.james.mime4j.field.address.LenientAddressParser;
+import org.apache.james.mime4j.util.MimeUtil;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Computes the trigrams indexed for the headers of a message, and the ones looked up for a searched value.
+ *
+ * Header criteria are substring matches performed on the upper cased raw value, unscrambled value and, for address
+ * headers, formatted addresses of the header (see {@link org.apache.james.mailbox.store.search.MessageSearches}). Every
+ * trigram of a matching value thus belongs to the trigrams indexed for the message: the messages holding all the
+ * searched trigrams are a superset of the matching ones.
+ */
+public class HeaderTrigrams {
+    public static final ImmutableSet<String> ADDRESS_FIELDS = ImmutableSet.of("from", "to", "cc", "bcc");
+    public static final ImmutableSet<String> INDEXED_FIELDS = ImmutableSet.<String>builder()
+        .addAll(ADDRESS_FIELDS)
+        .add("subject")
+        .build();
+    private static final int TRIGRAM_LENGTH = 3;
+
+    public static Optional<String> indexedField(String headerName) {
+        return Optional.of(headerName.toLowerCase(Locale.US))
+            .filter(INDEXED_FIELDS::contains);
+    }
+
+    public static ImmutableSet<HeaderTrigram> of(MailboxMessage message) throws IOException {
+        return ResultUtils.createHeaders(message)
+            .stream()
+            .flatMap(HeaderTrigrams::of)
+            .collect(Guavate.toImmutableSet());
+    }
+
+    private static Stream<HeaderTrigram> of(Header header) {
+        return indexedField(header.getName())
+            .map(field -> indexedValues(field, header.getValue())
+                .flatMap(value -> trigrams(value).stream())
+                .map(trigram -> HeaderTrigram.of(field, trigram)))
+            .orElse(Stream.empty());
+    }
+
+    private static Stream<String> indexedValues(String field, String value) {
+        Stream<String> rawValues = Stream.of(value, MimeUtil.unscrambleHeaderValue(value));
+        if (ADDRESS_FIELDS.contains(field)) {
+            return Stream.concat(rawValues, formattedAddresses(value));
+        }
+        return rawValues;
+    }
+
+    private static Stream<String> formattedAddresses(String value) {
+        return LenientAddressParser.DEFAULT.parseAddressList(value)
+            .stream()
+            .flatMap(HeaderTrigrams::mailboxes)
+            .map(mailbox -> MimeUtil.unscrambleHeaderValue(AddressFormatter.DEFAULT.encode(mailbox)));
+    }
+
+    private static Stream<Mailbox> mailboxes(Address address) {
+        if (address instanceof Mailbox) {
+            return Stream.of((Mailbox) address);
+        }
+        if (address instanceof Group) {
+            return ((Group) address).getMailboxes().stream();
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * @return the distinct trigrams of the upper cased value, empty if the value is shorter than a trigram
+     */
+    public static ImmutableSet<String> trigrams(String value) {
+        int[] codePoints = value.toUpperCase(Locale.US).codePoints().toArray();
+        return IntStream.rangeClosed(0, codePoints.length - TRIGRAM_LENGTH)
+            .mapToObj(offset -> new String(codePoints, offset, TRIGRAM_LENGTH))
+            .collect(Guavate.toImmutableSet());
+    }
+}
@@ -28,7 +28,17 @@ public interface CassandraMessageIdTable {
     String TABLE_NAME = "messageIdTable";
 
     String MOD_SEQ = "modSeq";
+    String INTERNAL_DATE = CassandraMessageV2Table.INTERNAL_DATE;
+    String BODY_START_OCTET = CassandraMessageV2Table.BODY_START_OCTET;
+    String FULL_CONTENT_OCTETS = CassandraMessageV2Table.FULL_CONTENT_OCTETS;
+    String TEXTUAL_LINE_COUNT = CassandraMessageV2Table.TEXTUAL_LINE_COUNT;
+    String PROPERTIES = CassandraMessageV2Table.PROPERTIES;
+    String HAS_ATTACHMENT = "hasAttachment";
 
     String[] FIELDS = { MESSAGE_ID, MAILBOX_ID, IMAP_UID, MOD_SEQ,
             Flag.ANSWERED, Flag.DELETED, Flag.DRAFT, Flag.FLAGGED, Flag.RECENT, Flag.SEEN, Flag.USER, Flag.USER_FLAGS};
+
+    String[] METADATA_FIELDS = { MESSAGE_ID, MAILBOX_ID, IMAP_UID, MOD_SEQ,
+            Flag.ANSWERED, Flag.DELETED, Flag.DRAFT, Flag.FLAGGED, Flag.RECENT, Flag.SEEN, Flag.USER, Flag.USER_FLAGS,
+            INTERNAL_DATE, BODY_START_OCTET, FULL_CONTENT_OCTETS, TEXTUAL_LINE_COUNT, PROPERTIES, HAS_ATTACHMENT};
 }
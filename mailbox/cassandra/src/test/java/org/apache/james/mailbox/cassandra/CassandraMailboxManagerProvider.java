@@ -19,7 +19,10 @@
 
 package org.apache.james.mailbox.cassandra;
 
+import java.util.function.BiFunction;
+
 import org.apache.james.backends.cassandra.init.CassandraTypesProvider;
+import org.apache.james.mailbox.SessionProvider;
 import org.apache.james.mailbox.acl.GroupMembershipResolver;
 import org.apache.james.mailbox.acl.MailboxACLResolver;
 import org.apache.james.mailbox.acl.SimpleGroupMembershipResolver;
@@ -48,6 +51,7 @@ import org.apache.james.mailbox.store.quota.DefaultUserQuotaRootResolver;
 import org.apache.james.mailbox.store.quota.ListeningCurrentQuotaUpdater;
 import org.apache.james.mailbox.store.quota.QuotaComponents;
 import org.apache.james.mailbox.store.quota.StoreQuotaManager;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.apache.james.mailbox.store.search.SimpleMessageSearchIndex;
 import org.apache.james.metrics.tests.RecordingMetricFactory;
@@ -60,6 +64,13 @@ public class CassandraMailboxManagerProvider {
 
     public static CassandraMailboxManager provideMailboxManager(Session session, CassandraTypesProvider cassandraTypesProvider,
                                                                 PreDeletionHooks preDeletionHooks) {
+        return provideMailboxManager(session, cassandraTypesProvider, preDeletionHooks,
+            (mapperFactory, sessionProvider) -> new SimpleMessageSearchIndex(mapperFactory, mapperFactory, new DefaultTextExtractor()));
+    }
+
+    public static CassandraMailboxManager provideMailboxManager(Session session, CassandraTypesProvider cassandraTypesProvider,
+                                                                PreDeletionHooks preDeletionHooks,
+                                                                BiFunction<CassandraMailboxSessionMapperFactory, SessionProvider, MessageSearchIndex> searchIndexFactory) {
         CassandraMessageId.Factory messageIdFactory = new CassandraMessageId.Factory();
 
         CassandraMailboxSessionMapperFactory mapperFactory = TestCassandraMailboxSessionMapperFactory.forTests(
@@ -88,7 +99,7 @@ public class CassandraMailboxManagerProvider {
         ListeningCurrentQuotaUpdater quotaUpdater = new ListeningCurrentQuotaUpdater(currentQuotaUpdater, quotaRootResolver, eventBus, storeQuotaManager);
         QuotaComponents quotaComponents = new QuotaComponents(maxQuotaManager, storeQuotaManager, quotaRootResolver);
 
-        MessageSearchIndex index = new SimpleMessageSearchIndex(mapperFactory, mapperFactory, new DefaultTextExtractor());
+        MessageSearchIndex index = searchIndexFactory.apply(mapperFactory, sessionProvider);
 
         CassandraMailboxManager manager = new CassandraMailboxManager(mapperFactory, sessionProvider, new NoMailboxPathLocker(),
             messageParser, messageIdFactory, eventBus, annotationManager, storeRightManager,
@@ -96,6 +107,9 @@ public class CassandraMailboxManagerProvider {
 
         eventBus.register(quotaUpdater);
         eventBus.register(new MailboxAnnotationListener(mapperFactory, sessionProvider));
+        if (index instanceof ListeningMessageSearchIndex) {
+            eventBus.register((ListeningMessageSearchIndex) index);
+        }
 
         return manager;
     }
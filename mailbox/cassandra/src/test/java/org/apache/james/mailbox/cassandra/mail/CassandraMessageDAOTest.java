@@ -54,6 +54,7 @@ import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
 import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
 import org.apache.james.util.streams.Limit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -83,6 +84,7 @@ class CassandraMessageDAOTest {
             MODULES);
 
     private CassandraMessageDAO testee;
+    private RecordingMetricFactory metricFactory;
     private CassandraMessageId.Factory messageIdFactory;
 
     private SimpleMailboxMessage message;
@@ -95,8 +97,9 @@ class CassandraMessageDAOTest {
         messageId = messageIdFactory.generate();
         CassandraBlobStore blobStore = new CassandraBlobStore(cassandra.getConf());
         HashBlobId.Factory blobIdFactory = new HashBlobId.Factory();
+        metricFactory = new RecordingMetricFactory();
         testee = new CassandraMessageDAO(cassandra.getConf(), cassandra.getTypesProvider(), blobStore, blobIdFactory,
-            new CassandraMessageId.Factory());
+            new CassandraMessageId.Factory(), metricFactory);
 
         messageIds = ImmutableList.of(ComposedMessageIdWithMetaData.builder()
                 .composedMessageId(new ComposedMessageId(MAILBOX_ID, messageId, messageUid))
@@ -175,6 +178,52 @@ class CassandraMessageDAOTest {
             .isEqualTo(CONTENT.substring(0, BODY_START));
     }
 
+    @Test
+    void retrieveMessagesShouldReadSeveralMessagesWithASingleQuery() throws Exception {
+        CassandraMessageId messageId2 = messageIdFactory.generate();
+        CassandraMessageId messageId3 = messageIdFactory.generate();
+        testee.save(createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT)).block();
+        testee.save(createMessage(messageId2, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT)).block();
+        testee.save(createMessage(messageId3, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT)).block();
+
+        List<CassandraMessageDAO.MessageResult> results = testee.retrieveMessages(
+                ImmutableList.of(composedMessageId(messageId), composedMessageId(messageId2), composedMessageId(messageId3)),
+                MessageMapper.FetchType.Full, Limit.unlimited())
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .extracting(result -> IOUtils.toString(result.message().getLeft().getContent(), StandardCharsets.UTF_8))
+            .containsOnly(CONTENT, CONTENT, CONTENT);
+        assertThat(metricFactory.countFor(CassandraMessageDAO.READ_QUERIES_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(CassandraMessageDAO.READ_MESSAGES_METRIC_NAME)).isEqualTo(3);
+    }
+
+    @Test
+    void retrieveMessagesShouldReturnNotFoundForMissingMessagesOfABatch() throws Exception {
+        CassandraMessageId missingMessageId = messageIdFactory.generate();
+        testee.save(createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT)).block();
+
+        List<CassandraMessageDAO.MessageResult> results = testee.retrieveMessages(
+                ImmutableList.of(composedMessageId(messageId), composedMessageId(missingMessageId)),
+                MessageMapper.FetchType.Metadata, Limit.unlimited())
+            .collectList()
+            .block();
+
+        assertThat(results)
+            .filteredOn(result -> !result.isFound())
+            .extracting(result -> result.getMetadata().getComposedMessageId().getMessageId())
+            .containsOnly(missingMessageId);
+    }
+
+    private ComposedMessageIdWithMetaData composedMessageId(MessageId messageId) {
+        return ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(MAILBOX_ID, messageId, messageUid))
+            .flags(new Flags())
+            .modSeq(ModSeq.of(1))
+            .build();
+    }
+
     private SimpleMailboxMessage createMessage(MessageId messageId, String content, int bodyStart, PropertyBuilder propertyBuilder, Collection<MessageAttachment> attachments) {
         return SimpleMailboxMessage.builder()
             .messageId(messageId)
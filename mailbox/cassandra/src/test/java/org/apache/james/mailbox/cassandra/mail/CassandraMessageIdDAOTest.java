@@ -20,6 +20,7 @@ package org.apache.james.mailbox.cassandra.mail;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Date;
 import java.util.Optional;
 
 import javax.mail.Flags;
@@ -33,14 +34,18 @@ import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.cassandra.mail.CassandraMessageMetadata.MessageMetadata;
 import org.apache.james.mailbox.cassandra.modules.CassandraMessageModule;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.store.mail.model.Property;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.google.common.collect.ImmutableList;
+
 import reactor.core.publisher.Flux;
 
 class CassandraMessageIdDAOTest {
@@ -57,7 +62,43 @@ class CassandraMessageIdDAOTest {
     @BeforeEach
     void setUp(CassandraCluster cassandra) {
         messageIdFactory = new CassandraMessageId.Factory();
-        testee = new CassandraMessageIdDAO(cassandra.getConf(), messageIdFactory);
+        testee = new CassandraMessageIdDAO(cassandra.getConf(), cassandra.getTypesProvider(), messageIdFactory);
+    }
+
+    @Test
+    void insertShouldStoreMessageMetadata() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        MessageUid messageUid = MessageUid.of(1);
+        CassandraMessageMetadata metadata = new CassandraMessageMetadata(
+            ComposedMessageIdWithMetaData.builder()
+                .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), messageUid))
+                .flags(new Flags(Flag.SEEN))
+                .modSeq(ModSeq.of(1))
+                .build(),
+            Optional.of(new MessageMetadata(new Date(), 42L, 12, 3L,
+                ImmutableList.of(new Property("namespace", "name", "value")),
+                true)));
+
+        testee.insert(metadata).block();
+
+        assertThat(testee.retrieveMessagesMetadata(mailboxId, MessageRange.one(messageUid)).collectList().block())
+            .containsOnly(metadata);
+    }
+
+    @Test
+    void retrieveMessagesMetadataShouldReturnEmptyMessageMetadataWhenNotDenormalized() {
+        CassandraId mailboxId = CassandraId.timeBased();
+        MessageUid messageUid = MessageUid.of(1);
+        ComposedMessageIdWithMetaData composedMessageId = ComposedMessageIdWithMetaData.builder()
+            .composedMessageId(new ComposedMessageId(mailboxId, messageIdFactory.generate(), messageUid))
+            .flags(new Flags())
+            .modSeq(ModSeq.of(1))
+            .build();
+
+        testee.insert(composedMessageId).block();
+
+        assertThat(testee.retrieveMessagesMetadata(mailboxId, MessageRange.one(messageUid)).collectList().block())
+            .containsOnly(new CassandraMessageMetadata(composedMessageId, Optional.empty()));
     }
 
     @Test
@@ -0,0 +1,123 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.modules.CassandraSearchModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.collect.ImmutableSet;
+
+class CassandraHeaderTrigramDAOTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final CassandraId OTHER_MAILBOX_ID = CassandraId.timeBased();
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+    private static final HeaderTrigram FROM_BOB = HeaderTrigram.of("from", "BOB");
+    private static final HeaderTrigram TO_BOB = HeaderTrigram.of("to", "BOB");
+    private static final HeaderTrigram SUBJECT_HEY = HeaderTrigram.of("subject", "HEY");
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraSearchModule.MODULE);
+
+    private CassandraHeaderTrigramDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraHeaderTrigramDAO(cassandra.getConf());
+    }
+
+    @Test
+    void retrieveUidsShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieveUids(MAILBOX_ID, FROM_BOB).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveUidsShouldReturnIndexedMessages() {
+        testee.index(MAILBOX_ID, UID_1, ImmutableSet.of(FROM_BOB, SUBJECT_HEY)).block();
+        testee.index(MAILBOX_ID, UID_2, ImmutableSet.of(FROM_BOB)).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, FROM_BOB).collectList().block())
+            .containsExactly(UID_1, UID_2);
+    }
+
+    @Test
+    void retrieveUidsShouldFilterByField() {
+        testee.index(MAILBOX_ID, UID_1, ImmutableSet.of(FROM_BOB)).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, TO_BOB).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveUidsShouldFilterByMailbox() {
+        testee.index(MAILBOX_ID, UID_1, ImmutableSet.of(FROM_BOB)).block();
+
+        assertThat(testee.retrieveUids(OTHER_MAILBOX_ID, FROM_BOB).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteShouldRemoveAllTheTrigramsOfTheMessage() {
+        testee.index(MAILBOX_ID, UID_1, ImmutableSet.of(FROM_BOB, SUBJECT_HEY)).block();
+        testee.index(MAILBOX_ID, UID_2, ImmutableSet.of(FROM_BOB)).block();
+
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, FROM_BOB).collectList().block())
+            .containsExactly(UID_2);
+        assertThat(testee.retrieveUids(MAILBOX_ID, SUBJECT_HEY).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveIndexedUids(MAILBOX_ID).collectList().block())
+            .containsExactly(UID_2);
+    }
+
+    @Test
+    void deleteShouldBeIdempotent() {
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        assertThat(testee.retrieveIndexedUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteAllShouldRemoveTheMessagesOfTheMailbox() {
+        testee.index(MAILBOX_ID, UID_1, ImmutableSet.of(FROM_BOB)).block();
+        testee.index(MAILBOX_ID, UID_2, ImmutableSet.of(SUBJECT_HEY)).block();
+        testee.index(OTHER_MAILBOX_ID, UID_1, ImmutableSet.of(FROM_BOB)).block();
+
+        testee.deleteAll(MAILBOX_ID).block();
+
+        assertThat(testee.retrieveIndexedUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(MAILBOX_ID, FROM_BOB).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(OTHER_MAILBOX_ID, FROM_BOB).collectList().block())
+            .containsExactly(UID_1);
+    }
+}
@@ -0,0 +1,227 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.Optional;
+
+import javax.mail.Flags;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.FlagsBuilder;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.modules.CassandraSearchModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraSearchMetadataDAOTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
+    private static final CassandraId OTHER_MAILBOX_ID = CassandraId.timeBased();
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+    private static final Date DATE_1 = new Date(1000000L);
+    private static final Date DATE_2 = new Date(2000000L);
+    private static final Flags SEEN = new Flags(Flags.Flag.SEEN);
+    private static final Flags NO_FLAGS = new Flags();
+    private static final String CUSTOM = "custom";
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraSearchModule.MODULE);
+
+    private CassandraSearchMetadataDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraSearchMetadataDAO(cassandra.getConf());
+    }
+
+    @Test
+    void retrieveUidsShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveUidsShouldReturnMessagesWithTheFlagSet() {
+        testee.index(MAILBOX_ID, UID_1, SEEN, DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, NO_FLAGS, DATE_1, 10).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void retrieveUidsShouldReturnMessagesWithTheFlagUnset() {
+        testee.index(MAILBOX_ID, UID_1, SEEN, DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, NO_FLAGS, DATE_1, 10).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, false).collectList().block())
+            .containsExactly(UID_2);
+    }
+
+    @Test
+    void retrieveUidsShouldReturnMessagesWithTheUserFlagSet() {
+        testee.index(MAILBOX_ID, UID_1, new FlagsBuilder().add(CUSTOM).build(), DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, NO_FLAGS, DATE_1, 10).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, CUSTOM).collectList().block())
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void retrieveUidsShouldFilterByMailbox() {
+        testee.index(MAILBOX_ID, UID_1, SEEN, DATE_1, 10).block();
+
+        assertThat(testee.retrieveUids(OTHER_MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void updateFlagsShouldMoveTheMessageToItsNewFlags() {
+        testee.index(MAILBOX_ID, UID_1, NO_FLAGS, DATE_1, 10).block();
+
+        testee.updateFlags(MAILBOX_ID, UID_1, new FlagsBuilder().add(Flags.Flag.SEEN).add(CUSTOM).build()).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .containsExactly(UID_1);
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, false).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(MAILBOX_ID, CUSTOM).collectList().block())
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void updateFlagsShouldRemoveUnsetUserFlags() {
+        testee.index(MAILBOX_ID, UID_1, new FlagsBuilder().add(CUSTOM).build(), DATE_1, 10).block();
+
+        testee.updateFlags(MAILBOX_ID, UID_1, SEEN).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, CUSTOM).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void updateFlagsAppliedInReverseOrderShouldLeaveTheLastAppliedFlagsIndexed() {
+        testee.index(MAILBOX_ID, UID_1, NO_FLAGS, DATE_1, 10).block();
+        Flags firstUpdateFlags = new FlagsBuilder().add(Flags.Flag.FLAGGED).add(CUSTOM).build();
+        Flags secondUpdateFlags = SEEN;
+
+        testee.updateFlags(MAILBOX_ID, UID_1, secondUpdateFlags).block();
+        testee.updateFlags(MAILBOX_ID, UID_1, firstUpdateFlags).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.FLAGGED, true).collectList().block())
+            .containsExactly(UID_1);
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.FLAGGED, false).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, false).collectList().block())
+            .containsExactly(UID_1);
+        assertThat(testee.retrieveUids(MAILBOX_ID, CUSTOM).collectList().block())
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void deleteShouldCleanUpUpdatedFlags() {
+        testee.index(MAILBOX_ID, UID_1, NO_FLAGS, DATE_1, 10).block();
+        testee.updateFlags(MAILBOX_ID, UID_1, new FlagsBuilder().add(Flags.Flag.SEEN).add(CUSTOM).build()).block();
+
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(MAILBOX_ID, CUSTOM).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveUidsByInternalDateShouldReturnMessagesWithinTheSlice() {
+        testee.index(MAILBOX_ID, UID_1, NO_FLAGS, DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, NO_FLAGS, DATE_2, 10).block();
+
+        assertThat(testee.retrieveUidsByInternalDate(MAILBOX_ID, Optional.of(DATE_1), Optional.of(DATE_2)).collectList().block())
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void retrieveUidsByInternalDateShouldSupportUnboundedSlices() {
+        testee.index(MAILBOX_ID, UID_1, NO_FLAGS, DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, NO_FLAGS, DATE_2, 10).block();
+
+        assertThat(testee.retrieveUidsByInternalDate(MAILBOX_ID, Optional.empty(), Optional.empty()).collectList().block())
+            .containsExactly(UID_1, UID_2);
+    }
+
+    @Test
+    void retrieveUidsBySizeShouldReturnMessagesWithinTheBounds() {
+        testee.index(MAILBOX_ID, UID_1, NO_FLAGS, DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, NO_FLAGS, DATE_1, 20).block();
+
+        assertThat(testee.retrieveUidsBySize(MAILBOX_ID, 11, Long.MAX_VALUE).collectList().block())
+            .containsExactly(UID_2);
+        assertThat(testee.retrieveUidsBySize(MAILBOX_ID, 10, 10).collectList().block())
+            .containsExactly(UID_1);
+    }
+
+    @Test
+    void deleteShouldRemoveAllTheEntriesOfTheMessage() {
+        testee.index(MAILBOX_ID, UID_1, SEEN, DATE_1, 10).block();
+        testee.index(MAILBOX_ID, UID_2, SEEN, DATE_2, 20).block();
+
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .containsExactly(UID_2);
+        assertThat(testee.retrieveUidsByInternalDate(MAILBOX_ID, Optional.empty(), Optional.empty()).collectList().block())
+            .containsExactly(UID_2);
+        assertThat(testee.retrieveUidsBySize(MAILBOX_ID, 0, Long.MAX_VALUE).collectList().block())
+            .containsExactly(UID_2);
+        assertThat(testee.retrieveIndexedUids(MAILBOX_ID).collectList().block())
+            .containsExactly(UID_2);
+    }
+
+    @Test
+    void deleteShouldBeIdempotent() {
+        testee.delete(MAILBOX_ID, UID_1).block();
+
+        assertThat(testee.retrieveIndexedUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void deleteAllShouldRemoveTheMessagesOfTheMailbox() {
+        testee.index(MAILBOX_ID, UID_1, SEEN, DATE_1, 10).block();
+        testee.index(OTHER_MAILBOX_ID, UID_1, SEEN, DATE_1, 10).block();
+
+        testee.deleteAll(MAILBOX_ID).block();
+
+        assertThat(testee.retrieveIndexedUids(MAILBOX_ID).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .isEmpty();
+        assertThat(testee.retrieveUids(OTHER_MAILBOX_ID, Flags.Flag.SEEN, true).collectList().block())
+            .containsExactly(UID_1);
+    }
+}
@@ -0,0 +1,111 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import javax.mail.Flags;
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
+import org.junit.jupiter.api.Test;
+
+class HeaderTrigramsTest {
+    @Test
+    void trigramsShouldBeEmptyWhenValueIsTooShort() {
+        assertThat(HeaderTrigrams.trigrams("ab")).isEmpty();
+    }
+
+    @Test
+    void trigramsShouldReturnTheDistinctUpperCasedTrigrams() {
+        assertThat(HeaderTrigrams.trigrams("abcabc")).containsOnly("ABC", "BCA", "CAB");
+    }
+
+    @Test
+    void trigramsShouldNotSplitSurrogatePairs() {
+        assertThat(HeaderTrigrams.trigrams("a😀bc")).containsOnly("A😀B", "😀BC");
+    }
+
+    @Test
+    void indexedFieldShouldBeCaseInsensitive() {
+        assertThat(HeaderTrigrams.indexedField("SuBjEcT")).contains("subject");
+    }
+
+    @Test
+    void indexedFieldShouldBeEmptyForOtherHeaders() {
+        assertThat(HeaderTrigrams.indexedField("Message-ID")).isEmpty();
+    }
+
+    @Test
+    void ofShouldIndexSubjectTrigrams() throws Exception {
+        MailboxMessage message = message("Subject: Hello\r\n\r\nbody");
+
+        assertThat(HeaderTrigrams.of(message)).containsOnly(
+            HeaderTrigram.of("subject", "HEL"),
+            HeaderTrigram.of("subject", "ELL"),
+            HeaderTrigram.of("subject", "LLO"));
+    }
+
+    @Test
+    void ofShouldIgnoreNotIndexedHeaders() throws Exception {
+        MailboxMessage message = message("X-Custom: Hello\r\n\r\nbody");
+
+        assertThat(HeaderTrigrams.of(message)).isEmpty();
+    }
+
+    @Test
+    void ofShouldIndexDecodedAddresses() throws Exception {
+        MailboxMessage message = message("From: =?UTF-8?Q?Beno=C3=AEt?= <btellier@linagora.com>\r\n\r\nbody");
+
+        assertThat(HeaderTrigrams.of(message))
+            .contains(HeaderTrigram.of("from", "NOÎ"),
+                HeaderTrigram.of("from", "LIN"),
+                HeaderTrigram.of("from", "=?U"));
+    }
+
+    @Test
+    void ofShouldIndexUnfoldedValues() throws Exception {
+        MailboxMessage message = message("Subject: ab\r\n cd\r\n\r\nbody");
+
+        assertThat(HeaderTrigrams.of(message)).contains(HeaderTrigram.of("subject", "B C"));
+    }
+
+    private MailboxMessage message(String content) {
+        return SimpleMailboxMessage.builder()
+            .messageId(new CassandraMessageId.Factory().generate())
+            .mailboxId(CassandraId.timeBased())
+            .uid(MessageUid.of(1))
+            .internalDate(new Date())
+            .bodyStartOctet(content.indexOf("\r\n\r\n") + 4)
+            .size(content.length())
+            .content(new SharedByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))
+            .flags(new Flags())
+            .propertyBuilder(new PropertyBuilder())
+            .build();
+    }
+}
@@ -19,15 +19,20 @@
 
 package org.apache.james.mailbox.elasticsearch;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
+import org.apache.james.backends.es.ElasticSearchBulkIndexer;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
+import org.apache.james.util.DurationParser;
 import org.apache.james.util.OptionalUtils;
 
+import com.google.common.base.Preconditions;
+
 public class ElasticSearchMailboxConfiguration {
 
     public static class Builder {
@@ -35,12 +40,16 @@ public class ElasticSearchMailboxConfiguration {
         private Optional<ReadAliasName> readAliasMailboxName;
         private Optional<WriteAliasName> writeAliasMailboxName;
         private Optional<IndexAttachments> indexAttachment;
+        private Optional<Integer> bulkSize;
+        private Optional<Duration> bulkLinger;
 
         Builder() {
             indexMailboxName = Optional.empty();
             readAliasMailboxName = Optional.empty();
             writeAliasMailboxName = Optional.empty();
             indexAttachment = Optional.empty();
+            bulkSize = Optional.empty();
+            bulkLinger = Optional.empty();
         }
 
         Builder indexMailboxName(Optional<IndexName> indexMailboxName) {
@@ -64,14 +73,36 @@ public class ElasticSearchMailboxConfiguration {
             return this;
         }
 
+        public Builder bulkSize(int bulkSize) {
+            Preconditions.checkArgument(bulkSize > 0, "bulkSize needs to be strictly positive");
+            this.bulkSize = Optional.of(bulkSize);
+            return this;
+        }
+
+        public Builder bulkSize(Optional<Integer> bulkSize) {
+            bulkSize.ifPresent(this::bulkSize);
+            return this;
+        }
 
+        public Builder bulkLinger(Duration bulkLinger) {
+            Preconditions.checkArgument(!bulkLinger.isNegative() && !bulkLinger.isZero(), "bulkLinger needs to be strictly positive");
+            this.bulkLinger = Optional.of(bulkLinger);
+            return this;
+        }
+
+        public Builder bulkLinger(Optional<Duration> bulkLinger) {
+            bulkLinger.ifPresent(this::bulkLinger);
+            return this;
+        }
 
         public ElasticSearchMailboxConfiguration build() {
             return new ElasticSearchMailboxConfiguration(
                 indexMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_INDEX),
                 readAliasMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_READ_ALIAS),
                 writeAliasMailboxName.orElse(MailboxElasticSearchConstants.DEFAULT_MAILBOX_WRITE_ALIAS),
-                indexAttachment.orElse(IndexAttachments.YES));
+                indexAttachment.orElse(IndexAttachments.YES),
+                bulkSize.orElse(ElasticSearchBulkIndexer.DEFAULT_BULK_SIZE),
+                bulkLinger.orElse(ElasticSearchBulkIndexer.DEFAULT_BULK_LINGER));
         }
     }
 
@@ -87,6 +118,8 @@ public class ElasticSearchMailboxConfiguration {
     private static final String ELASTICSEARCH_ALIAS_WRITE_MAILBOX_NAME = "elasticsearch.alias.write.mailbox.name";
     private static final String ELASTICSEARCH_INDEX_ATTACHMENTS = "elasticsearch.indexAttachments";
     private static final boolean DEFAULT_INDEX_ATTACHMENTS = true;
+    private static final String ELASTICSEARCH_INDEX_BULK_SIZE = "elasticsearch.index.bulk.size";
+    private static final String ELASTICSEARCH_INDEX_BULK_LINGER = "elasticsearch.index.bulk.linger";
 
     public static final ElasticSearchMailboxConfiguration DEFAULT_CONFIGURATION = builder().build();
 
@@ -96,6 +129,9 @@ public class ElasticSearchMailboxConfiguration {
             .readAliasMailboxName(computeMailboxReadAlias(configuration))
             .writeAliasMailboxName(computeMailboxWriteAlias(configuration))
             .indexAttachment(provideIndexAttachments(configuration))
+            .bulkSize(Optional.ofNullable(configuration.getInteger(ELASTICSEARCH_INDEX_BULK_SIZE, null)))
+            .bulkLinger(Optional.ofNullable(configuration.getString(ELASTICSEARCH_INDEX_BULK_LINGER, null))
+                .map(DurationParser::parse))
             .build();
     }
 
@@ -136,13 +172,18 @@ public class ElasticSearchMailboxConfiguration {
     private final ReadAliasName readAliasMailboxName;
     private final WriteAliasName writeAliasMailboxName;
     private final IndexAttachments indexAttachment;
+    private final int bulkSize;
+    private final Duration bulkLinger;
 
     private ElasticSearchMailboxConfiguration(IndexName indexMailboxName, ReadAliasName readAliasMailboxName,
-                                              WriteAliasName writeAliasMailboxName, IndexAttachments indexAttachment) {
+                                              WriteAliasName writeAliasMailboxName, IndexAttachments indexAttachment,
+                                              int bulkSize, Duration bulkLinger) {
         this.indexMailboxName = indexMailboxName;
         this.readAliasMailboxName = readAliasMailboxName;
         this.writeAliasMailboxName = writeAliasMailboxName;
         this.indexAttachment = indexAttachment;
+        this.bulkSize = bulkSize;
+        this.bulkLinger = bulkLinger;
     }
 
 
@@ -162,6 +203,14 @@ public class ElasticSearchMailboxConfiguration {
         return indexAttachment;
     }
 
+    public int getBulkSize() {
+        return bulkSize;
+    }
+
+    public Duration getBulkLinger() {
+        return bulkLinger;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof ElasticSearchMailboxConfiguration) {
@@ -170,13 +219,15 @@ public class ElasticSearchMailboxConfiguration {
             return Objects.equals(this.indexAttachment, that.indexAttachment)
                 && Objects.equals(this.indexMailboxName, that.indexMailboxName)
                 && Objects.equals(this.readAliasMailboxName, that.readAliasMailboxName)
-                && Objects.equals(this.writeAliasMailboxName, that.writeAliasMailboxName);
+                && Objects.equals(this.writeAliasMailboxName, that.writeAliasMailboxName)
+                && Objects.equals(this.bulkSize, that.bulkSize)
+                && Objects.equals(this.bulkLinger, that.bulkLinger);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(indexMailboxName, readAliasMailboxName, writeAliasMailboxName, indexAttachment, writeAliasMailboxName);
+        return Objects.hash(indexMailboxName, readAliasMailboxName, writeAliasMailboxName, indexAttachment, writeAliasMailboxName, bulkSize, bulkLinger);
     }
 }
@@ -27,7 +27,7 @@ import org.apache.james.backends.es.AliasName;
 import org.apache.james.backends.es.NodeMappingFactory;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.RoutingKey;
-import org.apache.james.backends.es.search.ScrolledSearch;
+import org.apache.james.backends.es.search.SearchAfterSearch;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.elasticsearch.json.JsonMessageConstants;
 import org.apache.james.mailbox.elasticsearch.query.QueryConverter;
@@ -39,9 +39,10 @@ import org.apache.james.mailbox.store.search.MessageSearchIndex;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.document.DocumentField;
-import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,7 +51,6 @@ import com.google.common.collect.ImmutableList;
 public class ElasticSearchSearcher {
     public static final int DEFAULT_SEARCH_SIZE = 100;
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticSearchSearcher.class);
-    private static final TimeValue TIMEOUT = TimeValue.timeValueMinutes(1);
     private static final ImmutableList<String> STORED_FIELDS = ImmutableList.of(JsonMessageConstants.MAILBOX_ID,
         JsonMessageConstants.UID, JsonMessageConstants.MESSAGE_ID);
 
@@ -77,7 +77,7 @@ public class ElasticSearchSearcher {
     public Stream<MessageSearchIndex.SearchResult> search(Collection<MailboxId> mailboxIds, SearchQuery query,
                                                           Optional<Integer> limit) {
         SearchRequest searchRequest = prepareSearch(mailboxIds, query, limit);
-        Stream<MessageSearchIndex.SearchResult> pairStream = new ScrolledSearch(client, searchRequest)
+        Stream<MessageSearchIndex.SearchResult> pairStream = new SearchAfterSearch(client, searchRequest)
             .searchHits()
             .flatMap(this::extractContentFromHit);
 
@@ -95,10 +95,13 @@ public class ElasticSearchSearcher {
             .stream()
             .map(SortConverter::convertSort)
             .forEach(searchSourceBuilder::sort);
+        // A message is identified by its mailbox and its uid: sorting on both last gives a total order, as required by search_after
+        searchSourceBuilder
+            .sort(SortBuilders.fieldSort(JsonMessageConstants.MAILBOX_ID).order(SortOrder.ASC))
+            .sort(SortBuilders.fieldSort(JsonMessageConstants.UID).order(SortOrder.ASC));
 
         return new SearchRequest(aliasName.getValue())
             .types(NodeMappingFactory.DEFAULT_MAPPING_NAME)
-            .scroll(TIMEOUT)
             .source(searchSourceBuilder)
             .routing(toRoutingKeys(mailboxIds));
     }
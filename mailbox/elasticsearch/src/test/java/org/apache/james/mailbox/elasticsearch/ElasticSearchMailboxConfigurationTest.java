@@ -20,8 +20,12 @@
 package org.apache.james.mailbox.elasticsearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
 
 import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.james.backends.es.ElasticSearchBulkIndexer;
 import org.apache.james.backends.es.IndexName;
 import org.apache.james.backends.es.ReadAliasName;
 import org.apache.james.backends.es.WriteAliasName;
@@ -224,4 +228,63 @@ class ElasticSearchMailboxConfigurationTest {
             .isEqualTo(IndexAttachments.YES);
     }
 
-}
\ No newline at end of file
+    @Test
+    void getBulkSizeShouldReturnConfiguredValue() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.index.bulk.size", 50);
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkSize())
+            .isEqualTo(50);
+    }
+
+    @Test
+    void getBulkSizeShouldReturnDefaultValueWhenMissing() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkSize())
+            .isEqualTo(ElasticSearchBulkIndexer.DEFAULT_BULK_SIZE);
+    }
+
+    @Test
+    void fromPropertiesShouldThrowWhenBulkSizeIsNotPositive() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.index.bulk.size", 0);
+
+        assertThatThrownBy(() -> ElasticSearchMailboxConfiguration.fromProperties(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getBulkLingerShouldReturnConfiguredValue() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.index.bulk.linger", "25ms");
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkLinger())
+            .isEqualTo(Duration.ofMillis(25));
+    }
+
+    @Test
+    void getBulkLingerShouldReturnDefaultValueWhenMissing() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+
+        ElasticSearchMailboxConfiguration elasticSearchConfiguration = ElasticSearchMailboxConfiguration.fromProperties(configuration);
+
+        assertThat(elasticSearchConfiguration.getBulkLinger())
+            .isEqualTo(ElasticSearchBulkIndexer.DEFAULT_BULK_LINGER);
+    }
+
+    @Test
+    void fromPropertiesShouldThrowWhenBulkLingerIsZero() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("elasticsearch.index.bulk.linger", "0ms");
+
+        assertThatThrownBy(() -> ElasticSearchMailboxConfiguration.fromProperties(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
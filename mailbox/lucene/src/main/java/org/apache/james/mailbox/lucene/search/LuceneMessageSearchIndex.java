@@ -19,6 +19,7 @@
 package org.apache.james.mailbox.lucene.search;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -35,6 +36,7 @@ import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import javax.annotation.PreDestroy;
@@ -96,7 +98,6 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.NumericField;
-import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
@@ -108,6 +109,8 @@ import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
@@ -149,6 +152,11 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
      * Default max query results
      */
     private static final int DEFAULT_MAX_QUERY_RESULTS = 100000;
+
+    /**
+     * Marks searches loading every hit, regardless of how many distinct messages they hold
+     */
+    private static final long UNLIMITED = -1;
     
     /**
      * {@link Field} which will contain the unique index of the {@link Document}
@@ -358,6 +366,10 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
     private final MessageId.Factory messageIdFactory;
     private final IndexWriter writer;
     private final Directory directory;
+    private final SearcherManager searcherManager;
+    private final AtomicLong writeGeneration;
+    private final Object refreshLock;
+    private volatile long searcherGeneration;
 
     private int maxQueryResults = DEFAULT_MAX_QUERY_RESULTS;
 
@@ -386,11 +398,16 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         this.messageIdFactory = messageIdFactory;
         this.directory = directory;
         this.writer = new IndexWriter(this.directory,  createConfig(createAnalyzer(lenient), dropIndexOnStart));
+        this.searcherManager = new SearcherManager(writer, true, new SearcherFactory());
+        this.writeGeneration = new AtomicLong();
+        this.refreshLock = new Object();
+        this.searcherGeneration = 0;
     }
 
     @PreDestroy
     public void close() throws IOException {
         try {
+            searcherManager.close();
             writer.close();
         } finally {
             if (IndexWriter.isLocked(directory)) {
@@ -418,7 +435,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
     }
     
     protected IndexWriterConfig createConfig(Analyzer analyzer, boolean dropIndexOnStart) {
-        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_31, analyzer);
+        IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36, analyzer);
         if (dropIndexOnStart) {
             config.setOpenMode(OpenMode.CREATE);
         } else {
@@ -455,7 +472,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
     public Stream<MessageUid> search(MailboxSession session, Mailbox mailbox, SearchQuery searchQuery) throws MailboxException {
         Preconditions.checkArgument(session != null, "'session' is mandatory");
 
-        return searchMultimap(ImmutableList.of(mailbox.getMailboxId()), searchQuery)
+        return searchMultimap(ImmutableList.of(mailbox.getMailboxId()), searchQuery, UNLIMITED)
             .stream()
             .map(SearchResult::getMessageUid);
     }
@@ -467,7 +484,7 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
             return ImmutableList.of();
         }
 
-        return searchMultimap(mailboxIds, searchQuery)
+        return searchMultimap(mailboxIds, searchQuery, limit)
             .stream()
             .map(searchResult -> searchResult.getMessageId().get())
             .filter(SearchUtil.distinct())
@@ -475,12 +492,18 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
             .collect(Guavate.toImmutableList());
     }
     
-    private List<SearchResult> searchMultimap(Collection<MailboxId> mailboxIds, SearchQuery searchQuery) throws MailboxException {
+    /**
+     * Hits are loaded in sort order, and loading stops as soon as <code>limit</code> distinct messages are
+     * found: further documents can not make it into the result.
+     */
+    private List<SearchResult> searchMultimap(Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
         ImmutableList.Builder<SearchResult> results = ImmutableList.builder();
+        Set<Optional<MessageId>> foundMessageIds = new HashSet<>();
 
         Query inMailboxes = buildQueryFromMailboxes(mailboxIds);
         
-        try (IndexSearcher searcher = new IndexSearcher(IndexReader.open(writer, true))) {
+        try (SearcherReference searcherReference = acquireSearcher()) {
+            IndexSearcher searcher = searcherReference.searcher;
             BooleanQuery query = new BooleanQuery();
             query.add(inMailboxes, BooleanClause.Occur.MUST);
             // Not return flags documents
@@ -500,6 +523,9 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
                 MailboxId mailboxId = mailboxIdFactory.fromString(doc.get(MAILBOX_ID_FIELD));
                 Optional<MessageId> messageId = toMessageId(Optional.ofNullable(doc.get(MESSAGE_ID_FIELD)));
                 results.add(new SearchResult(messageId, mailboxId, uid));
+                if (limit != UNLIMITED && foundMessageIds.add(messageId) && foundMessageIds.size() >= limit) {
+                    break;
+                }
             }
         } catch (IOException e) {
             throw new MailboxException("Unable to search the mailbox", e);
@@ -935,7 +961,8 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         query.add(inMailboxes, BooleanClause.Occur.MUST);
 
 
-        try (IndexSearcher searcher = new IndexSearcher(IndexReader.open(writer, true))) {
+        try (SearcherReference searcherReference = acquireSearcher()) {
+            IndexSearcher searcher = searcherReference.searcher;
             Set<MessageUid> uids = new HashSet<>();
 
             // query for all the documents sorted by uid
@@ -1181,35 +1208,48 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
 
         writer.addDocument(doc);
         writer.addDocument(flagsDoc);
+        writeGeneration.incrementAndGet();
     }
 
+    /**
+     * Flags documents only hold the mailbox id, the uid and the flags: they are rewritten from the
+     * {@link UpdatedFlags} without reading them back. A single search finds which of the updated messages are
+     * indexed, so that a whole batch of flags updates costs one searcher acquisition.
+     */
     @Override
     public void update(MailboxSession session, Mailbox mailbox, List<UpdatedFlags> updatedFlagsList) throws IOException {
+        if (updatedFlagsList.isEmpty()) {
+            return;
+        }
+        Set<MessageUid> indexedUids = indexedFlagsDocuments(mailbox.getMailboxId(), updatedFlagsList);
+
         for (UpdatedFlags updatedFlags : updatedFlagsList) {
-            update(mailbox, updatedFlags.getUid(), updatedFlags.getNewFlags());
+            if (indexedUids.contains(updatedFlags.getUid())) {
+                writer.updateDocument(new Term(ID_FIELD, flagsDocumentId(mailbox.getMailboxId(), updatedFlags.getUid())),
+                    createFlagsDocument(mailbox.getMailboxId(), updatedFlags.getUid(), updatedFlags.getNewFlags()));
+            }
         }
+        writeGeneration.incrementAndGet();
     }
 
-    private void update(Mailbox mailbox, MessageUid uid, Flags f) throws IOException {
-        try (IndexSearcher searcher = new IndexSearcher(IndexReader.open(writer, true))) {
+    private Set<MessageUid> indexedFlagsDocuments(MailboxId mailboxId, List<UpdatedFlags> updatedFlagsList) throws IOException {
+        long lowestUid = updatedFlagsList.stream().mapToLong(updatedFlags -> updatedFlags.getUid().asLong()).min().getAsLong();
+        long highestUid = updatedFlagsList.stream().mapToLong(updatedFlags -> updatedFlags.getUid().asLong()).max().getAsLong();
+
+        try (SearcherReference searcherReference = acquireSearcher()) {
+            IndexSearcher searcher = searcherReference.searcher;
             BooleanQuery query = new BooleanQuery();
-            query.add(new TermQuery(new Term(MAILBOX_ID_FIELD, mailbox.getMailboxId().serialize())), BooleanClause.Occur.MUST);
-            query.add(createQuery(MessageRange.one(uid)), BooleanClause.Occur.MUST);
+            query.add(new TermQuery(new Term(MAILBOX_ID_FIELD, mailboxId.serialize())), BooleanClause.Occur.MUST);
+            query.add(NumericRangeQuery.newLongRange(UID_FIELD, lowestUid, highestUid, true, true), BooleanClause.Occur.MUST);
             query.add(new PrefixQuery(new Term(FLAGS_FIELD, "")), BooleanClause.Occur.MUST);
 
-            TopDocs docs = searcher.search(query, 100000);
-            ScoreDoc[] sDocs = docs.scoreDocs;
-            for (ScoreDoc sDoc : sDocs) {
-                Document doc = searcher.doc(sDoc.doc);
-
-                if (doc.getFieldable(FLAGS_FIELD) == null) {
-                    doc.removeFields(FLAGS_FIELD);
-                    indexFlags(doc, f);
-
-                    writer.updateDocument(new Term(ID_FIELD, doc.get(ID_FIELD)), doc);
-
-                }
+            Set<MessageUid> uids = new HashSet<>();
+            int maxResults = (int) Math.max(1, Math.min(searcher.maxDoc(), highestUid - lowestUid + 1));
+            TopDocs docs = searcher.search(query, maxResults);
+            for (ScoreDoc sDoc : docs.scoreDocs) {
+                uids.add(MessageUid.of(Long.parseLong(searcher.doc(sDoc.doc).get(UID_FIELD))));
             }
+            return uids;
         }
     }
 
@@ -1217,14 +1257,22 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
      * Index the {@link Flags} and add it to the {@link Document}
      */
     private Document createFlagsDocument(MailboxMessage message) {
+        return createFlagsDocument(message.getMailboxId(), message.getUid(), message.createFlags());
+    }
+
+    private Document createFlagsDocument(MailboxId mailboxId, MessageUid uid, Flags flags) {
         Document doc = new Document();
-        doc.add(new Field(ID_FIELD, "flags-" + message.getMailboxId().serialize() + "-" + Long.toString(message.getUid().asLong()), Store.YES, Index.NOT_ANALYZED));
-        doc.add(new Field(MAILBOX_ID_FIELD, message.getMailboxId().serialize(), Store.YES, Index.NOT_ANALYZED));
-        doc.add(new NumericField(UID_FIELD,Store.YES, true).setLongValue(message.getUid().asLong()));
+        doc.add(new Field(ID_FIELD, flagsDocumentId(mailboxId, uid), Store.YES, Index.NOT_ANALYZED));
+        doc.add(new Field(MAILBOX_ID_FIELD, mailboxId.serialize(), Store.YES, Index.NOT_ANALYZED));
+        doc.add(new NumericField(UID_FIELD,Store.YES, true).setLongValue(uid.asLong()));
         
-        indexFlags(doc, message.createFlags());
+        indexFlags(doc, flags);
         return doc;
     }
+
+    private String flagsDocumentId(MailboxId mailboxId, MessageUid uid) {
+        return "flags-" + mailboxId.serialize() + "-" + Long.toString(uid.asLong());
+    }
     
     /**
      * Add the given {@link Flags} to the {@link Document}
@@ -1283,9 +1331,46 @@ public class LuceneMessageSearchIndex extends ListeningMessageSearchIndex {
         query.add(createQuery(range), BooleanClause.Occur.MUST);
 
         writer.deleteDocuments(query);
+        writeGeneration.incrementAndGet();
     }
 
     public void commit() throws IOException {
         writer.commit();
     }
+
+    /**
+     * Searcher shared by concurrent searches, released back to the {@link SearcherManager} once closed.
+     */
+    private class SearcherReference implements Closeable {
+        private final IndexSearcher searcher;
+
+        SearcherReference(IndexSearcher searcher) {
+            this.searcher = searcher;
+        }
+
+        @Override
+        public void close() throws IOException {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Returns a near-real-time searcher seeing every write completed before this call.
+     *
+     * The shared searcher is only reopened when writes happened since its last refresh. Concurrent searches
+     * waiting for the same writes share a single refresh.
+     */
+    private SearcherReference acquireSearcher() throws IOException {
+        long expectedGeneration = writeGeneration.get();
+        if (searcherGeneration < expectedGeneration) {
+            synchronized (refreshLock) {
+                if (searcherGeneration < expectedGeneration) {
+                    long refreshedGeneration = writeGeneration.get();
+                    searcherManager.maybeRefresh();
+                    searcherGeneration = refreshedGeneration;
+                }
+            }
+        }
+        return new SearcherReference(searcherManager.acquire());
+    }
 }
\ No newline at end of file
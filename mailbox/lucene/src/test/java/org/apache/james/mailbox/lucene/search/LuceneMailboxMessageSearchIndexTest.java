@@ -21,6 +21,7 @@ package org.apache.james.mailbox.lucene.search;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -36,6 +37,7 @@ import org.apache.james.core.Username;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MailboxSessionUtil;
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.model.MessageId;
@@ -47,7 +49,9 @@ import org.apache.james.mailbox.model.SearchQuery.Sort.Order;
 import org.apache.james.mailbox.model.SearchQuery.Sort.SortClause;
 import org.apache.james.mailbox.model.TestId;
 import org.apache.james.mailbox.model.TestMessageId;
+import org.apache.james.mailbox.model.UpdatedFlags;
 import org.apache.james.mailbox.store.MessageBuilder;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.apache.lucene.store.RAMDirectory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -662,4 +666,134 @@ class LuceneMailboxMessageSearchIndexTest {
         Stream<MessageUid> result = index.search(session, mailbox, query);
         assertThat(result).containsExactly(uid3, uid4);
     }
+
+    @Test
+    void searchShouldReturnMessagesAddedAfterAPreviousSearch() throws Exception {
+        SearchQuery query = new SearchQuery(SearchQuery.all());
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid3, uid4);
+
+        MessageUid uid6 = MessageUid.of(11);
+        index.add(session, mailbox, new MessageBuilder()
+            .mailboxId(TEST_ID_1)
+            .uid(uid6)
+            .internalDate(new Date())
+            .body("My Body".getBytes(StandardCharsets.UTF_8))
+            .size(20)
+            .build(id1));
+
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid3, uid4, uid6);
+    }
+
+    @Test
+    void searchShouldNotReturnMessagesDeletedAfterAPreviousSearch() throws Exception {
+        SearchQuery query = new SearchQuery(SearchQuery.all());
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid3, uid4);
+
+        index.delete(session, mailbox, ImmutableList.of(uid3));
+
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid4);
+    }
+
+    @Test
+    void flagSearchShouldReturnFlagsUpdatedAfterAPreviousSearch() throws Exception {
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.flagIsSet(Flag.DELETED));
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid3, uid4);
+
+        index.update(session, mailbox, ImmutableList.of(UpdatedFlags.builder()
+            .uid(uid1)
+            .oldFlags(new Flags(Flag.ANSWERED))
+            .newFlags(new Flags(Flag.DELETED))
+            .modSeq(ModSeq.of(2))
+            .build()));
+
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1, uid3, uid4);
+    }
+
+    @Test
+    void concurrentSearchesShouldSeeMessagesAddedBeforehand() throws Exception {
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                MessageUid uid = MessageUid.of(100 + threadNumber * 100 + step);
+                index.add(session, mailbox, new MessageBuilder()
+                    .mailboxId(TEST_ID_1)
+                    .uid(uid)
+                    .internalDate(new Date())
+                    .body("My Body".getBytes(StandardCharsets.UTF_8))
+                    .size(20)
+                    .build(id1));
+
+                SearchQuery query = new SearchQuery(SearchQuery.uid(new SearchQuery.UidRange[] { new SearchQuery.UidRange(uid)}));
+                assertThat(index.search(session, mailbox, query)).containsExactly(uid);
+            })
+            .threadCount(10)
+            .operationCount(20)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void updateShouldApplyAllUpdatedFlagsOfTheBatch() throws Exception {
+        index.update(session, mailbox, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(uid1)
+                .oldFlags(new Flags(Flag.ANSWERED))
+                .newFlags(new Flags(Flag.SEEN))
+                .modSeq(ModSeq.of(2))
+                .build(),
+            UpdatedFlags.builder()
+                .uid(uid4)
+                .oldFlags(new Flags(Flag.DELETED))
+                .newFlags(new Flags(Flag.SEEN))
+                .modSeq(ModSeq.of(3))
+                .build()));
+
+        SearchQuery seenQuery = new SearchQuery();
+        seenQuery.andCriteria(SearchQuery.flagIsSet(Flag.SEEN));
+        SearchQuery deletedQuery = new SearchQuery();
+        deletedQuery.andCriteria(SearchQuery.flagIsSet(Flag.DELETED));
+        SearchQuery answeredQuery = new SearchQuery();
+        answeredQuery.andCriteria(SearchQuery.flagIsSet(Flag.ANSWERED));
+
+        assertThat(index.search(session, mailbox, seenQuery)).containsExactly(uid1, uid4);
+        assertThat(index.search(session, mailbox, deletedQuery)).containsExactly(uid3);
+        assertThat(index.search(session, mailbox, answeredQuery)).isEmpty();
+    }
+
+    @Test
+    void updateShouldIgnoreMessagesThatAreNotIndexed() throws Exception {
+        MessageUid notIndexedUid = MessageUid.of(42);
+
+        index.update(session, mailbox, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(uid1)
+                .oldFlags(new Flags(Flag.ANSWERED))
+                .newFlags(new Flags(Flag.FLAGGED))
+                .modSeq(ModSeq.of(2))
+                .build(),
+            UpdatedFlags.builder()
+                .uid(notIndexedUid)
+                .oldFlags(new Flags())
+                .newFlags(new Flags(Flag.FLAGGED))
+                .modSeq(ModSeq.of(3))
+                .build()));
+
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.flagIsSet(Flag.FLAGGED));
+        assertThat(index.search(session, mailbox, query)).containsExactly(uid1);
+    }
+
+    @Test
+    void updateShouldNotAffectOtherMailboxes() throws Exception {
+        index.update(session, mailbox, ImmutableList.of(
+            UpdatedFlags.builder()
+                .uid(uid2)
+                .oldFlags(new Flags(Flag.ANSWERED))
+                .newFlags(new Flags(Flag.FLAGGED))
+                .modSeq(ModSeq.of(2))
+                .build()));
+
+        SearchQuery query = new SearchQuery();
+        query.andCriteria(SearchQuery.flagIsSet(Flag.ANSWERED));
+        assertThat(index.search(session, mailbox2, query)).containsExactly(uid2);
+    }
 }
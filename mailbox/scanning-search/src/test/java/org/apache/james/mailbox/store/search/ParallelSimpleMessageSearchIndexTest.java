@@ -0,0 +1,44 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources.MailboxManagerPreInstanciationStage;
+import org.junit.jupiter.api.Test;
+
+class ParallelSimpleMessageSearchIndexTest extends SimpleMessageSearchIndexTest {
+    private static final int SEARCH_CONCURRENCY = 4;
+
+    @Override
+    protected SimpleMessageSearchIndex createSearchIndex(MailboxManagerPreInstanciationStage preInstanciationStage) {
+        return new SimpleMessageSearchIndex(
+            preInstanciationStage.getMapperFactory(),
+            preInstanciationStage.getMapperFactory(),
+            new PDFTextExtractor(),
+            SEARCH_CONCURRENCY);
+    }
+
+    @Test
+    void constructorShouldThrowOnZeroSearchConcurrency() {
+        assertThatThrownBy(() -> new SimpleMessageSearchIndex(null, null, new PDFTextExtractor(), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -19,8 +19,36 @@
 
 package org.apache.james.mailbox.store.search;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.inmemory.InMemoryMailboxManager;
 import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources;
+import org.apache.james.mailbox.inmemory.manager.InMemoryIntegrationResources.MailboxManagerPreInstanciationStage;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.store.mail.MessageMapper;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 class SimpleMessageSearchIndexTest extends AbstractMessageSearchIndexTest {
 
@@ -36,10 +64,7 @@ class SimpleMessageSearchIndexTest extends AbstractMessageSearchIndexTest {
             .inVmEventBus()
             .defaultAnnotationLimits()
             .defaultMessageParser()
-            .searchIndex(preInstanciationStage -> new SimpleMessageSearchIndex(
-                preInstanciationStage.getMapperFactory(),
-                preInstanciationStage.getMapperFactory(),
-                new PDFTextExtractor()))
+            .searchIndex(this::createSearchIndex)
             .noPreDeletionHooks()
             .storeQuotaManager()
             .build();
@@ -49,6 +74,68 @@ class SimpleMessageSearchIndexTest extends AbstractMessageSearchIndexTest {
         messageSearchIndex = resources.getSearchIndex();
     }
 
+    protected SimpleMessageSearchIndex createSearchIndex(MailboxManagerPreInstanciationStage preInstanciationStage) {
+        return new SimpleMessageSearchIndex(
+            preInstanciationStage.getMapperFactory(),
+            preInstanciationStage.getMapperFactory(),
+            new PDFTextExtractor());
+    }
+
+    @Test
+    void searchShouldOnlyReadSparseCandidatesWithTheirContent() throws Exception {
+        AtomicInteger messagesReadWithContent = new AtomicInteger(0);
+        InMemoryIntegrationResources resources = InMemoryIntegrationResources.builder()
+            .preProvisionnedFakeAuthenticator()
+            .fakeAuthorizator()
+            .inVmEventBus()
+            .defaultAnnotationLimits()
+            .defaultMessageParser()
+            .searchIndex(preInstanciationStage -> new SimpleMessageSearchIndex(
+                mailboxSession -> countingContentReads(preInstanciationStage.getMapperFactory().getMessageMapper(mailboxSession), messagesReadWithContent),
+                preInstanciationStage.getMapperFactory(),
+                new PDFTextExtractor()))
+            .noPreDeletionHooks()
+            .storeQuotaManager()
+            .build();
+        InMemoryMailboxManager mailboxManager = resources.getMailboxManager();
+        MailboxSession mailboxSession = mailboxManager.createSystemSession(Username.of("sparse"));
+        MailboxPath inbox = MailboxPath.inbox(mailboxSession);
+        mailboxManager.createMailbox(inbox, mailboxSession);
+        MessageManager messageManager = mailboxManager.getMailbox(inbox, mailboxSession);
+        for (int i = 1; i <= 100; i++) {
+            Flags flags = new Flags();
+            if (i == 1 || i == 50 || i == 100) {
+                flags.add(Flags.Flag.FLAGGED);
+            }
+            messageManager.appendMessage(MessageManager.AppendCommand.builder()
+                .withFlags(flags)
+                .build("Subject: message " + i + "\r\n\r\nbody"), mailboxSession);
+        }
+
+        SearchQuery searchQuery = new SearchQuery(SearchQuery.and(
+            SearchQuery.flagIsSet(Flags.Flag.FLAGGED),
+            SearchQuery.headerExists("Subject")));
+        List<MessageUid> result = resources.getSearchIndex()
+            .search(mailboxSession, messageManager.getMailboxEntity(), searchQuery)
+            .collect(Guavate.toImmutableList());
+
+        assertThat(result).containsExactly(MessageUid.of(1), MessageUid.of(50), MessageUid.of(100));
+        assertThat(messagesReadWithContent.get()).isEqualTo(3);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessageMapper countingContentReads(MessageMapper messageMapper, AtomicInteger messagesReadWithContent) throws MailboxException {
+        MessageMapper countingMessageMapper = spy(messageMapper);
+        doAnswer(invocation -> {
+            List<MailboxMessage> messages = ImmutableList.copyOf((Iterator<MailboxMessage>) invocation.callRealMethod());
+            if (invocation.getArgument(2) != FetchType.Metadata) {
+                messagesReadWithContent.addAndGet(messages.size());
+            }
+            return messages.iterator();
+        }).when(countingMessageMapper).findInMailbox(any(), any(), any(), anyInt());
+        return countingMessageMapper;
+    }
+
     @Disabled("JAMES-1799: ignoring failing test after generalizing ElasticSearch test suite to other mailbox search backends")
     @Override
     public void flagIsSetShouldReturnUidOfMessageMarkedAsRecentWhenUsedWithFlagRecent() {
@@ -609,15 +609,7 @@ public class StoreMailboxManager implements MailboxManager {
     }
 
     private List<MailboxMetaData> searchMailboxes(MailboxQuery mailboxQuery, MailboxSession session, Right right) throws MailboxException {
-        MailboxMapper mailboxMapper = mailboxSessionMapperFactory.getMailboxMapper(session);
-        Stream<Mailbox> baseMailboxes = mailboxMapper
-            .findMailboxWithPathLike(toSingleUserQuery(mailboxQuery, session))
-            .stream();
-        Stream<Mailbox> delegatedMailboxes = getDelegatedMailboxes(mailboxMapper, mailboxQuery, right, session);
-        List<Mailbox> mailboxes = Stream.concat(baseMailboxes, delegatedMailboxes)
-            .distinct()
-            .filter(Throwing.predicate(mailbox -> storeRightManager.hasRight(mailbox, right, session)))
-            .collect(Guavate.toImmutableList());
+        List<Mailbox> mailboxes = getMailboxesWithRight(mailboxQuery, session, right);
 
         ImmutableMap<MailboxId, MailboxCounters> counters = getMailboxCounters(mailboxes, session)
             .stream()
@@ -635,6 +627,18 @@ public class StoreMailboxManager implements MailboxManager {
             .collect(Guavate.toImmutableList());
     }
 
+    private List<Mailbox> getMailboxesWithRight(MailboxQuery mailboxQuery, MailboxSession session, Right right) throws MailboxException {
+        MailboxMapper mailboxMapper = mailboxSessionMapperFactory.getMailboxMapper(session);
+        Stream<Mailbox> baseMailboxes = mailboxMapper
+            .findMailboxWithPathLike(toSingleUserQuery(mailboxQuery, session))
+            .stream();
+        Stream<Mailbox> delegatedMailboxes = getDelegatedMailboxes(mailboxMapper, mailboxQuery, right, session);
+        return Stream.concat(baseMailboxes, delegatedMailboxes)
+            .distinct()
+            .filter(Throwing.predicate(mailbox -> storeRightManager.hasRight(mailbox, right, session)))
+            .collect(Guavate.toImmutableList());
+    }
+
     static MailboxQuery.UserBound toSingleUserQuery(MailboxQuery mailboxQuery, MailboxSession mailboxSession) {
         return MailboxQuery.builder()
             .namespace(mailboxQuery.getNamespace().orElse(MailboxConstants.USER_NAMESPACE))
@@ -703,10 +707,16 @@ public class StoreMailboxManager implements MailboxManager {
         }
     }
 
+    /**
+     * Unlike {@link #search(MailboxQuery, MailboxSession)}, neither counters nor metadata of the mailboxes are needed
+     * here, sparing reads proportional to the number of mailboxes.
+     */
     private Stream<MailboxId> getAllReadableMailbox(MailboxSession session) throws MailboxException {
-        return searchMailboxes(MailboxQuery.builder().matchesAllMailboxNames().build(), session, Right.Read)
+        MailboxQuery mailboxQuery = MailboxQuery.builder().matchesAllMailboxNames().build();
+        return getMailboxesWithRight(mailboxQuery, session, Right.Read)
             .stream()
-            .map(MailboxMetaData::getId);
+            .filter(mailboxQuery::matches)
+            .map(Mailbox::getMailboxId);
     }
 
     @Override
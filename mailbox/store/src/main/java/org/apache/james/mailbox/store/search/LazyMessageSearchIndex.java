@@ -90,6 +90,11 @@ public class LazyMessageSearchIndex extends ListeningMessageSearchIndex {
         index.add(session, mailbox, message);
     }
 
+    @Override
+    public void add(MailboxSession session, Mailbox mailbox, Collection<MailboxMessage> messages) throws Exception {
+        index.add(session, mailbox, messages);
+    }
+
     @Override
     public void delete(MailboxSession session, Mailbox mailbox, Collection<MessageUid> expungedUids) throws Exception {
         index.delete(session, mailbox, expungedUids);
@@ -38,8 +38,8 @@ import org.apache.james.util.streams.Iterators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 /**
  * {@link MessageSearchIndex} which needs to get registered as global {@link MailboxListener} and so get
@@ -49,6 +49,7 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
     private static final Logger LOGGER = LoggerFactory.getLogger(ListeningMessageSearchIndex.class);
 
     protected static final int UNLIMITED = -1;
+    private static final int ADDED_MESSAGES_BATCH_SIZE = 100;
     private final MailboxSessionMapperFactory factory;
     private final SessionProvider sessionProvider;
     private static final ImmutableList<Class<? extends Event>> INTERESTING_EVENTS = ImmutableList.of(Added.class, Expunged.class, FlagsUpdated.class, MailboxDeletion.class);
@@ -93,11 +94,14 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
         }
     }
 
-    private void handleAdded(MailboxSession session, Mailbox mailbox, Added added) {
-        MessageRange.toRanges(added.getUids())
+    private void handleAdded(MailboxSession session, Mailbox mailbox, Added added) throws Exception {
+        Stream<MailboxMessage> addedMessages = MessageRange.toRanges(added.getUids())
             .stream()
-            .flatMap(range -> retrieveMailboxMessages(session, mailbox, range))
-            .forEach(Throwing.<MailboxMessage>consumer(mailboxMessage -> add(session, mailbox, mailboxMessage)).sneakyThrow());
+            .flatMap(range -> retrieveMailboxMessages(session, mailbox, range));
+
+        for (List<MailboxMessage> messages : Iterables.partition(addedMessages::iterator, ADDED_MESSAGES_BATCH_SIZE)) {
+            add(session, mailbox, messages);
+        }
     }
 
     private Stream<MailboxMessage> retrieveMailboxMessages(MailboxSession session, Mailbox mailbox, MessageRange range) {
@@ -119,6 +123,21 @@ public abstract class ListeningMessageSearchIndex implements MessageSearchIndex,
      */
     public abstract void add(MailboxSession session, Mailbox mailbox, MailboxMessage message) throws Exception;
 
+    /**
+     * Add the {@link MailboxMessage}s for the given {@link Mailbox} to the index.
+     *
+     * Implementations backed by a search engine supporting bulk writes should override this method.
+     *
+     * @param session The mailbox session performing the message addition
+     * @param mailbox mailbox on which the message addition was performed
+     * @param messages The added messages
+     */
+    public void add(MailboxSession session, Mailbox mailbox, Collection<MailboxMessage> messages) throws Exception {
+        for (MailboxMessage message : messages) {
+            add(session, mailbox, message);
+        }
+    }
+
     /**
      * Delete the concerned UIDs for the given {@link Mailbox} from the index
      *
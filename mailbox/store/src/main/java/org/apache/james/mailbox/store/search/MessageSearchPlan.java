@@ -0,0 +1,133 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.ConjunctionCriterion;
+import org.apache.james.mailbox.model.SearchQuery.Criterion;
+import org.apache.james.mailbox.model.SearchQuery.Sort.SortClause;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Execution plan of a {@link SearchQuery} scanning the messages of a mailbox.
+ *
+ * Criteria relying only on message metadata (UID, flags, MODSEQ, internal date, size, attachment presence) are cheap to
+ * evaluate: they are used to prefilter messages read with {@link FetchType#Metadata}. Only the remaining candidates
+ * then need to be read with {@link #candidatesFetchType()} and matched against the whole query.
+ */
+public class MessageSearchPlan {
+    private static final ImmutableSet<SortClause> METADATA_SORT_CLAUSES = ImmutableSet.of(SortClause.Arrival, SortClause.Size, SortClause.Uid, SortClause.Id);
+
+    public static MessageSearchPlan of(SearchQuery query, TextExtractor textExtractor) {
+        return new MessageSearchPlan(query, textExtractor);
+    }
+
+    private static boolean isMetadataCriterion(Criterion criterion) {
+        if (criterion instanceof ConjunctionCriterion) {
+            return ((ConjunctionCriterion) criterion).getCriteria()
+                .stream()
+                .allMatch(MessageSearchPlan::isMetadataCriterion);
+        }
+        return criterion instanceof SearchQuery.AllCriterion
+            || criterion instanceof SearchQuery.UidCriterion
+            || criterion instanceof SearchQuery.FlagCriterion
+            || criterion instanceof SearchQuery.CustomFlagCriterion
+            || criterion instanceof SearchQuery.ModSeqCriterion
+            || criterion instanceof SearchQuery.InternalDateCriterion
+            || criterion instanceof SearchQuery.SizeCriterion
+            || criterion instanceof SearchQuery.AttachmentCriterion;
+    }
+
+    private static boolean needsContent(Criterion criterion) {
+        if (criterion instanceof ConjunctionCriterion) {
+            return ((ConjunctionCriterion) criterion).getCriteria()
+                .stream()
+                .anyMatch(MessageSearchPlan::needsContent);
+        }
+        return criterion instanceof SearchQuery.TextCriterion;
+    }
+
+    private final SearchQuery query;
+    private final List<Criterion> metadataCriteria;
+    private final boolean metadataOnly;
+    private final FetchType candidatesFetchType;
+    private final MessageSearches metadataMatcher;
+
+    private MessageSearchPlan(SearchQuery query, TextExtractor textExtractor) {
+        this.query = query;
+        this.metadataCriteria = query.getCriterias()
+            .stream()
+            .filter(MessageSearchPlan::isMetadataCriterion)
+            .collect(Guavate.toImmutableList());
+        this.metadataOnly = metadataCriteria.size() == query.getCriterias().size()
+            && query.getSorts().stream().allMatch(sort -> METADATA_SORT_CLAUSES.contains(sort.getSortClause()));
+        this.candidatesFetchType = computeCandidatesFetchType();
+        this.metadataMatcher = new MessageSearches(Collections.emptyIterator(), query, textExtractor);
+    }
+
+    private FetchType computeCandidatesFetchType() {
+        if (metadataOnly) {
+            return FetchType.Metadata;
+        }
+        if (query.getCriterias().stream().anyMatch(MessageSearchPlan::needsContent)) {
+            return FetchType.Full;
+        }
+        return FetchType.Headers;
+    }
+
+    /**
+     * @return true if messages read with {@link FetchType#Metadata} are enough to both match and sort the results
+     */
+    public boolean isMetadataOnly() {
+        return metadataOnly;
+    }
+
+    /**
+     * @return false if no criterion can be evaluated on metadata, in which case a metadata prefiltering is useless
+     */
+    public boolean hasMetadataCriteria() {
+        return !metadataCriteria.isEmpty();
+    }
+
+    public FetchType candidatesFetchType() {
+        return candidatesFetchType;
+    }
+
+    /**
+     * @return false if the message can not match the query, whatever its headers and content
+     */
+    public boolean matchesMetadataCriteria(MailboxMessage message) throws MailboxException {
+        for (Criterion criterion : metadataCriteria) {
+            if (!metadataMatcher.isMatch(criterion, message, query.getRecentMessageUids())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -92,6 +92,8 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
     private final Iterator<MailboxMessage> messages;
     private final SearchQuery query;
     private final TextExtractor textExtractor;
+    private MailboxMessage parsedHeadersMessage;
+    private List<Header> parsedHeaders;
 
     public MessageSearches(Iterator<MailboxMessage> messages, SearchQuery query, TextExtractor textExtractor) {
         this.messages = messages;
@@ -101,6 +103,18 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
 
     @Override
     public Iterator<SimpleMessageSearchIndex.SearchResult> iterator() {
+        return matchingMessages()
+            .map(mailboxMessage -> new SimpleMessageSearchIndex.SearchResult(
+                Optional.of(mailboxMessage.getMessageId()),
+                mailboxMessage.getMailboxId(),
+                mailboxMessage.getUid()))
+            .iterator();
+    }
+
+    /**
+     * @return the messages matching the query, sorted as requested by the query
+     */
+    public Stream<MailboxMessage> matchingMessages() {
         ImmutableList.Builder<MailboxMessage> builder = ImmutableList.builder();
         while (messages.hasNext()) {
             MailboxMessage m = messages.next();
@@ -114,12 +128,7 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
         }
         return builder.build()
             .stream()
-            .sorted(CombinedComparator.create(query.getSorts()))
-            .map(mailboxMessage -> new SimpleMessageSearchIndex.SearchResult(
-                Optional.of(mailboxMessage.getMessageId()),
-                mailboxMessage.getMailboxId(),
-                mailboxMessage.getUid()))
-            .iterator();
+            .sorted(CombinedComparator.createWithCachedSortKeys(query.getSorts()));
     }
 
     /**
@@ -415,7 +424,7 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
     private boolean matchesAddress(SearchQuery.AddressOperator operator, String headerName,
                                    MailboxMessage message) throws MailboxException, IOException {
         String text = operator.getAddress();
-        List<Header> headers = ResultUtils.createHeaders(message);
+        List<Header> headers = headers(message);
         for (Header header : headers) {
             String name = header.getName();
             if (headerName.equalsIgnoreCase(name)) {
@@ -462,8 +471,19 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
             AddressFormatter.DEFAULT.encode(mailbox));
     }
 
+    /**
+     * Headers of the last evaluated message are retained, so that they are parsed once for all the header criteria.
+     */
+    private List<Header> headers(MailboxMessage message) throws IOException {
+        if (parsedHeadersMessage != message) {
+            parsedHeaders = ResultUtils.createHeaders(message);
+            parsedHeadersMessage = message;
+        }
+        return parsedHeaders;
+    }
+
     private boolean exists(String headerName, MailboxMessage message) throws MailboxException, IOException {
-        List<Header> headers = ResultUtils.createHeaders(message);
+        List<Header> headers = headers(message);
 
         return headers.stream()
             .map(Header::getName)
@@ -473,7 +493,7 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
     private boolean matches(SearchQuery.ContainsOperator operator, String headerName,
             MailboxMessage message) throws MailboxException, IOException {
         String text = operator.getValue().toUpperCase(Locale.US);
-        List<Header> headers = ResultUtils.createHeaders(message);
+        List<Header> headers = headers(message);
         for (Header header : headers) {
             String name = header.getName();
             if (headerName.equalsIgnoreCase(name)) {
@@ -521,7 +541,7 @@ public class MessageSearches implements Iterable<SimpleMessageSearchIndex.Search
     }
 
     private String headerValue(String headerName, MailboxMessage message) throws MailboxException, IOException {
-        List<Header> headers = ResultUtils.createHeaders(message);
+        List<Header> headers = headers(message);
         for (Header header : headers) {
             String name = header.getName();
             if (headerName.equalsIgnoreCase(name)) {
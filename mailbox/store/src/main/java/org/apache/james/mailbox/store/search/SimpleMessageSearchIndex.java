@@ -20,12 +20,16 @@ package org.apache.james.mailbox.store.search;
 
 import static org.apache.james.mailbox.store.mail.AbstractMessageMapper.UNLIMITED;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -44,19 +48,22 @@ import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mailbox.model.SearchQuery.ConjunctionCriterion;
 import org.apache.james.mailbox.model.SearchQuery.Criterion;
 import org.apache.james.mailbox.model.SearchQuery.UidCriterion;
-import org.apache.james.mailbox.model.SearchQuery.UidRange;
 import org.apache.james.mailbox.store.mail.MailboxMapper;
 import org.apache.james.mailbox.store.mail.MailboxMapperFactory;
 import org.apache.james.mailbox.store.mail.MessageMapper;
 import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
 import org.apache.james.mailbox.store.mail.MessageMapperFactory;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.search.comparator.CombinedComparator;
 
-import com.github.fge.lambdas.Throwing;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * {@link MessageSearchIndex} which just fetch {@link MailboxMessage}'s from the {@link MessageMapper} and use {@link MessageSearcher}
  * to match them against the {@link SearchQuery}.
@@ -66,15 +73,34 @@ import com.google.common.collect.ImmutableList;
  *
  */
 public class SimpleMessageSearchIndex implements MessageSearchIndex {
+    public static final int DEFAULT_SEARCH_CONCURRENCY = 1;
+    /**
+     * Candidates separated by at most this count of UIDs are re-read within a single range: a few extra messages are
+     * cheaper to read than an extra mapper call.
+     */
+    static final long MAX_MERGED_GAP = 16;
+
     private final MessageMapperFactory messageMapperFactory;
     private final MailboxMapperFactory mailboxMapperFactory;
     private final TextExtractor textExtractor;
+    private final int searchConcurrency;
     
     @Inject
     public SimpleMessageSearchIndex(MessageMapperFactory messageMapperFactory, MailboxMapperFactory mailboxMapperFactory, TextExtractor textExtractor) {
+        this(messageMapperFactory, mailboxMapperFactory, textExtractor, DEFAULT_SEARCH_CONCURRENCY);
+    }
+
+    /**
+     * @param searchConcurrency count of mailboxes scanned in parallel by multi-mailbox searches. Values greater than 1
+     *                          require the mappers of a session to be usable from several threads.
+     */
+    public SimpleMessageSearchIndex(MessageMapperFactory messageMapperFactory, MailboxMapperFactory mailboxMapperFactory, TextExtractor textExtractor,
+                                    int searchConcurrency) {
+        Preconditions.checkArgument(searchConcurrency > 0, "'searchConcurrency' needs to be strictly positive");
         this.messageMapperFactory = messageMapperFactory;
         this.mailboxMapperFactory = mailboxMapperFactory;
         this.textExtractor = textExtractor;
+        this.searchConcurrency = searchConcurrency;
     }
     
     @Override
@@ -108,69 +134,126 @@ public class SimpleMessageSearchIndex implements MessageSearchIndex {
     @Override
     public Stream<MessageUid> search(MailboxSession session, final Mailbox mailbox, SearchQuery query) throws MailboxException {
         Preconditions.checkArgument(session != null, "'session' is mandatory");
-        return searchResults(session, ImmutableList.of(mailbox).stream(), query)
-            .stream()
-            .filter(searchResult -> searchResult.getMailboxId().equals(mailbox.getMailboxId()))
-            .map(SearchResult::getMessageUid);
+        return matchingMessages(messageMapperFactory.getMessageMapper(session), mailbox, query)
+            .map(MailboxMessage::getUid);
     }
 
-    private List<SearchResult> searchResults(MailboxSession session, Mailbox mailbox, SearchQuery query) throws MailboxException {
-        MessageMapper mapper = messageMapperFactory.getMessageMapper(session);
+    private Stream<MailboxMessage> matchingMessages(MessageMapper mapper, Mailbox mailbox, SearchQuery query) throws MailboxException {
+        MessageSearchPlan plan = MessageSearchPlan.of(query, textExtractor);
+        List<MessageRange> scannedRanges = scannedRanges(query);
 
-        final SortedSet<MailboxMessage> hitSet = new TreeSet<>();
+        if (!plan.hasMetadataCriteria()) {
+            SortedSet<MailboxMessage> hitSet = readMessages(mapper, mailbox, scannedRanges, plan.candidatesFetchType());
+            return new MessageSearches(hitSet.iterator(), query, textExtractor).matchingMessages();
+        }
 
-        UidCriterion uidCrit = findConjugatedUidCriterion(query.getCriterias());
-        if (uidCrit != null) {
-            // if there is a conjugated uid range criterion in the query tree we can optimize by
-            // only fetching this uid range
-            UidRange[] ranges = uidCrit.getOperator().getRange();
-            for (UidRange r : ranges) {
-                Iterator<MailboxMessage> it = mapper.findInMailbox(mailbox, MessageRange.range(r.getLowValue(), r.getHighValue()), FetchType.Metadata, UNLIMITED);
-                while (it.hasNext()) {
-                    hitSet.add(it.next());
-                }
-            }
-        } else {
-            // we have to fetch all messages
-            Iterator<MailboxMessage> messages = mapper.findInMailbox(mailbox, MessageRange.all(), FetchType.Full, UNLIMITED);
-            while (messages.hasNext()) {
-                MailboxMessage m = messages.next();
-                hitSet.add(m);
+        // cheap criteria are first evaluated against metadata, headers and bodies are only read for the remaining candidates
+        final SortedSet<MailboxMessage> candidates = new TreeSet<>();
+        for (MailboxMessage message : readMessages(mapper, mailbox, scannedRanges, FetchType.Metadata)) {
+            if (plan.matchesMetadataCriteria(message)) {
+                candidates.add(message);
             }
         }
-        return ImmutableList.copyOf(new MessageSearches(hitSet.iterator(), query, textExtractor).iterator());
-    }
 
-    @Override
-    public List<MessageId> search(MailboxSession session, final Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
-        MailboxMapper mailboxManager = mailboxMapperFactory.getMailboxMapper(session);
-
-        Stream<Mailbox> filteredMailboxes = mailboxIds
+        if (plan.isMetadataOnly()) {
+            return new MessageSearches(candidates.iterator(), query, textExtractor).matchingMessages();
+        }
+        Set<MessageUid> candidateUids = candidates.stream()
+            .map(MailboxMessage::getUid)
+            .collect(Guavate.toImmutableSet());
+        Iterator<MailboxMessage> hits = readMessages(mapper, mailbox, narrowedRanges(scannedRanges, candidateUids), plan.candidatesFetchType())
             .stream()
-            .map(Throwing.function(mailboxManager::findMailboxById).sneakyThrow());
+            .filter(message -> candidateUids.contains(message.getUid()))
+            .iterator();
+        return new MessageSearches(hits, query, textExtractor).matchingMessages();
+    }
 
-        return getAsMessageIds(searchResults(session, filteredMailboxes, searchQuery), limit);
+    private SortedSet<MailboxMessage> readMessages(MessageMapper mapper, Mailbox mailbox, List<MessageRange> ranges, FetchType fetchType) throws MailboxException {
+        final SortedSet<MailboxMessage> messages = new TreeSet<>();
+        for (MessageRange range : ranges) {
+            Iterator<MailboxMessage> it = mapper.findInMailbox(mailbox, range, fetchType, UNLIMITED);
+            while (it.hasNext()) {
+                messages.add(it.next());
+            }
+        }
+        return messages;
     }
 
-    private List<SearchResult> searchResults(MailboxSession session, Stream<Mailbox> mailboxes, SearchQuery query) throws MailboxException {
-        return mailboxes.flatMap(mailbox -> getSearchResultStream(session, query, mailbox))
+    /**
+     * Restricts each scanned range to the runs of candidates it holds, so that sparse candidates are re-read without
+     * reading the messages between them. Runs separated by small gaps are merged to bound the count of mapper reads.
+     */
+    private List<MessageRange> narrowedRanges(List<MessageRange> scannedRanges, Set<MessageUid> candidateUids) {
+        return scannedRanges.stream()
+            .flatMap(range -> mergeSmallGaps(MessageRange.toRanges(candidateUids.stream()
+                .filter(range::includes)
+                .collect(Guavate.toImmutableList())))
+                .stream())
             .collect(Guavate.toImmutableList());
     }
 
-    private Stream<? extends SearchResult> getSearchResultStream(MailboxSession session, SearchQuery query, Mailbox mailbox) {
-        try {
-            return searchResults(session, mailbox, query).stream();
-        } catch (MailboxException e) {
-            throw new RuntimeException(e);
+    private List<MessageRange> mergeSmallGaps(List<MessageRange> sortedRanges) {
+        List<MessageRange> merged = new ArrayList<>();
+        for (MessageRange range : sortedRanges) {
+            int lastIndex = merged.size() - 1;
+            if (lastIndex >= 0 && gap(merged.get(lastIndex), range) <= MAX_MERGED_GAP) {
+                merged.set(lastIndex, MessageRange.range(merged.get(lastIndex).getUidFrom(), range.getUidTo()));
+            } else {
+                merged.add(range);
+            }
         }
+        return merged;
+    }
+
+    private long gap(MessageRange previous, MessageRange next) {
+        return next.getUidFrom().asLong() - previous.getUidTo().asLong() - 1;
     }
 
-    private List<MessageId> getAsMessageIds(List<SearchResult> temp, long limit) {
-        return temp.stream()
-            .map(searchResult -> searchResult.getMessageId().get())
+    private List<MessageRange> scannedRanges(SearchQuery query) {
+        UidCriterion uidCrit = findConjugatedUidCriterion(query.getCriterias());
+        if (uidCrit != null) {
+            // if there is a conjugated uid range criterion in the query tree we can optimize by
+            // only fetching this uid range
+            return Arrays.stream(uidCrit.getOperator().getRange())
+                .map(range -> MessageRange.range(range.getLowValue(), range.getHighValue()))
+                .collect(Guavate.toImmutableList());
+        }
+        // we have to fetch all messages
+        return ImmutableList.of(MessageRange.all());
+    }
+
+    /**
+     * Mailboxes are scanned concurrently, each of them contributing at most limit messages: the global top limit
+     * results, once deduplicated by {@link MessageId}, belong to these. They are then merged on the query sort.
+     *
+     * Mappers are resolved before scanning, as resolving them from concurrent scans would race on the session.
+     */
+    @Override
+    public List<MessageId> search(MailboxSession session, final Collection<MailboxId> mailboxIds, SearchQuery searchQuery, long limit) throws MailboxException {
+        MailboxMapper mailboxMapper = mailboxMapperFactory.getMailboxMapper(session);
+        MessageMapper messageMapper = messageMapperFactory.getMessageMapper(session);
+
+        List<MailboxMessage> topMessages = Flux.fromIterable(mailboxIds)
+            .flatMap(mailboxId -> topMatchingMessages(mailboxMapper, messageMapper, mailboxId, searchQuery, limit), searchConcurrency)
+            .flatMapIterable(Function.identity())
+            .collectList()
+            .block();
+
+        return topMessages.stream()
+            .sorted(CombinedComparator.createWithCachedSortKeys(searchQuery.getSorts()))
+            .map(MailboxMessage::getMessageId)
             .filter(SearchUtil.distinct())
-            .limit(Long.valueOf(limit).intValue())
+            .limit(limit)
             .collect(Guavate.toImmutableList());
     }
 
+    private Mono<List<MailboxMessage>> topMatchingMessages(MailboxMapper mailboxMapper, MessageMapper messageMapper, MailboxId mailboxId, SearchQuery query, long limit) {
+        Mono<List<MailboxMessage>> topMessages = Mono.fromCallable(() -> matchingMessages(messageMapper, mailboxMapper.findMailboxById(mailboxId), query)
+            .limit(limit)
+            .collect(Guavate.toImmutableList()));
+        if (searchConcurrency > 1) {
+            return topMessages.subscribeOn(Schedulers.elastic());
+        }
+        return topMessages;
+    }
 }
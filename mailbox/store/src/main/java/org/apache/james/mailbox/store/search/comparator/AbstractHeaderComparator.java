@@ -30,7 +30,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
-public abstract class AbstractHeaderComparator implements Comparator<MailboxMessage> {
+/**
+ * Compares messages on a sort key extracted from their headers. Extracting it requires parsing the headers, callers
+ * sorting many messages should rather rely on {@link CombinedComparator#createWithCachedSortKeys(List)}.
+ *
+ * @param <K> type of the sort key
+ */
+public abstract class AbstractHeaderComparator<K> implements Comparator<MailboxMessage> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractHeaderComparator.class);
 
@@ -38,6 +44,23 @@ public abstract class AbstractHeaderComparator implements Comparator<MailboxMess
     public static final String TO = "to";
     public static final String CC = "cc";
 
+    private final Comparator<K> sortKeyComparator;
+
+    protected AbstractHeaderComparator(Comparator<K> sortKeyComparator) {
+        this.sortKeyComparator = sortKeyComparator;
+    }
+
+    public abstract K sortKey(MailboxMessage message);
+
+    public int compareSortKeys(K sortKey1, K sortKey2) {
+        return sortKeyComparator.compare(sortKey1, sortKey2);
+    }
+
+    @Override
+    public int compare(MailboxMessage o1, MailboxMessage o2) {
+        return compareSortKeys(sortKey(o1), sortKey(o2));
+    }
+
     protected String getHeaderValue(String headerName, MailboxMessage message) {
         try {
             final List<Header> headers = ResultUtils.createHeaders(message);
@@ -23,16 +23,17 @@ import java.util.Comparator;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.SearchUtil;
 
-public class BaseSubjectComparator extends AbstractHeaderComparator {
+public class BaseSubjectComparator extends AbstractHeaderComparator<String> {
 
     public static final Comparator<MailboxMessage> BASESUBJECT = new BaseSubjectComparator();
     private static final String SUBJECT = "subject";
-    
-    @Override
-    public int compare(MailboxMessage o1, MailboxMessage o2) {
-        String baseSubject1 = SearchUtil.getBaseSubject(getHeaderValue(SUBJECT, o1));
-        String baseSubject2 = SearchUtil.getBaseSubject(getHeaderValue(SUBJECT, o2));
 
-        return baseSubject1.compareToIgnoreCase(baseSubject2);
+    public BaseSubjectComparator() {
+        super(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    @Override
+    public String sortKey(MailboxMessage message) {
+        return SearchUtil.getBaseSubject(getHeaderValue(SUBJECT, message));
     }
 }
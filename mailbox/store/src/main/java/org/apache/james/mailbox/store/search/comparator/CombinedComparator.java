@@ -19,7 +19,9 @@
 package org.apache.james.mailbox.store.search.comparator;
 
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.NotImplementedException;
@@ -37,15 +39,40 @@ import com.google.common.base.Preconditions;
 public class CombinedComparator implements Comparator<MailboxMessage> {
 
     public static CombinedComparator create(List<Sort> sorts) {
+        return create(sorts, Function.identity());
+    }
+
+    /**
+     * Like {@link #create(List)}, but the header based sort keys of a message are computed only once, instead of
+     * parsing its headers on each comparison.
+     *
+     * Computed sort keys are retained by the returned comparator, which thus should be used to sort a single
+     * collection of messages.
+     */
+    public static CombinedComparator createWithCachedSortKeys(List<Sort> sorts) {
+        return create(sorts, CombinedComparator::cachingSortKeys);
+    }
+
+    private static CombinedComparator create(List<Sort> sorts, Function<Comparator<MailboxMessage>, Comparator<MailboxMessage>> decorator) {
         Preconditions.checkNotNull(sorts);
         Preconditions.checkArgument(!sorts.isEmpty());
         return new CombinedComparator(sorts.stream()
-            .map(toComparator())
+            .map(sort -> optionalResverse(decorator.apply(toComparator(sort)), sort.isReverse()))
             .collect(Guavate.toImmutableList()));
     }
 
-    private static Function<Sort, Comparator<MailboxMessage>> toComparator() {
-        return sort -> optionalResverse(toComparator(sort), sort.isReverse());
+    private static Comparator<MailboxMessage> cachingSortKeys(Comparator<MailboxMessage> comparator) {
+        if (comparator instanceof AbstractHeaderComparator) {
+            return cachingSortKeys((AbstractHeaderComparator<?>) comparator);
+        }
+        return comparator;
+    }
+
+    private static <K> Comparator<MailboxMessage> cachingSortKeys(AbstractHeaderComparator<K> comparator) {
+        Map<MailboxMessage, K> sortKeys = new IdentityHashMap<>();
+        return (o1, o2) -> comparator.compareSortKeys(
+            sortKeys.computeIfAbsent(o1, comparator::sortKey),
+            sortKeys.computeIfAbsent(o2, comparator::sortKey));
     }
 
     private static Comparator<MailboxMessage> toComparator(Sort sort) {
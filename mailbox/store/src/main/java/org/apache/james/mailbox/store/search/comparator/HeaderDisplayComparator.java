@@ -23,20 +23,19 @@ import java.util.Comparator;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.SearchUtil;
 
-public class HeaderDisplayComparator extends AbstractHeaderComparator {
+public class HeaderDisplayComparator extends AbstractHeaderComparator<String> {
     public static final Comparator<MailboxMessage> FROM_COMPARATOR = new HeaderDisplayComparator(FROM);
     public static final Comparator<MailboxMessage> TO_COMPARATOR = new HeaderDisplayComparator(TO);
 
     private final String headerName;
 
     public HeaderDisplayComparator(String headerName) {
+        super(String.CASE_INSENSITIVE_ORDER);
         this.headerName = headerName;
     }
 
     @Override
-    public int compare(MailboxMessage o1, MailboxMessage o2) {
-        String display1 = SearchUtil.getDisplayAddress(getHeaderValue(headerName, o1));
-        String display2 = SearchUtil.getDisplayAddress(getHeaderValue(headerName, o2));
-        return display1.compareToIgnoreCase(display2);
+    public String sortKey(MailboxMessage message) {
+        return SearchUtil.getDisplayAddress(getHeaderValue(headerName, message));
     }
 }
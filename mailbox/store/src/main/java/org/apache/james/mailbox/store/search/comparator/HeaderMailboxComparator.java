@@ -23,7 +23,7 @@ import java.util.Comparator;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.SearchUtil;
 
-public class HeaderMailboxComparator extends AbstractHeaderComparator {
+public class HeaderMailboxComparator extends AbstractHeaderComparator<String> {
     public static final Comparator<MailboxMessage> FROM_COMPARATOR = new HeaderMailboxComparator(FROM);
     public static final Comparator<MailboxMessage> TO_COMPARATOR = new HeaderMailboxComparator(TO);
     public static final Comparator<MailboxMessage> CC_COMPARATOR = new HeaderMailboxComparator(CC);
@@ -31,15 +31,13 @@ public class HeaderMailboxComparator extends AbstractHeaderComparator {
     private final String headerName;
 
     public HeaderMailboxComparator(String headerName) {
+        super(String.CASE_INSENSITIVE_ORDER);
         this.headerName = headerName;
     }
 
     @Override
-    public int compare(MailboxMessage o1, MailboxMessage o2) {
-        String mailbox1 = SearchUtil.getMailboxAddress(getHeaderValue(headerName, o1));
-        String mailbox2 = SearchUtil.getMailboxAddress(getHeaderValue(headerName, o2));
-
-        return mailbox1.compareToIgnoreCase(mailbox2);
+    public String sortKey(MailboxMessage message) {
+        return SearchUtil.getMailboxAddress(getHeaderValue(headerName, message));
     }
 }
 
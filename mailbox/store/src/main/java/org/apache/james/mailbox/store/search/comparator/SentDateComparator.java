@@ -35,7 +35,7 @@ import com.google.common.annotations.VisibleForTesting;
 /**
  * {@link Comparator} which works like stated in RFC5256 2.2 Sent Date
  */
-public class SentDateComparator extends AbstractHeaderComparator {
+public class SentDateComparator extends AbstractHeaderComparator<Instant> {
 
     public static final Comparator<MailboxMessage> SENTDATE = new SentDateComparator();
     private static final Logger LOGGER = LoggerFactory.getLogger(SentDateComparator.class);
@@ -70,14 +70,12 @@ public class SentDateComparator extends AbstractHeaderComparator {
         return value;
     }
 
-    @Override
-    public int compare(MailboxMessage o1, MailboxMessage o2) {
-        Instant date1 = getSentDate(o1);
-        Instant date2 = getSentDate(o2);
-        return date1.compareTo(date2);
+    public SentDateComparator() {
+        super(Comparator.naturalOrder());
     }
-    
-    private Instant getSentDate(MailboxMessage message) {
+
+    @Override
+    public Instant sortKey(MailboxMessage message) {
         final String value = getHeaderValue("Date", message);
         return toISODate(value)
             .map(ZonedDateTime::toInstant)
@@ -427,7 +427,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void headerWithDotsShouldBeIndexed() throws MailboxException {
+    protected void headerWithDotsShouldBeIndexed() throws MailboxException {
 
         ComposedMessageId mailWithDotsInHeader = myFolderMessageManager.appendMessage(
             MessageManager.AppendCommand.builder()
@@ -500,7 +500,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void flagIsSetShouldReturnUidOfMessageMarkedAsRecentWhenUsedWithFlagRecent() throws MailboxException {
+    protected void flagIsSetShouldReturnUidOfMessageMarkedAsRecentWhenUsedWithFlagRecent() throws MailboxException {
         // Only message 7 is not marked as RECENT
         SearchQuery searchQuery = new SearchQuery(SearchQuery.flagIsSet(Flags.Flag.RECENT));
 
@@ -661,7 +661,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void flagIsUnSetShouldReturnUidOfMessageNotMarkedAsRecentWhenUsedWithFlagRecent() throws MailboxException {
+    protected void flagIsUnSetShouldReturnUidOfMessageNotMarkedAsRecentWhenUsedWithFlagRecent() throws MailboxException {
         // Only message 7 is not marked as RECENT
         SearchQuery searchQuery = new SearchQuery(SearchQuery.flagIsUnSet(Flags.Flag.RECENT));
 
@@ -1042,7 +1042,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void headerDateAfterShouldWork() throws Exception {
+    protected void headerDateAfterShouldWork() throws Exception {
         SearchQuery searchQuery = new SearchQuery(
             SearchQuery.headerDateAfter("sentDate", new Date(1433408400000L), DateResolution.Second));
         // Date : 2015/06/04 11:00:00.000 ( Paris time zone )
@@ -1053,7 +1053,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void headerDateBeforeShouldWork() throws Exception {
+    protected void headerDateBeforeShouldWork() throws Exception {
         SearchQuery searchQuery = new SearchQuery(
             SearchQuery.headerDateBefore("sentDate", new Date(1433109600000L), DateResolution.Day));
         // Date : 2015/06/01 00:00:00.000 ( Paris time zone )
@@ -1064,7 +1064,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void headerDateOnShouldWork() throws Exception {
+    protected void headerDateOnShouldWork() throws Exception {
         SearchQuery searchQuery = new SearchQuery(
             SearchQuery.headerDateOn("sentDate", new Date(1433224800000L), DateResolution.Day));
         // Date : 2015/06/02 08:00:00.000 ( Paris time zone )
@@ -1287,7 +1287,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void searchWithTextShouldReturnMailsWhenTextBodyMatchesAndNonContinuousWords() throws Exception {
+    protected void searchWithTextShouldReturnMailsWhenTextBodyMatchesAndNonContinuousWords() throws Exception {
         assumeTrue(storeMailboxManager.getSupportedSearchCapabilities().contains(MailboxManager.SearchCapabilities.Text));
         SearchQuery searchQuery = new SearchQuery(SearchQuery.textContains("reviewing feature"));
         // 2: text/plain contains: "Issue Type: New Feature"
@@ -1308,7 +1308,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void searchWithTextShouldReturnMailsWhenTextBodyWithExtraUnindexedWords() throws Exception {
+    protected void searchWithTextShouldReturnMailsWhenTextBodyWithExtraUnindexedWords() throws Exception {
         assumeTrue(storeMailboxManager.getSupportedSearchCapabilities().contains(MailboxManager.SearchCapabilities.Text));
         SearchQuery searchQuery = new SearchQuery(SearchQuery.textContains("a reviewing of the work"));
         // text/plain contains: "We are reviewing work I did for this feature."
@@ -1328,7 +1328,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void searchWithTextShouldReturnMailsWhenHtmlBodyMatchesWithStemming() throws Exception {
+    protected void searchWithTextShouldReturnMailsWhenHtmlBodyMatchesWithStemming() throws Exception {
         assumeTrue(storeMailboxManager.getSupportedSearchCapabilities().contains(MailboxManager.SearchCapabilities.Text));
         SearchQuery searchQuery = new SearchQuery(SearchQuery.textContains("contain banana"));
 
@@ -1337,7 +1337,7 @@ public abstract class AbstractMessageSearchIndexTest {
     }
 
     @Test
-    void searchWithTextShouldReturnMailsWhenHtmlBodyMatchesAndNonContinuousWords() throws Exception {
+    protected void searchWithTextShouldReturnMailsWhenHtmlBodyMatchesAndNonContinuousWords() throws Exception {
         assumeTrue(storeMailboxManager.getSupportedSearchCapabilities().contains(MailboxManager.SearchCapabilities.Text));
         SearchQuery searchQuery = new SearchQuery(SearchQuery.textContains("beautifull banana"));
 
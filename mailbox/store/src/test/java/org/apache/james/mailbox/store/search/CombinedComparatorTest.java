@@ -22,9 +22,14 @@ package org.apache.james.mailbox.store.search;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
+import java.util.stream.Stream;
 
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.model.SearchQuery;
@@ -40,6 +45,7 @@ import org.apache.james.mailbox.store.search.comparator.MessageComparators;
 import org.apache.james.mailbox.store.search.comparator.SentDateComparator;
 import org.junit.jupiter.api.Test;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 
 class CombinedComparatorTest {
@@ -133,4 +139,40 @@ class CombinedComparatorTest {
 
         assertThat(comparator.compare(message1, message2)).isGreaterThan(0);
     }
+
+    @Test
+    void createWithCachedSortKeysShouldSortLikeCreate() throws Exception {
+        MailboxMessage message1 = messageFrom(1, "zed@domain.tld");
+        MailboxMessage message2 = messageFrom(2, "alice@domain.tld");
+        MailboxMessage message3 = messageFrom(3, "bob@domain.tld");
+        ImmutableList<Sort> sorts = ImmutableList.of(new Sort(SortClause.MailboxFrom, Order.REVERSE), new Sort(SortClause.Uid));
+
+        assertThat(Stream.of(message1, message2, message3).sorted(CombinedComparator.createWithCachedSortKeys(sorts)))
+            .containsExactlyElementsOf(Stream.of(message1, message2, message3)
+                .sorted(CombinedComparator.create(sorts))
+                .collect(Guavate.toImmutableList()));
+    }
+
+    @Test
+    void createWithCachedSortKeysShouldParseHeadersOnlyOncePerMessage() throws Exception {
+        MailboxMessage message1 = messageFrom(1, "zed@domain.tld");
+        MailboxMessage message2 = messageFrom(2, "alice@domain.tld");
+        MailboxMessage message3 = messageFrom(3, "bob@domain.tld");
+
+        Stream.of(message1, message2, message3)
+            .sorted(CombinedComparator.createWithCachedSortKeys(ImmutableList.of(new Sort(SortClause.MailboxFrom))))
+            .forEach(message -> { });
+
+        verify(message1, times(1)).getHeaderContent();
+        verify(message2, times(1)).getHeaderContent();
+        verify(message3, times(1)).getHeaderContent();
+    }
+
+    private MailboxMessage messageFrom(long uid, String from) throws Exception {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.getUid()).thenReturn(MessageUid.of(uid));
+        when(message.getHeaderContent()).thenAnswer(invocation ->
+            new ByteArrayInputStream(("From: " + from + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+        return message;
+    }
 }
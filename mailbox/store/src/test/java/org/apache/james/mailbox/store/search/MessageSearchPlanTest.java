@@ -0,0 +1,150 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import javax.mail.Flags;
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.model.SearchQuery.Sort;
+import org.apache.james.mailbox.model.SearchQuery.Sort.SortClause;
+import org.apache.james.mailbox.model.TestId;
+import org.apache.james.mailbox.store.extractor.DefaultTextExtractor;
+import org.apache.james.mailbox.store.mail.MessageMapper.FetchType;
+import org.apache.james.mailbox.store.mail.model.DefaultMessageId;
+import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class MessageSearchPlanTest {
+    private static final TextExtractor TEXT_EXTRACTOR = new DefaultTextExtractor();
+    private static final String CONTENT = "Subject: test\r\n\r\nbody";
+
+    @Test
+    void flagCriteriaShouldBeAnsweredByMetadata() {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(SearchQuery.flagIsSet(Flags.Flag.SEEN)), TEXT_EXTRACTOR);
+
+        assertThat(plan.isMetadataOnly()).isTrue();
+        assertThat(plan.candidatesFetchType()).isEqualTo(FetchType.Metadata);
+    }
+
+    @Test
+    void conjunctionsOfMetadataCriteriaShouldBeAnsweredByMetadata() {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(SearchQuery.or(
+                SearchQuery.sizeGreaterThan(10),
+                SearchQuery.not(SearchQuery.flagIsSet(Flags.Flag.SEEN)))),
+            TEXT_EXTRACTOR);
+
+        assertThat(plan.isMetadataOnly()).isTrue();
+    }
+
+    @Test
+    void headerCriteriaShouldRequireHeaders() {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(
+                SearchQuery.flagIsSet(Flags.Flag.SEEN),
+                SearchQuery.headerContains("Subject", "test")),
+            TEXT_EXTRACTOR);
+
+        assertThat(plan.isMetadataOnly()).isFalse();
+        assertThat(plan.candidatesFetchType()).isEqualTo(FetchType.Headers);
+    }
+
+    @Test
+    void headerSortsShouldRequireHeaders() {
+        SearchQuery query = new SearchQuery(SearchQuery.flagIsSet(Flags.Flag.SEEN));
+        query.setSorts(ImmutableList.of(new Sort(SortClause.BaseSubject)));
+
+        MessageSearchPlan plan = MessageSearchPlan.of(query, TEXT_EXTRACTOR);
+
+        assertThat(plan.isMetadataOnly()).isFalse();
+        assertThat(plan.candidatesFetchType()).isEqualTo(FetchType.Headers);
+    }
+
+    @Test
+    void textCriteriaShouldRequireFullContent() {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(SearchQuery.and(
+                SearchQuery.headerContains("Subject", "test"),
+                SearchQuery.bodyContains("body"))),
+            TEXT_EXTRACTOR);
+
+        assertThat(plan.candidatesFetchType()).isEqualTo(FetchType.Full);
+    }
+
+    @Test
+    void hasMetadataCriteriaShouldBeFalseWhenOnlyHeaderCriteria() {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(SearchQuery.headerContains("Subject", "test")), TEXT_EXTRACTOR);
+
+        assertThat(plan.hasMetadataCriteria()).isFalse();
+    }
+
+    @Test
+    void hasMetadataCriteriaShouldBeTrueWhenSomeMetadataCriteria() {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(
+                SearchQuery.flagIsSet(Flags.Flag.SEEN),
+                SearchQuery.headerContains("Subject", "test")),
+            TEXT_EXTRACTOR);
+
+        assertThat(plan.hasMetadataCriteria()).isTrue();
+    }
+
+    @Test
+    void matchesMetadataCriteriaShouldRejectMessagesNotMatchingMetadataCriteria() throws Exception {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(
+                SearchQuery.flagIsSet(Flags.Flag.SEEN),
+                SearchQuery.headerContains("Subject", "other")),
+            TEXT_EXTRACTOR);
+
+        assertThat(plan.matchesMetadataCriteria(message(new Flags()))).isFalse();
+    }
+
+    @Test
+    void matchesMetadataCriteriaShouldIgnoreNonMetadataCriteria() throws Exception {
+        MessageSearchPlan plan = MessageSearchPlan.of(new SearchQuery(
+                SearchQuery.flagIsSet(Flags.Flag.SEEN),
+                SearchQuery.headerContains("Subject", "other")),
+            TEXT_EXTRACTOR);
+
+        assertThat(plan.matchesMetadataCriteria(message(new Flags(Flags.Flag.SEEN)))).isTrue();
+    }
+
+    private MailboxMessage message(Flags flags) {
+        return SimpleMailboxMessage.builder()
+            .messageId(new DefaultMessageId())
+            .mailboxId(TestId.of(42L))
+            .uid(MessageUid.of(1))
+            .internalDate(new Date())
+            .bodyStartOctet(CONTENT.indexOf("\r\n\r\n") + 4)
+            .size(CONTENT.length())
+            .content(new SharedByteArrayInputStream(CONTENT.getBytes(StandardCharsets.US_ASCII)))
+            .flags(flags)
+            .propertyBuilder(new PropertyBuilder())
+            .build();
+    }
+}
@@ -19,12 +19,16 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.inject.Inject;
 
 import org.apache.james.json.DTOModule;
 import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.indexer.ReIndexer.RunningOptions;
+import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.server.task.json.dto.TaskDTO;
 import org.apache.james.server.task.json.dto.TaskDTOModule;
 import org.apache.james.task.Task;
@@ -32,30 +36,73 @@ import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskType;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 public class FullReindexingTask implements Task {
 
     public static final TaskType FULL_RE_INDEXING = TaskType.of("full-reindexing");
 
     private final ReIndexerPerformer reIndexerPerformer;
+    private final RunningOptions runningOptions;
+    private final Set<MailboxId> completedMailboxes;
     private final ReprocessingContext reprocessingContext;
 
-    public static TaskDTOModule<FullReindexingTask, FullReindexingTaskDTO> module(ReIndexerPerformer reIndexerPerformer) {
+    public static class Factory {
+
+        private final ReIndexerPerformer reIndexerPerformer;
+        private final MailboxId.Factory mailboxIdFactory;
+
+        @Inject
+        public Factory(ReIndexerPerformer reIndexerPerformer, MailboxId.Factory mailboxIdFactory) {
+            this.reIndexerPerformer = reIndexerPerformer;
+            this.mailboxIdFactory = mailboxIdFactory;
+        }
+
+        public FullReindexingTask create(FullReindexingTaskDTO dto) {
+            return new FullReindexingTask(reIndexerPerformer,
+                dto.getRunningOptions()
+                    .map(RunningOptionsDTO::asDomainObject)
+                    .orElse(RunningOptions.DEFAULT),
+                dto.getCompletedMailboxes()
+                    .stream()
+                    .map(mailboxIdFactory::fromString)
+                    .collect(Guavate.toImmutableSet()));
+        }
+    }
+
+    public static TaskDTOModule<FullReindexingTask, FullReindexingTaskDTO> module(Factory factory) {
         return DTOModule
             .forDomainObject(FullReindexingTask.class)
             .convertToDTO(FullReindexingTask.FullReindexingTaskDTO.class)
-            .toDomainObjectConverter(dto -> new FullReindexingTask(reIndexerPerformer))
-            .toDTOConverter((task, type) -> new FullReindexingTaskDTO(type))
+            .toDomainObjectConverter(factory::create)
+            .toDTOConverter(FullReindexingTaskDTO::of)
             .typeName(FULL_RE_INDEXING.asString())
             .withFactory(TaskDTOModule::new);
     }
 
     public static class FullReindexingTaskDTO implements TaskDTO {
 
+        public static FullReindexingTaskDTO of(FullReindexingTask task, String type) {
+            return new FullReindexingTaskDTO(type,
+                Optional.of(RunningOptionsDTO.asDTO(task.getRunningOptions())),
+                task.getCompletedMailboxes()
+                    .stream()
+                    .map(MailboxId::serialize)
+                    .collect(Guavate.toImmutableList()));
+        }
+
         private final String type;
+        private final Optional<RunningOptionsDTO> runningOptions;
+        private final List<String> completedMailboxes;
 
-        public FullReindexingTaskDTO(@JsonProperty("type") String type) {
+        public FullReindexingTaskDTO(@JsonProperty("type") String type,
+                                     @JsonProperty("runningOptions") Optional<RunningOptionsDTO> runningOptions,
+                                     @JsonProperty("completedMailboxes") List<String> completedMailboxes) {
             this.type = type;
+            this.runningOptions = runningOptions;
+            this.completedMailboxes = Optional.ofNullable(completedMailboxes).orElse(ImmutableList.of());
         }
 
         @Override
@@ -63,23 +110,43 @@ public class FullReindexingTask implements Task {
             return type;
         }
 
+        public Optional<RunningOptionsDTO> getRunningOptions() {
+            return runningOptions;
+        }
+
+        public List<String> getCompletedMailboxes() {
+            return completedMailboxes;
+        }
     }
 
-    @Inject
     public FullReindexingTask(ReIndexerPerformer reIndexerPerformer) {
+        this(reIndexerPerformer, RunningOptions.DEFAULT, ImmutableSet.of());
+    }
+
+    public FullReindexingTask(ReIndexerPerformer reIndexerPerformer, RunningOptions runningOptions, Set<MailboxId> completedMailboxes) {
         this.reIndexerPerformer = reIndexerPerformer;
-        this.reprocessingContext = new ReprocessingContext();
+        this.runningOptions = runningOptions;
+        this.completedMailboxes = ImmutableSet.copyOf(completedMailboxes);
+        this.reprocessingContext = new ReprocessingContext(completedMailboxes);
     }
 
     @Override
     public Result run() {
         try {
-            return reIndexerPerformer.reIndex(reprocessingContext);
+            return reIndexerPerformer.reIndex(reprocessingContext, runningOptions, completedMailboxes);
         } catch (MailboxException e) {
             return Result.PARTIAL;
         }
     }
 
+    public RunningOptions getRunningOptions() {
+        return runningOptions;
+    }
+
+    public Set<MailboxId> getCompletedMailboxes() {
+        return completedMailboxes;
+    }
+
     @Override
     public TaskType type() {
         return FULL_RE_INDEXING;
@@ -19,6 +19,8 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.Set;
+
 import javax.inject.Inject;
 
 import org.apache.james.core.Username;
@@ -33,6 +35,8 @@ import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.task.Task;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Note about live re-indexation handling :
  *
@@ -72,8 +76,13 @@ public class ReIndexerImpl implements ReIndexer {
     }
 
     @Override
-    public Task reIndex() {
-        return new FullReindexingTask(reIndexerPerformer);
+    public Task reIndex(RunningOptions runningOptions) {
+        return new FullReindexingTask(reIndexerPerformer, runningOptions, ImmutableSet.of());
+    }
+
+    @Override
+    public Task resumeReIndex(Set<MailboxId> completedMailboxes, RunningOptions runningOptions) {
+        return new FullReindexingTask(reIndexerPerformer, runningOptions, completedMailboxes);
     }
 
     @Override
@@ -19,7 +19,12 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -29,6 +34,7 @@ import org.apache.james.mailbox.MailboxManager;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.indexer.ReIndexer.RunningOptions;
 import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
 import org.apache.james.mailbox.model.Mailbox;
 import org.apache.james.mailbox.model.MailboxId;
@@ -47,12 +53,49 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public class ReIndexerPerformer {
+    /**
+     * The messages per second limit is shared by all the mailboxes re-indexed concurrently. Each batch reserves the
+     * next time slot available for its messages, and its re-indexing is delayed until then without holding a thread.
+     */
+    private static class ReIndexingExecution {
+        private final RunningOptions runningOptions;
+        private final Optional<Long> nanosPerMessage;
+        private final AtomicLong nextSlot;
+
+        ReIndexingExecution(RunningOptions runningOptions) {
+            this.runningOptions = runningOptions;
+            this.nanosPerMessage = runningOptions.getMessagesPerSecond()
+                .map(messagesPerSecond -> TimeUnit.SECONDS.toNanos(1) / messagesPerSecond);
+            this.nextSlot = new AtomicLong(System.nanoTime());
+        }
+
+        Mono<Void> throttle(int messageCount) {
+            return nanosPerMessage
+                .map(nanos -> reserve(nanos * messageCount))
+                .filter(delay -> !delay.isZero())
+                .map(delay -> Mono.delay(delay).then())
+                .orElse(Mono.empty());
+        }
+
+        private Duration reserve(long cost) {
+            long now = System.nanoTime();
+            long previousSlot = nextSlot.getAndAccumulate(now, (next, current) -> Math.max(next, current) + cost);
+            return Duration.ofNanos(Math.max(0, previousSlot - now));
+        }
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ReIndexerPerformer.class);
 
-    private static final int NO_LIMIT = 0;
+    private static final int UNLIMITED = -1;
     private static final int SINGLE_MESSAGE = 1;
     private static final String RE_INDEXING = "re-indexing";
     private static final Username RE_INDEXER_PERFORMER_USER = Username.of(RE_INDEXING);
@@ -71,20 +114,28 @@ public class ReIndexerPerformer {
     }
 
     Task.Result reIndex(MailboxId mailboxId, ReprocessingContext reprocessingContext) throws Exception {
-        LOGGER.info("Intend to reindex mailbox with mailboxId {}", mailboxId.serialize());
+        return reIndex(mailboxId, reprocessingContext, new ReIndexingExecution(RunningOptions.DEFAULT))
+            .block();
+    }
+
+    private Mono<Task.Result> reIndex(MailboxId mailboxId, ReprocessingContext reprocessingContext, ReIndexingExecution execution) {
         MailboxSession mailboxSession = mailboxManager.createSystemSession(RE_INDEXER_PERFORMER_USER);
-        Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxById(mailboxId);
-        messageSearchIndex.deleteAll(mailboxSession, mailboxId);
-        try {
-            return Iterators.toStream(
-                mailboxSessionMapperFactory.getMessageMapper(mailboxSession)
-                    .listAllMessageUids(mailbox))
-                .map(uid -> handleMessageReIndexing(mailboxSession, mailbox, uid, reprocessingContext))
+        return Mono.fromCallable(() -> {
+                LOGGER.info("Intend to reindex mailbox with mailboxId {}", mailboxId.serialize());
+                Mailbox mailbox = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).findMailboxById(mailboxId);
+                messageSearchIndex.deleteAll(mailboxSession, mailboxId);
+                return mailbox;
+            })
+            .flatMap(mailbox -> Flux.fromStream(Iterators.toStream(
+                    mailboxSessionMapperFactory.getMessageMapper(mailboxSession)
+                        .listAllMessageUids(mailbox)))
+                .buffer(execution.runningOptions.getBatchSize())
+                .flatMap(uids -> execution.throttle(uids.size())
+                    .then(Mono.fromCallable(() -> handleMessagesReIndexing(mailboxSession, mailbox, uids, reprocessingContext))
+                        .subscribeOn(Schedulers.elastic())), execution.runningOptions.getMessageConcurrency())
                 .reduce(Task::combine)
-                .orElse(Task.Result.COMPLETED);
-        } finally {
-            LOGGER.info("Finish to reindex mailbox with mailboxId {}", mailboxId.serialize());
-        }
+                .defaultIfEmpty(Task.Result.COMPLETED))
+            .doFinally(any -> LOGGER.info("Finish to reindex mailbox with mailboxId {}", mailboxId.serialize()));
     }
 
     Task.Result reIndex(ReprocessingContext reprocessingContext, ReIndexingExecutionFailures previousReIndexingFailures) {
@@ -108,14 +159,34 @@ public class ReIndexerPerformer {
     }
 
     Task.Result reIndex(ReprocessingContext reprocessingContext) throws MailboxException {
+        return reIndex(reprocessingContext, RunningOptions.DEFAULT, ImmutableSet.of());
+    }
+
+    /**
+     * Each fully re-indexed mailbox is recorded in the reprocessing context, so that a resumed run skips it. Mailboxes
+     * whose re-indexing is not complete are not recorded, and are re-indexed again by a resumed run.
+     */
+    Task.Result reIndex(ReprocessingContext reprocessingContext, RunningOptions runningOptions, Set<MailboxId> completedMailboxes) throws MailboxException {
         MailboxSession mailboxSession = mailboxManager.createSystemSession(RE_INDEXER_PERFORMER_USER);
-        LOGGER.info("Starting a full reindex");
-        Stream<MailboxId> mailboxIds = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).list()
+        LOGGER.info("Starting a full reindex with {}, skipping {} already re-indexed mailboxes", runningOptions, completedMailboxes.size());
+        List<MailboxId> mailboxIds = mailboxSessionMapperFactory.getMailboxMapper(mailboxSession).list()
             .stream()
-            .map(Mailbox::getMailboxId);
+            .map(Mailbox::getMailboxId)
+            .filter(mailboxId -> !completedMailboxes.contains(mailboxId))
+            .collect(Guavate.toImmutableList());
+        ReIndexingExecution execution = new ReIndexingExecution(runningOptions);
 
         try {
-            return reIndex(mailboxIds, reprocessingContext);
+            return Flux.fromIterable(mailboxIds)
+                .flatMap(mailboxId -> reIndexMailbox(mailboxId, reprocessingContext, execution)
+                    .doOnNext(result -> {
+                        if (result == Task.Result.COMPLETED) {
+                            reprocessingContext.recordCompletedMailbox(mailboxId);
+                        }
+                    }), runningOptions.getMailboxConcurrency())
+                .reduce(Task::combine)
+                .defaultIfEmpty(Task.Result.COMPLETED)
+                .block();
         } finally {
             LOGGER.info("Full reindex finished");
         }
@@ -172,19 +243,41 @@ public class ReIndexerPerformer {
     }
 
     private Task.Result reIndex(Stream<MailboxId> mailboxIds, ReprocessingContext reprocessingContext) {
+        ReIndexingExecution execution = new ReIndexingExecution(RunningOptions.DEFAULT);
+
         return mailboxIds
-            .map(mailboxId -> {
-                try {
-                    return reIndex(mailboxId, reprocessingContext);
-                } catch (Throwable e) {
-                    LOGGER.error("Error while proceeding to full reindexing on mailbox with mailboxId {}", mailboxId.serialize(), e);
-                    return Task.Result.PARTIAL;
-                }
-            })
+            .map(mailboxId -> reIndexMailbox(mailboxId, reprocessingContext, execution).block())
             .reduce(Task::combine)
             .orElse(Task.Result.COMPLETED);
     }
 
+    private Mono<Task.Result> reIndexMailbox(MailboxId mailboxId, ReprocessingContext reprocessingContext, ReIndexingExecution execution) {
+        return reIndex(mailboxId, reprocessingContext, execution)
+            .onErrorResume(e -> {
+                LOGGER.error("Error while proceeding to full reindexing on mailbox with mailboxId {}", mailboxId.serialize(), e);
+                return Mono.just(Task.Result.PARTIAL);
+            })
+            .subscribeOn(Schedulers.elastic());
+    }
+
+    private Task.Result handleMessagesReIndexing(MailboxSession mailboxSession, Mailbox mailbox, List<MessageUid> uids, ReprocessingContext reprocessingContext) {
+        if (uids.size() == 1) {
+            return handleMessageReIndexing(mailboxSession, mailbox, uids.get(0), reprocessingContext);
+        }
+        try {
+            messageSearchIndex.add(mailboxSession, mailbox, fullyReadMessages(mailboxSession, mailbox, uids));
+            uids.forEach(uid -> reprocessingContext.recordSuccess());
+            return Task.Result.COMPLETED;
+        } catch (Exception e) {
+            LOGGER.warn("Bulk reIndexing failed for {} messages of {}, falling back to message by message reIndexing",
+                uids.size(), mailbox.generateAssociatedPath(), e);
+            return uids.stream()
+                .map(uid -> handleMessageReIndexing(mailboxSession, mailbox, uid, reprocessingContext))
+                .reduce(Task::combine)
+                .orElse(Task.Result.COMPLETED);
+        }
+    }
+
     private Task.Result handleMessageReIndexing(MailboxSession mailboxSession, Mailbox mailbox, MessageUid uid, ReprocessingContext reprocessingContext) {
         try {
             Optional.of(uid)
@@ -199,6 +292,15 @@ public class ReIndexerPerformer {
         }
     }
 
+    private List<MailboxMessage> fullyReadMessages(MailboxSession mailboxSession, Mailbox mailbox, List<MessageUid> uids) throws MailboxException {
+        MessageMapper messageMapper = mailboxSessionMapperFactory.getMessageMapper(mailboxSession);
+        ImmutableList.Builder<MailboxMessage> messages = ImmutableList.builder();
+        for (MessageRange range : MessageRange.toRanges(uids)) {
+            messages.addAll(messageMapper.findInMailbox(mailbox, range, MessageMapper.FetchType.Full, UNLIMITED));
+        }
+        return messages.build();
+    }
+
     private Optional<MailboxMessage> fullyReadMessage(MailboxSession mailboxSession, Mailbox mailbox, MessageUid mUid) throws MailboxException {
         return Iterators.toStream(mailboxSessionMapperFactory.getMessageMapper(mailboxSession)
             .findInMailbox(mailbox, MessageRange.one(mUid), MessageMapper.FetchType.Full, SINGLE_MESSAGE))
@@ -19,6 +19,8 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -27,16 +29,24 @@ import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
 import org.apache.james.mailbox.model.MailboxId;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 class ReprocessingContext {
     private final AtomicInteger successfullyReprocessedMails;
     private final AtomicInteger failedReprocessingMails;
     private final ConcurrentLinkedDeque<ReIndexingExecutionFailures.ReIndexingFailure> failures;
+    private final Set<MailboxId> completedMailboxes;
 
     ReprocessingContext() {
+        this(ImmutableSet.of());
+    }
+
+    ReprocessingContext(Set<MailboxId> previouslyCompletedMailboxes) {
         failedReprocessingMails = new AtomicInteger(0);
         successfullyReprocessedMails = new AtomicInteger(0);
         failures = new ConcurrentLinkedDeque<>();
+        completedMailboxes = ConcurrentHashMap.newKeySet();
+        completedMailboxes.addAll(previouslyCompletedMailboxes);
     }
 
     void recordFailureDetailsForMessage(MailboxId mailboxId, MessageUid uid) {
@@ -48,6 +58,14 @@ class ReprocessingContext {
         successfullyReprocessedMails.incrementAndGet();
     }
 
+    void recordCompletedMailbox(MailboxId mailboxId) {
+        completedMailboxes.add(mailboxId);
+    }
+
+    Set<MailboxId> completedMailboxes() {
+        return ImmutableSet.copyOf(completedMailboxes);
+    }
+
     int successfullyReprocessedMailCount() {
         return successfullyReprocessedMails.get();
     }
@@ -46,7 +46,8 @@ public class ReprocessingContextInformation implements TaskExecutionDetails.Addi
             reprocessingContext.successfullyReprocessedMailCount(),
             reprocessingContext.failedReprocessingMailCount(),
             reprocessingContext.failures(),
-            Clock.systemUTC().instant());
+            Clock.systemUTC().instant(),
+            reprocessingContext.completedMailboxes());
     }
 
     private final int successfullyReprocessedMailCount;
@@ -22,15 +22,19 @@ import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.apache.james.json.DTOModule;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
+import org.apache.james.mailbox.indexer.ResumableIndexingDetailInformation;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
 import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
@@ -93,35 +97,68 @@ public class ReprocessingContextInformationDTO implements AdditionalInformationD
         }
     }
 
-    public static class ReprocessingContextInformationForFullReindexingTask extends ReprocessingContextInformation {
+    public static class ReprocessingContextInformationForFullReindexingTask extends ReprocessingContextInformation implements ResumableIndexingDetailInformation {
 
         public static class DTO extends ReprocessingContextInformationDTO {
+            private final List<String> completedMailboxes;
 
             DTO(@JsonProperty("type") String type,
                 @JsonProperty("successfullyReprocessedMailCount") int successfullyReprocessedMailCount,
                 @JsonProperty("failedReprocessedMailCount") int failedReprocessedMailCount,
                 @JsonProperty("failures") List<ReindexingFailureDTO> failures,
-                @JsonProperty("timestamp") Instant timestamp) {
+                @JsonProperty("timestamp") Instant timestamp,
+                @JsonProperty("completedMailboxes") List<String> completedMailboxes) {
                 super(type, successfullyReprocessedMailCount, failedReprocessedMailCount, failures, timestamp);
+                this.completedMailboxes = Optional.ofNullable(completedMailboxes).orElse(ImmutableList.of());
+            }
+
+            public List<String> getCompletedMailboxes() {
+                return completedMailboxes;
             }
         }
 
         public static final AdditionalInformationDTOModule<ReprocessingContextInformationForFullReindexingTask, DTO> serializationModule(MailboxId.Factory mailboxIdFactory) {
             return DTOModule.forDomainObject(ReprocessingContextInformationForFullReindexingTask.class)
                 .convertToDTO(DTO.class)
-                .toDomainObjectConverter(dto -> new ReprocessingContextInformationForFullReindexingTask(dto.successfullyReprocessedMailCount, dto.failedReprocessedMailCount, deserializeFailures(mailboxIdFactory, dto.failures), dto.getTimestamp()))
+                .toDomainObjectConverter(dto -> new ReprocessingContextInformationForFullReindexingTask(dto.successfullyReprocessedMailCount, dto.failedReprocessedMailCount, deserializeFailures(mailboxIdFactory, dto.failures), dto.getTimestamp(),
+                    dto.getCompletedMailboxes()
+                        .stream()
+                        .map(mailboxIdFactory::fromString)
+                        .collect(Guavate.toImmutableSet())))
                 .toDTOConverter((details, type) -> new DTO(
                     type,
                     details.getSuccessfullyReprocessedMailCount(),
                     details.getFailedReprocessedMailCount(),
                     serializeFailures(details.failures()),
-                    details.timestamp()))
+                    details.timestamp(),
+                    details.getCompletedMailboxes()))
                 .typeName(FullReindexingTask.FULL_RE_INDEXING.asString())
                 .withFactory(AdditionalInformationDTOModule::new);
         }
 
-        ReprocessingContextInformationForFullReindexingTask(int successfullyReprocessedMailCount, int failedReprocessedMailCount, ReIndexingExecutionFailures failures, Instant timestamp) {
+        private final Set<MailboxId> completedMailboxes;
+
+        ReprocessingContextInformationForFullReindexingTask(int successfullyReprocessedMailCount, int failedReprocessedMailCount, ReIndexingExecutionFailures failures, Instant timestamp,
+                                                            Set<MailboxId> completedMailboxes) {
             super(successfullyReprocessedMailCount, failedReprocessedMailCount, failures, timestamp);
+            this.completedMailboxes = completedMailboxes;
+        }
+
+        /**
+         * Mailboxes fully re-indexed so far. A full re-indexing interrupted by a restart can be resumed by
+         * skipping them.
+         */
+        public List<String> getCompletedMailboxes() {
+            return completedMailboxes.stream()
+                .map(MailboxId::serialize)
+                .sorted()
+                .collect(Guavate.toImmutableList());
+        }
+
+        @Override
+        @JsonIgnore
+        public Set<MailboxId> completedMailboxes() {
+            return completedMailboxes;
         }
     }
 
@@ -0,0 +1,76 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.mailbox.tools.indexer;
+
+import java.util.Optional;
+
+import org.apache.james.mailbox.indexer.ReIndexer.RunningOptions;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class RunningOptionsDTO {
+    public static RunningOptionsDTO asDTO(RunningOptions runningOptions) {
+        return new RunningOptionsDTO(
+            runningOptions.getMessagesPerSecond(),
+            Optional.of(runningOptions.getMailboxConcurrency()),
+            Optional.of(runningOptions.getMessageConcurrency()),
+            Optional.of(runningOptions.getBatchSize()));
+    }
+
+    private final Optional<Integer> messagesPerSecond;
+    private final Optional<Integer> mailboxConcurrency;
+    private final Optional<Integer> messageConcurrency;
+    private final Optional<Integer> batchSize;
+
+    public RunningOptionsDTO(@JsonProperty("messagesPerSecond") Optional<Integer> messagesPerSecond,
+                             @JsonProperty("mailboxConcurrency") Optional<Integer> mailboxConcurrency,
+                             @JsonProperty("messageConcurrency") Optional<Integer> messageConcurrency,
+                             @JsonProperty("batchSize") Optional<Integer> batchSize) {
+        this.messagesPerSecond = messagesPerSecond;
+        this.mailboxConcurrency = mailboxConcurrency;
+        this.messageConcurrency = messageConcurrency;
+        this.batchSize = batchSize;
+    }
+
+    public Optional<Integer> getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    public Optional<Integer> getMailboxConcurrency() {
+        return mailboxConcurrency;
+    }
+
+    public Optional<Integer> getMessageConcurrency() {
+        return messageConcurrency;
+    }
+
+    public Optional<Integer> getBatchSize() {
+        return batchSize;
+    }
+
+    public RunningOptions asDomainObject() {
+        return RunningOptions.builder()
+            .messagesPerSecond(messagesPerSecond)
+            .mailboxConcurrency(mailboxConcurrency)
+            .messageConcurrency(messageConcurrency)
+            .batchSize(batchSize)
+            .build();
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.mailbox.tools.indexer;
 
+import java.util.Set;
+
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.exception.MailboxException;
@@ -44,6 +46,16 @@ public class ThrowsReIndexer implements ReIndexer {
         throw new MailboxException("Not implemented");
     }
 
+    @Override
+    public Task reIndex(RunningOptions runningOptions) throws MailboxException {
+        throw new MailboxException("Not implemented");
+    }
+
+    @Override
+    public Task resumeReIndex(Set<MailboxId> completedMailboxes, RunningOptions runningOptions) throws MailboxException {
+        throw new MailboxException("Not implemented");
+    }
+
     @Override
     public Task reIndex(Username username) throws MailboxException {
         throw new MailboxException("Not implemented");
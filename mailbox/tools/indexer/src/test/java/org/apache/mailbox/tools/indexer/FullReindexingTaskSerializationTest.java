@@ -18,12 +18,15 @@
  ****************************************************************/
 package org.apache.mailbox.tools.indexer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 import java.time.Instant;
 
 import org.apache.james.JsonSerializationVerifier;
+import org.apache.james.json.JsonGenericSerializer;
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.indexer.ReIndexer;
 import org.apache.james.mailbox.indexer.ReIndexingExecutionFailures;
 import org.apache.james.mailbox.model.TestId;
 import org.apache.mailbox.tools.indexer.ReprocessingContextInformationDTO.ReprocessingContextInformationForFullReindexingTask;
@@ -31,6 +34,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 class FullReindexingTaskSerializationTest {
     private static final Instant TIMESTAMP = Instant.parse("2018-11-13T12:00:55Z");
@@ -43,15 +47,21 @@ class FullReindexingTaskSerializationTest {
     private final int successfullyReprocessedMailCount = 42;
     private final int failedReprocessedMailCount = 2;
 
-    private final String serializedFullReindexingTask = "{\"type\": \"full-reindexing\"}";
-    private final String serializedAdditionalInformation = "{\"type\": \"full-reindexing\", \"successfullyReprocessedMailCount\":42,\"failedReprocessedMailCount\":2,\"failures\":[{\"mailboxId\":\"1\",\"uids\":[10]},{\"mailboxId\":\"2\",\"uids\":[20]}], \"timestamp\":\"2018-11-13T12:00:55Z\"}";
+    private final String serializedFullReindexingTask = "{\"type\": \"full-reindexing\", \"runningOptions\":{\"mailboxConcurrency\":1,\"messageConcurrency\":1,\"batchSize\":1}, \"completedMailboxes\":[]}";
+    private final String legacySerializedFullReindexingTask = "{\"type\": \"full-reindexing\"}";
+    private final String serializedResumedFullReindexingTask = "{\"type\": \"full-reindexing\", \"runningOptions\":{\"messagesPerSecond\":50,\"mailboxConcurrency\":4,\"messageConcurrency\":8,\"batchSize\":100}, \"completedMailboxes\":[\"1\"]}";
+    private final String serializedAdditionalInformation = "{\"type\": \"full-reindexing\", \"successfullyReprocessedMailCount\":42,\"failedReprocessedMailCount\":2,\"failures\":[{\"mailboxId\":\"1\",\"uids\":[10]},{\"mailboxId\":\"2\",\"uids\":[20]}], \"timestamp\":\"2018-11-13T12:00:55Z\", \"completedMailboxes\":[]}";
+    private final String legacySerializedAdditionalInformation = "{\"type\": \"full-reindexing\", \"successfullyReprocessedMailCount\":42,\"failedReprocessedMailCount\":2,\"failures\":[{\"mailboxId\":\"1\",\"uids\":[10]},{\"mailboxId\":\"2\",\"uids\":[20]}], \"timestamp\":\"2018-11-13T12:00:55Z\"}";
+    private final String serializedAdditionalInformationWithCompletedMailboxes = "{\"type\": \"full-reindexing\", \"successfullyReprocessedMailCount\":42,\"failedReprocessedMailCount\":2,\"failures\":[{\"mailboxId\":\"1\",\"uids\":[10]},{\"mailboxId\":\"2\",\"uids\":[20]}], \"timestamp\":\"2018-11-13T12:00:55Z\", \"completedMailboxes\":[\"1\",\"2\"]}";
 
     private ReIndexingExecutionFailures reIndexingExecutionFailures;
     private ReIndexerPerformer reIndexerPerformer;
+    private FullReindexingTask.Factory factory;
 
     @BeforeEach
     void setUp() {
         reIndexerPerformer = mock(ReIndexerPerformer.class);
+        factory = new FullReindexingTask.Factory(reIndexerPerformer, new TestId.Factory());
 
         reIndexingExecutionFailures = new ReIndexingExecutionFailures(ImmutableList.of(
             new ReIndexingExecutionFailures.ReIndexingFailure(mailboxId, messageUid),
@@ -60,20 +70,64 @@ class FullReindexingTaskSerializationTest {
 
     @Test
     void fullReindexingShouldBeSerializable() throws Exception {
-        JsonSerializationVerifier.dtoModule(FullReindexingTask.module(reIndexerPerformer))
+        JsonSerializationVerifier.dtoModule(FullReindexingTask.module(factory))
             .bean(new FullReindexingTask(reIndexerPerformer))
             .json(serializedFullReindexingTask)
             .verify();
     }
 
+    @Test
+    void resumedFullReindexingShouldBeSerializable() throws Exception {
+        ReIndexer.RunningOptions runningOptions = ReIndexer.RunningOptions.builder()
+            .messagesPerSecond(50)
+            .mailboxConcurrency(4)
+            .messageConcurrency(8)
+            .batchSize(100)
+            .build();
+
+        JsonSerializationVerifier.dtoModule(FullReindexingTask.module(factory))
+            .bean(new FullReindexingTask(reIndexerPerformer, runningOptions, ImmutableSet.of(mailboxId)))
+            .json(serializedResumedFullReindexingTask)
+            .verify();
+    }
+
+    @Test
+    void legacyFullReindexingShouldBeDeserializedWithDefaultRunningOptions() throws Exception {
+        FullReindexingTask task = JsonGenericSerializer.forModules(FullReindexingTask.module(factory))
+            .withoutNestedType()
+            .deserialize(legacySerializedFullReindexingTask);
+
+        assertThat(task.getRunningOptions()).isEqualTo(ReIndexer.RunningOptions.DEFAULT);
+        assertThat(task.getCompletedMailboxes()).isEmpty();
+    }
+
     @Test
     void additionalInformationShouldBeSerializable() throws Exception {
-        ReprocessingContextInformationForFullReindexingTask details = new ReprocessingContextInformationForFullReindexingTask(successfullyReprocessedMailCount, failedReprocessedMailCount, reIndexingExecutionFailures, TIMESTAMP);
+        ReprocessingContextInformationForFullReindexingTask details = new ReprocessingContextInformationForFullReindexingTask(successfullyReprocessedMailCount, failedReprocessedMailCount, reIndexingExecutionFailures, TIMESTAMP, ImmutableSet.of());
 
         JsonSerializationVerifier.dtoModule(ReprocessingContextInformationForFullReindexingTask.serializationModule(new TestId.Factory()))
             .bean(details)
             .json(serializedAdditionalInformation)
             .verify();
     }
+
+    @Test
+    void additionalInformationWithCompletedMailboxesShouldBeSerializable() throws Exception {
+        ReprocessingContextInformationForFullReindexingTask details = new ReprocessingContextInformationForFullReindexingTask(successfullyReprocessedMailCount, failedReprocessedMailCount, reIndexingExecutionFailures, TIMESTAMP, ImmutableSet.of(mailboxId, mailboxId2));
+
+        JsonSerializationVerifier.dtoModule(ReprocessingContextInformationForFullReindexingTask.serializationModule(new TestId.Factory()))
+            .bean(details)
+            .json(serializedAdditionalInformationWithCompletedMailboxes)
+            .verify();
+    }
+
+    @Test
+    void legacyAdditionalInformationShouldBeDeserializedWithoutCompletedMailboxes() throws Exception {
+        ReprocessingContextInformationForFullReindexingTask details = JsonGenericSerializer.forModules(ReprocessingContextInformationForFullReindexingTask.serializationModule(new TestId.Factory()))
+            .withoutNestedType()
+            .deserialize(legacySerializedAdditionalInformation);
+
+        assertThat(details.completedMailboxes()).isEmpty();
+    }
 }
 
@@ -22,10 +22,20 @@ package org.apache.mailbox.tools.indexer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.MailboxSession;
 import org.apache.james.mailbox.MessageManager;
@@ -42,10 +52,16 @@ import org.apache.james.mailbox.model.MailboxPath;
 import org.apache.james.mailbox.store.MailboxSessionMapperFactory;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.task.Task;
+import org.apache.mailbox.tools.indexer.ReprocessingContextInformationDTO.ReprocessingContextInformationForFullReindexingTask;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableSet;
+
 public class ReIndexerImplTest {
 
     private static final Username USERNAME = Username.of("benwa@apache.org");
@@ -256,4 +272,151 @@ public class ReIndexerImplTest {
         assertThatThrownBy(() -> reIndexer.reIndex(mailboxId))
             .isInstanceOf(MailboxNotFoundException.class);
     }
+
+    @Test
+    void reIndexAllShouldBulkIndexMessagesWhenBatching() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxId mailboxId = mailboxManager.createMailbox(INBOX, systemSession).get();
+        MessageManager messageManager = mailboxManager.getMailbox(INBOX, systemSession);
+        ComposedMessageId message1 = messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        ComposedMessageId message2 = messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        ComposedMessageId message3 = messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+
+        reIndexer.reIndex(ReIndexer.RunningOptions.builder()
+                .batchSize(3)
+                .messagesPerSecond(100)
+                .build())
+            .run();
+
+        ArgumentCaptor<Collection<MailboxMessage>> messagesCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(messageSearchIndex).deleteAll(any(MailboxSession.class), any(MailboxId.class));
+        verify(messageSearchIndex).add(any(MailboxSession.class), any(Mailbox.class), messagesCaptor.capture());
+        verifyNoMoreInteractions(messageSearchIndex);
+
+        assertThat(messagesCaptor.getValue())
+            .allSatisfy(message -> assertThat(message.getMailboxId()).isEqualTo(mailboxId))
+            .extracting(MailboxMessage::getUid)
+            .containsExactly(message1.getUid(), message2.getUid(), message3.getUid());
+    }
+
+    @Test
+    void reIndexAllShouldFallbackToSingleMessageIndexingWhenBulkIndexingFails() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        mailboxManager.createMailbox(INBOX, systemSession);
+        MessageManager messageManager = mailboxManager.getMailbox(INBOX, systemSession);
+        messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        doThrow(new RuntimeException()).when(messageSearchIndex).add(any(MailboxSession.class), any(Mailbox.class), anyCollection());
+
+        Task.Result result = reIndexer.reIndex(ReIndexer.RunningOptions.builder()
+                .batchSize(2)
+                .build())
+            .run();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        verify(messageSearchIndex, times(2)).add(any(MailboxSession.class), any(Mailbox.class), any(MailboxMessage.class));
+    }
+
+    @Test
+    void reIndexAllShouldIndexAllMailboxesWhenConcurrent() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        int mailboxCount = 10;
+        for (int i = 0; i < mailboxCount; i++) {
+            MailboxPath path = MailboxPath.forUser(USERNAME, "mailbox" + i);
+            mailboxManager.createMailbox(path, systemSession);
+            MessageManager messageManager = mailboxManager.getMailbox(path, systemSession);
+            messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+            messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        }
+
+        reIndexer.reIndex(ReIndexer.RunningOptions.builder()
+                .mailboxConcurrency(4)
+                .messageConcurrency(2)
+                .build())
+            .run();
+
+        verify(messageSearchIndex, times(mailboxCount)).deleteAll(any(MailboxSession.class), any(MailboxId.class));
+        verify(messageSearchIndex, times(2 * mailboxCount)).add(any(MailboxSession.class), any(Mailbox.class), any(MailboxMessage.class));
+        verifyNoMoreInteractions(messageSearchIndex);
+    }
+
+    @Test
+    void reIndexAllShouldRecordCompletedMailboxes() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxId mailboxId1 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox1"), systemSession).get();
+        MailboxId mailboxId2 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox2"), systemSession).get();
+
+        Task task = reIndexer.reIndex(ReIndexer.RunningOptions.DEFAULT);
+        task.run();
+
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(((ReprocessingContextInformationForFullReindexingTask) details).completedMailboxes())
+                .containsOnly(mailboxId1, mailboxId2));
+    }
+
+    @Test
+    void reIndexAllShouldNotRecordFailedMailboxesAsCompleted() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxId mailboxId1 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox1"), systemSession).get();
+        MailboxId mailboxId2 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox2"), systemSession).get();
+        doThrow(new RuntimeException()).when(messageSearchIndex).deleteAll(any(MailboxSession.class), eq(mailboxId1));
+
+        Task task = reIndexer.reIndex(ReIndexer.RunningOptions.DEFAULT);
+        Task.Result result = task.run();
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(((ReprocessingContextInformationForFullReindexingTask) details).completedMailboxes())
+                .containsOnly(mailboxId2));
+    }
+
+    @Test
+    void resumeReIndexShouldSkipCompletedMailboxesOnly() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxId mailboxId1 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox1"), systemSession).get();
+        MailboxId mailboxId2 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox2"), systemSession).get();
+        List<MailboxId> sortedMailboxIds = Stream.of(mailboxId1, mailboxId2)
+            .sorted(Comparator.comparing(MailboxId::serialize))
+            .collect(Guavate.toImmutableList());
+
+        reIndexer.resumeReIndex(ImmutableSet.of(sortedMailboxIds.get(1)), ReIndexer.RunningOptions.DEFAULT).run();
+
+        verify(messageSearchIndex).deleteAll(any(MailboxSession.class), eq(sortedMailboxIds.get(0)));
+        verifyNoMoreInteractions(messageSearchIndex);
+    }
+
+    @Test
+    void resumeReIndexShouldReportPreviouslyCompletedMailboxes() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        MailboxId mailboxId1 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox1"), systemSession).get();
+        MailboxId mailboxId2 = mailboxManager.createMailbox(MailboxPath.forUser(USERNAME, "mailbox2"), systemSession).get();
+
+        Task task = reIndexer.resumeReIndex(ImmutableSet.of(mailboxId1), ReIndexer.RunningOptions.DEFAULT);
+        task.run();
+
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(((ReprocessingContextInformationForFullReindexingTask) details).completedMailboxes())
+                .containsOnly(mailboxId1, mailboxId2));
+    }
+
+    @Test
+    void reIndexAllShouldThrottleMessages() throws Exception {
+        MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+        mailboxManager.createMailbox(INBOX, systemSession);
+        MessageManager messageManager = mailboxManager.getMailbox(INBOX, systemSession);
+        int messageCount = 5;
+        for (int i = 0; i < messageCount; i++) {
+            messageManager.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        reIndexer.reIndex(ReIndexer.RunningOptions.builder()
+                .messageConcurrency(messageCount)
+                .messagesPerSecond(20)
+                .build())
+            .run();
+
+        assertThat(stopwatch.elapsed(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+        verify(messageSearchIndex, times(messageCount)).add(any(MailboxSession.class), any(Mailbox.class), any(MailboxMessage.class));
+    }
 }
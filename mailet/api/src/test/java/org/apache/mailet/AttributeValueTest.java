@@ -615,6 +615,38 @@ class AttributeValueTest {
         }
     }
 
+    @Nested
+    class Duplicate {
+        @Test
+        void duplicateShouldShareImmutableValues() throws Exception {
+            AttributeValue<String> string = AttributeValue.of("value");
+            AttributeValue<URL> url = AttributeValue.of(new URL("https://james.apache.org/"));
+
+            assertThat(string.duplicate()).isSameAs(string);
+            assertThat(url.duplicate()).isSameAs(url);
+        }
+
+        @Test
+        void duplicateShouldCopyMutableValues() {
+            AttributeValue<java.io.Serializable> expected = AttributeValue.ofSerializable(new TestSerializable("me"));
+
+            AttributeValue<java.io.Serializable> actual = expected.duplicate();
+
+            assertThat(actual).isEqualTo(expected);
+            assertThat(actual.value()).isNotSameAs(expected.value());
+        }
+
+        @Test
+        void duplicateShouldCopyCollections() {
+            AttributeValue<?> expected = AttributeValue.of(ImmutableList.of(AttributeValue.of("first"), AttributeValue.of("second")));
+
+            AttributeValue<?> actual = expected.duplicate();
+
+            assertThat(actual).isEqualTo(expected);
+            assertThat(actual).isNotSameAs(expected);
+        }
+    }
+
     @Test
     void fromJsonStringShouldThrowOnUnknownSerializer() {
         assertThatIllegalStateException()
@@ -149,6 +149,14 @@ public interface SelectedMailbox {
      */
     int remove(MessageUid uid);
 
+    /**
+     * Removes the given UIDs at once.
+     *
+     * @param uids
+     *            not null
+     */
+    void removeAll(Collection<MessageUid> uids);
+
     /**
      * Return a Collection which holds all uids reflecting the Messages which
      * flags were updated
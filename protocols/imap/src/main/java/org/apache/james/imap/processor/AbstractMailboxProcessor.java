@@ -171,21 +171,24 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
     }
 
     private void addExpungedResponses(SelectedMailbox selected, Collection<MessageUid> expungedUids, ImapProcessor.Responder responder) {
+        // Expunged UIDs are sorted: each response needs to account for the messages expunged by the previous ones
+        // so that sequence numbers are updated correctly.
+        // See 7.4.1. EXPUNGE Response
+        int removedCount = 0;
         for (MessageUid uid : expungedUids) {
-
-            // we need to remove the message in the loop to the sequence numbers
-            // are updated correctly.
-            // See 7.4.1. EXPUNGE Response
-            final int msn = selected.remove(uid);
-            ExpungeResponse response = new ExpungeResponse(msn);
-            responder.respond(response);
+            int msn = selected.msn(uid);
+            if (msn == SelectedMailbox.NO_SUCH_MESSAGE) {
+                responder.respond(new ExpungeResponse(msn));
+            } else {
+                responder.respond(new ExpungeResponse(msn - removedCount));
+                removedCount++;
+            }
         }
+        selected.removeAll(expungedUids);
     }
     
     private void addVanishedResponse(SelectedMailbox selected, Collection<MessageUid> expungedUids, ImapProcessor.Responder responder) {
-        for (MessageUid uid : expungedUids) {
-            selected.remove(uid);
-        }
+        selected.removeAll(expungedUids);
         UidRange[] uidRange = uidRanges(MessageRange.toRanges(expungedUids));
         responder.respond(new VanishedResponse(uidRange, false));
     }
@@ -190,6 +190,11 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
         return result;
     }
 
+    @Override
+    public synchronized void removeAll(Collection<MessageUid> uids) {
+        uidMsnConverter.removeAll(uids);
+    }
+
     private boolean interestingFlags(UpdatedFlags updated) {
         boolean result;
         final Iterator<Flags.Flag> it = updated.systemFlagIterator();
@@ -392,12 +397,12 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
     }
 
     @Override
-    public synchronized int msn(MessageUid uid) {
+    public int msn(MessageUid uid) {
         return uidMsnConverter.getMsn(uid).orElse(NO_SUCH_MESSAGE);
     }
 
     @Override
-    public synchronized Optional<MessageUid> uid(int msn) {
+    public Optional<MessageUid> uid(int msn) {
         if (msn == NO_SUCH_MESSAGE) {
             return Optional.empty();
         }
@@ -407,7 +412,7 @@ public class SelectedMailboxImpl implements SelectedMailbox, MailboxListener {
 
     
     @Override
-    public synchronized long existsCount() {
+    public long existsCount() {
         return uidMsnConverter.getNumMessage();
     }
 }
@@ -19,96 +19,174 @@
 
 package org.apache.james.imap.processor.base;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Optional;
-import java.util.TreeSet;
 
 import org.apache.james.mailbox.MessageUid;
 
-import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 
+/**
+ * Maps the UIDs of a selected mailbox to their message sequence numbers.
+ *
+ * UIDs are kept as a sorted array of primitive longs, allowing MSN lookups by binary search. Reads are lock free: they
+ * work on an immutable snapshot published through a volatile field. Writes are serialized and publish a new snapshot.
+ * Appending a UID greater than all known UIDs, the common case upon message delivery, reuses the spare capacity of the
+ * current array. Removals and out of order additions copy the array once per call, hence removals should be batched.
+ */
 public class UidMsnConverter {
 
+    private static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new long[0], 0);
+
+        private final long[] uids;
+        private final int size;
+
+        private Snapshot(long[] uids, int size) {
+            this.uids = uids;
+            this.size = size;
+        }
+
+        private int indexOf(long uid) {
+            return Arrays.binarySearch(uids, 0, size, uid);
+        }
+
+        private Optional<MessageUid> uidAt(int index) {
+            if (index >= 0 && index < size) {
+                return Optional.of(MessageUid.of(uids[index]));
+            }
+            return Optional.empty();
+        }
+    }
+
     public static final int FIRST_MSN = 1;
 
-    @VisibleForTesting final ArrayList<MessageUid> uids;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private volatile Snapshot snapshot;
 
     public UidMsnConverter() {
-        this.uids = Lists.newArrayList();
+        this.snapshot = Snapshot.EMPTY;
     }
 
-    public synchronized void addAll(List<MessageUid> addedUids) {
-        TreeSet<MessageUid> tmp = new TreeSet<>();
-        tmp.addAll(uids);
-        tmp.addAll(addedUids);
-        uids.clear();
-        uids.addAll(tmp);
+    public synchronized void addAll(Collection<MessageUid> addedUids) {
+        long[] added = addedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .sorted()
+            .distinct()
+            .toArray();
+        Snapshot current = snapshot;
+        long[] merged = new long[capacityFor(current.size + added.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < current.size || j < added.length) {
+            long next;
+            if (j == added.length || (i < current.size && current.uids[i] <= added[j])) {
+                next = current.uids[i++];
+            } else {
+                next = added[j++];
+            }
+            if (size == 0 || merged[size - 1] != next) {
+                merged[size++] = next;
+            }
+        }
+        snapshot = new Snapshot(merged, size);
     }
 
-    public synchronized Optional<Integer> getMsn(MessageUid uid) {
-        int position = Collections.binarySearch(uids, uid);
+    public Optional<Integer> getMsn(MessageUid uid) {
+        int position = snapshot.indexOf(uid.asLong());
         if (position < 0) {
             return Optional.empty();
         }
         return Optional.of(position + 1);
     }
 
-    public synchronized Optional<MessageUid> getUid(int msn) {
-        if (msn <= uids.size() && msn > 0) {
-            return Optional.of(uids.get(msn - 1));
-        }
-        return Optional.empty();
+    public Optional<MessageUid> getUid(int msn) {
+        return snapshot.uidAt(msn - 1);
     }
 
-    public synchronized Optional<MessageUid> getLastUid() {
-        if (uids.isEmpty()) {
-            return Optional.empty();
-        }
-        return getUid(getLastMsn());
+    public Optional<MessageUid> getLastUid() {
+        Snapshot current = snapshot;
+        return current.uidAt(current.size - 1);
     }
 
-    public synchronized Optional<MessageUid> getFirstUid() {
+    public Optional<MessageUid> getFirstUid() {
         return getUid(FIRST_MSN);
     }
 
-    public synchronized int getNumMessage() {
-        return uids.size();
+    public int getNumMessage() {
+        return snapshot.size;
     }
 
-    public synchronized void remove(MessageUid uid) {
-        uids.remove(uid);
+    public void remove(MessageUid uid) {
+        removeAll(ImmutableList.of(uid));
     }
 
-    public synchronized boolean isEmpty() {
-        return uids.isEmpty();
+    public synchronized void removeAll(Collection<MessageUid> removedUids) {
+        Snapshot current = snapshot;
+        long[] removed = removedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .filter(uid -> current.indexOf(uid) >= 0)
+            .sorted()
+            .distinct()
+            .toArray();
+        if (removed.length == 0) {
+            return;
+        }
+        int newSize = current.size - removed.length;
+        long[] remaining = new long[capacityFor(newSize)];
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < current.size; i++) {
+            if (j < removed.length && current.uids[i] == removed[j]) {
+                j++;
+            } else {
+                remaining[size++] = current.uids[i];
+            }
+        }
+        snapshot = new Snapshot(remaining, size);
+    }
+
+    public boolean isEmpty() {
+        return snapshot.size == 0;
     }
 
     public synchronized void clear() {
-        uids.clear();
+        snapshot = Snapshot.EMPTY;
     }
 
     public synchronized void addUid(MessageUid uid) {
-        if (uids.contains(uid)) {
+        Snapshot current = snapshot;
+        long value = uid.asLong();
+        if (current.size == 0 || current.uids[current.size - 1] < value) {
+            append(current, value);
             return;
         }
-        if (isLastUid(uid)) {
-            uids.add(uid);
-        } else {
-            uids.add(uid);
-            Collections.sort(uids);
+        int position = current.indexOf(value);
+        if (position >= 0) {
+            return;
         }
+        int insertionPoint = -(position + 1);
+        long[] uids = new long[capacityFor(current.size + 1)];
+        System.arraycopy(current.uids, 0, uids, 0, insertionPoint);
+        uids[insertionPoint] = value;
+        System.arraycopy(current.uids, insertionPoint, uids, insertionPoint + 1, current.size - insertionPoint);
+        snapshot = new Snapshot(uids, current.size + 1);
     }
 
-    private boolean isLastUid(MessageUid uid) {
-        Optional<MessageUid> lastUid = getLastUid();
-        return !lastUid.isPresent() ||
-            lastUid.get().compareTo(uid) < 0;
+    private void append(Snapshot current, long value) {
+        long[] uids = current.uids;
+        if (current.size == uids.length) {
+            uids = Arrays.copyOf(uids, capacityFor(current.size + 1));
+        }
+        // Readers of the current snapshot never read past its size, hence the spare capacity can be written in place
+        uids[current.size] = value;
+        snapshot = new Snapshot(uids, current.size + 1);
     }
 
-    private int getLastMsn() {
-        return getNumMessage();
+    private int capacityFor(int size) {
+        return Math.max(MINIMUM_CAPACITY, size + (size >> 1));
     }
 }
@@ -0,0 +1,132 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.james.core.Username;
+import org.apache.james.imap.api.message.response.ImapResponseMessage;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.api.process.ImapProcessor;
+import org.apache.james.imap.api.process.SelectedMailbox;
+import org.apache.james.imap.encode.FakeImapSession;
+import org.apache.james.imap.message.response.ExpungeResponse;
+import org.apache.james.imap.processor.base.UidMsnConverter;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSessionUtil;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableList;
+
+public class AbstractMailboxProcessorTest {
+    private static final MessageUid UID_1 = MessageUid.of(10);
+    private static final MessageUid UID_2 = MessageUid.of(20);
+    private static final MessageUid UID_3 = MessageUid.of(30);
+    private static final MessageUid UID_4 = MessageUid.of(40);
+    private static final MessageUid UID_5 = MessageUid.of(50);
+
+    private NoopProcessor testee;
+    private ImapProcessor.Responder responder;
+    private FakeImapSession imapSession;
+    private SelectedMailbox selectedMailbox;
+    private UidMsnConverter uidMsnConverter;
+
+    @Before
+    public void setUp() {
+        testee = new NoopProcessor(mock(ImapProcessor.class), mock(MailboxManager.class), mock(StatusResponseFactory.class), new RecordingMetricFactory());
+        responder = mock(ImapProcessor.Responder.class);
+        imapSession = new FakeImapSession();
+        imapSession.authenticated();
+        imapSession.setMailboxSession(MailboxSessionUtil.create(Username.of("username")));
+
+        uidMsnConverter = new UidMsnConverter();
+        uidMsnConverter.addAll(ImmutableList.of(UID_1, UID_2, UID_3, UID_4, UID_5));
+        selectedMailbox = mock(SelectedMailbox.class);
+        when(selectedMailbox.msn(any(MessageUid.class)))
+            .thenAnswer(invocation -> uidMsnConverter.getMsn(invocation.getArgument(0)).orElse(SelectedMailbox.NO_SUCH_MESSAGE));
+        imapSession.selected(selectedMailbox);
+    }
+
+    @Test
+    public void expungeResponsesShouldAccountForPreviouslyExpungedMessages() {
+        expunge(UID_2, UID_3, UID_5);
+
+        testee.unsolicitedResponses(imapSession, responder, false);
+
+        // MSN 2, then MSN 3 which became 2, then MSN 5 which became 3
+        assertThat(expungeResponses()).containsExactly(2, 2, 3);
+    }
+
+    @Test
+    public void expungeResponsesShouldAccountForAllMessagesBeingExpunged() {
+        expunge(UID_1, UID_2, UID_3, UID_4, UID_5);
+
+        testee.unsolicitedResponses(imapSession, responder, false);
+
+        assertThat(expungeResponses()).containsExactly(1, 1, 1, 1, 1);
+    }
+
+    @Test
+    public void expungeResponsesShouldNotShiftSequenceNumbersForUnknownUids() {
+        expunge(MessageUid.of(5), UID_2, MessageUid.of(25), UID_4);
+
+        testee.unsolicitedResponses(imapSession, responder, false);
+
+        assertThat(expungeResponses()).containsExactly(SelectedMailbox.NO_SUCH_MESSAGE, 2, SelectedMailbox.NO_SUCH_MESSAGE, 3);
+    }
+
+    @Test
+    public void expungeResponsesShouldRemoveExpungedUidsFromTheSelectedMailbox() {
+        Collection<MessageUid> expungedUids = expunge(UID_2, UID_3, UID_5);
+
+        testee.unsolicitedResponses(imapSession, responder, false);
+
+        verify(selectedMailbox).removeAll(expungedUids);
+    }
+
+    private Collection<MessageUid> expunge(MessageUid... uids) {
+        Collection<MessageUid> expungedUids = new TreeSet<>(ImmutableList.copyOf(uids));
+        when(selectedMailbox.expungedUids()).thenReturn(expungedUids);
+        return expungedUids;
+    }
+
+    private List<Integer> expungeResponses() {
+        ArgumentCaptor<ImapResponseMessage> captor = ArgumentCaptor.forClass(ImapResponseMessage.class);
+        verify(responder, atLeast(0)).respond(captor.capture());
+        return captor.getAllValues().stream()
+            .filter(ExpungeResponse.class::isInstance)
+            .map(response -> ((ExpungeResponse) response).getMessageSequenceNumber())
+            .collect(Collectors.toList());
+    }
+}
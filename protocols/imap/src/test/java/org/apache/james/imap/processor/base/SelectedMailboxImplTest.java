@@ -26,6 +26,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.concurrent.ExecutorService;
@@ -54,6 +55,7 @@ import org.apache.james.mailbox.model.SearchQuery;
 import org.apache.james.mailbox.model.TestId;
 import org.apache.james.mailbox.store.event.EventFactory;
 import org.apache.james.mailbox.store.mail.model.DefaultMessageId;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.apache.james.util.concurrent.NamedThreadFactory;
 import org.junit.After;
 import org.junit.Before;
@@ -145,6 +147,34 @@ public class SelectedMailboxImplTest {
             .isEqualTo(1);
     }
 
+    @Test
+    public void msnShouldStayConsistentWhileEventsAreProcessed() throws Exception {
+        SelectedMailboxImpl selectedMailbox = new SelectedMailboxImpl(
+            mailboxManager,
+            eventBus,
+            imapSession,
+            mailboxPath);
+        int addedCount = 100;
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                if (threadNumber == 0) {
+                    selectedMailbox.event(addedEvent(MessageUid.of(10 + step)));
+                } else {
+                    assertThat(selectedMailbox.msn(MessageUid.of(1))).isEqualTo(1);
+                    assertThat(selectedMailbox.msn(MessageUid.of(3))).isEqualTo(2);
+                    int lastMsn = (int) selectedMailbox.existsCount();
+                    assertThat(selectedMailbox.uid(lastMsn)).isPresent();
+                }
+            })
+            .threadCount(4)
+            .operationCount(addedCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(selectedMailbox.existsCount()).isEqualTo(2 + addedCount);
+        assertThat(selectedMailbox.msn(MessageUid.of(10 + addedCount - 1))).isEqualTo(2 + addedCount);
+    }
+
     private Answer<Stream<MessageUid>> delayedSearchAnswer() {
         return invocation -> {
             Thread.sleep(1000);
@@ -169,11 +199,15 @@ public class SelectedMailboxImplTest {
     }
 
     private void emitEvent(MailboxListener mailboxListener) throws Exception {
-        mailboxListener.event(EventFactory.added()
+        mailboxListener.event(addedEvent(EMITTED_EVENT_UID));
+    }
+
+    private MailboxListener.Added addedEvent(MessageUid uid) {
+        return EventFactory.added()
             .randomEventId()
             .mailboxSession(MailboxSessionUtil.create(Username.of("user")))
             .mailbox(mailbox)
-            .addMetaData(new MessageMetaData(EMITTED_EVENT_UID, MOD_SEQ, new Flags(), SIZE, new Date(), new DefaultMessageId()))
-            .build());
+            .addMetaData(new MessageMetaData(uid, MOD_SEQ, new Flags(), SIZE, new Date(), new DefaultMessageId()))
+            .build();
     }
 }
@@ -377,6 +377,46 @@ public class UidMsnConverterTest {
                 2, messageUid3));
     }
 
+    @Test
+    public void removeAllShouldRemoveAllGivenUids() {
+        testee.addUid(messageUid1);
+        testee.addUid(messageUid2);
+        testee.addUid(messageUid3);
+        testee.addUid(messageUid4);
+
+        testee.removeAll(ImmutableList.of(messageUid3, messageUid1));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(1, messageUid2,
+                2, messageUid4));
+    }
+
+    @Test
+    public void removeAllShouldIgnoreUnknownAndDuplicatedUids() {
+        testee.addUid(messageUid1);
+        testee.addUid(messageUid3);
+
+        testee.removeAll(ImmutableList.of(messageUid1, messageUid1, messageUid2, messageUid4));
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(1, messageUid3));
+    }
+
+    @Test
+    public void addUidShouldKeepOrderingWhenAddedAfterRemoveAll() {
+        testee.addUid(messageUid1);
+        testee.addUid(messageUid2);
+        testee.addUid(messageUid4);
+        testee.removeAll(ImmutableList.of(messageUid2));
+
+        testee.addUid(messageUid3);
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(1, messageUid1,
+                2, messageUid3,
+                3, messageUid4));
+    }
+
     @Test
     public void addAndRemoveShouldLeadToMonoticMSNToUIDConversionWhenMixed() throws Exception {
         int initialCount = 1000;
@@ -447,8 +487,8 @@ public class UidMsnConverterTest {
 
     private Map<Integer, MessageUid> mapTesteeInternalDataToMsnByUid() {
         ImmutableMap.Builder<Integer, MessageUid> result = ImmutableMap.builder();
-        for (int i = 0; i < testee.uids.size(); i++) {
-            result.put(i + 1, testee.uids.get(i));
+        for (int msn = UidMsnConverter.FIRST_MSN; msn <= testee.getNumMessage(); msn++) {
+            result.put(msn, testee.getUid(msn).get());
         }
         return result.build();
     }
@@ -0,0 +1,250 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.james.blob.api.BlobStore.StoragePolicy;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+
+/**
+ * Compresses the payload of blobs.
+ *
+ * Encoded payloads start with a short header naming the compression algorithm. Payloads without this header are
+ * decoded as is, hence blobs written before compression was enabled stay readable. Blob ids are computed on the
+ * uncompressed content, so deduplication is not affected.
+ *
+ * The stored bytes only depend on the content: they do not depend on the {@link StoragePolicy}, nor on whether the
+ * content is supplied as bytes or as a stream. Saving the same blob twice thus stores the same bytes, which stores
+ * overwriting the parts of a blob one by one rely on.
+ */
+public class BlobCompression {
+    public static final BlobCompression NONE = new BlobCompression(false);
+    private static final BlobCompression DEFLATED = new BlobCompression(true);
+
+    private static final byte[] MAGIC = {(byte) 0xB1, 'J', 'B', 'L', 'Z'};
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte DEFLATE = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+    private static final byte[] UNCOMPRESSED_HEADER = Bytes.concat(MAGIC, new byte[] {UNCOMPRESSED});
+    private static final byte[] DEFLATE_HEADER = Bytes.concat(MAGIC, new byte[] {DEFLATE});
+
+    public static BlobCompression of(boolean enabled) {
+        if (enabled) {
+            return DEFLATED;
+        }
+        return NONE;
+    }
+
+    private final boolean enabled;
+
+    private BlobCompression(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Compressed content is deflated even when this does not make it smaller, so that the stream and byte paths
+     * store the same bytes.
+     */
+    public byte[] encode(byte[] data) {
+        if (enabled) {
+            return Bytes.concat(DEFLATE_HEADER, deflate(data));
+        }
+        if (needsEscaping(data)) {
+            return Bytes.concat(UNCOMPRESSED_HEADER, data);
+        }
+        return data;
+    }
+
+    /**
+     * Closing the returned stream releases the compressor and closes the supplied one.
+     */
+    public InputStream encode(InputStream data) {
+        if (enabled) {
+            return new SequenceInputStream(new ByteArrayInputStream(DEFLATE_HEADER), new DeflaterInputStream(data));
+        }
+        return new LazyInputStream(data, () -> escapeMagic(data));
+    }
+
+    public byte[] decode(byte[] stored) {
+        if (!startsWithMagic(stored)) {
+            return stored;
+        }
+        byte[] payload = Arrays.copyOfRange(stored, HEADER_LENGTH, stored.length);
+        switch (stored[MAGIC.length]) {
+            case UNCOMPRESSED:
+                return payload;
+            case DEFLATE:
+                return inflate(payload);
+            default:
+                throw new ObjectStoreException("Unknown blob compression algorithm " + stored[MAGIC.length]);
+        }
+    }
+
+    public InputStream decode(InputStream stored) {
+        return new LazyInputStream(stored, () -> decodeStream(stored));
+    }
+
+    private InputStream escapeMagic(InputStream data) throws IOException {
+        PushbackInputStream pushbackInputStream = new PushbackInputStream(data, MAGIC.length);
+        byte[] head = readHead(pushbackInputStream, MAGIC.length);
+        if (needsEscaping(head)) {
+            return new SequenceInputStream(new ByteArrayInputStream(UNCOMPRESSED_HEADER), pushbackInputStream);
+        }
+        return pushbackInputStream;
+    }
+
+    private InputStream decodeStream(InputStream stored) throws IOException {
+        PushbackInputStream pushbackInputStream = new PushbackInputStream(stored, HEADER_LENGTH);
+        byte[] head = readHead(pushbackInputStream, HEADER_LENGTH);
+        if (!startsWithMagic(head)) {
+            return pushbackInputStream;
+        }
+        ByteStreams.skipFully(pushbackInputStream, HEADER_LENGTH);
+        switch (head[MAGIC.length]) {
+            case UNCOMPRESSED:
+                return pushbackInputStream;
+            case DEFLATE:
+                return new InflaterInputStream(pushbackInputStream);
+            default:
+                throw new ObjectStoreException("Unknown blob compression algorithm " + head[MAGIC.length]);
+        }
+    }
+
+    private byte[] readHead(PushbackInputStream stream, int length) throws IOException {
+        byte[] head = new byte[length];
+        int read = ByteStreams.read(stream, head, 0, length);
+        stream.unread(head, 0, read);
+        return Arrays.copyOf(head, read);
+    }
+
+    private boolean needsEscaping(byte[] data) {
+        return data.length >= MAGIC.length
+            && Arrays.equals(Arrays.copyOf(data, MAGIC.length), MAGIC);
+    }
+
+    private boolean startsWithMagic(byte[] data) {
+        return data.length > MAGIC.length
+            && Arrays.equals(Arrays.copyOf(data, MAGIC.length), MAGIC);
+    }
+
+    private byte[] deflate(byte[] data) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream)) {
+            deflaterOutputStream.write(data);
+        } catch (IOException e) {
+            throw new ObjectStoreException("Failed compressing blob", e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private byte[] inflate(byte[] data) {
+        try (InflaterInputStream inflaterInputStream = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return ByteStreams.toByteArray(inflaterInputStream);
+        } catch (IOException e) {
+            throw new ObjectStoreException("Failed decompressing blob", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StreamSupplier {
+        InputStream get() throws IOException;
+    }
+
+    /**
+     * Defers peeking at the payload header until the first read, so that no IO happens upon stream creation.
+     */
+    private static class LazyInputStream extends InputStream {
+        private final InputStream source;
+        private final StreamSupplier supplier;
+        private InputStream delegate;
+
+        LazyInputStream(InputStream source, StreamSupplier supplier) {
+            this.source = source;
+            this.supplier = supplier;
+        }
+
+        private InputStream delegate() throws IOException {
+            if (delegate == null) {
+                delegate = supplier.get();
+            }
+            return delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return delegate().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate().available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate == null) {
+                source.close();
+            } else {
+                delegate.close();
+            }
+        }
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BlobCompression) {
+            BlobCompression that = (BlobCompression) o;
+
+            return Objects.equals(this.enabled, that.enabled);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(enabled);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("enabled", enabled)
+            .toString();
+    }
+}
@@ -0,0 +1,166 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.primitives.Bytes;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class BlobCompressionTest {
+    private static final byte[] TEXT = Strings.repeat("Hello James, this is a text-heavy mail body.\r\n", 100)
+        .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MAGIC_LOOKALIKE = Bytes.concat(new byte[] {(byte) 0xB1, 'J', 'B', 'L', 'Z', 1}, TEXT);
+    private static final BlobCompression TESTEE = BlobCompression.of(true);
+
+    @Test
+    void shouldMatchBeanContract() {
+        EqualsVerifier.forClass(BlobCompression.class).verify();
+    }
+
+    @Test
+    void ofShouldReturnNoneWhenDisabled() {
+        assertThat(BlobCompression.of(false))
+            .isEqualTo(BlobCompression.NONE);
+    }
+
+    @Test
+    void encodeShouldCompress() {
+        assertThat(TESTEE.encode(TEXT).length)
+            .isLessThan(TEXT.length / 3);
+    }
+
+    @Test
+    void encodeShouldNotCompressWhenDisabled() {
+        assertThat(BlobCompression.NONE.encode(TEXT))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void encodeShouldCompressWhenNotSmaller() {
+        byte[] data = "a".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(TESTEE.decode(TESTEE.encode(data)))
+            .isEqualTo(data);
+        assertThat(TESTEE.encode(data).length)
+            .isGreaterThan(data.length);
+    }
+
+    @Test
+    void encodeStreamShouldStoreTheSameBytesAsEncodeBytes() throws IOException {
+        assertThat(IOUtils.toByteArray(TESTEE.encode(new ByteArrayInputStream(TEXT))))
+            .isEqualTo(TESTEE.encode(TEXT));
+    }
+
+    @Test
+    void encodeStreamShouldStoreTheSameBytesAsEncodeBytesWhenNotSmaller() throws IOException {
+        byte[] data = "a".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(IOUtils.toByteArray(TESTEE.encode(new ByteArrayInputStream(data))))
+            .isEqualTo(TESTEE.encode(data));
+    }
+
+    @Test
+    void encodeStreamShouldStoreTheSameBytesAsEncodeBytesWhenDisabled() throws IOException {
+        assertThat(IOUtils.toByteArray(BlobCompression.NONE.encode(new ByteArrayInputStream(MAGIC_LOOKALIKE))))
+            .isEqualTo(BlobCompression.NONE.encode(MAGIC_LOOKALIKE));
+    }
+
+    @Test
+    void decodeShouldReturnCompressedContent() {
+        assertThat(TESTEE.decode(TESTEE.encode(TEXT)))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodeShouldReturnLegacyContent() {
+        assertThat(TESTEE.decode(TEXT))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodeShouldReturnEmptyContent() {
+        assertThat(TESTEE.decode(TESTEE.encode(new byte[0])))
+            .isEmpty();
+    }
+
+    @Test
+    void encodeShouldEscapeUncompressedContentStartingWithTheHeader() {
+        assertThat(BlobCompression.NONE.decode(BlobCompression.NONE.encode(MAGIC_LOOKALIKE)))
+            .isEqualTo(MAGIC_LOOKALIKE);
+    }
+
+    @Test
+    void decodeStreamShouldReturnStreamCompressedContent() throws IOException {
+        assertThat(IOUtils.toByteArray(TESTEE.decode(TESTEE.encode(new ByteArrayInputStream(TEXT)))))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodeStreamShouldReturnBytesCompressedContent() throws IOException {
+        assertThat(IOUtils.toByteArray(TESTEE.decode(new ByteArrayInputStream(TESTEE.encode(TEXT)))))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodeShouldReturnStreamCompressedContent() throws IOException {
+        byte[] stored = IOUtils.toByteArray(TESTEE.encode(new ByteArrayInputStream(TEXT)));
+
+        assertThat(TESTEE.decode(stored))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodeStreamShouldReturnLegacyContent() throws IOException {
+        assertThat(IOUtils.toByteArray(TESTEE.decode(new ByteArrayInputStream(TEXT))))
+            .isEqualTo(TEXT);
+    }
+
+    @Test
+    void decodeStreamShouldReturnContentShorterThanTheHeader() throws IOException {
+        byte[] data = "ab".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(IOUtils.toByteArray(TESTEE.decode(new ByteArrayInputStream(data))))
+            .isEqualTo(data);
+    }
+
+    @Test
+    void encodeStreamShouldEscapeUncompressedContentStartingWithTheHeader() throws IOException {
+        byte[] stored = IOUtils.toByteArray(BlobCompression.NONE.encode(new ByteArrayInputStream(MAGIC_LOOKALIKE)));
+
+        assertThat(IOUtils.toByteArray(TESTEE.decode(new ByteArrayInputStream(stored))))
+            .isEqualTo(MAGIC_LOOKALIKE);
+    }
+
+    @Test
+    void encodeStreamShouldNotAlterUncompressedContent() throws IOException {
+        assertThat(IOUtils.toByteArray(BlobCompression.NONE.encode(new ByteArrayInputStream(TEXT))))
+            .isEqualTo(TEXT);
+    }
+}
@@ -0,0 +1,226 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ObjectStoreException;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.io.ByteStreams;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps small blobs of an underlying {@link BlobStore} in memory.
+ *
+ * Blobs no larger than {@link Configuration#getSizeThreshold()} are cached upon read, as well as upon
+ * save unless {@link StoragePolicy#LOW_COST} is requested. Streamed reads read ahead at most one byte
+ * past the threshold to tell small blobs apart, larger blobs are then streamed without being cached. The cache is bounded by the total size of
+ * the cached blobs and evicts least recently used entries first.
+ *
+ * Byte arrays are copied when entering and leaving the cache, so that callers mutating them can not
+ * alter cached content.
+ */
+public class CachedBlobStore implements BlobStore {
+
+    public static class Configuration {
+        public static final int DEFAULT_SIZE_THRESHOLD = 8 * 1024;
+        public static final long DEFAULT_MAXIMUM_WEIGHT = 50L * 1024 * 1024;
+        public static final Configuration DEFAULT = new Configuration(DEFAULT_SIZE_THRESHOLD, DEFAULT_MAXIMUM_WEIGHT);
+        private static final String SIZE_THRESHOLD_PROPERTY_NAME = "cache.size.threshold";
+        private static final String MAXIMUM_WEIGHT_PROPERTY_NAME = "cache.maximum.weight";
+
+        public static Configuration from(org.apache.commons.configuration2.Configuration propertiesConfiguration) {
+            return new Configuration(
+                Optional.ofNullable(propertiesConfiguration.getInteger(SIZE_THRESHOLD_PROPERTY_NAME, null))
+                    .orElse(DEFAULT_SIZE_THRESHOLD),
+                Optional.ofNullable(propertiesConfiguration.getLong(MAXIMUM_WEIGHT_PROPERTY_NAME, null))
+                    .orElse(DEFAULT_MAXIMUM_WEIGHT));
+        }
+
+        private final int sizeThreshold;
+        private final long maximumWeight;
+
+        public Configuration(int sizeThreshold, long maximumWeight) {
+            Preconditions.checkArgument(sizeThreshold >= 0, "'" + SIZE_THRESHOLD_PROPERTY_NAME + "' needs to be positive");
+            Preconditions.checkArgument(maximumWeight >= 0, "'" + MAXIMUM_WEIGHT_PROPERTY_NAME + "' needs to be positive");
+
+            this.sizeThreshold = sizeThreshold;
+            this.maximumWeight = maximumWeight;
+        }
+
+        public int getSizeThreshold() {
+            return sizeThreshold;
+        }
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof Configuration) {
+                Configuration that = (Configuration) o;
+
+                return Objects.equals(this.sizeThreshold, that.sizeThreshold)
+                    && Objects.equals(this.maximumWeight, that.maximumWeight);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(sizeThreshold, maximumWeight);
+        }
+    }
+
+    static final String BLOB_STORE_CACHE_METRIC_PREFIX = "blobStore:cache:";
+    static final String HIT_COUNT_METRIC_NAME = BLOB_STORE_CACHE_METRIC_PREFIX + "hit";
+    static final String MISS_COUNT_METRIC_NAME = BLOB_STORE_CACHE_METRIC_PREFIX + "miss";
+    static final String WEIGHT_METRIC_NAME = BLOB_STORE_CACHE_METRIC_PREFIX + "weight";
+
+    private final BlobStore backend;
+    private final Configuration configuration;
+    private final Cache<Pair<BucketName, BlobId>, byte[]> cache;
+    private final Metric hitMetric;
+    private final Metric missMetric;
+    private final Metric weightMetric;
+
+    public CachedBlobStore(BlobStore backend, Configuration configuration, MetricFactory metricFactory) {
+        this.backend = backend;
+        this.configuration = configuration;
+        this.hitMetric = metricFactory.generate(HIT_COUNT_METRIC_NAME);
+        this.missMetric = metricFactory.generate(MISS_COUNT_METRIC_NAME);
+        this.weightMetric = metricFactory.generate(WEIGHT_METRIC_NAME);
+
+        RemovalListener<Pair<BucketName, BlobId>, byte[]> removalListener =
+            notification -> Optional.ofNullable(notification.getValue())
+                .ifPresent(bytes -> weightMetric.remove(bytes.length));
+
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(configuration.getMaximumWeight())
+            .<Pair<BucketName, BlobId>, byte[]>weigher((key, bytes) -> bytes.length)
+            .removalListener(removalListener)
+            .build();
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, byte[] data, StoragePolicy storagePolicy) {
+        return backend.save(bucketName, data, storagePolicy)
+            .doOnNext(blobId -> {
+                if (storagePolicy != StoragePolicy.LOW_COST) {
+                    cacheIfSmall(Pair.of(bucketName, blobId), data);
+                }
+            });
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream data, StoragePolicy storagePolicy) {
+        return backend.save(bucketName, data, storagePolicy);
+    }
+
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
+        Pair<BucketName, BlobId> key = Pair.of(bucketName, blobId);
+
+        return Mono.defer(() -> Mono.justOrEmpty(retrieveCached(key).map(byte[]::clone)))
+            .switchIfEmpty(Mono.defer(() -> backend.readBytes(bucketName, blobId))
+                .doOnNext(bytes -> cacheIfSmall(key, bytes)));
+    }
+
+    @Override
+    public InputStream read(BucketName bucketName, BlobId blobId) {
+        Pair<BucketName, BlobId> key = Pair.of(bucketName, blobId);
+
+        return retrieveCached(key)
+            .<InputStream>map(ByteArrayInputStream::new)
+            .orElseGet(() -> readAndCacheIfSmall(key, backend.read(bucketName, blobId)));
+    }
+
+    private InputStream readAndCacheIfSmall(Pair<BucketName, BlobId> key, InputStream stream) {
+        try {
+            byte[] head = ByteStreams.toByteArray(ByteStreams.limit(stream, configuration.getSizeThreshold() + 1L));
+            if (head.length > configuration.getSizeThreshold()) {
+                return new SequenceInputStream(new ByteArrayInputStream(head), stream);
+            }
+            stream.close();
+            cacheIfSmall(key, head);
+            return new ByteArrayInputStream(head);
+        } catch (IOException e) {
+            throw new ObjectStoreException("Failed to read blob " + key.getRight().asString(), e);
+        }
+    }
+
+    @Override
+    public BucketName getDefaultBucketName() {
+        return backend.getDefaultBucketName();
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        return backend.deleteBucket(bucketName)
+            .then(Mono.fromRunnable(() -> cache.asMap().keySet()
+                .removeIf(key -> key.getLeft().equals(bucketName))));
+    }
+
+    @Override
+    public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
+        return backend.delete(bucketName, blobId)
+            .then(Mono.fromRunnable(() -> cache.invalidate(Pair.of(bucketName, blobId))));
+    }
+
+    private Optional<byte[]> retrieveCached(Pair<BucketName, BlobId> key) {
+        Optional<byte[]> cached = Optional.ofNullable(cache.getIfPresent(key));
+        if (cached.isPresent()) {
+            hitMetric.increment();
+        } else {
+            missMetric.increment();
+        }
+        return cached;
+    }
+
+    private void cacheIfSmall(Pair<BucketName, BlobId> key, byte[] bytes) {
+        if (bytes.length <= configuration.getSizeThreshold()) {
+            cache.put(key, bytes.clone());
+            weightMetric.add(bytes.length);
+        }
+    }
+
+    @VisibleForTesting
+    long size() {
+        return cache.size();
+    }
+}
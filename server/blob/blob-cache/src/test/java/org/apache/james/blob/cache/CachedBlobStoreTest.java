@@ -0,0 +1,217 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreContract;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.ObjectNotFoundException;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+class CachedBlobStoreTest implements BlobStoreContract {
+
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final int SIZE_THRESHOLD = 1024;
+    private static final byte[] SMALL_CONTENT = "small blob content".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BIG_CONTENT = Strings.repeat("0123456789\n", 1000).getBytes(StandardCharsets.UTF_8);
+
+    private MemoryBlobStore backend;
+    private RecordingMetricFactory metricFactory;
+    private CachedBlobStore testee;
+
+    @BeforeEach
+    void setUp() {
+        backend = new MemoryBlobStore(BLOB_ID_FACTORY);
+        metricFactory = new RecordingMetricFactory();
+        testee = new CachedBlobStore(backend,
+            new CachedBlobStore.Configuration(SIZE_THRESHOLD, CachedBlobStore.Configuration.DEFAULT_MAXIMUM_WEIGHT),
+            metricFactory);
+    }
+
+    @Override
+    public BlobStore testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return BLOB_ID_FACTORY;
+    }
+
+    @Nested
+    class CachingTests {
+        @Test
+        void readBytesShouldBeServedFromCacheAfterSave() {
+            BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT, SIZE_BASED).block();
+            backend.delete(BucketName.DEFAULT, blobId).block();
+
+            assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+        }
+
+        @Test
+        void readShouldBeServedFromCacheAfterSave() {
+            BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT, SIZE_BASED).block();
+            backend.delete(BucketName.DEFAULT, blobId).block();
+
+            assertThat(testee.read(BucketName.DEFAULT, blobId)).hasSameContentAs(new ByteArrayInputStream(SMALL_CONTENT));
+        }
+
+        @Test
+        void mutatingSavedBytesShouldNotAlterCachedBlob() {
+            byte[] data = SMALL_CONTENT.clone();
+            BlobId blobId = testee.save(BucketName.DEFAULT, data, SIZE_BASED).block();
+            data[0] = 'X';
+
+            assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+        }
+
+        @Test
+        void mutatingReadBytesShouldNotAlterCachedBlob() {
+            BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT, SIZE_BASED).block();
+            testee.readBytes(BucketName.DEFAULT, blobId).block()[0] = 'X';
+
+            assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+        }
+
+        @Test
+        void saveShouldNotCacheLowCostBlobs() {
+            testee.save(BucketName.DEFAULT, SMALL_CONTENT, LOW_COST).block();
+
+            assertThat(testee.size()).isZero();
+        }
+
+        @Test
+        void saveShouldNotCacheBlobsBiggerThanThreshold() {
+            testee.save(BucketName.DEFAULT, BIG_CONTENT, SIZE_BASED).block();
+
+            assertThat(testee.size()).isZero();
+        }
+
+        @Test
+        void readBytesShouldCacheSmallBlobs() {
+            BlobId blobId = backend.save(BucketName.DEFAULT, SMALL_CONTENT, LOW_COST).block();
+
+            testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+            assertThat(testee.size()).isEqualTo(1);
+        }
+
+        @Test
+        void readBytesShouldNotCacheBlobsBiggerThanThreshold() {
+            BlobId blobId = backend.save(BucketName.DEFAULT, BIG_CONTENT, LOW_COST).block();
+
+            testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+            assertThat(testee.size()).isZero();
+        }
+
+        @Test
+        void readShouldCacheSmallBlobs() throws Exception {
+            BlobId blobId = backend.save(BucketName.DEFAULT, SMALL_CONTENT, LOW_COST).block();
+
+            try (InputStream stream = testee.read(BucketName.DEFAULT, blobId)) {
+                assertThat(stream).hasSameContentAs(new ByteArrayInputStream(SMALL_CONTENT));
+            }
+            backend.delete(BucketName.DEFAULT, blobId).block();
+
+            assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+        }
+
+        @Test
+        void readShouldNotCacheBlobsBiggerThanThreshold() throws Exception {
+            BlobId blobId = backend.save(BucketName.DEFAULT, BIG_CONTENT, LOW_COST).block();
+
+            try (InputStream stream = testee.read(BucketName.DEFAULT, blobId)) {
+                assertThat(stream).hasSameContentAs(new ByteArrayInputStream(BIG_CONTENT));
+            }
+
+            assertThat(testee.size()).isZero();
+        }
+
+        @Test
+        void readShouldCacheBlobsOfThresholdSize() throws Exception {
+            byte[] content = Strings.repeat("a", SIZE_THRESHOLD).getBytes(StandardCharsets.UTF_8);
+            BlobId blobId = backend.save(BucketName.DEFAULT, content, LOW_COST).block();
+
+            try (InputStream stream = testee.read(BucketName.DEFAULT, blobId)) {
+                assertThat(stream).hasSameContentAs(new ByteArrayInputStream(content));
+            }
+
+            assertThat(testee.size()).isEqualTo(1);
+        }
+
+        @Test
+        void deleteShouldInvalidateCachedBlob() {
+            BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT, SIZE_BASED).block();
+
+            testee.delete(BucketName.DEFAULT, blobId).block();
+
+            assertThatThrownBy(() -> testee.readBytes(BucketName.DEFAULT, blobId).block())
+                .isInstanceOf(ObjectNotFoundException.class);
+        }
+
+        @Test
+        void deleteBucketShouldInvalidateCachedBlobsOfThatBucket() {
+            BucketName bucketName = BucketName.of("custom");
+            BlobId blobId = testee.save(bucketName, SMALL_CONTENT, SIZE_BASED).block();
+
+            testee.deleteBucket(bucketName).block();
+
+            assertThatThrownBy(() -> testee.readBytes(bucketName, blobId).block())
+                .isInstanceOf(ObjectNotFoundException.class);
+        }
+
+        @Test
+        void readBytesShouldRecordHitsAndMisses() {
+            BlobId blobId = backend.save(BucketName.DEFAULT, SMALL_CONTENT, LOW_COST).block();
+
+            testee.readBytes(BucketName.DEFAULT, blobId).block();
+            testee.readBytes(BucketName.DEFAULT, blobId).block();
+            testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+            assertThat(metricFactory.countFor(CachedBlobStore.MISS_COUNT_METRIC_NAME)).isEqualTo(1);
+            assertThat(metricFactory.countFor(CachedBlobStore.HIT_COUNT_METRIC_NAME)).isEqualTo(2);
+        }
+
+        @Test
+        void weightMetricShouldTrackCachedBytes() {
+            testee.save(BucketName.DEFAULT, SMALL_CONTENT, SIZE_BASED).block();
+
+            assertThat(metricFactory.countFor(CachedBlobStore.WEIGHT_METRIC_NAME)).isEqualTo(SMALL_CONTENT.length);
+        }
+    }
+}
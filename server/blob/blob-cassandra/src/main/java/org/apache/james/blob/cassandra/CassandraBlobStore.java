@@ -19,6 +19,7 @@
 
 package org.apache.james.blob.cassandra;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.Comparator;
@@ -29,9 +30,9 @@ import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
@@ -43,6 +44,10 @@ import org.apache.james.util.ReactorUtils;
 import com.datastax.driver.core.Session;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.FileBackedOutputStream;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -51,28 +56,31 @@ import reactor.core.scheduler.Schedulers;
 public class CassandraBlobStore implements BlobStore {
 
     private static final int PREFETCH = 16;
-    private static final int MAX_CONCURRENCY = 1;
     private final CassandraDefaultBucketDAO defaultBucketDAO;
     private final CassandraBucketDAO bucketDAO;
     private final DataChunker dataChunker;
     private final CassandraConfiguration configuration;
     private final HashBlobId.Factory blobIdFactory;
+    private final BlobCompression compression;
 
     @Inject
-    CassandraBlobStore(CassandraDefaultBucketDAO defaultBucketDAO, CassandraBucketDAO bucketDAO, CassandraConfiguration cassandraConfiguration, HashBlobId.Factory blobIdFactory) {
+    CassandraBlobStore(CassandraDefaultBucketDAO defaultBucketDAO, CassandraBucketDAO bucketDAO, CassandraConfiguration cassandraConfiguration,
+                       HashBlobId.Factory blobIdFactory, BlobCompression compression) {
         this.defaultBucketDAO = defaultBucketDAO;
         this.bucketDAO = bucketDAO;
         this.configuration = cassandraConfiguration;
         this.blobIdFactory = blobIdFactory;
+        this.compression = compression;
         this.dataChunker = new DataChunker();
     }
 
     @VisibleForTesting
     public CassandraBlobStore(Session session) {
-        this(new CassandraDefaultBucketDAO(session),
+        this(new CassandraDefaultBucketDAO(new HashBlobId.Factory(), session),
             new CassandraBucketDAO(new HashBlobId.Factory(), session),
             CassandraConfiguration.DEFAULT_CONFIGURATION,
-            new HashBlobId.Factory());
+            new HashBlobId.Factory(),
+            BlobCompression.NONE);
     }
 
     @Override
@@ -84,14 +92,18 @@ public class CassandraBlobStore implements BlobStore {
 
     private Mono<BlobId> saveAsMono(BucketName bucketName, byte[] data) {
         BlobId blobId = blobIdFactory.forPayload(data);
-        return saveBlobParts(bucketName, data, blobId)
+        return saveBlobParts(bucketName, compression.encode(data), blobId)
             .flatMap(numberOfChunk -> saveBlobPartReference(bucketName, blobId, numberOfChunk)
                 .then(Mono.just(blobId)));
     }
 
     private Mono<Integer> saveBlobParts(BucketName bucketName, byte[] data, BlobId blobId) {
         Stream<Pair<Integer, ByteBuffer>> chunks = dataChunker.chunk(data, configuration.getBlobPartSize());
-        return Flux.fromStream(chunks)
+        return saveBlobParts(bucketName, Flux.fromStream(chunks), blobId);
+    }
+
+    private Mono<Integer> saveBlobParts(BucketName bucketName, Flux<Pair<Integer, ByteBuffer>> chunks, BlobId blobId) {
+        return chunks
             .publishOn(Schedulers.elastic(), PREFETCH)
             .flatMap(pair -> writePart(bucketName, blobId, pair.getKey(), pair.getValue())
                 .then(Mono.just(getChunkNum(pair))))
@@ -114,12 +126,13 @@ public class CassandraBlobStore implements BlobStore {
     public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
         return readBlobParts(bucketName, blobId)
             .collectList()
-            .map(this::byteBuffersToBytesArray);
+            .map(this::byteBuffersToBytesArray)
+            .map(compression::decode);
     }
 
     @Override
     public InputStream read(BucketName bucketName, BlobId blobId) {
-        return ReactorUtils.toInputStream(readBlobParts(bucketName, blobId));
+        return compression.decode(ReactorUtils.toInputStream(readBlobParts(bucketName, blobId)));
     }
 
     @Override
@@ -139,14 +152,52 @@ public class CassandraBlobStore implements BlobStore {
                 .single()
                 .onErrorResume(NoSuchElementException.class, e -> Mono.error(
                     new ObjectNotFoundException(String.format("Missing blob part for blobId %s and position %d", blobId, partIndex)))),
-                MAX_CONCURRENCY, PREFETCH);
+                configuration.getBlobReadAheadWindow(), PREFETCH);
     }
 
     @Override
     public Mono<BlobId> save(BucketName bucketName, InputStream data, StoragePolicy storagePolicy) {
         Preconditions.checkNotNull(data);
-        return Mono.fromCallable(() -> IOUtils.toByteArray(data))
-            .flatMap(bytes -> saveAsMono(bucketName, bytes));
+        return Mono.using(
+            () -> new FileBackedOutputStream(configuration.getBlobPartSize()),
+            spool -> saveAsMono(bucketName, data, spool),
+            this::resetSpool);
+    }
+
+    private Mono<BlobId> saveAsMono(BucketName bucketName, InputStream data, FileBackedOutputStream spool) {
+        return Mono.fromCallable(() -> spoolAndComputeBlobId(data, spool))
+            .flatMap(blobId -> Flux.using(
+                    () -> spool.asByteSource().openStream(),
+                    spooledData -> dataChunker.chunkStream(spooledData, configuration.getBlobPartSize()),
+                    this::closeSpooledData)
+                .as(chunks -> saveBlobParts(bucketName, chunks, blobId))
+                .flatMap(numberOfChunk -> saveBlobPartReference(bucketName, blobId, numberOfChunk))
+                .then(Mono.just(blobId)));
+    }
+
+    private BlobId spoolAndComputeBlobId(InputStream data, FileBackedOutputStream spool) throws IOException {
+        HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), data);
+        try (InputStream encoded = compression.encode(hashingInputStream)) {
+            ByteStreams.copy(encoded, spool);
+        }
+        spool.close();
+        return blobIdFactory.from(hashingInputStream.hash().toString());
+    }
+
+    private void closeSpooledData(InputStream spooledData) {
+        try {
+            spooledData.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void resetSpool(FileBackedOutputStream spool) {
+        try {
+            spool.reset();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
@@ -24,13 +24,17 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.timestamp;
 import static org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobTable.ID;
 import static org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobTable.NUMBER_OF_CHUNK;
 
 import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobParts;
@@ -40,9 +44,14 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.google.common.annotations.VisibleForTesting;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraDefaultBucketDAO {
+    private static final String WRITE_TIME = "write_time";
+    private static final String DELETION_TIMESTAMP = "deletion_timestamp";
+
+    private final BlobId.Factory blobIdFactory;
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
     private final PreparedStatement insertPart;
@@ -50,10 +59,15 @@ public class CassandraDefaultBucketDAO {
     private final PreparedStatement selectPart;
     private final PreparedStatement delete;
     private final PreparedStatement deleteParts;
+    private final PreparedStatement listAll;
+    private final PreparedStatement selectWriteTime;
+    private final PreparedStatement deleteWrittenBefore;
+    private final PreparedStatement deletePartsWrittenBefore;
 
     @Inject
     @VisibleForTesting
-    CassandraDefaultBucketDAO(Session session) {
+    CassandraDefaultBucketDAO(BlobId.Factory blobIdFactory, Session session) {
+        this.blobIdFactory = blobIdFactory;
         this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
         this.insert = prepareInsert(session);
         this.select = prepareSelect(session);
@@ -61,6 +75,38 @@ public class CassandraDefaultBucketDAO {
         this.selectPart = prepareSelectPart(session);
         this.delete = prepareDelete(session);
         this.deleteParts = prepareDeleteParts(session);
+        this.listAll = prepareListAll(session);
+        this.selectWriteTime = prepareSelectWriteTime(session);
+        this.deleteWrittenBefore = prepareDeleteWrittenBefore(session);
+        this.deletePartsWrittenBefore = prepareDeletePartsWrittenBefore(session);
+    }
+
+    private PreparedStatement prepareSelectWriteTime(Session session) {
+        return session.prepare(select()
+            .writeTime(NUMBER_OF_CHUNK).as(WRITE_TIME)
+            .from(BlobTables.DefaultBucketBlobTable.TABLE_NAME)
+            .where(eq(ID, bindMarker(ID))));
+    }
+
+    private PreparedStatement prepareDeleteWrittenBefore(Session session) {
+        return session.prepare(
+            delete().from(BlobTables.DefaultBucketBlobTable.TABLE_NAME)
+                .using(timestamp(bindMarker(DELETION_TIMESTAMP)))
+                .where(eq(ID, bindMarker(ID))));
+    }
+
+    private PreparedStatement prepareDeletePartsWrittenBefore(Session session) {
+        return session.prepare(
+            delete().from(DefaultBucketBlobParts.TABLE_NAME)
+                .using(timestamp(bindMarker(DELETION_TIMESTAMP)))
+                .where(eq(DefaultBucketBlobParts.ID, bindMarker(DefaultBucketBlobParts.ID))));
+    }
+
+    private PreparedStatement prepareListAll(Session session) {
+        return session.prepare(select()
+            .column(ID)
+            .writeTime(NUMBER_OF_CHUNK).as(WRITE_TIME)
+            .from(BlobTables.DefaultBucketBlobTable.TABLE_NAME));
     }
 
     private PreparedStatement prepareSelect(Session session) {
@@ -143,6 +189,42 @@ public class CassandraDefaultBucketDAO {
                 .setString(DefaultBucketBlobParts.ID, blobId.asString()));
     }
 
+    /**
+     * Lists the blobs of the default bucket along with the last time they were saved.
+     */
+    public Flux<Pair<BlobId, Instant>> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(listAll.bind())
+            .map(row -> Pair.of(
+                blobIdFactory.from(row.getString(ID)),
+                Instant.ofEpochMilli(TimeUnit.MICROSECONDS.toMillis(row.getLong(WRITE_TIME)))));
+    }
+
+    /**
+     * Deletes a blob of the default bucket if it was last saved before the given instant.
+     *
+     * The write time is read again right before deleting, and the deletion is applied with that write time as its
+     * timestamp: a concurrent save of the same blob gets a later timestamp and thus survives the deletion.
+     *
+     * @return true if the blob was deleted, false if it is missing or was saved since
+     */
+    public Mono<Boolean> deleteIfWrittenBefore(BlobId blobId, Instant before) {
+        return cassandraAsyncExecutor.executeSingleRow(
+                selectWriteTime.bind()
+                    .setString(ID, blobId.asString()))
+            .map(row -> row.getLong(WRITE_TIME))
+            .filter(writeTime -> Instant.ofEpochMilli(TimeUnit.MICROSECONDS.toMillis(writeTime)).isBefore(before))
+            .flatMap(writeTime -> cassandraAsyncExecutor.executeVoid(
+                    deleteWrittenBefore.bind()
+                        .setString(ID, blobId.asString())
+                        .setLong(DELETION_TIMESTAMP, writeTime))
+                .then(cassandraAsyncExecutor.executeVoid(
+                    deletePartsWrittenBefore.bind()
+                        .setString(DefaultBucketBlobParts.ID, blobId.asString())
+                        .setLong(DELETION_TIMESTAMP, writeTime)))
+                .thenReturn(true))
+            .defaultIfEmpty(false);
+    }
+
     private ByteBuffer rowToData(Row row) {
         return row.getBytes(DefaultBucketBlobParts.DATA);
     }
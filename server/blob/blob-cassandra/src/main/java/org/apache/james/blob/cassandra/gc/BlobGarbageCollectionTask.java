@@ -0,0 +1,242 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.gc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.cassandra.CassandraDefaultBucketDAO;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mark and sweep garbage collection of the default bucket.
+ *
+ * The mark phase records every blob listed by the registered {@link BlobReferenceSource} into a bloom filter, the
+ * sweep phase then deletes the blobs the filter did not see. False positives only delay the collection of a blob to a
+ * later run. Blobs written during the grace period are kept, as they might be referenced by an ongoing operation.
+ *
+ * Deletions go straight to the Cassandra default bucket that was listed, and re-check the write time of each blob so
+ * that a blob saved again since the listing is kept.
+ */
+public class BlobGarbageCollectionTask implements Task {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlobGarbageCollectionTask.class);
+
+    public static final TaskType TYPE = TaskType.of("cassandra-blob-garbage-collection");
+    public static final Duration DEFAULT_GRACE_PERIOD = Duration.ofDays(1);
+    public static final long DEFAULT_EXPECTED_BLOB_COUNT = 1_000_000L;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final int DELETION_CONCURRENCY = 8;
+
+    public static class Details implements TaskExecutionDetails.AdditionalInformation {
+        private final Duration gracePeriod;
+        private final long expectedBlobCount;
+        private final long referencedBlobCount;
+        private final long scannedBlobCount;
+        private final long deletedBlobCount;
+        private final long failedBlobCount;
+        private final Instant timestamp;
+
+        public Details(Duration gracePeriod, long expectedBlobCount, long referencedBlobCount, long scannedBlobCount,
+                       long deletedBlobCount, long failedBlobCount, Instant timestamp) {
+            this.gracePeriod = gracePeriod;
+            this.expectedBlobCount = expectedBlobCount;
+            this.referencedBlobCount = referencedBlobCount;
+            this.scannedBlobCount = scannedBlobCount;
+            this.deletedBlobCount = deletedBlobCount;
+            this.failedBlobCount = failedBlobCount;
+            this.timestamp = timestamp;
+        }
+
+        public Duration getGracePeriod() {
+            return gracePeriod;
+        }
+
+        public long getExpectedBlobCount() {
+            return expectedBlobCount;
+        }
+
+        public long getReferencedBlobCount() {
+            return referencedBlobCount;
+        }
+
+        public long getScannedBlobCount() {
+            return scannedBlobCount;
+        }
+
+        public long getDeletedBlobCount() {
+            return deletedBlobCount;
+        }
+
+        public long getFailedBlobCount() {
+            return failedBlobCount;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return timestamp;
+        }
+    }
+
+    static class Context {
+        private final AtomicLong referencedBlobCount;
+        private final AtomicLong scannedBlobCount;
+        private final AtomicLong deletedBlobCount;
+        private final AtomicLong failedBlobCount;
+
+        Context() {
+            this.referencedBlobCount = new AtomicLong(0L);
+            this.scannedBlobCount = new AtomicLong(0L);
+            this.deletedBlobCount = new AtomicLong(0L);
+            this.failedBlobCount = new AtomicLong(0L);
+        }
+    }
+
+    public static class Factory {
+        private final CassandraDefaultBucketDAO defaultBucketDAO;
+        private final Set<BlobReferenceSource> referenceSources;
+        private final Clock clock;
+
+        @Inject
+        public Factory(CassandraDefaultBucketDAO defaultBucketDAO, Set<BlobReferenceSource> referenceSources) {
+            this(defaultBucketDAO, referenceSources, Clock.systemUTC());
+        }
+
+        @VisibleForTesting
+        Factory(CassandraDefaultBucketDAO defaultBucketDAO, Set<BlobReferenceSource> referenceSources, Clock clock) {
+            this.defaultBucketDAO = defaultBucketDAO;
+            this.referenceSources = ImmutableSet.copyOf(referenceSources);
+            this.clock = clock;
+        }
+
+        public BlobGarbageCollectionTask create(Duration gracePeriod, long expectedBlobCount) {
+            return new BlobGarbageCollectionTask(this, gracePeriod, expectedBlobCount);
+        }
+    }
+
+    private final Factory factory;
+    private final Duration gracePeriod;
+    private final long expectedBlobCount;
+    private final Context context;
+
+    private BlobGarbageCollectionTask(Factory factory, Duration gracePeriod, long expectedBlobCount) {
+        Preconditions.checkArgument(!gracePeriod.isNegative(), "'gracePeriod' needs to be positive");
+        Preconditions.checkArgument(expectedBlobCount > 0, "'expectedBlobCount' needs to be strictly positive");
+
+        this.factory = factory;
+        this.gracePeriod = gracePeriod;
+        this.expectedBlobCount = expectedBlobCount;
+        this.context = new Context();
+    }
+
+    @Override
+    public Result run() {
+        Instant sweepBefore = factory.clock.instant().minus(gracePeriod);
+        BloomFilter<CharSequence> referencedBlobs = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedBlobCount, FALSE_POSITIVE_PROBABILITY);
+
+        return mark(referencedBlobs)
+            .then(Mono.defer(() -> sweep(referencedBlobs, sweepBefore)))
+            .onErrorResume(e -> {
+                LOGGER.error("Blob garbage collection aborted", e);
+                return Mono.just(Result.PARTIAL);
+            })
+            .block();
+    }
+
+    private Mono<Void> mark(BloomFilter<CharSequence> referencedBlobs) {
+        return Flux.fromIterable(factory.referenceSources)
+            .concatMap(BlobReferenceSource::listReferencedBlobs)
+            .doOnNext(blobId -> {
+                referencedBlobs.put(blobId.asString());
+                context.referencedBlobCount.incrementAndGet();
+            })
+            .then();
+    }
+
+    private Mono<Result> sweep(BloomFilter<CharSequence> referencedBlobs, Instant sweepBefore) {
+        return factory.defaultBucketDAO.listBlobs()
+            .doOnNext(any -> context.scannedBlobCount.incrementAndGet())
+            .filter(blob -> blob.getRight().isBefore(sweepBefore))
+            .map(Pair::getLeft)
+            .filter(blobId -> !referencedBlobs.mightContain(blobId.asString()))
+            .flatMap(blobId -> delete(blobId, sweepBefore), DELETION_CONCURRENCY)
+            .reduce(Result.COMPLETED, Task::combine);
+    }
+
+    private Mono<Result> delete(BlobId blobId, Instant sweepBefore) {
+        return factory.defaultBucketDAO.deleteIfWrittenBefore(blobId, sweepBefore)
+            .map(deleted -> {
+                if (deleted) {
+                    context.deletedBlobCount.incrementAndGet();
+                }
+                return Result.COMPLETED;
+            })
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed deleting unreferenced blob {}", blobId.asString(), e);
+                context.failedBlobCount.incrementAndGet();
+                return Mono.just(Result.PARTIAL);
+            });
+    }
+
+    @Override
+    public TaskType type() {
+        return TYPE;
+    }
+
+    public Duration getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+
+    @Override
+    public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        return Optional.of(new Details(gracePeriod, expectedBlobCount,
+            context.referencedBlobCount.get(),
+            context.scannedBlobCount.get(),
+            context.deletedBlobCount.get(),
+            context.failedBlobCount.get(),
+            factory.clock.instant()));
+    }
+}
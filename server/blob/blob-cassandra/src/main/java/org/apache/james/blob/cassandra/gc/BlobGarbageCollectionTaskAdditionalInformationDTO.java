@@ -0,0 +1,124 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.gc;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BlobGarbageCollectionTaskAdditionalInformationDTO implements AdditionalInformationDTO {
+    static BlobGarbageCollectionTaskAdditionalInformationDTO fromDomainObject(BlobGarbageCollectionTask.Details details, String type) {
+        return new BlobGarbageCollectionTaskAdditionalInformationDTO(
+            type,
+            details.getGracePeriod().toString(),
+            details.getExpectedBlobCount(),
+            details.getReferencedBlobCount(),
+            details.getScannedBlobCount(),
+            details.getDeletedBlobCount(),
+            details.getFailedBlobCount(),
+            details.timestamp());
+    }
+
+    public static final AdditionalInformationDTOModule<BlobGarbageCollectionTask.Details, BlobGarbageCollectionTaskAdditionalInformationDTO> MODULE =
+        DTOModule
+            .forDomainObject(BlobGarbageCollectionTask.Details.class)
+            .convertToDTO(BlobGarbageCollectionTaskAdditionalInformationDTO.class)
+            .toDomainObjectConverter(BlobGarbageCollectionTaskAdditionalInformationDTO::toDomainObject)
+            .toDTOConverter(BlobGarbageCollectionTaskAdditionalInformationDTO::fromDomainObject)
+            .typeName(BlobGarbageCollectionTask.TYPE.asString())
+            .withFactory(AdditionalInformationDTOModule::new);
+
+    private final String type;
+    private final String gracePeriod;
+    private final long expectedBlobCount;
+    private final long referencedBlobCount;
+    private final long scannedBlobCount;
+    private final long deletedBlobCount;
+    private final long failedBlobCount;
+    private final Instant timestamp;
+
+    BlobGarbageCollectionTaskAdditionalInformationDTO(@JsonProperty("type") String type,
+                                                      @JsonProperty("gracePeriod") String gracePeriod,
+                                                      @JsonProperty("expectedBlobCount") long expectedBlobCount,
+                                                      @JsonProperty("referencedBlobCount") long referencedBlobCount,
+                                                      @JsonProperty("scannedBlobCount") long scannedBlobCount,
+                                                      @JsonProperty("deletedBlobCount") long deletedBlobCount,
+                                                      @JsonProperty("failedBlobCount") long failedBlobCount,
+                                                      @JsonProperty("timestamp") Instant timestamp) {
+        this.type = type;
+        this.gracePeriod = gracePeriod;
+        this.expectedBlobCount = expectedBlobCount;
+        this.referencedBlobCount = referencedBlobCount;
+        this.scannedBlobCount = scannedBlobCount;
+        this.deletedBlobCount = deletedBlobCount;
+        this.failedBlobCount = failedBlobCount;
+        this.timestamp = timestamp;
+    }
+
+    BlobGarbageCollectionTask.Details toDomainObject() {
+        return new BlobGarbageCollectionTask.Details(
+            Duration.parse(gracePeriod),
+            expectedBlobCount,
+            referencedBlobCount,
+            scannedBlobCount,
+            deletedBlobCount,
+            failedBlobCount,
+            timestamp);
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public String getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+
+    public long getReferencedBlobCount() {
+        return referencedBlobCount;
+    }
+
+    public long getScannedBlobCount() {
+        return scannedBlobCount;
+    }
+
+    public long getDeletedBlobCount() {
+        return deletedBlobCount;
+    }
+
+    public long getFailedBlobCount() {
+        return failedBlobCount;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+}
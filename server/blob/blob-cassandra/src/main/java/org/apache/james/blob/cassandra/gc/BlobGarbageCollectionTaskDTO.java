@@ -0,0 +1,73 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.gc;
+
+import java.time.Duration;
+
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.TaskDTO;
+import org.apache.james.server.task.json.dto.TaskDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BlobGarbageCollectionTaskDTO implements TaskDTO {
+    static BlobGarbageCollectionTaskDTO fromDomainObject(BlobGarbageCollectionTask task, String type) {
+        return new BlobGarbageCollectionTaskDTO(type, task.getGracePeriod().toString(), task.getExpectedBlobCount());
+    }
+
+    public static TaskDTOModule<BlobGarbageCollectionTask, BlobGarbageCollectionTaskDTO> module(BlobGarbageCollectionTask.Factory factory) {
+        return DTOModule
+            .forDomainObject(BlobGarbageCollectionTask.class)
+            .convertToDTO(BlobGarbageCollectionTaskDTO.class)
+            .toDomainObjectConverter(dto -> dto.toDomainObject(factory))
+            .toDTOConverter(BlobGarbageCollectionTaskDTO::fromDomainObject)
+            .typeName(BlobGarbageCollectionTask.TYPE.asString())
+            .withFactory(TaskDTOModule::new);
+    }
+
+    private final String type;
+    private final String gracePeriod;
+    private final long expectedBlobCount;
+
+    BlobGarbageCollectionTaskDTO(@JsonProperty("type") String type,
+                                 @JsonProperty("gracePeriod") String gracePeriod,
+                                 @JsonProperty("expectedBlobCount") long expectedBlobCount) {
+        this.type = type;
+        this.gracePeriod = gracePeriod;
+        this.expectedBlobCount = expectedBlobCount;
+    }
+
+    private BlobGarbageCollectionTask toDomainObject(BlobGarbageCollectionTask.Factory factory) {
+        return factory.create(Duration.parse(gracePeriod), expectedBlobCount);
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public String getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.james.blob.cassandra.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -26,6 +28,9 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Pair;
 
 import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+
+import reactor.core.publisher.Flux;
 
 public class DataChunker {
 
@@ -42,6 +47,27 @@ public class DataChunker {
             lastChunk(data, chunkSize * fullChunkCount, fullChunkCount));
     }
 
+    public Flux<Pair<Integer, ByteBuffer>> chunkStream(InputStream data, int chunkSize) {
+        Preconditions.checkNotNull(data);
+        Preconditions.checkArgument(chunkSize > 0, "ChunkSize can not be negative");
+
+        return Flux.<Pair<Integer, ByteBuffer>, Integer>generate(() -> 0, (index, sink) -> {
+            try {
+                byte[] buffer = new byte[chunkSize];
+                int size = ByteStreams.read(data, buffer, 0, chunkSize);
+                if (size > 0 || index == 0) {
+                    sink.next(Pair.of(index, ByteBuffer.wrap(buffer, 0, size)));
+                }
+                if (size < chunkSize) {
+                    sink.complete();
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+            return index + 1;
+        });
+    }
+
     private Stream<Pair<Integer, ByteBuffer>> lastChunk(byte[] data, int offset, int index) {
         if (offset == data.length && index > 0) {
             return Stream.empty();
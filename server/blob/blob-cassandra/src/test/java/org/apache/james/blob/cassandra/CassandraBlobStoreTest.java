@@ -25,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -33,6 +34,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.HashBlobId;
@@ -64,7 +66,7 @@ public class CassandraBlobStoreTest implements MetricableBlobStoreContract {
     void setUp(CassandraCluster cassandra) {
         HashBlobId.Factory blobIdFactory = new HashBlobId.Factory();
         CassandraBucketDAO bucketDAO = new CassandraBucketDAO(blobIdFactory, cassandra.getConf());
-        defaultBucketDAO = spy(new CassandraDefaultBucketDAO(cassandra.getConf()));
+        defaultBucketDAO = spy(new CassandraDefaultBucketDAO(blobIdFactory, cassandra.getConf()));
         testee = new MetricableBlobStore(
             metricsTestExtension.getMetricFactory(),
             new CassandraBlobStore(defaultBucketDAO,
@@ -72,7 +74,8 @@ public class CassandraBlobStoreTest implements MetricableBlobStoreContract {
                 CassandraConfiguration.builder()
                     .blobPartSize(CHUNK_SIZE)
                     .build(),
-                blobIdFactory));
+                blobIdFactory,
+                BlobCompression.NONE));
     }
 
     @Override
@@ -95,6 +98,18 @@ public class CassandraBlobStoreTest implements MetricableBlobStoreContract {
         assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(longString);
     }
 
+    @Test
+    void readShouldReturnStreamSavedDataInPartOrder() throws IOException {
+        int repeatCount = MULTIPLE_CHUNK_SIZE * CHUNK_SIZE;
+        String longString = Strings.repeat("0123456789\n", repeatCount);
+        BlobId blobId = testee.save(testee.getDefaultBucketName(),
+            new ByteArrayInputStream(longString.getBytes(StandardCharsets.UTF_8)), LOW_COST).block();
+
+        InputStream read = testee.read(testee.getDefaultBucketName(), blobId);
+
+        assertThat(IOUtils.toString(read, StandardCharsets.UTF_8)).isEqualTo(longString);
+    }
+
     @Test
     void readBytesShouldNotReturnInvalidResultsWhenPartialDataPresent() {
         int repeatCount = MULTIPLE_CHUNK_SIZE * CHUNK_SIZE;
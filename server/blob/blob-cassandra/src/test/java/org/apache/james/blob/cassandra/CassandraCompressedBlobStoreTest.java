@@ -0,0 +1,165 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.blob.cassandra;
+
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.HIGH_PERFORMANCE;
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
+import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.blob.api.BlobCompression;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.MetricableBlobStore;
+import org.apache.james.blob.api.MetricableBlobStoreContract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.common.base.Strings;
+
+import reactor.core.publisher.Flux;
+
+class CassandraCompressedBlobStoreTest implements MetricableBlobStoreContract {
+    private static final int CHUNK_SIZE = 10240;
+    private static final String COMPRESSIBLE = Strings.repeat("0123456789\n", 10 * CHUNK_SIZE);
+    private static final byte[] INCOMPRESSIBLE = incompressible(3 * CHUNK_SIZE);
+
+    private static byte[] incompressible(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraBlobModule.MODULE);
+
+    private BlobStore testee;
+    private CassandraBlobStore uncompressedBlobStore;
+    private CassandraDefaultBucketDAO defaultBucketDAO;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        HashBlobId.Factory blobIdFactory = new HashBlobId.Factory();
+        CassandraBucketDAO bucketDAO = new CassandraBucketDAO(blobIdFactory, cassandra.getConf());
+        CassandraConfiguration configuration = CassandraConfiguration.builder()
+            .blobPartSize(CHUNK_SIZE)
+            .build();
+        defaultBucketDAO = new CassandraDefaultBucketDAO(blobIdFactory, cassandra.getConf());
+        testee = new MetricableBlobStore(
+            metricsTestExtension.getMetricFactory(),
+            new CassandraBlobStore(defaultBucketDAO, bucketDAO, configuration, blobIdFactory,
+                BlobCompression.of(true)));
+        uncompressedBlobStore = new CassandraBlobStore(defaultBucketDAO, bucketDAO, configuration, blobIdFactory, BlobCompression.NONE);
+    }
+
+    @Override
+    public BlobStore testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return new HashBlobId.Factory();
+    }
+
+    @Test
+    void saveShouldStoreCompressibleContentInLessParts() {
+        BlobId blobId = testee.save(testee.getDefaultBucketName(), COMPRESSIBLE, LOW_COST).block();
+
+        assertThat(defaultBucketDAO.selectRowCount(blobId).block()).isEqualTo(1);
+    }
+
+    @Test
+    void saveShouldComputeBlobIdOnUncompressedContent() {
+        BlobId compressed = testee.save(testee.getDefaultBucketName(), COMPRESSIBLE, LOW_COST).block();
+        BlobId uncompressed = uncompressedBlobStore.save(uncompressedBlobStore.getDefaultBucketName(), COMPRESSIBLE, SIZE_BASED).block();
+
+        assertThat(compressed).isEqualTo(uncompressed);
+    }
+
+    @Test
+    void readShouldReturnStreamSavedCompressedData() throws IOException {
+        BlobId blobId = testee.save(testee.getDefaultBucketName(),
+            new ByteArrayInputStream(COMPRESSIBLE.getBytes(StandardCharsets.UTF_8)), LOW_COST).block();
+
+        assertThat(IOUtils.toString(testee.read(testee.getDefaultBucketName(), blobId), StandardCharsets.UTF_8))
+            .isEqualTo(COMPRESSIBLE);
+    }
+
+    @Test
+    void readBytesShouldReturnContentStoredBeforeCompressionWasEnabled() {
+        BlobId blobId = uncompressedBlobStore.save(uncompressedBlobStore.getDefaultBucketName(), COMPRESSIBLE, LOW_COST).block();
+
+        assertThat(new String(testee.readBytes(testee.getDefaultBucketName(), blobId).block(), StandardCharsets.UTF_8))
+            .isEqualTo(COMPRESSIBLE);
+    }
+
+    @Test
+    void readShouldReturnContentStoredBeforeCompressionWasEnabled() throws IOException {
+        BlobId blobId = uncompressedBlobStore.save(uncompressedBlobStore.getDefaultBucketName(), COMPRESSIBLE, LOW_COST).block();
+
+        assertThat(IOUtils.toString(testee.read(testee.getDefaultBucketName(), blobId), StandardCharsets.UTF_8))
+            .isEqualTo(COMPRESSIBLE);
+    }
+
+    @Test
+    void savingTheSamePayloadAsBytesAndAsStreamShouldStoreTheSameParts() {
+        BucketName bucketName = testee.getDefaultBucketName();
+
+        BlobId blobId = testee.save(bucketName, INCOMPRESSIBLE, LOW_COST).block();
+        List<ByteBuffer> savedAsBytes = storedParts(blobId);
+        testee.save(bucketName, new ByteArrayInputStream(INCOMPRESSIBLE), HIGH_PERFORMANCE).block();
+
+        assertThat(storedParts(blobId)).isEqualTo(savedAsBytes);
+    }
+
+    @Test
+    void savingTheSamePayloadAsBytesAndAsStreamUnderSeveralPoliciesShouldReadItBack() throws IOException {
+        BucketName bucketName = testee.getDefaultBucketName();
+
+        testee.save(bucketName, INCOMPRESSIBLE, LOW_COST).block();
+        testee.save(bucketName, new ByteArrayInputStream(INCOMPRESSIBLE), SIZE_BASED).block();
+        testee.save(bucketName, new ByteArrayInputStream(INCOMPRESSIBLE), LOW_COST).block();
+        BlobId blobId = testee.save(bucketName, INCOMPRESSIBLE, SIZE_BASED).block();
+
+        assertThat(testee.readBytes(bucketName, blobId).block()).isEqualTo(INCOMPRESSIBLE);
+        assertThat(IOUtils.toByteArray(testee.read(bucketName, blobId))).isEqualTo(INCOMPRESSIBLE);
+    }
+
+    private List<ByteBuffer> storedParts(BlobId blobId) {
+        return Flux.range(0, defaultBucketDAO.selectRowCount(blobId).block())
+            .concatMap(position -> defaultBucketDAO.readPart(blobId, position))
+            .collectList()
+            .block();
+    }
+}
@@ -30,10 +30,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 
 import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.Optional;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.blob.api.HashBlobId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -47,7 +50,7 @@ class CassandraDefaultBucketDAOTest {
 
     @BeforeEach
     void setUp(CassandraCluster cassandra) {
-        testee = new CassandraDefaultBucketDAO(cassandraCluster.getCassandraCluster().getConf());
+        testee = new CassandraDefaultBucketDAO(new HashBlobId.Factory(), cassandraCluster.getCassandraCluster().getConf());
     }
 
     @Test
@@ -154,4 +157,54 @@ class CassandraDefaultBucketDAOTest {
         assertThat(maybeBytes).isEmpty();
         assertThat(maybeBytes2).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void listBlobsShouldReturnEmptyByDefault() {
+        assertThat(testee.listBlobs().collectList().block()).isEmpty();
+    }
+
+    @Test
+    void listBlobsShouldReturnSavedBlobs() {
+        testee.saveBlobPartsReferences(BLOB_ID, NUMBER_OF_CHUNK).block();
+        testee.saveBlobPartsReferences(BLOB_ID_2, NUMBER_OF_CHUNK).block();
+
+        assertThat(testee.listBlobs().map(Pair::getLeft).collectList().block())
+            .containsOnly(BLOB_ID, BLOB_ID_2);
+    }
+
+    @Test
+    void listBlobsShouldReturnWriteTime() {
+        Instant before = Instant.now().minusSeconds(1);
+        testee.saveBlobPartsReferences(BLOB_ID, NUMBER_OF_CHUNK).block();
+
+        assertThat(testee.listBlobs().map(Pair::getRight).blockFirst())
+            .isAfter(before);
+    }
+
+    @Test
+    void deleteIfWrittenBeforeShouldDeleteOlderBlobs() {
+        testee.writePart(ByteBuffer.wrap(DATA), BLOB_ID, POSITION).block();
+        testee.saveBlobPartsReferences(BLOB_ID, NUMBER_OF_CHUNK).block();
+
+        Boolean deleted = testee.deleteIfWrittenBefore(BLOB_ID, Instant.now().plusSeconds(60)).block();
+
+        assertThat(deleted).isTrue();
+        assertThat(testee.selectRowCount(BLOB_ID).blockOptional()).isEmpty();
+        assertThat(testee.readPart(BLOB_ID, POSITION).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void deleteIfWrittenBeforeShouldKeepBlobsSavedSince() {
+        testee.saveBlobPartsReferences(BLOB_ID, NUMBER_OF_CHUNK).block();
+
+        Boolean deleted = testee.deleteIfWrittenBefore(BLOB_ID, Instant.now().minusSeconds(60)).block();
+
+        assertThat(deleted).isFalse();
+        assertThat(testee.selectRowCount(BLOB_ID).block()).isEqualTo(NUMBER_OF_CHUNK);
+    }
+
+    @Test
+    void deleteIfWrittenBeforeShouldReturnFalseWhenMissing() {
+        assertThat(testee.deleteIfWrittenBefore(BLOB_ID, Instant.now()).block()).isFalse();
+    }
+}
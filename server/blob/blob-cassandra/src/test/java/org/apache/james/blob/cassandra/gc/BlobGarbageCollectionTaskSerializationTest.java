@@ -0,0 +1,76 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.gc;
+
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.blob.cassandra.CassandraDefaultBucketDAO;
+import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
+import org.apache.james.server.task.json.JsonTaskSerializer;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.ImmutableSet;
+
+class BlobGarbageCollectionTaskSerializationTest {
+    private static final BlobGarbageCollectionTask.Factory TASK_FACTORY = new BlobGarbageCollectionTask.Factory(
+        mock(CassandraDefaultBucketDAO.class), ImmutableSet.of());
+    private static final JsonTaskSerializer TASK_SERIALIZER = JsonTaskSerializer.of(BlobGarbageCollectionTaskDTO.module(TASK_FACTORY));
+    private static final JsonTaskAdditionalInformationSerializer JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER = JsonTaskAdditionalInformationSerializer.of(BlobGarbageCollectionTaskAdditionalInformationDTO.MODULE);
+    private static final Instant TIMESTAMP = Instant.parse("2018-11-13T12:00:55Z");
+    private static final Duration GRACE_PERIOD = Duration.ofHours(2);
+
+    private static final BlobGarbageCollectionTask TASK = TASK_FACTORY.create(GRACE_PERIOD, 1000);
+    private static final BlobGarbageCollectionTask.Details DETAILS = new BlobGarbageCollectionTask.Details(GRACE_PERIOD, 1000, 12, 20, 7, 1, TIMESTAMP);
+
+    private static final String SERIALIZED_TASK = "{\"type\":\"cassandra-blob-garbage-collection\",\"gracePeriod\":\"PT2H\",\"expectedBlobCount\":1000}";
+    private static final String SERIALIZED_ADDITIONAL_INFORMATION = "{\"type\":\"cassandra-blob-garbage-collection\",\"gracePeriod\":\"PT2H\",\"expectedBlobCount\":1000," +
+        "\"referencedBlobCount\":12,\"scannedBlobCount\":20,\"deletedBlobCount\":7,\"failedBlobCount\":1,\"timestamp\":\"2018-11-13T12:00:55Z\"}";
+
+    @Test
+    void taskShouldBeSerializable() throws JsonProcessingException {
+        assertThatJson(TASK_SERIALIZER.serialize(TASK))
+            .isEqualTo(SERIALIZED_TASK);
+    }
+
+    @Test
+    void taskShouldBeDeserializable() throws IOException {
+        assertThat(TASK_SERIALIZER.deserialize(SERIALIZED_TASK))
+            .isEqualToComparingOnlyGivenFields(TASK, "gracePeriod", "expectedBlobCount");
+    }
+
+    @Test
+    void additionalInformationShouldBeSerializable() throws JsonProcessingException {
+        assertThatJson(JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER.serialize(DETAILS))
+            .isEqualTo(SERIALIZED_ADDITIONAL_INFORMATION);
+    }
+
+    @Test
+    void additionalInformationShouldBeDeserializable() throws IOException {
+        assertThat(JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER.deserialize(SERIALIZED_ADDITIONAL_INFORMATION))
+            .isEqualToComparingFieldByField(DETAILS);
+    }
+}
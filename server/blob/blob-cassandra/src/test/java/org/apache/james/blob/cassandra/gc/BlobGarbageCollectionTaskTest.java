@@ -0,0 +1,150 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.gc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.cassandra.CassandraDefaultBucketDAO;
+import org.apache.james.task.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class BlobGarbageCollectionTaskTest {
+    private static final Instant NOW = Instant.parse("2019-11-20T10:00:00Z");
+    private static final Duration GRACE_PERIOD = Duration.ofHours(1);
+    private static final Instant OLD = NOW.minus(Duration.ofDays(2));
+    private static final Instant RECENT = NOW.minus(Duration.ofMinutes(5));
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final BlobId REFERENCED = BLOB_ID_FACTORY.forPayload("referenced".getBytes());
+    private static final BlobId UNREFERENCED = BLOB_ID_FACTORY.forPayload("unreferenced".getBytes());
+    private static final BlobId UNREFERENCED_RECENT = BLOB_ID_FACTORY.forPayload("recent".getBytes());
+
+    private CassandraDefaultBucketDAO defaultBucketDAO;
+    private BlobReferenceSource referenceSource;
+    private BlobGarbageCollectionTask.Factory factory;
+
+    @BeforeEach
+    void setUp() {
+        defaultBucketDAO = mock(CassandraDefaultBucketDAO.class);
+        referenceSource = mock(BlobReferenceSource.class);
+        when(defaultBucketDAO.deleteIfWrittenBefore(any(), any())).thenReturn(Mono.just(true));
+        when(defaultBucketDAO.listBlobs()).thenReturn(Flux.just(
+            Pair.of(REFERENCED, OLD),
+            Pair.of(UNREFERENCED, OLD),
+            Pair.of(UNREFERENCED_RECENT, RECENT)));
+        factory = new BlobGarbageCollectionTask.Factory(defaultBucketDAO, ImmutableSet.of(referenceSource),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void runShouldDeleteUnreferencedBlobs() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.just(REFERENCED));
+
+        Task.Result result = factory.create(GRACE_PERIOD, 100).run();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        verify(defaultBucketDAO).deleteIfWrittenBefore(UNREFERENCED, NOW.minus(GRACE_PERIOD));
+    }
+
+    @Test
+    void runShouldNotDeleteReferencedBlobs() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.just(REFERENCED));
+
+        factory.create(GRACE_PERIOD, 100).run();
+
+        verify(defaultBucketDAO, never()).deleteIfWrittenBefore(eq(REFERENCED), any());
+    }
+
+    @Test
+    void runShouldNotDeleteBlobsWrittenDuringTheGracePeriod() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.just(REFERENCED));
+
+        factory.create(GRACE_PERIOD, 100).run();
+
+        verify(defaultBucketDAO, never()).deleteIfWrittenBefore(eq(UNREFERENCED_RECENT), any());
+    }
+
+    @Test
+    void runShouldNotDeleteAnythingWhenMarkingFails() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.error(new RuntimeException()));
+
+        Task.Result result = factory.create(GRACE_PERIOD, 100).run();
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        verify(defaultBucketDAO, never()).deleteIfWrittenBefore(any(), any());
+    }
+
+    @Test
+    void runShouldBePartialWhenADeletionFails() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.just(REFERENCED));
+        when(defaultBucketDAO.deleteIfWrittenBefore(eq(UNREFERENCED), any())).thenReturn(Mono.error(new RuntimeException()));
+
+        Task.Result result = factory.create(GRACE_PERIOD, 100).run();
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+    }
+
+    @Test
+    void runShouldNotCountBlobsSavedAgainSinceListing() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.just(REFERENCED));
+        when(defaultBucketDAO.deleteIfWrittenBefore(eq(UNREFERENCED), any())).thenReturn(Mono.just(false));
+
+        BlobGarbageCollectionTask task = factory.create(GRACE_PERIOD, 100);
+        Task.Result result = task.run();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(((BlobGarbageCollectionTask.Details) details).getDeletedBlobCount()).isZero());
+    }
+
+    @Test
+    void detailsShouldReportCounters() {
+        when(referenceSource.listReferencedBlobs()).thenReturn(Flux.just(REFERENCED));
+
+        BlobGarbageCollectionTask task = factory.create(GRACE_PERIOD, 100);
+        task.run();
+
+        assertThat(task.details())
+            .hasValueSatisfying(details -> assertThat(details)
+                .isEqualToIgnoringGivenFields(
+                    new BlobGarbageCollectionTask.Details(GRACE_PERIOD, 100, 1, 3, 1, 0, NOW),
+                    "timestamp"));
+    }
+}
@@ -28,6 +28,7 @@ import java.util.function.Supplier;
 import javax.annotation.PreDestroy;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
@@ -61,17 +62,20 @@ public class ObjectStorageBlobStore implements BlobStore {
     private final BlobPutter blobPutter;
     private final PayloadCodec payloadCodec;
     private final ObjectStorageBucketNameResolver bucketNameResolver;
+    private final BlobCompression compression;
 
     ObjectStorageBlobStore(BucketName defaultBucketName, BlobId.Factory blobIdFactory,
                            org.jclouds.blobstore.BlobStore blobStore,
                            BlobPutter blobPutter,
-                           PayloadCodec payloadCodec, ObjectStorageBucketNameResolver bucketNameResolver) {
+                           PayloadCodec payloadCodec, ObjectStorageBucketNameResolver bucketNameResolver,
+                           BlobCompression compression) {
         this.blobIdFactory = blobIdFactory;
         this.defaultBucketName = defaultBucketName;
         this.blobStore = blobStore;
         this.blobPutter = blobPutter;
         this.payloadCodec = payloadCodec;
         this.bucketNameResolver = bucketNameResolver;
+        this.compression = compression;
     }
 
     public static ObjectStorageBlobStoreBuilder.RequireBlobIdFactory builder(SwiftTempAuthObjectStorage.Configuration testConfig) {
@@ -103,11 +107,12 @@ public class ObjectStorageBlobStore implements BlobStore {
 
         return Mono.fromCallable(() -> blobIdFactory.forPayload(data))
             .flatMap(blobId -> {
-                Payload payload = payloadCodec.write(data);
+                byte[] encodedData = compression.encode(data);
+                Payload payload = payloadCodec.write(encodedData);
 
                 Blob blob = blobStore.blobBuilder(blobId.asString())
                     .payload(payload.getPayload())
-                    .contentLength(payload.getLength().orElse(Long.valueOf(data.length)))
+                    .contentLength(payload.getLength().orElse(Long.valueOf(encodedData.length)))
                     .build();
 
                 return blobPutter.putDirectly(resolvedBucketName, blob)
@@ -149,7 +154,7 @@ public class ObjectStorageBlobStore implements BlobStore {
         return Mono.fromCallable(blobIdFactory::randomId)
             .flatMap(tmpId -> {
                 HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), data);
-                Payload payload = payloadCodec.write(hashingInputStream);
+                Payload payload = payloadCodec.write(compression.encode(hashingInputStream));
                 Blob blob = blobStore.blobBuilder(tmpId.asString())
                     .payload(payload.getPayload())
                     .build();
@@ -171,7 +176,7 @@ public class ObjectStorageBlobStore implements BlobStore {
 
         try {
             if (blob != null) {
-                return payloadCodec.read(new Payload(blob.getPayload(), Optional.empty()));
+                return compression.decode(payloadCodec.read(new Payload(blob.getPayload(), Optional.empty())));
             } else {
                 throw new ObjectNotFoundException("fail to load blob with id " + blobId);
             }
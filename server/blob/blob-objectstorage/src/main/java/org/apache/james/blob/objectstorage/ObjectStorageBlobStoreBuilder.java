@@ -22,6 +22,7 @@ package org.apache.james.blob.objectstorage;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BucketName;
 import org.jclouds.blobstore.BlobStore;
@@ -48,6 +49,7 @@ public class ObjectStorageBlobStoreBuilder {
         private Optional<BlobPutter> blobPutter;
         private Optional<BucketName> namespace;
         private Optional<String> bucketPrefix;
+        private Optional<BlobCompression> compression;
 
         public ReadyToBuild(Supplier<BlobStore> supplier, BlobId.Factory blobIdFactory) {
             this.blobIdFactory = blobIdFactory;
@@ -56,6 +58,7 @@ public class ObjectStorageBlobStoreBuilder {
             this.blobPutter = Optional.empty();
             this.namespace = Optional.empty();
             this.bucketPrefix = Optional.empty();
+            this.compression = Optional.empty();
         }
 
         public ReadyToBuild payloadCodec(PayloadCodec payloadCodec) {
@@ -93,6 +96,16 @@ public class ObjectStorageBlobStoreBuilder {
             return this;
         }
 
+        public ReadyToBuild compression(BlobCompression compression) {
+            this.compression = Optional.of(compression);
+            return this;
+        }
+
+        public ReadyToBuild compression(Optional<BlobCompression> compression) {
+            this.compression = compression;
+            return this;
+        }
+
         public ObjectStorageBlobStore build() {
             Preconditions.checkState(blobIdFactory != null);
 
@@ -108,7 +121,8 @@ public class ObjectStorageBlobStoreBuilder {
                 blobStore,
                 blobPutter.orElseGet(() -> defaultPutBlob(blobStore)),
                 payloadCodec.orElse(PayloadCodec.DEFAULT_CODEC),
-                bucketNameResolver);
+                bucketNameResolver,
+                compression.orElse(BlobCompression.NONE));
         }
 
         private BlobPutter defaultPutBlob(BlobStore blobStore) {
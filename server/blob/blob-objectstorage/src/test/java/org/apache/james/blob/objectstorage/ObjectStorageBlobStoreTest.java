@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
@@ -148,6 +149,67 @@ public class ObjectStorageBlobStoreTest implements MetricableBlobStoreContract {
         assertThat(content).isEqualTo(expectedContent);
     }
 
+    private ObjectStorageBlobStore compressedBlobStore(PayloadCodec payloadCodec) {
+        return ObjectStorageBlobStore
+            .builder(testConfig)
+            .blobIdFactory(blobIdFactory())
+            .payloadCodec(payloadCodec)
+            .compression(BlobCompression.of(true))
+            .namespace(defaultBucketName)
+            .build();
+    }
+
+    @Test
+    void compressedBlobsShouldBeReadBack() {
+        ObjectStorageBlobStore compressedBlobStore = compressedBlobStore(PayloadCodec.DEFAULT_CODEC);
+
+        BlobId blobId = compressedBlobStore.save(compressedBlobStore.getDefaultBucketName(), BIG_STRING, LOW_COST).block();
+
+        assertThat(compressedBlobStore.readBytes(compressedBlobStore.getDefaultBucketName(), blobId).block())
+            .isEqualTo(BIG_STRING.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compressedStreamsShouldBeReadBack() throws IOException {
+        ObjectStorageBlobStore compressedBlobStore = compressedBlobStore(PayloadCodec.DEFAULT_CODEC);
+
+        BlobId blobId = compressedBlobStore.save(compressedBlobStore.getDefaultBucketName(),
+            new ByteArrayInputStream(BIG_STRING.getBytes(StandardCharsets.UTF_8)), LOW_COST).block();
+
+        assertThat(IOUtils.toString(compressedBlobStore.read(compressedBlobStore.getDefaultBucketName(), blobId), StandardCharsets.UTF_8))
+            .isEqualTo(BIG_STRING);
+    }
+
+    @Test
+    void compressedBlobsShouldBeStoredCompressed() {
+        ObjectStorageBlobStore compressedBlobStore = compressedBlobStore(PayloadCodec.DEFAULT_CODEC);
+
+        BlobId blobId = compressedBlobStore.save(compressedBlobStore.getDefaultBucketName(), BIG_STRING, LOW_COST).block();
+
+        assertThat(objectStorageBlobStore.readBytes(compressedBlobStore.getDefaultBucketName(), blobId).block().length)
+            .isLessThan(BIG_STRING.length());
+    }
+
+    @Test
+    void compressedBlobStoreShouldReadBlobsStoredBeforeCompressionWasEnabled() {
+        BlobId blobId = objectStorageBlobStore.save(objectStorageBlobStore.getDefaultBucketName(), BIG_STRING, LOW_COST).block();
+
+        ObjectStorageBlobStore compressedBlobStore = compressedBlobStore(PayloadCodec.DEFAULT_CODEC);
+
+        assertThat(compressedBlobStore.readBytes(compressedBlobStore.getDefaultBucketName(), blobId).block())
+            .isEqualTo(BIG_STRING.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compressedAndEncryptedBlobsShouldBeReadBack() {
+        ObjectStorageBlobStore compressedBlobStore = compressedBlobStore(new AESPayloadCodec(CRYPTO_CONFIG));
+
+        BlobId blobId = compressedBlobStore.save(compressedBlobStore.getDefaultBucketName(), BIG_STRING, LOW_COST).block();
+
+        assertThat(compressedBlobStore.readBytes(compressedBlobStore.getDefaultBucketName(), blobId).block())
+            .isEqualTo(BIG_STRING.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
     void deleteBucketShouldDeleteSwiftContainer() {
         BucketName bucketName = BucketName.of("azerty");
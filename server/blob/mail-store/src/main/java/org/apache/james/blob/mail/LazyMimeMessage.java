@@ -0,0 +1,125 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.mail;
+
+import java.io.ByteArrayInputStream;
+import java.util.Enumeration;
+
+import javax.mail.Header;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * {@link MimeMessage} built from the header and body blobs of a stored message.
+ *
+ * Headers are parsed from the header blob only when first accessed. The body blob is used as the content without
+ * being copied, and is only parsed when the content is needed.
+ */
+class LazyMimeMessage extends MimeMessage {
+    private final byte[] headerBytes;
+
+    LazyMimeMessage(Session session, byte[] headerBytes, byte[] bodyBytes) {
+        super(session);
+        this.headerBytes = headerBytes;
+        this.headers = null;
+        this.content = bodyBytes;
+        this.modified = false;
+        this.saved = true;
+    }
+
+    private synchronized void loadHeaders() throws MessagingException {
+        if (headers == null) {
+            headers = createInternetHeaders(new ByteArrayInputStream(headerBytes));
+        }
+    }
+
+    @Override
+    public String[] getHeader(String name) throws MessagingException {
+        loadHeaders();
+        return super.getHeader(name);
+    }
+
+    @Override
+    public String getHeader(String name, String delimiter) throws MessagingException {
+        loadHeaders();
+        return super.getHeader(name, delimiter);
+    }
+
+    @Override
+    public Enumeration<Header> getAllHeaders() throws MessagingException {
+        loadHeaders();
+        return super.getAllHeaders();
+    }
+
+    @Override
+    public Enumeration<Header> getMatchingHeaders(String[] names) throws MessagingException {
+        loadHeaders();
+        return super.getMatchingHeaders(names);
+    }
+
+    @Override
+    public Enumeration<Header> getNonMatchingHeaders(String[] names) throws MessagingException {
+        loadHeaders();
+        return super.getNonMatchingHeaders(names);
+    }
+
+    @Override
+    public Enumeration<String> getAllHeaderLines() throws MessagingException {
+        loadHeaders();
+        return super.getAllHeaderLines();
+    }
+
+    @Override
+    public Enumeration<String> getMatchingHeaderLines(String[] names) throws MessagingException {
+        loadHeaders();
+        return super.getMatchingHeaderLines(names);
+    }
+
+    @Override
+    public Enumeration<String> getNonMatchingHeaderLines(String[] names) throws MessagingException {
+        loadHeaders();
+        return super.getNonMatchingHeaderLines(names);
+    }
+
+    @Override
+    public void setHeader(String name, String value) throws MessagingException {
+        loadHeaders();
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) throws MessagingException {
+        loadHeaders();
+        super.addHeader(name, value);
+    }
+
+    @Override
+    public void removeHeader(String name) throws MessagingException {
+        loadHeaders();
+        super.removeHeader(name);
+    }
+
+    @Override
+    public void addHeaderLine(String line) throws MessagingException {
+        loadHeaders();
+        super.addHeaderLine(line);
+    }
+}
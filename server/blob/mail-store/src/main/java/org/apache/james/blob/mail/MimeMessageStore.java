@@ -19,18 +19,14 @@
 
 package org.apache.james.blob.mail;
 
-import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.LOW_COST;
 import static org.apache.james.blob.api.BlobStore.StoragePolicy.SIZE_BASED;
 import static org.apache.james.blob.mail.MimeMessagePartsId.BODY_BLOB_TYPE;
 import static org.apache.james.blob.mail.MimeMessagePartsId.HEADER_BLOB_TYPE;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.SequenceInputStream;
-import java.nio.ByteBuffer;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Stream;
@@ -40,12 +36,10 @@ import javax.mail.MessagingException;
 import javax.mail.Session;
 import javax.mail.internet.MimeMessage;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.Store;
 import org.apache.james.blob.api.Store.BlobType;
-import org.apache.james.util.BodyOffsetInputStream;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
@@ -70,61 +64,122 @@ public class MimeMessageStore {
     }
 
     static class MimeMessageEncoder implements Store.Impl.Encoder<MimeMessage> {
+        private static final int DEFAULT_BODY_BUFFER_SIZE = 32;
+
         @Override
         public Stream<Pair<BlobType, Store.Impl.ValueToSave>> encode(MimeMessage message) {
             try {
-                byte[] messageAsArray = messageToArray(message);
-                int bodyStartOctet = computeBodyStartOctet(messageAsArray);
-                byte[] headerBytes = getHeaderBytes(messageAsArray, bodyStartOctet);
-                byte[] bodyBytes = getBodyBytes(messageAsArray, bodyStartOctet);
+                HeaderBodySplittingOutputStream splitter = new HeaderBodySplittingOutputStream(bodySizeHint(message));
+                message.writeTo(splitter);
                 return Stream.of(
-                    Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(headerBytes, SIZE_BASED)),
-                    Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(bodyBytes, LOW_COST)));
+                    Pair.of(HEADER_BLOB_TYPE, new Store.Impl.BytesToSave(splitter.headerBytes(), SIZE_BASED)),
+                    Pair.of(BODY_BLOB_TYPE, new Store.Impl.BytesToSave(splitter.bodyBytes(), LOW_COST)));
             } catch (MessagingException | IOException e) {
                 throw new RuntimeException(e);
             }
         }
-        
-        private static byte[] messageToArray(MimeMessage message) throws IOException, MessagingException {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            message.writeTo(byteArrayOutputStream);
-            return byteArrayOutputStream.toByteArray();
+
+        /**
+         * MimeMessage::getSize returns the size of the body when it is known without parsing it (raw content,
+         * or the underlying source of a MimeMessageWrapper), -1 otherwise. Relying on it rather than on the
+         * MimeMessageWrapper type keeps this module independent from server-core.
+         */
+        private static int bodySizeHint(MimeMessage message) throws MessagingException {
+            int size = message.getSize();
+            if (size < 0) {
+                return DEFAULT_BODY_BUFFER_SIZE;
+            }
+            return size;
         }
+    }
 
-        private static byte[] getHeaderBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            ByteBuffer headerContent = ByteBuffer.wrap(messageContentAsArray, 0, bodyStartOctet);
-            byte[] headerBytes = new byte[bodyStartOctet];
-            headerContent.get(headerBytes);
-            return headerBytes;
+    /**
+     * Splits a serialized message into its header and its body while it is being written, the body
+     * starting right after the first empty line (CRLF CRLF). This avoids materializing the full message
+     * and then copying both parts out of it.
+     *
+     * When no empty line is found, the whole content is considered as body.
+     *
+     * IMPORTANT: This class is not thread-safe!
+     */
+    static class HeaderBodySplittingOutputStream extends OutputStream {
+        private static final byte[] HEADER_BODY_SEPARATOR = {'\r', '\n', '\r', '\n'};
+
+        private final ByteArrayOutputStream header;
+        private final BodyOutputStream body;
+        private int matchedSeparatorBytes;
+
+        HeaderBodySplittingOutputStream(int bodySizeHint) {
+            this.header = new ByteArrayOutputStream();
+            this.body = new BodyOutputStream(bodySizeHint);
+            this.matchedSeparatorBytes = 0;
         }
 
-        private static byte[] getBodyBytes(byte[] messageContentAsArray, int bodyStartOctet) {
-            if (bodyStartOctet < messageContentAsArray.length) {
-                ByteBuffer bodyContent = ByteBuffer.wrap(messageContentAsArray,
-                    bodyStartOctet,
-                    messageContentAsArray.length - bodyStartOctet);
-                byte[] bodyBytes = new byte[messageContentAsArray.length - bodyStartOctet];
-                bodyContent.get(bodyBytes);
-                return bodyBytes;
-            } else {
-                return new byte[] {};
+        private boolean inBody() {
+            return matchedSeparatorBytes == HEADER_BODY_SEPARATOR.length;
+        }
+
+        @Override
+        public void write(int b) {
+            if (inBody()) {
+                body.write(b);
+                return;
             }
+            header.write(b);
+            matchedSeparatorBytes = nextMatchedSeparatorBytes((byte) b);
         }
 
-        private static int computeBodyStartOctet(byte[] messageAsArray) throws IOException {
-            try (BodyOffsetInputStream bodyOffsetInputStream =
-                     new BodyOffsetInputStream(new ByteArrayInputStream(messageAsArray))) {
-                consume(bodyOffsetInputStream);
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int position = off;
+            int end = off + len;
+            while (!inBody() && position < end) {
+                write(b[position]);
+                position++;
+            }
+            if (position < end) {
+                body.write(b, position, end - position);
+            }
+        }
 
-                if (bodyOffsetInputStream.getBodyStartOffset() == -1) {
-                    return 0;
-                }
-                return (int) bodyOffsetInputStream.getBodyStartOffset();
+        private int nextMatchedSeparatorBytes(byte b) {
+            if (b == HEADER_BODY_SEPARATOR[matchedSeparatorBytes]) {
+                return matchedSeparatorBytes + 1;
             }
+            if (b == HEADER_BODY_SEPARATOR[0]) {
+                return 1;
+            }
+            return 0;
         }
 
-        private static void consume(InputStream in) throws IOException {
-            IOUtils.copy(in, NULL_OUTPUT_STREAM);
+        byte[] headerBytes() {
+            if (inBody()) {
+                return header.toByteArray();
+            }
+            return new byte[] {};
+        }
+
+        byte[] bodyBytes() {
+            if (inBody()) {
+                return body.content();
+            }
+            return header.toByteArray();
+        }
+    }
+
+    private static class BodyOutputStream extends ByteArrayOutputStream {
+        BodyOutputStream(int expectedSize) {
+            super(expectedSize);
+        }
+
+        /**
+         * Hands over the internal buffer when the expected size was exact, copies it otherwise.
+         */
+        byte[] content() {
+            if (count == buf.length) {
+                return buf;
+            }
+            return toByteArray();
         }
     }
 
@@ -136,18 +191,11 @@ public class MimeMessageStore {
             Preconditions.checkArgument(pairs.containsKey(HEADER_BLOB_TYPE));
             Preconditions.checkArgument(pairs.containsKey(BODY_BLOB_TYPE));
 
-            return toMimeMessage(
-                new SequenceInputStream(
-                    new ByteArrayInputStream(pairs.get(HEADER_BLOB_TYPE)),
-                    new ByteArrayInputStream(pairs.get(BODY_BLOB_TYPE))));
-        }
-
-        private MimeMessage toMimeMessage(InputStream inputStream) {
-            try {
-                return new MimeMessage(Session.getInstance(new Properties()), inputStream);
-            } catch (MessagingException e) {
-                throw new RuntimeException(e);
-            }
+            // Headers are parsed only when accessed, and the body only when its content is needed
+            return new LazyMimeMessage(
+                Session.getInstance(new Properties()),
+                pairs.get(HEADER_BLOB_TYPE),
+                pairs.get(BODY_BLOB_TYPE));
         }
     }
 
@@ -37,6 +37,9 @@ import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Strings;
+
 class MimeMessageStoreTest {
     private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
 
@@ -125,4 +128,105 @@ class MimeMessageStoreTest {
                     .isEqualTo("Important mail content");
             });
     }
+
+    @Test
+    void saveShouldOnlySplitOnFirstEmptyLine() throws Exception {
+        MimeMessage message = MimeMessageUtil.mimeMessageFromString("Subject: Important Mail\r\n" +
+            "\r\n" +
+            "First paragraph\r\n" +
+            "\r\n" +
+            "Second paragraph");
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        SoftAssertions.assertSoftly(
+            softly -> {
+                softly.assertThat(new String(blobStore.readBytes(blobStore.getDefaultBucketName(), parts.getHeaderBlobId()).block(), StandardCharsets.UTF_8))
+                    .isEqualTo("Subject: Important Mail\r\n\r\n");
+                softly.assertThat(new String(blobStore.readBytes(blobStore.getDefaultBucketName(), parts.getBodyBlobId()).block(), StandardCharsets.UTF_8))
+                    .isEqualTo("First paragraph\r\n\r\nSecond paragraph");
+            });
+    }
+
+    @Test
+    void mailStoreShouldPreserveContentOfParsedMessages() throws Exception {
+        MimeMessage message = MimeMessageUtil.mimeMessageFromString("Subject: Important Mail\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "\r\n" +
+            Strings.repeat("Important mail content\r\n", 1000));
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        MimeMessage retrievedMessage = testee.read(parts).block();
+
+        assertThat(MimeMessageUtil.asString(retrievedMessage))
+            .isEqualTo(MimeMessageUtil.asString(message));
+    }
+
+    @Test
+    void encoderShouldConsiderWholeContentAsBodyWhenNoEmptyLine() {
+        MimeMessageStore.HeaderBodySplittingOutputStream splitter = new MimeMessageStore.HeaderBodySplittingOutputStream(0);
+        byte[] content = "Subject: no body\r\n".getBytes(StandardCharsets.UTF_8);
+
+        splitter.write(content, 0, content.length);
+
+        SoftAssertions.assertSoftly(
+            softly -> {
+                softly.assertThat(splitter.headerBytes()).isEmpty();
+                softly.assertThat(splitter.bodyBytes()).isEqualTo(content);
+            });
+    }
+
+    @Test
+    void encoderShouldDetectEmptyLineSpanningSeveralWrites() {
+        MimeMessageStore.HeaderBodySplittingOutputStream splitter = new MimeMessageStore.HeaderBodySplittingOutputStream(0);
+
+        splitter.write("Subject: a\r\n\r".getBytes(StandardCharsets.UTF_8), 0, 13);
+        splitter.write('\n');
+        splitter.write("body\r\r\n\r\n".getBytes(StandardCharsets.UTF_8), 0, 9);
+
+        SoftAssertions.assertSoftly(
+            softly -> {
+                softly.assertThat(new String(splitter.headerBytes(), StandardCharsets.UTF_8)).isEqualTo("Subject: a\r\n\r\n");
+                softly.assertThat(new String(splitter.bodyBytes(), StandardCharsets.UTF_8)).isEqualTo("body\r\r\n\r\n");
+            });
+    }
+
+    @Test
+    void readShouldExposeHeadersAndBodySizeOfStoredMessage() throws Exception {
+        MimeMessage message = MimeMessageUtil.mimeMessageFromString("Subject: Important Mail\r\n" +
+            "\r\n" +
+            "Important mail content");
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        MimeMessage retrievedMessage = testee.read(parts).block();
+
+        SoftAssertions.assertSoftly(
+            softly -> {
+                softly.assertThat(retrievedMessage).isInstanceOf(LazyMimeMessage.class);
+                softly.assertThat(Throwing.supplier(retrievedMessage::getSubject).get()).isEqualTo("Important Mail");
+                softly.assertThat(Throwing.supplier(retrievedMessage::getSize).get()).isEqualTo("Important mail content".length());
+            });
+    }
+
+    @Test
+    void readMessageShouldAllowHeaderModifications() throws Exception {
+        MimeMessage message = MimeMessageUtil.mimeMessageFromString("Subject: Important Mail\r\n" +
+            "\r\n" +
+            "Important mail content");
+
+        MimeMessagePartsId parts = testee.save(message).block();
+
+        MimeMessage retrievedMessage = testee.read(parts).block();
+        retrievedMessage.addHeader("X-Custom", "value");
+        retrievedMessage.saveChanges();
+
+        SoftAssertions.assertSoftly(
+            softly -> {
+                softly.assertThat(Throwing.supplier(retrievedMessage::getSubject).get()).isEqualTo("Important Mail");
+                softly.assertThat(Throwing.supplier(() -> retrievedMessage.getHeader("X-Custom")).get()).containsExactly("value");
+                softly.assertThat(Throwing.supplier(() -> MimeMessageUtil.asString(retrievedMessage)).get()).endsWith("Important mail content");
+            });
+    }
 }
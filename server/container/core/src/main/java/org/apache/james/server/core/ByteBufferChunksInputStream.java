@@ -0,0 +1,143 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import javax.mail.internet.SharedInputStream;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link SharedInputStream} reading the content of a {@link PooledBufferOutputStream}.
+ *
+ * All chunks but the last one are expected to be full.
+ *
+ * The chunks can go back to the pool while a stream is being read. The released flag is thus checked after
+ * copying: bytes copied from a chunk that was meanwhile handed to another message are never returned.
+ */
+class ByteBufferChunksInputStream extends InputStream implements SharedInputStream {
+    private final ImmutableList<ByteBuffer> chunks;
+    private final BooleanSupplier released;
+    private final long start;
+    private final long end;
+    private long position;
+    private long mark;
+
+    ByteBufferChunksInputStream(List<ByteBuffer> chunks, BooleanSupplier released, long start, long end) {
+        this.chunks = ImmutableList.copyOf(chunks);
+        this.released = released;
+        this.start = start;
+        this.end = end;
+        this.position = start;
+        this.mark = start;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkNotReleased();
+        if (position >= end) {
+            return -1;
+        }
+        byte b = chunkAt(position).get(offsetInChunk(position));
+        checkNotReleased();
+        position++;
+        return b & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkNotReleased();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end) {
+            return -1;
+        }
+        int toRead = (int) Math.min(len, end - position);
+        int read = 0;
+        while (read < toRead) {
+            long readPosition = position + read;
+            ByteBuffer chunk = chunkAt(readPosition).duplicate();
+            chunk.position(offsetInChunk(readPosition));
+            int length = Math.min(toRead - read, MimeMessageBufferPool.CHUNK_SIZE - chunk.position());
+            chunk.get(b, off + read, length);
+            read += length;
+        }
+        checkNotReleased();
+        position += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() {
+        position = mark;
+    }
+
+    @Override
+    public long getPosition() {
+        return position - start;
+    }
+
+    @Override
+    public InputStream newStream(long start, long end) {
+        long newEnd = end == -1 ? this.end : this.start + end;
+        return new ByteBufferChunksInputStream(chunks, released, this.start + start, Math.min(newEnd, this.end));
+    }
+
+    private ByteBuffer chunkAt(long position) {
+        return chunks.get((int) (position / MimeMessageBufferPool.CHUNK_SIZE));
+    }
+
+    private int offsetInChunk(long position) {
+        return (int) (position % MimeMessageBufferPool.CHUNK_SIZE);
+    }
+
+    private void checkNotReleased() throws IOException {
+        if (released.getAsBoolean()) {
+            throw new IOException("Underlying buffers had been released");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.core;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.metrics.api.GaugeRegistry;
+import org.apache.james.util.OptionalUtils;
+import org.apache.james.util.Size;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+/**
+ * Pool of direct {@link ByteBuffer} chunks holding the content of incoming messages off-heap.
+ *
+ * The pool never allocates more than its memory budget. When the budget is exhausted, {@link #acquire()}
+ * returns nothing and the caller is expected to fall back to disk.
+ *
+ * A pool with a zero budget is disabled. Configured budgets need to hold at least one chunk.
+ */
+public class MimeMessageBufferPool {
+    public static final int CHUNK_SIZE = 32 * 1024;
+    public static final long DISABLED_BUDGET = 0;
+
+    private static final String MEMORY_BUDGET = "memory.budget";
+
+    public static MimeMessageBufferPool from(Configuration configuration, GaugeRegistry gaugeRegistry) throws ConfigurationException {
+        String memoryBudget = configuration.getString(MEMORY_BUDGET, null);
+        if (memoryBudget == null) {
+            return new MimeMessageBufferPool(DISABLED_BUDGET, gaugeRegistry);
+        }
+        long budgetInBytes = parseSize(memoryBudget);
+        if (budgetInBytes < 0) {
+            throw new ConfigurationException(MEMORY_BUDGET + " needs to be positive: " + memoryBudget);
+        }
+        if (budgetInBytes != DISABLED_BUDGET && budgetInBytes < CHUNK_SIZE) {
+            throw new ConfigurationException(MEMORY_BUDGET + " needs to be either 0 or at least " + CHUNK_SIZE + " bytes: " + memoryBudget);
+        }
+        return new MimeMessageBufferPool(budgetInBytes, gaugeRegistry);
+    }
+
+    private static long parseSize(String memoryBudget) throws ConfigurationException {
+        try {
+            return Size.parse(memoryBudget).asBytes();
+        } catch (Exception e) {
+            throw new ConfigurationException("Invalid " + MEMORY_BUDGET + " value: " + memoryBudget, e);
+        }
+    }
+
+    private final long budgetInBytes;
+    private final int maxChunks;
+    private final ConcurrentLinkedQueue<ByteBuffer> freeChunks;
+    private final AtomicInteger allocatedChunks;
+    private final AtomicInteger usedChunks;
+    private final AtomicLong fallbackCount;
+
+    public MimeMessageBufferPool(long budgetInBytes, GaugeRegistry gaugeRegistry) {
+        Preconditions.checkArgument(budgetInBytes >= 0, "'budgetInBytes' needs to be positive");
+
+        this.budgetInBytes = budgetInBytes;
+        this.maxChunks = Ints.saturatedCast(budgetInBytes / CHUNK_SIZE);
+        this.freeChunks = new ConcurrentLinkedQueue<>();
+        this.allocatedChunks = new AtomicInteger(0);
+        this.usedChunks = new AtomicInteger(0);
+        this.fallbackCount = new AtomicLong(0);
+        recordStats(gaugeRegistry);
+    }
+
+    private void recordStats(GaugeRegistry gaugeRegistry) {
+        gaugeRegistry
+            .register(
+                "mimeMessageBufferPool.budget",
+                () -> budgetInBytes)
+            .register(
+                "mimeMessageBufferPool.allocated",
+                () -> (long) allocatedChunks.get() * CHUNK_SIZE)
+            .register(
+                "mimeMessageBufferPool.used",
+                () -> (long) usedChunks.get() * CHUNK_SIZE)
+            .register(
+                "mimeMessageBufferPool.fallback.count",
+                fallbackCount::get);
+    }
+
+    public boolean isEnabled() {
+        return maxChunks > 0;
+    }
+
+    /**
+     * @return a cleared chunk of {@link #CHUNK_SIZE} bytes, or nothing if the memory budget is exhausted
+     */
+    public Optional<ByteBuffer> acquire() {
+        Optional<ByteBuffer> chunk = OptionalUtils.orSuppliers(
+            () -> Optional.ofNullable(freeChunks.poll()),
+            this::allocate);
+        chunk.ifPresent(any -> usedChunks.incrementAndGet());
+        return chunk;
+    }
+
+    private Optional<ByteBuffer> allocate() {
+        int allocated = allocatedChunks.get();
+        while (allocated < maxChunks) {
+            if (allocatedChunks.compareAndSet(allocated, allocated + 1)) {
+                return Optional.of(ByteBuffer.allocateDirect(CHUNK_SIZE));
+            }
+            allocated = allocatedChunks.get();
+        }
+        return Optional.empty();
+    }
+
+    public void release(ByteBuffer chunk) {
+        chunk.clear();
+        usedChunks.decrementAndGet();
+        freeChunks.offer(chunk);
+    }
+
+    void recordFallback() {
+        fallbackCount.incrementAndGet();
+    }
+
+    public long getBudgetInBytes() {
+        return budgetInBytes;
+    }
+
+    public long getUsedBytes() {
+        return (long) usedChunks.get() * CHUNK_SIZE;
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+}
@@ -39,6 +39,10 @@ import org.apache.james.lifecycle.api.Disposable;
  * Takes an input stream and creates a repeatable input stream source for a
  * MimeMessageWrapper. It does this by completely reading the input stream and
  * saving that to data to an {@link DeferredFileOutputStream} with its threshold set to 100kb
+ *
+ * Alternatively, the data can be held off-heap in chunks borrowed from a {@link MimeMessageBufferPool}
+ * shared across sessions, with a fallback to a temporary file once the pool budget is exhausted or once
+ * the message outgrows the threshold of the given {@link MimeMessageSpoolConfiguration}.
  */
 public class MimeMessageInputStreamSource extends MimeMessageSource implements Disposable {
 
@@ -49,6 +53,11 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
      */
     private DeferredFileOutputStream out;
 
+    /**
+     * Off-heap buffers used to hold the message stream, when a pool is used
+     */
+    private PooledBufferOutputStream pooledOut;
+
     /**
      * The full path of the temporary file
      */
@@ -112,6 +121,24 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
         sourceId = key;
     }
 
+    /**
+     * Construct a new MimeMessageInputStreamSource holding its data in the given pool, up to the threshold
+     * of the given spool configuration. Threshold based spooling is used when the pool is disabled.
+     *
+     * @param key the prefix for the name of the temp file
+     * @param pool the pool to borrow off-heap buffers from
+     * @param spoolConfiguration the spool configuration bounding the data held in memory
+     */
+    public MimeMessageInputStreamSource(String key, MimeMessageBufferPool pool, MimeMessageSpoolConfiguration spoolConfiguration) {
+        super();
+        if (pool.isEnabled()) {
+            pooledOut = new PooledBufferOutputStream(pool, spoolConfiguration.getThresholdInBytes(), "mimemessage-" + key, ".m64", TMPDIR);
+        } else {
+            out = new DeferredFileOutputStream(spoolConfiguration.getThresholdInBytes(), key, ".m64", TMPDIR);
+        }
+        sourceId = key;
+    }
+
     /**
      * Returns the unique identifier of this input stream source
      *
@@ -130,7 +157,9 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
     @Override
     public synchronized InputStream getInputStream() throws IOException {
         InputStream in;
-        if (out.isInMemory()) {
+        if (pooledOut != null) {
+            in = pooledOut.newInputStream();
+        } else if (out.isInMemory()) {
             in = new SharedByteArrayInputStream(out.getData());
         } else {
             in = new SharedFileInputStream(out.getFile());
@@ -148,10 +177,16 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
      */
     @Override
     public long getMessageSize() throws IOException {
+        if (pooledOut != null) {
+            return pooledOut.getByteCount();
+        }
         return out.getByteCount();
     }
 
     public OutputStream getWritableOutputStream() {
+        if (pooledOut != null) {
+            return pooledOut;
+        }
         return out;
     }
 
@@ -179,6 +214,16 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
             }
             out = null;
         }
+
+        if (pooledOut != null) {
+            try {
+                pooledOut.close();
+            } catch (IOException e) {
+                //ignore exception during close
+            }
+            pooledOut.release();
+            pooledOut = null;
+        }
     }
 
 }
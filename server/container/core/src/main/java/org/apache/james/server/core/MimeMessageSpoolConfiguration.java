@@ -0,0 +1,70 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.util.Size;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+/**
+ * Spool configuration of incoming messages: messages larger than the threshold are written to a temporary file,
+ * smaller ones are kept in memory, on-heap or in a {@link MimeMessageBufferPool}.
+ */
+public class MimeMessageSpoolConfiguration {
+    public static final int DEFAULT_THRESHOLD = 100 * 1024;
+    public static final MimeMessageSpoolConfiguration DEFAULT = new MimeMessageSpoolConfiguration(DEFAULT_THRESHOLD);
+
+    private static final String FILE_THRESHOLD = "file.threshold";
+
+    public static MimeMessageSpoolConfiguration from(Configuration configuration) throws ConfigurationException {
+        String fileThreshold = configuration.getString(FILE_THRESHOLD, null);
+        if (fileThreshold == null) {
+            return DEFAULT;
+        }
+        long fileThresholdInBytes = parseSize(FILE_THRESHOLD, fileThreshold);
+        if (fileThresholdInBytes <= 0) {
+            throw new ConfigurationException(FILE_THRESHOLD + " needs to be strictly positive: " + fileThreshold);
+        }
+        return new MimeMessageSpoolConfiguration(Ints.saturatedCast(fileThresholdInBytes));
+    }
+
+    private static long parseSize(String propertyName, String value) throws ConfigurationException {
+        try {
+            return Size.parse(value).asBytes();
+        } catch (Exception e) {
+            throw new ConfigurationException("Invalid " + propertyName + " value: " + value, e);
+        }
+    }
+
+    private final int thresholdInBytes;
+
+    public MimeMessageSpoolConfiguration(int thresholdInBytes) {
+        Preconditions.checkArgument(thresholdInBytes > 0, "'thresholdInBytes' needs to be strictly positive");
+
+        this.thresholdInBytes = thresholdInBytes;
+    }
+
+    public int getThresholdInBytes() {
+        return thresholdInBytes;
+    }
+}
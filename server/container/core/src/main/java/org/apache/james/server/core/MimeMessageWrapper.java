@@ -28,6 +28,7 @@ import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.UUID;
 
@@ -152,6 +153,7 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
                     original.writeTo(out);
                     out.close();
                     source = src;
+                    copyLoadedHeaders(original);
                 }
 
             } catch (IOException ex) {
@@ -161,6 +163,25 @@ public class MimeMessageWrapper extends MimeMessage implements Disposable {
         }
     }
 
+    /**
+     * Reuses the headers already parsed by the original message, if any, rather than parsing them
+     * again from the copied source. They match the copied source as they were written from them.
+     */
+    private void copyLoadedHeaders(MimeMessage original) {
+        if (original instanceof MimeMessageWrapper) {
+            MimeMessageWrapper originalWrapper = (MimeMessageWrapper) original;
+            synchronized (originalWrapper) {
+                if (originalWrapper.headers != null) {
+                    MailHeaders copiedHeaders = new MailHeaders();
+                    Collections.list(originalWrapper.headers.getAllHeaderLines())
+                        .forEach(copiedHeaders::addHeaderLine);
+                    headers = copiedHeaders;
+                    initialHeaderSize = copiedHeaders.getSize();
+                }
+            }
+        }
+    }
+
     /**
      * Overrides default javamail behaviour by not altering the Message-ID by
      * default, see <a href="https://issues.apache.org/jira/browse/JAMES-875">JAMES-875</a> and
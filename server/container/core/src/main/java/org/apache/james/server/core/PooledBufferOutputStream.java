@@ -0,0 +1,183 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.core;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.mail.util.SharedFileInputStream;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * {@link OutputStream} storing its content in chunks borrowed from a {@link MimeMessageBufferPool}.
+ *
+ * When the pool can not provide more chunks, or when the content outgrows the threshold, the content written
+ * so far is moved to a temporary file and the chunks are given back to the pool. The threshold prevents a single
+ * large message from exhausting the budget shared with smaller concurrent messages.
+ *
+ * IMPORTANT: This class is not thread-safe!
+ */
+class PooledBufferOutputStream extends OutputStream {
+    private final MimeMessageBufferPool pool;
+    private final long thresholdInBytes;
+    private final String prefix;
+    private final String suffix;
+    private final File directory;
+    private final List<ByteBuffer> chunks;
+    private long byteCount;
+    private File file;
+    private OutputStream fileOutputStream;
+    private volatile boolean released;
+
+    PooledBufferOutputStream(MimeMessageBufferPool pool, long thresholdInBytes, String prefix, String suffix, File directory) {
+        this.pool = pool;
+        this.thresholdInBytes = thresholdInBytes;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.directory = directory;
+        this.chunks = new ArrayList<>();
+        this.byteCount = 0;
+        this.released = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (isInMemory() && byteCount + 1 > thresholdInBytes) {
+            spillToFile();
+        }
+        if (isInMemory()) {
+            Optional<ByteBuffer> chunk = chunkWithRemainingSpace();
+            if (chunk.isPresent()) {
+                chunk.get().put((byte) b);
+                byteCount++;
+                return;
+            }
+            pool.recordFallback();
+            spillToFile();
+        }
+        fileOutputStream.write(b);
+        byteCount++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (isInMemory() && byteCount + len > thresholdInBytes) {
+            spillToFile();
+        }
+        int written = 0;
+        while (isInMemory() && written < len) {
+            Optional<ByteBuffer> chunk = chunkWithRemainingSpace();
+            if (chunk.isPresent()) {
+                int length = Math.min(len - written, chunk.get().remaining());
+                chunk.get().put(b, off + written, length);
+                written += length;
+            } else {
+                pool.recordFallback();
+                spillToFile();
+            }
+        }
+        if (written < len) {
+            fileOutputStream.write(b, off + written, len - written);
+        }
+        byteCount += len;
+    }
+
+    private Optional<ByteBuffer> chunkWithRemainingSpace() {
+        if (!chunks.isEmpty() && chunks.get(chunks.size() - 1).hasRemaining()) {
+            return Optional.of(chunks.get(chunks.size() - 1));
+        }
+        Optional<ByteBuffer> chunk = pool.acquire();
+        chunk.ifPresent(chunks::add);
+        return chunk;
+    }
+
+    private void spillToFile() throws IOException {
+        file = File.createTempFile(prefix, suffix, directory);
+        fileOutputStream = new BufferedOutputStream(new FileOutputStream(file));
+        WritableByteChannel channel = Channels.newChannel(fileOutputStream);
+        for (ByteBuffer chunk : chunks) {
+            chunk.flip();
+            channel.write(chunk);
+        }
+        releaseChunks();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOutputStream != null) {
+            fileOutputStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileOutputStream != null) {
+            fileOutputStream.close();
+        }
+    }
+
+    boolean isInMemory() {
+        return file == null;
+    }
+
+    long getByteCount() {
+        return byteCount;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    InputStream newInputStream() throws IOException {
+        if (isInMemory()) {
+            return new ByteBufferChunksInputStream(chunks, () -> released, 0, byteCount);
+        }
+        return new SharedFileInputStream(file);
+    }
+
+    /**
+     * Gives the chunks back to the pool and deletes the temporary file, if any.
+     */
+    void release() {
+        releaseChunks();
+        if (file != null) {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    /**
+     * The flag needs to be raised before the first chunk is given back, see {@link ByteBufferChunksInputStream}.
+     */
+    private void releaseChunks() {
+        released = true;
+        chunks.forEach(pool::release);
+        chunks.clear();
+    }
+}
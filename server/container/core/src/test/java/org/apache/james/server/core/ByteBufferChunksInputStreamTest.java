@@ -0,0 +1,83 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class ByteBufferChunksInputStreamTest {
+    private static final int LENGTH = 10;
+
+    @Test
+    void readShouldFailWhenChunksAreReleasedWhileCopying() {
+        ByteBufferChunksInputStream testee = new ByteBufferChunksInputStream(chunks(), releasedAfterFirstCheck(), 0, LENGTH);
+
+        assertThatThrownBy(testee::read)
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void readArrayShouldFailWhenChunksAreReleasedWhileCopying() {
+        ByteBufferChunksInputStream testee = new ByteBufferChunksInputStream(chunks(), releasedAfterFirstCheck(), 0, LENGTH);
+
+        assertThatThrownBy(() -> testee.read(new byte[LENGTH], 0, LENGTH))
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void failedReadShouldNotMoveThePosition() {
+        ByteBufferChunksInputStream testee = new ByteBufferChunksInputStream(chunks(), releasedAfterFirstCheck(), 0, LENGTH);
+
+        assertThatThrownBy(() -> testee.read(new byte[LENGTH], 0, LENGTH))
+            .isInstanceOf(IOException.class);
+        assertThat(testee.getPosition()).isZero();
+    }
+
+    @Test
+    void readShouldReturnTheContentWhenNotReleased() throws IOException {
+        ByteBufferChunksInputStream testee = new ByteBufferChunksInputStream(chunks(), () -> false, 0, LENGTH);
+
+        byte[] content = new byte[LENGTH];
+        assertThat(testee.read(content, 0, LENGTH)).isEqualTo(LENGTH);
+        assertThat(content).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    private ImmutableList<ByteBuffer> chunks() {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(MimeMessageBufferPool.CHUNK_SIZE);
+        for (int i = 0; i < LENGTH; i++) {
+            chunk.put((byte) i);
+        }
+        return ImmutableList.of(chunk);
+    }
+
+    private BooleanSupplier releasedAfterFirstCheck() {
+        AtomicInteger checks = new AtomicInteger(0);
+        return () -> checks.getAndIncrement() > 0;
+    }
+}
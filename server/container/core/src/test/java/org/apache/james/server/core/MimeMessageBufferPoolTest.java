@@ -0,0 +1,152 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.server.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
+import org.junit.jupiter.api.Test;
+
+class MimeMessageBufferPoolTest {
+    private static final long TWO_CHUNKS = 2L * MimeMessageBufferPool.CHUNK_SIZE;
+
+    @Test
+    void constructorShouldThrowWhenNegativeBudget() {
+        assertThatThrownBy(() -> new MimeMessageBufferPool(-1, new NoopGaugeRegistry()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldReturnDisabledPoolWhenNoBudget() throws Exception {
+        MimeMessageBufferPool testee = MimeMessageBufferPool.from(new PropertiesConfiguration(), new NoopGaugeRegistry());
+
+        assertThat(testee.isEnabled()).isFalse();
+    }
+
+    @Test
+    void fromShouldReadMemoryBudget() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("memory.budget", "64M");
+
+        assertThat(MimeMessageBufferPool.from(configuration, new NoopGaugeRegistry()).getBudgetInBytes())
+            .isEqualTo(64 * 1024 * 1024);
+    }
+
+    @Test
+    void fromShouldAcceptZeroBudget() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("memory.budget", "0");
+
+        assertThat(MimeMessageBufferPool.from(configuration, new NoopGaugeRegistry()).isEnabled()).isFalse();
+    }
+
+    @Test
+    void fromShouldThrowWhenNegativeBudget() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("memory.budget", "-1");
+
+        assertThatThrownBy(() -> MimeMessageBufferPool.from(configuration, new NoopGaugeRegistry()))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void fromShouldThrowWhenBudgetIsSmallerThanAChunk() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("memory.budget", "16K");
+
+        assertThatThrownBy(() -> MimeMessageBufferPool.from(configuration, new NoopGaugeRegistry()))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void fromShouldThrowWhenInvalidBudget() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("memory.budget", "invalid");
+
+        assertThatThrownBy(() -> MimeMessageBufferPool.from(configuration, new NoopGaugeRegistry()))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void poolShouldBeDisabledWhenBudgetIsZero() {
+        MimeMessageBufferPool testee = new MimeMessageBufferPool(MimeMessageBufferPool.DISABLED_BUDGET, new NoopGaugeRegistry());
+
+        assertThat(testee.isEnabled()).isFalse();
+        assertThat(testee.acquire()).isEmpty();
+    }
+
+    @Test
+    void poolShouldBeDisabledWhenBudgetIsSmallerThanAChunk() {
+        MimeMessageBufferPool testee = new MimeMessageBufferPool(MimeMessageBufferPool.CHUNK_SIZE - 1, new NoopGaugeRegistry());
+
+        assertThat(testee.isEnabled()).isFalse();
+    }
+
+    @Test
+    void acquireShouldReturnDirectChunks() {
+        MimeMessageBufferPool testee = new MimeMessageBufferPool(TWO_CHUNKS, new NoopGaugeRegistry());
+
+        assertThat(testee.acquire())
+            .hasValueSatisfying(chunk -> {
+                assertThat(chunk.isDirect()).isTrue();
+                assertThat(chunk.capacity()).isEqualTo(MimeMessageBufferPool.CHUNK_SIZE);
+            });
+    }
+
+    @Test
+    void acquireShouldReturnEmptyWhenBudgetIsExhausted() {
+        MimeMessageBufferPool testee = new MimeMessageBufferPool(TWO_CHUNKS, new NoopGaugeRegistry());
+        testee.acquire();
+        testee.acquire();
+
+        assertThat(testee.acquire()).isEmpty();
+    }
+
+    @Test
+    void releasedChunksShouldBeReused() {
+        MimeMessageBufferPool testee = new MimeMessageBufferPool(TWO_CHUNKS, new NoopGaugeRegistry());
+        ByteBuffer chunk = testee.acquire().get();
+        testee.acquire();
+        chunk.put((byte) 1);
+
+        testee.release(chunk);
+
+        assertThat(testee.acquire())
+            .hasValueSatisfying(reused -> {
+                assertThat(reused).isSameAs(chunk);
+                assertThat(reused.position()).isZero();
+            });
+    }
+
+    @Test
+    void getUsedBytesShouldReflectAcquiredChunks() {
+        MimeMessageBufferPool testee = new MimeMessageBufferPool(TWO_CHUNKS, new NoopGaugeRegistry());
+        ByteBuffer chunk = testee.acquire().get();
+        testee.acquire();
+
+        testee.release(chunk);
+
+        assertThat(testee.getUsedBytes()).isEqualTo(MimeMessageBufferPool.CHUNK_SIZE);
+    }
+}
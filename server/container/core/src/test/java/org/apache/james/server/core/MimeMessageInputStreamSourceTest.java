@@ -19,24 +19,40 @@
 package org.apache.james.server.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.mail.MessagingException;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.james.metrics.api.NoopGaugeRegistry;
 import org.apache.james.util.ZeroedInputStream;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.base.Strings;
+
 public class MimeMessageInputStreamSourceTest {
 
     private static final int _1M = 1024 * 1024;
     private static final int _10KB = 10 * 1024;
+    private static final int _100KB = 100 * 1024;
     private MimeMessageInputStreamSource testee;
 
     @AfterEach
     public void tearDown() {
-        testee.dispose();
+        if (testee != null) {
+            testee.dispose();
+        }
     }
     
     @Test
@@ -57,4 +73,184 @@ public class MimeMessageInputStreamSourceTest {
         testee = new MimeMessageInputStreamSource(veryShortName, new ZeroedInputStream(_1M));
         assertThat(testee.getInputStream()).isNotNull();
     }
+
+    @Test
+    public void pooledStreamShouldBeReadable() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+
+        write(testee, new ZeroedInputStream(_100KB));
+
+        assertThat(testee.getInputStream()).hasSameContentAs(new ZeroedInputStream(_100KB));
+        assertThat(testee.getMessageSize()).isEqualTo(_100KB);
+        assertThat(pool.getFallbackCount()).isZero();
+    }
+
+    @Test
+    public void pooledStreamShouldFallBackToFileWhenBudgetIsExhausted() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_100KB, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, new MimeMessageSpoolConfiguration(2 * _1M));
+
+        write(testee, new ZeroedInputStream(_1M));
+
+        assertThat(testee.getInputStream()).hasSameContentAs(new ZeroedInputStream(_1M));
+        assertThat(testee.getMessageSize()).isEqualTo(_1M);
+        assertThat(pool.getFallbackCount()).isEqualTo(1);
+        assertThat(pool.getUsedBytes()).isZero();
+    }
+
+    @Test
+    public void pooledStreamShouldSpillToFileAboveSpoolThreshold() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(2 * _1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+
+        write(testee, new ZeroedInputStream(_1M));
+
+        assertThat(((PooledBufferOutputStream) testee.getWritableOutputStream()).isInMemory()).isFalse();
+        assertThat(testee.getInputStream()).hasSameContentAs(new ZeroedInputStream(_1M));
+        assertThat(pool.getUsedBytes()).isZero();
+        assertThat(pool.getFallbackCount()).isZero();
+    }
+
+    @Test
+    public void pooledStreamWrittenByteByByteShouldSpillToFileAboveSpoolThreshold() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, new MimeMessageSpoolConfiguration(_10KB));
+        byte[] content = Strings.repeat("0123456789", 10000).getBytes(StandardCharsets.US_ASCII);
+
+        writeByteByByte(testee, content);
+
+        assertThat(((PooledBufferOutputStream) testee.getWritableOutputStream()).isInMemory()).isFalse();
+        assertThat(testee.getInputStream()).hasSameContentAs(new ByteArrayInputStream(content));
+        assertThat(pool.getUsedBytes()).isZero();
+    }
+
+    @Test
+    public void smallConcurrentMessagesShouldStayInMemoryWhileALargeMessageIsWritten() throws Exception {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        ConcurrentLinkedQueue<MimeMessageInputStreamSource> smallSources = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<MimeMessageInputStreamSource> sources = new ConcurrentLinkedQueue<>();
+        int largeMessageWriter = 0;
+
+        try {
+            ConcurrentTestRunner.builder()
+                .operation((threadNumber, step) -> {
+                    MimeMessageInputStreamSource source = new MimeMessageInputStreamSource("myKey" + threadNumber, pool, MimeMessageSpoolConfiguration.DEFAULT);
+                    sources.add(source);
+                    if (threadNumber == largeMessageWriter) {
+                        write(source, new ZeroedInputStream(2 * _1M));
+                    } else {
+                        write(source, new ZeroedInputStream(_10KB));
+                        smallSources.add(source);
+                    }
+                })
+                .threadCount(9)
+                .operationCount(1)
+                .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+            assertThat(smallSources)
+                .hasSize(8)
+                .allSatisfy(source -> assertThat(((PooledBufferOutputStream) source.getWritableOutputStream()).isInMemory()).isTrue());
+            assertThat(pool.getFallbackCount()).isZero();
+        } finally {
+            sources.forEach(MimeMessageInputStreamSource::dispose);
+        }
+    }
+
+    @Test
+    public void pooledStreamShouldBeReadableWhenWrittenByteByByte() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+        byte[] content = Strings.repeat("0123456789", 10000).getBytes(StandardCharsets.US_ASCII);
+
+        writeByteByByte(testee, content);
+
+        assertThat(testee.getInputStream()).hasSameContentAs(new ByteArrayInputStream(content));
+        assertThat(testee.getMessageSize()).isEqualTo(content.length);
+    }
+
+    @Test
+    public void pooledStreamWrittenByteByByteShouldFallBackToFileWhenBudgetIsExhausted() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(MimeMessageBufferPool.CHUNK_SIZE, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+        byte[] content = Strings.repeat("0123456789", 10000).getBytes(StandardCharsets.US_ASCII);
+
+        writeByteByByte(testee, content);
+
+        assertThat(testee.getInputStream()).hasSameContentAs(new ByteArrayInputStream(content));
+        assertThat(testee.getMessageSize()).isEqualTo(content.length);
+        assertThat(pool.getFallbackCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void disposeShouldReleasePooledBuffers() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+        write(testee, new ZeroedInputStream(_100KB));
+
+        testee.dispose();
+
+        assertThat(pool.getUsedBytes()).isZero();
+    }
+
+    @Test
+    public void pooledStreamShouldNotBeReadableOnceDisposed() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+        write(testee, new ZeroedInputStream(_10KB));
+        InputStream inputStream = testee.getInputStream();
+
+        testee.dispose();
+
+        assertThatThrownBy(inputStream::read)
+            .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void pooledStreamShouldSupportMimeMessageParsing() throws Exception {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(_1M, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+        String body = Strings.repeat("0123456789", 10000);
+        write(testee, new ByteArrayInputStream(("Subject: test\r\n\r\n" + body).getBytes(StandardCharsets.US_ASCII)));
+
+        MimeMessageWrapper message = new MimeMessageWrapper(testee);
+
+        assertThat(message.getSubject()).isEqualTo("test");
+        assertThat(message.getContent()).isEqualTo(body);
+    }
+
+    @Test
+    public void pooledSourceShouldSpoolAsUsualWhenPoolIsDisabled() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(MimeMessageBufferPool.DISABLED_BUDGET, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, MimeMessageSpoolConfiguration.DEFAULT);
+
+        write(testee, new ZeroedInputStream(_1M));
+
+        assertThat(testee.getWritableOutputStream()).isInstanceOf(DeferredFileOutputStream.class);
+        assertThat(testee.getInputStream()).hasSameContentAs(new ZeroedInputStream(_1M));
+    }
+
+    @Test
+    public void pooledSourceShouldUseSpoolThresholdWhenPoolIsDisabled() throws IOException {
+        MimeMessageBufferPool pool = new MimeMessageBufferPool(MimeMessageBufferPool.DISABLED_BUDGET, new NoopGaugeRegistry());
+        testee = new MimeMessageInputStreamSource("myKey", pool, new MimeMessageSpoolConfiguration(2 * _1M));
+
+        write(testee, new ZeroedInputStream(_1M));
+
+        assertThat(((DeferredFileOutputStream) testee.getWritableOutputStream()).isInMemory()).isTrue();
+    }
+
+    private void writeByteByByte(MimeMessageInputStreamSource source, byte[] content) throws IOException {
+        try (OutputStream outputStream = source.getWritableOutputStream()) {
+            for (byte b : content) {
+                outputStream.write(b);
+            }
+        }
+    }
+
+    private void write(MimeMessageInputStreamSource source, InputStream content) throws IOException {
+        try (OutputStream outputStream = source.getWritableOutputStream()) {
+            IOUtils.copy(content, outputStream);
+        }
+    }
 }
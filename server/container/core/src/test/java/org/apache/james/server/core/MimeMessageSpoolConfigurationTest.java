@@ -0,0 +1,74 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+class MimeMessageSpoolConfigurationTest {
+    @Test
+    void fromShouldReturnDefaultWhenEmpty() throws Exception {
+        assertThat(MimeMessageSpoolConfiguration.from(new PropertiesConfiguration()))
+            .isEqualTo(MimeMessageSpoolConfiguration.DEFAULT);
+    }
+
+    @Test
+    void thresholdShouldDefaultTo100KB() {
+        assertThat(MimeMessageSpoolConfiguration.DEFAULT.getThresholdInBytes())
+            .isEqualTo(100 * 1024);
+    }
+
+    @Test
+    void fromShouldReadFileThreshold() throws Exception {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("file.threshold", "10M");
+
+        assertThat(MimeMessageSpoolConfiguration.from(configuration).getThresholdInBytes())
+            .isEqualTo(10 * 1024 * 1024);
+    }
+
+    @Test
+    void fromShouldThrowWhenInvalidFileThreshold() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("file.threshold", "invalid");
+
+        assertThatThrownBy(() -> MimeMessageSpoolConfiguration.from(configuration))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void fromShouldThrowWhenZeroFileThreshold() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("file.threshold", "0");
+
+        assertThatThrownBy(() -> MimeMessageSpoolConfiguration.from(configuration))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void constructorShouldThrowWhenZeroThreshold() {
+        assertThatThrownBy(() -> new MimeMessageSpoolConfiguration(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -55,6 +55,10 @@ public class MimeMessageWrapperTest extends MimeMessageFromStreamTest {
             super(source);
         }
 
+        private TestableMimeMessageWrapper(MimeMessage original) throws MessagingException {
+            super(original);
+        }
+
         public boolean messageParsed() {
             return messageParsed;
         }
@@ -292,4 +296,38 @@ public class MimeMessageWrapperTest extends MimeMessageFromStreamTest {
         assertThat(mimeMessageWrapper.getMessageID())
             .isEqualTo(messageId);
     }
+
+    @Test
+    public void copyShouldReuseHeadersLoadedByTheOriginal() throws Exception {
+        mw.getSubject();
+
+        TestableMimeMessageWrapper copy = new TestableMimeMessageWrapper(mw);
+        copy.setHeadersLoadable(false);
+
+        assertThat(copy.getSubject()).isEqualTo("foo");
+        assertThat(copy.getSize()).isEqualTo(body.length());
+        assertThat(MimeMessageUtil.asString(copy)).isEqualTo(MimeMessageUtil.asString(mw));
+        LifecycleUtil.dispose(copy);
+    }
+
+    @Test
+    public void copyShouldReuseModifiedHeadersOfTheOriginal() throws Exception {
+        mw.setHeader("X-Custom", "value");
+
+        MimeMessageWrapper copy = new MimeMessageWrapper(mw);
+
+        assertThat(copy.getHeader("X-Custom")).containsExactly("value");
+        assertThat(copy.getSize()).isEqualTo(body.length());
+        assertThat(MimeMessageUtil.asString(copy)).isEqualTo(MimeMessageUtil.asString(mw));
+        LifecycleUtil.dispose(copy);
+    }
+
+    @Test
+    public void copyShouldNotLoadHeadersWhenTheOriginalDidNot() throws Exception {
+        TestableMimeMessageWrapper copy = new TestableMimeMessageWrapper(mw);
+        copy.setHeadersLoadable(false);
+
+        assertThatThrownBy(copy::getSubject).isInstanceOf(IllegalStateException.class);
+        LifecycleUtil.dispose(copy);
+    }
 }
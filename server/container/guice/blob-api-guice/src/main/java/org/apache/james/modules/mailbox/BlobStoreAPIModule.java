@@ -19,15 +19,27 @@
 
 package org.apache.james.modules.mailbox;
 
+import java.io.FileNotFoundException;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.HashBlobId;
 import org.apache.james.blob.api.MetricableBlobStore;
+import org.apache.james.blob.cache.CachedBlobStore;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.utils.PropertiesProvider;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 
 public class BlobStoreAPIModule extends AbstractModule {
+    private static final String BLOB_FILE_NAME = "blob";
+    private static final String CACHE_ENABLE_PROPERTY = "cache.enable";
 
     @Override
     protected void configure() {
@@ -35,6 +47,19 @@ public class BlobStoreAPIModule extends AbstractModule {
         bind(BlobId.Factory.class).to(HashBlobId.Factory.class);
 
         bind(MetricableBlobStore.class).in(Scopes.SINGLETON);
-        bind(BlobStore.class).to(MetricableBlobStore.class);
+    }
+
+    @Provides
+    @Singleton
+    BlobStore provideBlobStore(MetricableBlobStore blobStore, PropertiesProvider propertiesProvider, MetricFactory metricFactory) throws ConfigurationException {
+        try {
+            Configuration configuration = propertiesProvider.getConfiguration(BLOB_FILE_NAME);
+            if (configuration.getBoolean(CACHE_ENABLE_PROPERTY, false)) {
+                return new CachedBlobStore(blobStore, CachedBlobStore.Configuration.from(configuration), metricFactory);
+            }
+            return blobStore;
+        } catch (FileNotFoundException e) {
+            return blobStore;
+        }
     }
 }
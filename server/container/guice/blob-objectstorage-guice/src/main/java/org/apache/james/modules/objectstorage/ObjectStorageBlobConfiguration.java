@@ -25,6 +25,7 @@ import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BucketName;
 import org.apache.james.blob.objectstorage.PayloadCodec;
 import org.apache.james.blob.objectstorage.SpecificAuthConfiguration;
@@ -42,6 +43,7 @@ public class ObjectStorageBlobConfiguration {
     private static final String OBJECTSTORAGE_BUCKET_PREFIX = "objectstorage.bucketPrefix";
     private static final String OBJECTSTORAGE_PROVIDER = "objectstorage.provider";
     private static final String OBJECTSTORAGE_PAYLOAD_CODEC = "objectstorage.payload.codec";
+    private static final String OBJECTSTORAGE_COMPRESSION_ENABLED = "objectstorage.compression.enabled";
     public static final String OBJECTSTORAGE_AES256_HEXSALT = "objectstorage.aes256.hexsalt";
     public static final String OBJECTSTORAGE_AES256_PASSWORD = "objectstorage.aes256.password";
 
@@ -55,6 +57,7 @@ public class ObjectStorageBlobConfiguration {
         Optional<String> aesSalt = Optional.ofNullable(configuration.getString(OBJECTSTORAGE_AES256_HEXSALT, null));
         Optional<char[]> aesPassword = Optional.ofNullable(configuration.getString(OBJECTSTORAGE_AES256_PASSWORD, null))
             .map(String::toCharArray);
+        BlobCompression compression = BlobCompression.of(configuration.getBoolean(OBJECTSTORAGE_COMPRESSION_ENABLED, false));
 
         if (Strings.isNullOrEmpty(provider)) {
             throw new ConfigurationException("Mandatory configuration value " + OBJECTSTORAGE_PROVIDER + " is missing from " + OBJECTSTORAGE_CONFIGURATION_NAME + " configuration");
@@ -76,6 +79,7 @@ public class ObjectStorageBlobConfiguration {
             .aesPassword(aesPassword)
             .defaultBucketName(namespace.map(BucketName::of))
             .bucketPrefix(bucketPrefix)
+            .compression(compression)
             .build();
     }
 
@@ -119,6 +123,7 @@ public class ObjectStorageBlobConfiguration {
             private Optional<char[]> aesPassword;
             private Optional<BucketName> defaultBucketName;
             private Optional<String> bucketPrefix;
+            private Optional<BlobCompression> compression;
 
             public ReadyToBuild(PayloadCodecFactory payloadCodecFactory,
                                 ObjectStorageProvider provider,
@@ -130,6 +135,7 @@ public class ObjectStorageBlobConfiguration {
                 this.specificAuthConfiguration = specificAuthConfiguration;
                 this.defaultBucketName = Optional.empty();
                 this.bucketPrefix = Optional.empty();
+                this.compression = Optional.empty();
             }
 
             public ReadyToBuild aesSalt(String aesSalt) {
@@ -170,6 +176,16 @@ public class ObjectStorageBlobConfiguration {
                 return this;
             }
 
+            public ReadyToBuild compression(Optional<BlobCompression> compression) {
+                this.compression = compression;
+                return this;
+            }
+
+            public ReadyToBuild compression(BlobCompression compression) {
+                this.compression = Optional.of(compression);
+                return this;
+            }
+
             public ObjectStorageBlobConfiguration build() {
                 if (payloadCodecFactory == PayloadCodecFactory.AES256) {
                     aesSalt.filter(s -> !s.isEmpty())
@@ -178,7 +194,8 @@ public class ObjectStorageBlobConfiguration {
                         .orElseThrow(() -> new IllegalStateException("AES code requires an non-empty password parameter"));
                 }
 
-                return new ObjectStorageBlobConfiguration(payloadCodecFactory, bucketPrefix, provider, defaultBucketName, specificAuthConfiguration, aesSalt, aesPassword);
+                return new ObjectStorageBlobConfiguration(payloadCodecFactory, bucketPrefix, provider, defaultBucketName, specificAuthConfiguration, aesSalt, aesPassword,
+                    compression.orElse(BlobCompression.NONE));
             }
 
         }
@@ -192,6 +209,7 @@ public class ObjectStorageBlobConfiguration {
     private Optional<String> aesSalt;
     private Optional<char[]> aesPassword;
     private Optional<String> bucketPrefix;
+    private final BlobCompression compression;
 
     @VisibleForTesting
     ObjectStorageBlobConfiguration(PayloadCodecFactory payloadCodec,
@@ -200,7 +218,8 @@ public class ObjectStorageBlobConfiguration {
                                    Optional<BucketName> namespace,
                                    SpecificAuthConfiguration specificAuthConfiguration,
                                    Optional<String> aesSalt,
-                                   Optional<char[]> aesPassword) {
+                                   Optional<char[]> aesPassword,
+                                   BlobCompression compression) {
         this.payloadCodec = payloadCodec;
         this.bucketPrefix = bucketPrefix;
         this.provider = provider;
@@ -208,6 +227,7 @@ public class ObjectStorageBlobConfiguration {
         this.specificAuthConfiguration = specificAuthConfiguration;
         this.aesSalt = aesSalt;
         this.aesPassword = aesPassword;
+        this.compression = compression;
     }
 
     public Optional<BucketName> getNamespace() {
@@ -242,6 +262,10 @@ public class ObjectStorageBlobConfiguration {
         return bucketPrefix;
     }
 
+    public BlobCompression getCompression() {
+        return compression;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof ObjectStorageBlobConfiguration) {
@@ -253,14 +277,15 @@ public class ObjectStorageBlobConfiguration {
                 && Objects.equals(this.provider, that.provider)
                 && Objects.equals(this.specificAuthConfiguration, that.specificAuthConfiguration)
                 && Objects.equals(this.aesSalt, that.aesSalt)
-                && Objects.equals(this.aesPassword, that.aesPassword);
+                && Objects.equals(this.aesPassword, that.aesPassword)
+                && Objects.equals(this.compression, that.compression);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(payloadCodec, namespace, bucketPrefix, provider, specificAuthConfiguration, aesSalt, aesPassword);
+        return Objects.hash(payloadCodec, namespace, bucketPrefix, provider, specificAuthConfiguration, aesSalt, aesPassword, compression);
     }
 
     @Override
@@ -273,6 +298,7 @@ public class ObjectStorageBlobConfiguration {
             .add("specificAuthConfiguration", specificAuthConfiguration)
             .add("aesSalt", aesSalt)
             .add("aesPassword", aesPassword)
+            .add("compression", compression)
             .toString();
     }
 }
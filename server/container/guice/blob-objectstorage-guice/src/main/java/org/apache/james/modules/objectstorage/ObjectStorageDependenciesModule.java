@@ -69,6 +69,7 @@ public class ObjectStorageDependenciesModule extends AbstractModule {
             .blobPutter(putBlob(blobIdFactory, configuration, awsS3ObjectStorageProvider))
             .namespace(configuration.getNamespace())
             .bucketPrefix(configuration.getBucketPrefix())
+            .compression(configuration.getCompression())
             .build();
         return blobStore;
     }
@@ -8,6 +8,7 @@ import java.util.stream.Stream;
 
 import org.apache.commons.configuration2.MapConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BucketName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -204,4 +205,27 @@ class ObjectStorageBlobConfigurationTest {
          assertThat(ObjectStorageBlobConfiguration.from(configuration).getBucketPrefix())
             .isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void fromShouldEnableCompressionWhenSpecified() throws Exception {
+        MapConfiguration configuration = new MapConfiguration(
+            ImmutableMap.<String, Object>builder()
+                .putAll(VALID_CONFIGURATION)
+                .put("objectstorage.compression.enabled", "true")
+                .build());
+
+        assertThat(ObjectStorageBlobConfiguration.from(configuration).getCompression())
+            .isEqualTo(BlobCompression.of(true));
+    }
+
+    @Test
+    void fromShouldNotCompressWhenCompressionIsNotSpecified() throws Exception {
+        MapConfiguration configuration = new MapConfiguration(
+            ImmutableMap.<String, Object>builder()
+                .putAll(VALID_CONFIGURATION)
+                .build());
+
+        assertThat(ObjectStorageBlobConfiguration.from(configuration).getCompression())
+            .isEqualTo(BlobCompression.NONE);
+    }
+}
@@ -19,7 +19,11 @@
 
 package org.apache.james.modules.mailbox;
 
+import javax.inject.Singleton;
+
 import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
+import org.apache.james.blob.api.BlobCompression;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.MetricableBlobStore;
 import org.apache.james.blob.cassandra.CassandraBlobModule;
@@ -27,6 +31,7 @@ import org.apache.james.blob.cassandra.CassandraBlobStore;
 import org.apache.james.blob.cassandra.CassandraDefaultBucketDAO;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
@@ -44,4 +49,10 @@ public class CassandraBlobStoreModule extends AbstractModule {
         Multibinder<CassandraModule> cassandraDataDefinitions = Multibinder.newSetBinder(binder(), CassandraModule.class);
         cassandraDataDefinitions.addBinding().toInstance(CassandraBlobModule.MODULE);
     }
+
+    @Provides
+    @Singleton
+    BlobCompression provideBlobCompression(CassandraConfiguration cassandraConfiguration) {
+        return BlobCompression.of(cassandraConfiguration.isBlobCompressionEnabled());
+    }
 }
@@ -0,0 +1,60 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.mailbox;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraSearchModule;
+import org.apache.james.mailbox.cassandra.search.CassandraHeaderTrigramDAO;
+import org.apache.james.mailbox.cassandra.search.CassandraMessageSearchIndex;
+import org.apache.james.mailbox.cassandra.search.CassandraSearchMetadataDAO;
+import org.apache.james.mailbox.events.MailboxListener;
+import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
+import org.apache.james.mailbox.store.search.MessageSearchIndex;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
+import com.google.inject.multibindings.Multibinder;
+
+/**
+ * Search relying only on Cassandra, to be used instead of {@link ElasticSearchMailboxModule}.
+ *
+ * The header trigram, flag, internal date and size indexes are only fed by the search index listener: messages stored
+ * before enabling this module are not returned by searches relying on these indexes until a full reIndexing
+ * (<code>POST /mailboxes?task=reIndex</code>) completed.
+ */
+public class CassandraSearchMailboxModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(CassandraHeaderTrigramDAO.class).in(Scopes.SINGLETON);
+        bind(CassandraSearchMetadataDAO.class).in(Scopes.SINGLETON);
+        bind(CassandraMessageSearchIndex.class).in(Scopes.SINGLETON);
+        bind(MessageSearchIndex.class).to(CassandraMessageSearchIndex.class);
+        bind(ListeningMessageSearchIndex.class).to(CassandraMessageSearchIndex.class);
+
+        Multibinder.newSetBinder(binder(), CassandraModule.class)
+            .addBinding()
+            .toInstance(CassandraSearchModule.MODULE);
+
+        Multibinder.newSetBinder(binder(), MailboxListener.GroupMailboxListener.class)
+            .addBinding()
+            .to(CassandraMessageSearchIndex.class);
+    }
+}
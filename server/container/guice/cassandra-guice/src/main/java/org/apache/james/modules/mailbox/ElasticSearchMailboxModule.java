@@ -30,6 +30,7 @@ import javax.inject.Singleton;
 
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.backends.es.ElasticSearchBulkIndexer;
 import org.apache.james.backends.es.ElasticSearchConfiguration;
 import org.apache.james.backends.es.ElasticSearchIndexer;
 import org.apache.james.backends.es.RoutingKey;
@@ -48,6 +49,7 @@ import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.mailbox.model.MessageId;
 import org.apache.james.mailbox.store.search.ListeningMessageSearchIndex;
 import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
 import org.apache.james.utils.PropertiesProvider;
@@ -121,6 +123,20 @@ public class ElasticSearchMailboxModule extends AbstractModule {
             configuration.getWriteAliasMailboxName());
     }
 
+    @Provides
+    @Singleton
+    @Named(MailboxElasticSearchConstants.InjectionNames.MAILBOX)
+    private ElasticSearchBulkIndexer createMailboxElasticSearchBulkIndexer(RestHighLevelClient client,
+                                                                           ElasticSearchMailboxConfiguration configuration,
+                                                                           MetricFactory metricFactory) {
+        return new ElasticSearchBulkIndexer(
+            client,
+            configuration.getWriteAliasMailboxName(),
+            metricFactory,
+            configuration.getBulkSize(),
+            configuration.getBulkLinger());
+    }
+
     @Provides
     @Singleton
     private ElasticSearchSearcher createMailboxElasticSearchSearcher(RestHighLevelClient client,
@@ -0,0 +1,119 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james;
+
+import static org.apache.james.CassandraJamesServerMain.ALL_BUT_JMX_CASSANDRA_MODULE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.mail.Flags;
+
+import org.apache.james.core.Username;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.cassandra.search.CassandraMessageSearchIndex;
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.extractor.TextExtractor;
+import org.apache.james.mailbox.model.ComposedMessageId;
+import org.apache.james.mailbox.model.MailboxPath;
+import org.apache.james.mailbox.model.MessageId;
+import org.apache.james.mailbox.model.MultimailboxesSearchQuery;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.mailbox.store.search.MessageSearchIndex;
+import org.apache.james.mailbox.store.search.PDFTextExtractor;
+import org.apache.james.modules.MailboxProbeImpl;
+import org.apache.james.modules.TestJMAPServerModule;
+import org.apache.james.modules.mailbox.CassandraSearchMailboxModule;
+import org.apache.james.utils.GuiceProbe;
+import org.awaitility.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.google.inject.multibindings.Multibinder;
+
+class CassandraSearchJamesServerTest implements JamesServerContract {
+    private static final Username USER = Username.of("user@domain.tld");
+    private static final long LIMIT = 10;
+
+    public static class SearchProbe implements GuiceProbe {
+        private final MailboxManager mailboxManager;
+        private final MessageSearchIndex searchIndex;
+
+        @Inject
+        SearchProbe(MailboxManager mailboxManager, MessageSearchIndex searchIndex) {
+            this.mailboxManager = mailboxManager;
+            this.searchIndex = searchIndex;
+        }
+
+        public MessageSearchIndex getSearchIndex() {
+            return searchIndex;
+        }
+
+        public List<MessageId> search(Username username, SearchQuery searchQuery) throws MailboxException {
+            MailboxSession session = mailboxManager.createSystemSession(username);
+            return mailboxManager.search(MultimailboxesSearchQuery.from(searchQuery).build(), session, LIMIT);
+        }
+    }
+
+    @RegisterExtension
+    static JamesServerExtension testExtension = new JamesServerBuilder()
+        .extension(new DockerElasticSearchExtension())
+        .extension(new CassandraExtension())
+        .server(configuration -> GuiceJamesServer.forConfiguration(configuration)
+            .combineWith(ALL_BUT_JMX_CASSANDRA_MODULE)
+            .overrideWith(new CassandraSearchMailboxModule())
+            .overrideWith(binder -> binder.bind(TextExtractor.class).to(PDFTextExtractor.class))
+            .overrideWith(TestJMAPServerModule.limitToTenMessages())
+            .overrideWith(DOMAIN_LIST_CONFIGURATION_MODULE)
+            .overrideWith(binder -> Multibinder.newSetBinder(binder, GuiceProbe.class)
+                .addBinding()
+                .to(SearchProbe.class)))
+        .build();
+
+    @Test
+    void searchIndexShouldBeCassandraBased(GuiceJamesServer jamesServer) {
+        assertThat(jamesServer.getProbe(SearchProbe.class).getSearchIndex())
+            .isInstanceOf(CassandraMessageSearchIndex.class);
+    }
+
+    @Test
+    void searchShouldReturnMessagesMatchingHeaderCriteria(GuiceJamesServer jamesServer) throws Exception {
+        MailboxPath inbox = MailboxPath.inbox(USER);
+        MailboxProbeImpl mailboxProbe = jamesServer.getProbe(MailboxProbeImpl.class);
+        mailboxProbe.createMailbox(inbox);
+        ComposedMessageId messageId = mailboxProbe.appendMessage(USER.asString(), inbox,
+            new ByteArrayInputStream("Subject: quarterly report\r\n\r\nbody".getBytes(StandardCharsets.UTF_8)),
+            new Date(), false, new Flags());
+        mailboxProbe.appendMessage(USER.asString(), inbox,
+            new ByteArrayInputStream("Subject: lunch\r\n\r\nbody".getBytes(StandardCharsets.UTF_8)),
+            new Date(), false, new Flags());
+
+        SearchProbe searchProbe = jamesServer.getProbe(SearchProbe.class);
+        await().atMost(Duration.TEN_SECONDS)
+            .untilAsserted(() -> assertThat(searchProbe.search(USER, new SearchQuery(SearchQuery.headerContains("Subject", "report"))))
+                .containsOnly(messageId.getMessageId()));
+    }
+}
@@ -20,9 +20,15 @@
 
 package org.apache.james.modules;
 
+import java.io.FileNotFoundException;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.modules.server.HostnameModule;
 import org.apache.james.task.TaskManager;
+import org.apache.james.task.WorkerConfiguration;
 import org.apache.james.task.eventsourcing.EventSourcingTaskManager;
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection;
 import org.apache.james.task.eventsourcing.TerminationSubscriber;
@@ -34,13 +40,19 @@ import org.apache.james.task.eventsourcing.distributed.RabbitMQWorkQueue;
 import org.apache.james.task.eventsourcing.distributed.RabbitMQWorkQueueSupplier;
 import org.apache.james.utils.InitializationOperation;
 import org.apache.james.utils.InitilizationOperationBuilder;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 
 public class DistributedTaskManagerModule extends AbstractModule {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistributedTaskManagerModule.class);
+    private static final String TASK_MANAGER_CONFIGURATION_NAME = "taskmanager";
 
     @Override
     protected void configure() {
@@ -58,6 +70,17 @@ public class DistributedTaskManagerModule extends AbstractModule {
         cassandraDataDefinitions.addBinding().toInstance(CassandraTaskExecutionDetailsProjectionModule.MODULE());
     }
 
+    @Provides
+    @Singleton
+    WorkerConfiguration provideWorkerConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return WorkerConfiguration.from(propertiesProvider.getConfiguration(TASK_MANAGER_CONFIGURATION_NAME));
+        } catch (FileNotFoundException e) {
+            LOGGER.info("Could not find " + TASK_MANAGER_CONFIGURATION_NAME + " configuration file, tasks will be run one at a time");
+            return WorkerConfiguration.DEFAULT;
+        }
+    }
+
     @ProvidesIntoSet
     InitializationOperation terminationSubscriber(RabbitMQTerminationSubscriber instance) {
         return InitilizationOperationBuilder
@@ -28,6 +28,9 @@ import javax.inject.Named;
 import org.apache.james.backends.cassandra.migration.MigrationTask;
 import org.apache.james.backends.cassandra.migration.MigrationTaskAdditionalInformationDTO;
 import org.apache.james.backends.cassandra.migration.MigrationTaskDTO;
+import org.apache.james.blob.cassandra.gc.BlobGarbageCollectionTask;
+import org.apache.james.blob.cassandra.gc.BlobGarbageCollectionTaskAdditionalInformationDTO;
+import org.apache.james.blob.cassandra.gc.BlobGarbageCollectionTaskDTO;
 import org.apache.james.eventsourcing.eventstore.cassandra.dto.EventDTOModule;
 import org.apache.james.json.DTOConverter;
 import org.apache.james.json.DTOModule;
@@ -88,7 +91,6 @@ import org.apache.mailbox.tools.indexer.FullReindexingTask;
 import org.apache.mailbox.tools.indexer.MessageIdReIndexingTask;
 import org.apache.mailbox.tools.indexer.MessageIdReindexingTaskAdditionalInformationDTO;
 import org.apache.mailbox.tools.indexer.MessageIdReindexingTaskDTO;
-import org.apache.mailbox.tools.indexer.ReIndexerPerformer;
 import org.apache.mailbox.tools.indexer.ReprocessingContextInformationDTO;
 import org.apache.mailbox.tools.indexer.SingleMailboxReindexingTask;
 import org.apache.mailbox.tools.indexer.SingleMailboxReindexingTaskAdditionalInformationDTO;
@@ -170,6 +172,11 @@ public class TaskSerializationModule extends AbstractModule {
         return TasksSerializationModule.UPDATED.create(jsonTaskSerializer, additionalInformationConverter, taskConverter);
     }
 
+    @ProvidesIntoSet
+    public TaskDTOModule<?, ?> blobGarbageCollectionTask(BlobGarbageCollectionTask.Factory factory) {
+        return BlobGarbageCollectionTaskDTO.module(factory);
+    }
+
     @ProvidesIntoSet
     public TaskDTOModule<?, ?> blobStoreVaultGarbageCollectionTask(BlobStoreVaultGarbageCollectionTask.Factory factory) {
         return BlobStoreVaultGarbageCollectionTaskDTO.module(factory);
@@ -236,8 +243,8 @@ public class TaskSerializationModule extends AbstractModule {
     }
 
     @ProvidesIntoSet
-    public TaskDTOModule<?, ?> fullReindexTask(ReIndexerPerformer performer) {
-        return FullReindexingTask.module(performer);
+    public TaskDTOModule<?, ?> fullReindexTask(FullReindexingTask.Factory factory) {
+        return FullReindexingTask.module(factory);
     }
 
     @ProvidesIntoSet
@@ -285,6 +292,11 @@ public class TaskSerializationModule extends AbstractModule {
         return UserReindexingTaskDTO.module(factory);
     }
 
+    @ProvidesIntoSet
+    public AdditionalInformationDTOModule<?, ?> blobGarbageCollectionAdditionalInformation() {
+        return BlobGarbageCollectionTaskAdditionalInformationDTO.MODULE;
+    }
+
     @ProvidesIntoSet
     public AdditionalInformationDTOModule<?, ?> blobStoreVaultGarbageCollectionAdditionalInformation() {
         return BlobStoreVaultGarbageCollectionTaskAdditionalInformationDTO.MODULE;
@@ -19,12 +19,26 @@
 
 package org.apache.james.modules.protocols;
 
+import java.io.FileNotFoundException;
+
+import javax.inject.Singleton;
+
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.protocols.lib.handler.ProtocolHandlerLoader;
+import org.apache.james.server.core.MimeMessageBufferPool;
+import org.apache.james.server.core.MimeMessageSpoolConfiguration;
 import org.apache.james.utils.GuiceProtocolHandlerLoader;
+import org.apache.james.utils.PropertiesProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
 
 public class ProtocolHandlerModule extends AbstractModule {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolHandlerModule.class);
+    private static final String SPOOL_CONFIGURATION_NAME = "spool";
 
     @Override
     protected void configure() {
@@ -32,4 +46,24 @@ public class ProtocolHandlerModule extends AbstractModule {
         bind(ProtocolHandlerLoader.class).to(GuiceProtocolHandlerLoader.class);
     }
 
-}
\ No newline at end of file
+    @Provides
+    @Singleton
+    MimeMessageBufferPool provideMimeMessageBufferPool(PropertiesProvider propertiesProvider, GaugeRegistry gaugeRegistry) throws ConfigurationException {
+        try {
+            return MimeMessageBufferPool.from(propertiesProvider.getConfiguration(SPOOL_CONFIGURATION_NAME), gaugeRegistry);
+        } catch (FileNotFoundException e) {
+            LOGGER.info("Could not find {} configuration file. Incoming messages buffer pool is disabled.", SPOOL_CONFIGURATION_NAME);
+            return new MimeMessageBufferPool(MimeMessageBufferPool.DISABLED_BUDGET, gaugeRegistry);
+        }
+    }
+
+    @Provides
+    @Singleton
+    MimeMessageSpoolConfiguration provideMimeMessageSpoolConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            return MimeMessageSpoolConfiguration.from(propertiesProvider.getConfiguration(SPOOL_CONFIGURATION_NAME));
+        } catch (FileNotFoundException e) {
+            return MimeMessageSpoolConfiguration.DEFAULT;
+        }
+    }
+}
@@ -71,6 +71,7 @@ import org.apache.james.vault.metadata.DeletedMessageMetadataVault;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
@@ -140,6 +141,13 @@ public class MemoryMailboxModule extends AbstractModule {
         bind(MailboxManagerConfiguration.class).toInstance(MailboxManagerConfiguration.DEFAULT);
     }
 
+    @Provides
+    @Singleton
+    public SimpleMessageSearchIndex provideSimpleMessageSearchIndex(InMemoryMailboxSessionMapperFactory mapperFactory, TextExtractor textExtractor) {
+        // In memory mappers are thread safe, hence mailboxes can be scanned in parallel
+        return new SimpleMessageSearchIndex(mapperFactory, mapperFactory, textExtractor, Runtime.getRuntime().availableProcessors());
+    }
+
     @Singleton
     private static class MemoryMailboxManagerDefinition extends MailboxManagerDefinition {
         @Inject
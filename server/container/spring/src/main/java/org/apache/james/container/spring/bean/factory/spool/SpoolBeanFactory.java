@@ -0,0 +1,77 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.container.spring.bean.factory.spool;
+
+import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.commons.configuration2.tree.ImmutableNode;
+import org.apache.james.container.spring.lifecycle.ConfigurationProvider;
+import org.apache.james.metrics.api.GaugeRegistry;
+import org.apache.james.server.core.MimeMessageBufferPool;
+import org.apache.james.server.core.MimeMessageSpoolConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Provides the spooling of incoming messages from the optional spool.xml file. Without it, the off-heap buffer pool
+ * is disabled and messages are spooled to a file above the default threshold, as on Guice.
+ */
+public class SpoolBeanFactory implements ResourceLoaderAware {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpoolBeanFactory.class);
+    private static final String SPOOL_CONFIGURATION_NAME = "spool";
+    private static final String SPOOL_CONFIGURATION_RESOURCE = "classpath:" + SPOOL_CONFIGURATION_NAME + ".xml";
+
+    private final ConfigurationProvider configurationProvider;
+    private ResourceLoader loader;
+
+    public SpoolBeanFactory(ConfigurationProvider configurationProvider) {
+        this.configurationProvider = configurationProvider;
+    }
+
+    @Override
+    public void setResourceLoader(ResourceLoader loader) {
+        this.loader = loader;
+    }
+
+    public MimeMessageBufferPool createMimeMessageBufferPool(GaugeRegistry gaugeRegistry) throws ConfigurationException {
+        if (!isConfigured()) {
+            LOGGER.info("Could not find {} configuration file. Incoming messages buffer pool is disabled.", SPOOL_CONFIGURATION_NAME);
+            return new MimeMessageBufferPool(MimeMessageBufferPool.DISABLED_BUDGET, gaugeRegistry);
+        }
+        return MimeMessageBufferPool.from(configuration(), gaugeRegistry);
+    }
+
+    public MimeMessageSpoolConfiguration createMimeMessageSpoolConfiguration() throws ConfigurationException {
+        if (!isConfigured()) {
+            return MimeMessageSpoolConfiguration.DEFAULT;
+        }
+        return MimeMessageSpoolConfiguration.from(configuration());
+    }
+
+    private boolean isConfigured() {
+        return loader.getResource(SPOOL_CONFIGURATION_RESOURCE).exists();
+    }
+
+    private HierarchicalConfiguration<ImmutableNode> configuration() throws ConfigurationException {
+        return configurationProvider.getConfiguration(SPOOL_CONFIGURATION_NAME);
+    }
+}
@@ -21,12 +21,17 @@ package org.apache.james.mailetcontainer.impl.camel;
 import java.io.Closeable;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
 
 import org.apache.james.mailetcontainer.impl.MailetConfigImpl;
 import org.apache.james.mailetcontainer.impl.ProcessorUtil;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
+import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.util.MDCBuilder;
 import org.apache.mailet.Mail;
 import org.apache.mailet.Mailet;
@@ -43,6 +48,9 @@ import com.google.common.collect.ImmutableList;
 public class CamelProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(CamelProcessor.class);
 
+    /** Counts, per processor, the shared messages a mailet had to copy because it modified them */
+    public static final String COPY_METRIC_NAME_PREFIX = "mailetContainer.copy.";
+
     private final MetricFactory metricFactory;
     private final Mailet mailet;
     private final CamelMailetProcessor processor;
@@ -59,6 +67,7 @@ public class CamelProcessor {
     public void process(Mail mail) throws Exception {
         long start = System.currentTimeMillis();
         TimeMetric timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
+        String state = mail.getState();
         Exception ex = null;
         try (Closeable closeable =
                  MDCBuilder.create()
@@ -72,7 +81,9 @@ public class CamelProcessor {
                      .addContext("sender", mail.getMaybeSender())
                      .build()) {
             MailetPipelineLogging.logBeginOfMailetProcess(mailet, mail);
+            Optional<MimeMessage> sharedMessage = sharedMessage(mail);
             mailet.service(mail);
+            recordCopy(state, mail, sharedMessage);
         } catch (Exception me) {
             ex = me;
             String onMailetException = null;
@@ -110,4 +121,19 @@ public class CamelProcessor {
         }
     }
 
+    private Optional<MimeMessage> sharedMessage(Mail mail) throws MessagingException {
+        MimeMessage message = mail.getMessage();
+        if (message instanceof MimeMessageCopyOnWriteProxy) {
+            return Optional.ofNullable(((MimeMessageCopyOnWriteProxy) message).getWrappedMessage());
+        }
+        return Optional.empty();
+    }
+
+    private void recordCopy(String state, Mail mail, Optional<MimeMessage> sharedMessageBefore) throws MessagingException {
+        Optional<MimeMessage> sharedMessageAfter = sharedMessage(mail);
+        if (sharedMessageBefore.isPresent() && sharedMessageAfter.isPresent()
+                && sharedMessageBefore.get() != sharedMessageAfter.get()) {
+            metricFactory.generate(COPY_METRIC_NAME_PREFIX + state).increment();
+        }
+    }
 }
@@ -60,6 +60,9 @@ public class MatcherSplitter {
     /** Headername which is used to indicate that the matcher matched */
     public static final AttributeName MATCHER_MATCHED_ATTRIBUTE = AttributeName.of("matched");
 
+    /** Counts, per processor, the mails split because a matcher matched only part of their recipients */
+    public static final String SPLIT_METRIC_NAME_PREFIX = "mailetContainer.split.";
+
     private final MetricFactory metricFactory;
     private final CamelMailetProcessor container;
     private final Matcher matcher;
@@ -150,7 +153,10 @@ public class MatcherSplitter {
                     fullMatch = true;
                 } else {
                     mail.setRecipients(rcpts);
+                    metricFactory.generate(SPLIT_METRIC_NAME_PREFIX + mail.getState()).increment();
 
+                    // The message and the immutable attribute values are shared with the
+                    // original until one of them gets modified
                     Mail newMail = MailImpl.duplicate(mail);
                     newMail.setRecipients(matchedRcpts);
 
@@ -0,0 +1,81 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailetcontainer.impl.camel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.server.core.MailImpl;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CamelProcessorTest {
+    private RecordingMetricFactory metricFactory;
+    private Mailet mailet;
+    private CamelProcessor testee;
+
+    @BeforeEach
+    void setUp() {
+        metricFactory = new RecordingMetricFactory();
+        mailet = mock(Mailet.class);
+        testee = new CamelProcessor(metricFactory, new CamelMailetProcessor(metricFactory), mailet);
+    }
+
+    private Mail mail() throws Exception {
+        return MailImpl.builder()
+            .name("mail")
+            .addRecipient("recipient@domain.tld")
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("subject")
+                .setText("body"))
+            .build();
+    }
+
+    @Test
+    void processShouldRecordCopiesOfSharedMessages() throws Exception {
+        Mail mail = mail();
+        Mail copy = MailImpl.duplicate(mail);
+        doAnswer(invocation -> {
+            invocation.<Mail>getArgument(0).getMessage().setSubject("changed");
+            return null;
+        }).when(mailet).service(any());
+
+        testee.process(copy);
+
+        assertThat(metricFactory.countFor(CamelProcessor.COPY_METRIC_NAME_PREFIX + Mail.DEFAULT)).isEqualTo(1);
+        assertThat(mail.getMessage().getSubject()).isEqualTo("subject");
+    }
+
+    @Test
+    void processShouldNotRecordCopiesWhenMessageIsOnlyRead() throws Exception {
+        Mail copy = MailImpl.duplicate(mail());
+        doAnswer(invocation -> invocation.<Mail>getArgument(0).getMessage().getSubject())
+            .when(mailet).service(any());
+
+        testee.process(copy);
+
+        assertThat(metricFactory.countFor(CamelProcessor.COPY_METRIC_NAME_PREFIX + Mail.DEFAULT)).isZero();
+    }
+}
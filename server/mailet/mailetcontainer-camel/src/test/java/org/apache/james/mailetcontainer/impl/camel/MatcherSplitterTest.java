@@ -0,0 +1,103 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.mailetcontainer.impl.camel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.server.core.MailImpl;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.Matcher;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+class MatcherSplitterTest {
+    private static final String STATE = "transport";
+
+    private RecordingMetricFactory metricFactory;
+    private Matcher matcher;
+    private MatcherSplitter testee;
+    private MailAddress recipient1;
+    private MailAddress recipient2;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        metricFactory = new RecordingMetricFactory();
+        matcher = mock(Matcher.class);
+        Mailet mailet = mock(Mailet.class);
+        when(mailet.getMailetConfig()).thenReturn(FakeMailetConfig.builder().mailetName("mailet").build());
+        testee = new MatcherSplitter(metricFactory, new CamelMailetProcessor(metricFactory), new MatcherMailetPair(matcher, mailet));
+        recipient1 = new MailAddress("recipient1@domain.tld");
+        recipient2 = new MailAddress("recipient2@domain.tld");
+    }
+
+    private Mail mail() throws Exception {
+        return MailImpl.builder()
+            .name("mail")
+            .state(STATE)
+            .addRecipients(recipient1, recipient2)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("subject")
+                .setText("body"))
+            .build();
+    }
+
+    @Test
+    void splitShouldDivergeRecipientsOnPartialMatch() throws Exception {
+        Mail mail = mail();
+        when(matcher.match(any())).thenReturn(ImmutableList.of(recipient1));
+
+        List<Mail> mails = testee.split(mail);
+
+        assertThat(mails).hasSize(2);
+        assertThat(mails.get(0).getRecipients()).containsOnly(recipient1);
+        assertThat(mails.get(1).getRecipients()).containsOnly(recipient2);
+    }
+
+    @Test
+    void splitShouldRecordPartialMatches() throws Exception {
+        when(matcher.match(any())).thenReturn(ImmutableList.of(recipient1));
+
+        testee.split(mail());
+
+        assertThat(metricFactory.countFor(MatcherSplitter.SPLIT_METRIC_NAME_PREFIX + STATE)).isEqualTo(1);
+    }
+
+    @Test
+    void splitShouldNotRecordFullMatches() throws Exception {
+        when(matcher.match(any())).thenReturn(ImmutableList.of(recipient1, recipient2));
+
+        List<Mail> mails = testee.split(mail());
+
+        assertThat(mails).hasSize(1);
+        assertThat(metricFactory.countFor(MatcherSplitter.SPLIT_METRIC_NAME_PREFIX + STATE)).isZero();
+    }
+}
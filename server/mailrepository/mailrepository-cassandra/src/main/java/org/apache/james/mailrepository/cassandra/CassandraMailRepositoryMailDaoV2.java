@@ -80,6 +80,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepositoryMailDaoAPI {
@@ -88,6 +89,7 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
     private final PreparedStatement insertMail;
     private final PreparedStatement deleteMail;
     private final PreparedStatement selectMail;
+    private final PreparedStatement listBlobs;
     private final BlobId.Factory blobIdFactory;
     private final TupleType userHeaderNameHeaderValueTriple;
 
@@ -99,10 +101,17 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
         this.insertMail = prepareInsert(session);
         this.deleteMail = prepareDelete(session);
         this.selectMail = prepareSelect(session);
+        this.listBlobs = prepareListBlobs(session);
         this.blobIdFactory = blobIdFactory;
         this.userHeaderNameHeaderValueTriple = session.getCluster().getMetadata().newTupleType(text(), text(), text());
     }
 
+    private PreparedStatement prepareListBlobs(Session session) {
+        return session.prepare(
+            select(HEADER_BLOB_ID, BODY_BLOB_ID)
+                .from(CONTENT_TABLE_NAME));
+    }
+
     private PreparedStatement prepareDelete(Session session) {
         return session.prepare(delete()
             .from(CONTENT_TABLE_NAME)
@@ -177,6 +186,14 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
             .map(rowOptional -> rowOptional.map(this::toMail));
     }
 
+    @Override
+    public Flux<BlobId> listBlobs() {
+        return executor.executeRows(listBlobs.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobIdFactory.from(row.getString(HEADER_BLOB_ID)),
+                blobIdFactory.from(row.getString(BODY_BLOB_ID))));
+    }
+
     private MailDTO toMail(Row row) {
         MaybeSender sender = MaybeSender.getMailSender(row.getString(SENDER));
         List<MailAddress> recipients = row.getList(RECIPIENTS, String.class)
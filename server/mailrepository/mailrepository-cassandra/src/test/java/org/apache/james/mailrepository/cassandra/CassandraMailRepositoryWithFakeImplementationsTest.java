@@ -53,6 +53,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
@@ -155,6 +156,11 @@ class CassandraMailRepositoryWithFakeImplementationsTest {
             public Mono<Optional<CassandraMailRepositoryMailDAO.MailDTO>> read(MailRepositoryUrl url, MailKey key) {
                 return Mono.error(new RuntimeException("Expected failure while reading mail parts"));
             }
+
+            @Override
+            public Flux<BlobId> listBlobs() {
+                return Flux.error(new RuntimeException("Expected failure while listing mail parts"));
+            }
         }
 
         @Test
@@ -27,7 +27,9 @@ import org.apache.james.protocols.smtp.SMTPRetCode;
 import org.apache.james.protocols.smtp.SMTPSession;
 import org.apache.james.protocols.smtp.core.DataCmdHandler;
 import org.apache.james.server.core.MailImpl;
+import org.apache.james.server.core.MimeMessageBufferPool;
 import org.apache.james.server.core.MimeMessageInputStreamSource;
+import org.apache.james.server.core.MimeMessageSpoolConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,9 +39,14 @@ import org.slf4j.LoggerFactory;
 public class JamesDataCmdHandler extends DataCmdHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(JamesDataCmdHandler.class);
 
+    private final MimeMessageBufferPool bufferPool;
+    private final MimeMessageSpoolConfiguration spoolConfiguration;
+
     @Inject
-    public JamesDataCmdHandler(MetricFactory metricFactory) {
+    public JamesDataCmdHandler(MetricFactory metricFactory, MimeMessageBufferPool bufferPool, MimeMessageSpoolConfiguration spoolConfiguration) {
         super(metricFactory);
+        this.bufferPool = bufferPool;
+        this.spoolConfiguration = spoolConfiguration;
     }
 
     /**
@@ -52,7 +59,7 @@ public class JamesDataCmdHandler extends DataCmdHandler {
     @Override
     protected SMTPResponse doDATA(SMTPSession session, String argument) {
         try {
-            MimeMessageInputStreamSource mmiss = new MimeMessageInputStreamSource(MailImpl.getId());
+            MimeMessageInputStreamSource mmiss = new MimeMessageInputStreamSource(MailImpl.getId(), bufferPool, spoolConfiguration);
             session.setAttachment(SMTPConstants.DATA_MIMEMESSAGE_STREAMSOURCE, mmiss, State.Transaction);
         } catch (Exception e) {
             LOGGER.warn("Error creating mimemessagesource for incoming data", e);
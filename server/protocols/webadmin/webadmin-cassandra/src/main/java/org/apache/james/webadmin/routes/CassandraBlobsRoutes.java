@@ -0,0 +1,154 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.blob.cassandra.gc.BlobGarbageCollectionTask;
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskManager;
+import org.apache.james.util.DurationParser;
+import org.apache.james.webadmin.Constants;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.tasks.TaskFromRequestRegistry;
+import org.apache.james.webadmin.tasks.TaskIdDto;
+import org.apache.james.webadmin.tasks.TaskRegistrationKey;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import spark.Request;
+import spark.Route;
+import spark.Service;
+
+@Api(tags = "Cassandra blobs operations")
+@Path(CassandraBlobsRoutes.ROOT_PATH)
+@Produces(Constants.JSON_CONTENT_TYPE)
+public class CassandraBlobsRoutes implements Routes {
+    public static final String ROOT_PATH = "cassandra/blobs";
+    private static final TaskRegistrationKey GARBAGE_COLLECT = TaskRegistrationKey.of("GarbageCollect");
+    private static final String GRACE_PERIOD_PARAM = "gracePeriod";
+    private static final String EXPECTED_BLOB_COUNT_PARAM = "expectedBlobCount";
+
+    private final BlobGarbageCollectionTask.Factory garbageCollectionTaskFactory;
+    private final TaskManager taskManager;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    CassandraBlobsRoutes(BlobGarbageCollectionTask.Factory garbageCollectionTaskFactory, TaskManager taskManager, JsonTransformer jsonTransformer) {
+        this.garbageCollectionTaskFactory = garbageCollectionTaskFactory;
+        this.taskManager = taskManager;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public String getBasePath() {
+        return ROOT_PATH;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.post(ROOT_PATH, performActionOnBlobs(), jsonTransformer);
+    }
+
+    @POST
+    @Path(ROOT_PATH)
+    @ApiOperation(value = "Performing operations on the blobs stored in the Cassandra default bucket")
+    @ApiImplicitParams({
+        @ApiImplicitParam(
+            required = true,
+            dataType = "String",
+            name = "action",
+            paramType = "query",
+            example = "?action=GarbageCollect",
+            value = "Specify the action to perform on blobs. For now only 'GarbageCollect' is supported as an action, "
+                + "and its purpose is to delete the blobs no longer referenced by the mailbox, the mail queue nor the mail repositories."),
+        @ApiImplicitParam(
+            dataType = "String",
+            name = GRACE_PERIOD_PARAM,
+            paramType = "query",
+            example = "?gracePeriod=2d",
+            value = "Blobs written more recently than this period are kept. Defaults to 1 day, unit defaults to seconds."),
+        @ApiImplicitParam(
+            dataType = "Long",
+            name = EXPECTED_BLOB_COUNT_PARAM,
+            paramType = "query",
+            example = "?expectedBlobCount=1000000",
+            value = "Expected count of referenced blobs, used to size the bloom filter holding them. Defaults to 1000000.")
+    })
+    @ApiResponses(value = {
+        @ApiResponse(code = HttpStatus.CREATED_201, message = "The taskId of the given scheduled task", response = TaskIdDto.class,
+            responseHeaders = {
+                @ResponseHeader(name = "Location", description = "URL of the resource associated with the scheduled task")
+            }),
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Invalid action or parameters")
+    })
+    public Route performActionOnBlobs() {
+        return TaskFromRequestRegistry.of(GARBAGE_COLLECT, this::garbageCollect)
+            .asRoute(taskManager);
+    }
+
+    private Task garbageCollect(Request request) {
+        Duration gracePeriod = Optional.ofNullable(request.queryParams(GRACE_PERIOD_PARAM))
+            .map(rawString -> DurationParser.parse(rawString, ChronoUnit.SECONDS))
+            .orElse(BlobGarbageCollectionTask.DEFAULT_GRACE_PERIOD);
+        long expectedBlobCount = Optional.ofNullable(request.queryParams(EXPECTED_BLOB_COUNT_PARAM))
+            .map(this::parseExpectedBlobCount)
+            .orElse(BlobGarbageCollectionTask.DEFAULT_EXPECTED_BLOB_COUNT);
+
+        return garbageCollectionTaskFactory.create(gracePeriod, expectedBlobCount);
+    }
+
+    private long parseExpectedBlobCount(String rawString) {
+        try {
+            long expectedBlobCount = Long.parseLong(rawString);
+            if (expectedBlobCount <= 0) {
+                throw invalidExpectedBlobCount(rawString)
+                    .haltError();
+            }
+            return expectedBlobCount;
+        } catch (NumberFormatException e) {
+            throw invalidExpectedBlobCount(rawString)
+                .cause(e)
+                .haltError();
+        }
+    }
+
+    private ErrorResponder invalidExpectedBlobCount(String rawString) {
+        return ErrorResponder.builder()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+            .message("'%s' needs to be a strictly positive long, got '%s'", EXPECTED_BLOB_COUNT_PARAM, rawString);
+    }
+}
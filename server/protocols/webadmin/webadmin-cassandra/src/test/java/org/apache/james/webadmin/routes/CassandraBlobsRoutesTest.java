@@ -0,0 +1,110 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import org.apache.james.blob.cassandra.gc.BlobGarbageCollectionTask;
+import org.apache.james.task.Hostname;
+import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.restassured.RestAssured;
+
+class CassandraBlobsRoutesTest {
+    private WebAdminServer webAdminServer;
+    private MemoryTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        taskManager = new MemoryTaskManager(new Hostname("foo"));
+        JsonTransformer jsonTransformer = new JsonTransformer();
+        webAdminServer = WebAdminUtils.createWebAdminServer(
+                new CassandraBlobsRoutes(mock(BlobGarbageCollectionTask.Factory.class), taskManager, jsonTransformer),
+                new TasksRoutes(taskManager, jsonTransformer))
+            .start();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .setBasePath(CassandraBlobsRoutes.ROOT_PATH)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webAdminServer.destroy();
+        taskManager.stop();
+    }
+
+    @Test
+    void garbageCollectShouldRejectUnparsableExpectedBlobCount() {
+        given()
+            .queryParam("action", "GarbageCollect")
+            .queryParam("expectedBlobCount", "invalid")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("statusCode", is(HttpStatus.BAD_REQUEST_400))
+            .body("type", is("InvalidArgument"));
+    }
+
+    @Test
+    void garbageCollectShouldRejectZeroExpectedBlobCount() {
+        given()
+            .queryParam("action", "GarbageCollect")
+            .queryParam("expectedBlobCount", "0")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("type", is("InvalidArgument"));
+    }
+
+    @Test
+    void garbageCollectShouldRejectNegativeExpectedBlobCount() {
+        given()
+            .queryParam("action", "GarbageCollect")
+            .queryParam("expectedBlobCount", "-1")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400)
+            .body("type", is("InvalidArgument"));
+    }
+
+    @Test
+    void garbageCollectShouldAcceptPositiveExpectedBlobCount() {
+        given()
+            .queryParam("action", "GarbageCollect")
+            .queryParam("expectedBlobCount", "1000")
+        .when()
+            .post()
+        .then()
+            .statusCode(HttpStatus.CREATED_201);
+    }
+}
@@ -33,6 +33,8 @@ import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.exception.MailboxNotFoundException;
 import org.apache.james.mailbox.indexer.IndexingDetailInformation;
 import org.apache.james.mailbox.indexer.ReIndexer;
+import org.apache.james.mailbox.indexer.ReIndexer.RunningOptions;
+import org.apache.james.mailbox.indexer.ResumableIndexingDetailInformation;
 import org.apache.james.mailbox.model.MailboxId;
 import org.apache.james.task.Task;
 import org.apache.james.task.TaskId;
@@ -47,6 +49,7 @@ import org.apache.james.webadmin.tasks.TaskIdDto;
 import org.apache.james.webadmin.tasks.TaskRegistrationKey;
 import org.apache.james.webadmin.utils.ErrorResponder;
 import org.apache.james.webadmin.utils.JsonTransformer;
+import org.apache.james.webadmin.utils.ParametersExtractor;
 import org.eclipse.jetty.http.HttpStatus;
 
 import com.google.common.base.Strings;
@@ -90,7 +93,43 @@ public class MailboxesRoutes implements Routes {
                 defaultValue = "none",
                 example = "?reIndexFailedMessagesOf=3294a976-ce63-491e-bd52-1b6f465ed7a2",
                 value = "optional. References a previously run reIndexing task. if present, the messages that this previous " +
-                    "task failed to index will be reIndexed.")
+                    "task failed to index will be reIndexed."),
+            @ApiImplicitParam(
+                name = "resumeReIndexingOf",
+                paramType = "query parameter",
+                dataType = "String",
+                defaultValue = "none",
+                example = "?resumeReIndexingOf=3294a976-ce63-491e-bd52-1b6f465ed7a2",
+                value = "optional. References a previous full reIndexing task, for instance interrupted by a restart. if present, " +
+                    "the mailboxes that this previous task fully reIndexed are skipped. Can not be combined with reIndexFailedMessagesOf."),
+            @ApiImplicitParam(
+                name = "mailboxConcurrency",
+                paramType = "query parameter",
+                dataType = "Integer",
+                defaultValue = "1",
+                example = "?mailboxConcurrency=4",
+                value = "optional. Count of mailboxes reIndexed concurrently."),
+            @ApiImplicitParam(
+                name = "messageConcurrency",
+                paramType = "query parameter",
+                dataType = "Integer",
+                defaultValue = "1",
+                example = "?messageConcurrency=4",
+                value = "optional. Count of message batches of a given mailbox reIndexed concurrently."),
+            @ApiImplicitParam(
+                name = "batchSize",
+                paramType = "query parameter",
+                dataType = "Integer",
+                defaultValue = "1",
+                example = "?batchSize=100",
+                value = "optional. Count of messages read and written to the search index at once."),
+            @ApiImplicitParam(
+                name = "messagesPerSecond",
+                paramType = "query parameter",
+                dataType = "Integer",
+                defaultValue = "none",
+                example = "?messagesPerSecond=200",
+                value = "optional. Maximum count of messages reIndexed per second. Unthrottled when omitted.")
         })
         @ApiResponses(value = {
             @ApiResponse(code = HttpStatus.CREATED_201, message = "Task is created", response = TaskIdDto.class),
@@ -99,15 +138,58 @@ public class MailboxesRoutes implements Routes {
         })
         private static Task reIndexAll(PreviousReIndexingService previousReIndexingService, ReIndexer reIndexer, Request request) throws MailboxException {
             boolean indexingCorrection = !Strings.isNullOrEmpty(request.queryParams(RE_INDEX_FAILED_MESSAGES_QUERY_PARAM));
+            boolean indexingResumption = !Strings.isNullOrEmpty(request.queryParams(RESUME_RE_INDEXING_QUERY_PARAM));
+            if (indexingCorrection && indexingResumption) {
+                throw ErrorResponder.builder()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                    .message("'%s' and '%s' can not be combined", RE_INDEX_FAILED_MESSAGES_QUERY_PARAM, RESUME_RE_INDEXING_QUERY_PARAM)
+                    .haltError();
+            }
             if (indexingCorrection) {
                 IndexingDetailInformation indexingDetailInformation = retrieveIndexingExecutionDetails(previousReIndexingService, request);
                 return reIndexer.reIndex(indexingDetailInformation.failures());
             }
-            return reIndexer.reIndex();
+            RunningOptions runningOptions = extractRunningOptions(request);
+            if (indexingResumption) {
+                Set<MailboxId> completedMailboxes = retrieveResumableIndexingDetails(previousReIndexingService, request).completedMailboxes();
+                return reIndexer.resumeReIndex(completedMailboxes, runningOptions);
+            }
+            return reIndexer.reIndex(runningOptions);
+        }
+
+        private static RunningOptions extractRunningOptions(Request request) {
+            return RunningOptions.builder()
+                .mailboxConcurrency(ParametersExtractor.extractPositiveInteger(request, MAILBOX_CONCURRENCY_QUERY_PARAM))
+                .messageConcurrency(ParametersExtractor.extractPositiveInteger(request, MESSAGE_CONCURRENCY_QUERY_PARAM))
+                .batchSize(ParametersExtractor.extractPositiveInteger(request, BATCH_SIZE_QUERY_PARAM))
+                .messagesPerSecond(ParametersExtractor.extractPositiveInteger(request, MESSAGES_PER_SECOND_QUERY_PARAM))
+                .build();
+        }
+
+        private static ResumableIndexingDetailInformation retrieveResumableIndexingDetails(PreviousReIndexingService previousReIndexingService, Request request) {
+            TaskId taskId = getTaskId(request, RESUME_RE_INDEXING_QUERY_PARAM);
+            try {
+                return previousReIndexingService.retrieveResumableIndexingDetails(taskId);
+            } catch (PreviousReIndexingService.NotAResumableIndexingTask e) {
+                throw ErrorResponder.builder()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                    .message("Invalid task id")
+                    .cause(e)
+                    .haltError();
+            } catch (TaskNotFoundException e) {
+                throw ErrorResponder.builder()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                    .message("TaskId %s does not exist", taskId.asString())
+                    .cause(e)
+                    .haltError();
+            }
         }
 
         private static IndexingDetailInformation retrieveIndexingExecutionDetails(PreviousReIndexingService previousReIndexingService, Request request) {
-            TaskId taskId = getTaskId(request);
+            TaskId taskId = getTaskId(request, RE_INDEX_FAILED_MESSAGES_QUERY_PARAM);
             try {
                 return previousReIndexingService.retrieveIndexingExecutionDetails(taskId);
             } catch (PreviousReIndexingService.NotAnIndexingRetriableTask | PreviousReIndexingService.TaskNotYetFinishedException e) {
@@ -127,9 +209,9 @@ public class MailboxesRoutes implements Routes {
             }
         }
 
-        private static TaskId getTaskId(Request request) {
+        private static TaskId getTaskId(Request request, String queryParameter) {
             try {
-                String id = request.queryParams(RE_INDEX_FAILED_MESSAGES_QUERY_PARAM);
+                String id = request.queryParams(queryParameter);
                 return TaskId.fromString(id);
             } catch (Exception e) {
                 throw ErrorResponder.builder()
@@ -269,6 +351,11 @@ public class MailboxesRoutes implements Routes {
 
     private static final String BASE_PATH = "/mailboxes";
     private static final String RE_INDEX_FAILED_MESSAGES_QUERY_PARAM = "reIndexFailedMessagesOf";
+    private static final String RESUME_RE_INDEXING_QUERY_PARAM = "resumeReIndexingOf";
+    private static final String MAILBOX_CONCURRENCY_QUERY_PARAM = "mailboxConcurrency";
+    private static final String MESSAGE_CONCURRENCY_QUERY_PARAM = "messageConcurrency";
+    private static final String BATCH_SIZE_QUERY_PARAM = "batchSize";
+    private static final String MESSAGES_PER_SECOND_QUERY_PARAM = "messagesPerSecond";
     private static final String MAILBOX_PARAM = ":mailbox";
     private static final String UID_PARAM = ":uid";
     private static final String MAILBOX_PATH = BASE_PATH + "/" + MAILBOX_PARAM;
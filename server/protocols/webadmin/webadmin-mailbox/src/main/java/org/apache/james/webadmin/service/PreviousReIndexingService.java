@@ -22,6 +22,7 @@ package org.apache.james.webadmin.service;
 import javax.inject.Inject;
 
 import org.apache.james.mailbox.indexer.IndexingDetailInformation;
+import org.apache.james.mailbox.indexer.ResumableIndexingDetailInformation;
 import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskId;
 import org.apache.james.task.TaskManager;
@@ -41,6 +42,12 @@ public class PreviousReIndexingService {
         }
     }
 
+    public static class NotAResumableIndexingTask extends RuntimeException {
+        NotAResumableIndexingTask(TaskType type) {
+            super("'" + type.asString() + "' is not a valid type of task for resuming an indexing");
+        }
+    }
+
     private final TaskManager taskManager;
 
     @Inject
@@ -58,4 +65,15 @@ public class PreviousReIndexingService {
             .map(additionalInformation -> (IndexingDetailInformation) additionalInformation)
             .orElseThrow(() -> new NotAnIndexingRetriableTask(executionDetails.getType()));
     }
+
+    /**
+     * The task does not need to be finished: a full re-indexing interrupted by a node restart never completes.
+     */
+    public ResumableIndexingDetailInformation retrieveResumableIndexingDetails(TaskId taskId) throws NotAResumableIndexingTask, TaskNotFoundException {
+        TaskExecutionDetails executionDetails = taskManager.getExecutionDetails(taskId);
+        return executionDetails.getAdditionalInformation()
+            .filter(additionalInformation -> additionalInformation instanceof ResumableIndexingDetailInformation)
+            .map(additionalInformation -> (ResumableIndexingDetailInformation) additionalInformation)
+            .orElseThrow(() -> new NotAResumableIndexingTask(executionDetails.getType()));
+    }
 }
@@ -23,9 +23,11 @@ import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
 import static io.restassured.RestAssured.with;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -145,6 +147,122 @@ class MailboxesRoutesTest {
                     .body("message", is("Invalid arguments supplied in the user request"))
                     .body("details", is("Invalid value supplied for query parameter 'task': bad. Supported values are [reIndex]"));
             }
+
+            @Test
+            void fullReprocessingShouldFailWithNonNumericBatchSize() {
+                when()
+                    .post("/mailboxes?task=reIndex&batchSize=abc")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Can not parse batchSize"));
+            }
+
+            @Test
+            void fullReprocessingShouldFailWithNegativeMailboxConcurrency() {
+                when()
+                    .post("/mailboxes?task=reIndex&mailboxConcurrency=-1")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("mailboxConcurrency can not be negative"));
+            }
+
+            @Test
+            void fullReprocessingShouldFailWithZeroMessageConcurrency() {
+                when()
+                    .post("/mailboxes?task=reIndex&messageConcurrency=0")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid arguments supplied in the user request"))
+                    .body("details", is("'messageConcurrency' needs to be strictly positive"));
+            }
+
+            @Test
+            void fullReprocessingShouldFailWithZeroMessagesPerSecond() {
+                when()
+                    .post("/mailboxes?task=reIndex&messagesPerSecond=0")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid arguments supplied in the user request"))
+                    .body("details", is("'messagesPerSecond' needs to be strictly positive"));
+            }
+
+            @Test
+            void resumingReprocessingShouldFailWithInvalidTaskId() {
+                when()
+                    .post("/mailboxes?task=reIndex&resumeReIndexingOf=invalid")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid task id"));
+            }
+
+            @Test
+            void resumingReprocessingShouldRejectNotExistingTask() {
+                String taskId = "bbdb69c9-082a-44b0-a85a-6e33e74287a5";
+
+                when()
+                    .post("/mailboxes?task=reIndex&resumeReIndexingOf=" + taskId)
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("TaskId " + taskId + " does not exist"));
+            }
+
+            @Test
+            void resumingReprocessingShouldRejectTasksThatAreNotFullReprocessing() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                MailboxId mailboxId = mailboxManager.createMailbox(INBOX, systemSession).get();
+
+                String taskId = with()
+                    .post("/mailboxes/" + mailboxId.serialize() + "?task=reIndex")
+                    .jsonPath()
+                    .get("taskId");
+
+                with()
+                    .basePath(TasksRoutes.BASE)
+                    .get(taskId + "/await");
+
+                when()
+                    .post("/mailboxes?task=reIndex&resumeReIndexingOf=" + taskId)
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("Invalid task id"));
+            }
+
+            @Test
+            void resumingReprocessingShouldNotBeCombinedWithFixingReIndexing() {
+                String taskId = with()
+                    .post("/mailboxes?task=reIndex")
+                    .jsonPath()
+                    .get("taskId");
+
+                with()
+                    .basePath(TasksRoutes.BASE)
+                    .get(taskId + "/await");
+
+                given()
+                    .queryParam("reIndexFailedMessagesOf", taskId)
+                    .queryParam("resumeReIndexingOf", taskId)
+                .when()
+                    .post("/mailboxes?task=reIndex")
+                .then()
+                    .statusCode(HttpStatus.BAD_REQUEST_400)
+                    .body("statusCode", is(400))
+                    .body("type", is(ErrorResponder.ErrorType.INVALID_ARGUMENT.getType()))
+                    .body("message", is("'reIndexFailedMessagesOf' and 'resumeReIndexingOf' can not be combined"));
+            }
         }
 
         @Nested
@@ -233,10 +351,125 @@ class MailboxesRoutesTest {
                     .body("startedDate", is(notNullValue()))
                     .body("submitDate", is(notNullValue()));
             }
+
+            @Test
+            void fullReprocessingShouldReturnTaskDetailsWhenRunningOptions() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                mailboxManager.createMailbox(INBOX, systemSession).get();
+                MessageManager inbox = mailboxManager.getMailbox(INBOX, systemSession);
+                inbox.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+                inbox.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+                inbox.appendMessage(MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"), systemSession);
+
+                String taskId = given()
+                    .queryParam("task", "reIndex")
+                    .queryParam("mailboxConcurrency", 2)
+                    .queryParam("messageConcurrency", 2)
+                    .queryParam("batchSize", 2)
+                    .queryParam("messagesPerSecond", 100)
+                .when()
+                    .post("/mailboxes")
+                    .jsonPath()
+                    .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(taskId + "/await")
+                .then()
+                    .body("status", is("completed"))
+                    .body("type", is(FullReindexingTask.FULL_RE_INDEXING.asString()))
+                    .body("additionalInformation.successfullyReprocessedMailCount", is(3))
+                    .body("additionalInformation.failedReprocessedMailCount", is(0));
+            }
+
+            @Test
+            void resumingReprocessingShouldReturnTaskDetails() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                MailboxId mailboxId = mailboxManager.createMailbox(INBOX, systemSession).get();
+                mailboxManager.getMailbox(INBOX, systemSession)
+                    .appendMessage(
+                        MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+                        systemSession);
+
+                String taskId = with()
+                    .post("/mailboxes?task=reIndex")
+                    .jsonPath()
+                    .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(taskId + "/await")
+                .then()
+                    .body("additionalInformation.completedMailboxes", contains(mailboxId.serialize()));
+
+                String resumingTaskId = with()
+                    .post("/mailboxes?task=reIndex&resumeReIndexingOf=" + taskId)
+                    .jsonPath()
+                    .get("taskId");
+
+                given()
+                    .basePath(TasksRoutes.BASE)
+                .when()
+                    .get(resumingTaskId + "/await")
+                .then()
+                    .body("status", is("completed"))
+                    .body("type", is(FullReindexingTask.FULL_RE_INDEXING.asString()))
+                    .body("additionalInformation.successfullyReprocessedMailCount", is(0))
+                    .body("additionalInformation.failedReprocessedMailCount", is(0))
+                    .body("additionalInformation.completedMailboxes", contains(mailboxId.serialize()));
+            }
         }
 
         @Nested
         class SideEffects {
+            @Test
+            void resumingReprocessingShouldSkipCompletedMailboxes() throws Exception {
+                MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
+                mailboxManager.createMailbox(INBOX, systemSession).get();
+                mailboxManager.getMailbox(INBOX, systemSession)
+                    .appendMessage(
+                        MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+                        systemSession);
+
+                String taskId = with()
+                    .post("/mailboxes?task=reIndex")
+                    .jsonPath()
+                    .get("taskId");
+
+                with()
+                    .basePath(TasksRoutes.BASE)
+                    .get(taskId + "/await");
+
+                MailboxPath otherPath = MailboxPath.forUser(USERNAME, "other");
+                MailboxId otherId = mailboxManager.createMailbox(otherPath, systemSession).get();
+                ComposedMessageId otherMessage = mailboxManager.getMailbox(otherPath, systemSession)
+                    .appendMessage(
+                        MessageManager.AppendCommand.builder().build("header: value\r\n\r\nbody"),
+                        systemSession);
+                reset(searchIndex);
+
+                String resumingTaskId = with()
+                    .post("/mailboxes?task=reIndex&resumeReIndexingOf=" + taskId)
+                    .jsonPath()
+                    .get("taskId");
+
+                with()
+                    .basePath(TasksRoutes.BASE)
+                    .get(resumingTaskId + "/await")
+                    .then()
+                    .body("status", is("completed"));
+
+                ArgumentCaptor<MailboxMessage> messageCaptor = ArgumentCaptor.forClass(MailboxMessage.class);
+                verify(searchIndex).deleteAll(any(MailboxSession.class), eq(otherId));
+                verify(searchIndex).add(any(MailboxSession.class), any(Mailbox.class), messageCaptor.capture());
+                verifyNoMoreInteractions(searchIndex);
+
+                assertThat(messageCaptor.getValue()).matches(message -> message.getMailboxId().equals(otherId)
+                    && message.getUid().equals(otherMessage.getUid()));
+            }
+
             @Test
             void fullReprocessingShouldPerformReprocessingWhenMail() throws Exception {
                 MailboxSession systemSession = mailboxManager.createSystemSession(USERNAME);
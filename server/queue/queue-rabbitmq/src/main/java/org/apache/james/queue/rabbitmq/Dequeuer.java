@@ -22,6 +22,9 @@ package org.apache.james.queue.rabbitmq;
 import static org.apache.james.queue.api.MailQueue.DEQUEUED_METRIC_NAME_PREFIX;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -29,11 +32,13 @@ import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
 import org.apache.james.queue.rabbitmq.view.api.DeleteCondition;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.mailet.Mail;
 
 import com.github.fge.lambdas.consumers.ThrowingConsumer;
+import com.github.steveash.guavate.Guavate;
 import com.rabbitmq.client.Delivery;
 
 import reactor.core.publisher.Flux;
@@ -43,7 +48,7 @@ import reactor.rabbitmq.ConsumeOptions;
 
 class Dequeuer {
     private static final boolean REQUEUE = true;
-    private static final int EXECUTION_RATE = 5;
+    private static final Duration PRESENCE_CHECK_BATCH_WINDOW = Duration.ofMillis(10);
     private final Flux<AcknowledgableDelivery> flux;
 
     private static class RabbitMQMailQueueItem implements MailQueue.MailQueueItem {
@@ -72,49 +77,53 @@ class Dequeuer {
         }
     }
 
-    private final Function<MailReferenceDTO, MailWithEnqueueId> mailLoader;
+    private final Function<MailReferenceDTO, Mono<MailWithEnqueueId>> mailLoader;
     private final Metric dequeueMetric;
     private final MailReferenceSerializer mailReferenceSerializer;
     private final MailQueueView mailQueueView;
+    private final int concurrency;
 
-    Dequeuer(MailQueueName name, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, Function<MailReferenceDTO, MailWithEnqueueId> mailLoader,
+    Dequeuer(MailQueueName name, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, Function<MailReferenceDTO, Mono<MailWithEnqueueId>> mailLoader,
              MailReferenceSerializer serializer, MetricFactory metricFactory,
-             MailQueueView mailQueueView) {
+             MailQueueView mailQueueView, RabbitMQMailQueueConfiguration configuration) {
         this.mailLoader = mailLoader;
+        this.concurrency = configuration.getDequeueConcurrency();
         this.mailReferenceSerializer = serializer;
         this.mailQueueView = mailQueueView;
         this.dequeueMetric = metricFactory.generate(DEQUEUED_METRIC_NAME_PREFIX + name.asString());
         this.flux = reactorRabbitMQChannelPool.createReceiver()
-            .consumeManualAck(name.toWorkQueueName().asString(), new ConsumeOptions().qos(EXECUTION_RATE))
+            .consumeManualAck(name.toWorkQueueName().asString(), new ConsumeOptions().qos(configuration.getDequeuePrefetch()))
             .filter(getResponse -> getResponse.getBody() != null);
     }
 
     Flux<? extends MailQueue.MailQueueItem> deQueue() {
-        return flux.concatMap(this::loadItem)
+        // Unacknowledged deliveries are bounded by the prefetch, so buffering presence check batches is safe
+        return flux.flatMapSequential(this::loadItem, concurrency)
+            .bufferTimeout(concurrency, PRESENCE_CHECK_BATCH_WINDOW)
+            .onBackpressureBuffer()
             .concatMap(this::filterIfDeleted);
     }
 
-    private Mono<RabbitMQMailQueueItem> filterIfDeleted(RabbitMQMailQueueItem item) {
-        return mailQueueView.isPresent(item.getEnqueueId())
-            .flatMap(isPresent -> keepWhenPresent(item, isPresent));
+    private Flux<RabbitMQMailQueueItem> filterIfDeleted(List<RabbitMQMailQueueItem> items) {
+        return mailQueueView.retainPresent(items.stream()
+                .map(RabbitMQMailQueueItem::getEnqueueId)
+                .collect(Guavate.toImmutableList()))
+            .flatMapMany(presentIds -> Flux.fromIterable(items)
+                .filter(item -> keepWhenPresent(item, presentIds)));
     }
 
-    private Mono<? extends RabbitMQMailQueueItem> keepWhenPresent(RabbitMQMailQueueItem item, Boolean isPresent) {
-        if (isPresent) {
-            return Mono.just(item);
+    private boolean keepWhenPresent(RabbitMQMailQueueItem item, Set<EnqueueId> presentIds) {
+        if (presentIds.contains(item.getEnqueueId())) {
+            return true;
         }
         item.done(true);
-        return Mono.empty();
+        return false;
     }
 
     private Mono<RabbitMQMailQueueItem> loadItem(AcknowledgableDelivery response) {
-        try {
-            MailWithEnqueueId mailWithEnqueueId = loadMail(response);
-            ThrowingConsumer<Boolean> ack = ack(response, mailWithEnqueueId);
-            return Mono.just(new RabbitMQMailQueueItem(ack, mailWithEnqueueId));
-        } catch (MailQueue.MailQueueException e) {
-            return Mono.error(e);
-        }
+        return Mono.fromCallable(() -> toMailReference(response))
+            .flatMap(mailLoader)
+            .map(mailWithEnqueueId -> new RabbitMQMailQueueItem(ack(response, mailWithEnqueueId), mailWithEnqueueId));
     }
 
     private ThrowingConsumer<Boolean> ack(AcknowledgableDelivery response, MailWithEnqueueId mailWithEnqueueId) {
@@ -129,11 +138,6 @@ class Dequeuer {
         };
     }
 
-    private MailWithEnqueueId loadMail(Delivery response) throws MailQueue.MailQueueException {
-        MailReferenceDTO mailDTO = toMailReference(response);
-        return mailLoader.apply(mailDTO);
-    }
-
     private MailReferenceDTO toMailReference(Delivery getResponse) throws MailQueue.MailQueueException {
         try {
             return mailReferenceSerializer.read(getResponse.getBody());
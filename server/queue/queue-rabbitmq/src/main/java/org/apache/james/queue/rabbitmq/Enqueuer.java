@@ -23,6 +23,12 @@ import static org.apache.james.backends.rabbitmq.Constants.EMPTY_ROUTING_KEY;
 import static org.apache.james.queue.api.MailQueue.ENQUEUED_METRIC_NAME_PREFIX;
 
 import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -33,43 +39,146 @@ import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.core.scheduler.Schedulers;
 import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
 import reactor.rabbitmq.Sender;
 
 class Enqueuer {
+    static final String ENQUEUE_PUBLISH_TIMER_METRIC_NAME_PREFIX = "enqueuePublishTime:";
+    static final String ENQUEUE_VIEW_STORE_TIMER_METRIC_NAME_PREFIX = "enqueueViewStoreTime:";
+    static final Duration BATCH_PUBLICATION_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Enqueuer.class);
+
+    /**
+     * Mail reference waiting for its batch to be published. Extending {@link OutboundMessage} allows matching
+     * publisher confirms with their pending enqueue.
+     */
+    private static class PendingEnqueue extends OutboundMessage {
+        private final EnqueuedItem enqueuedItem;
+        private final MonoProcessor<Void> result;
+
+        PendingEnqueue(String exchange, byte[] body, EnqueuedItem enqueuedItem) {
+            super(exchange, EMPTY_ROUTING_KEY, body);
+            this.enqueuedItem = enqueuedItem;
+            this.result = MonoProcessor.create();
+        }
+    }
+
     private final MailQueueName name;
     private final Sender sender;
     private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
     private final MailReferenceSerializer mailReferenceSerializer;
+    private final MetricFactory metricFactory;
     private final Metric enqueueMetric;
     private final MailQueueView mailQueueView;
     private final Clock clock;
+    private final Optional<AtomicReference<Batching>> batching;
 
     Enqueuer(MailQueueName name, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, Store<MimeMessage, MimeMessagePartsId> mimeMessageStore,
              MailReferenceSerializer serializer, MetricFactory metricFactory,
-             MailQueueView mailQueueView, Clock clock) {
+             MailQueueView mailQueueView, Clock clock, RabbitMQMailQueueConfiguration configuration) {
         this.name = name;
         this.sender = reactorRabbitMQChannelPool.getSender();
         this.mimeMessageStore = mimeMessageStore;
         this.mailReferenceSerializer = serializer;
         this.mailQueueView = mailQueueView;
         this.clock = clock;
+        this.metricFactory = metricFactory;
         this.enqueueMetric = metricFactory.generate(ENQUEUED_METRIC_NAME_PREFIX + name.asString());
+        this.batching = Optional.of(configuration)
+            .filter(RabbitMQMailQueueConfiguration::isEnqueueBatchingEnabled)
+            .map(any -> new AtomicReference<>(new Batching(configuration)));
+    }
+
+    /**
+     * In batching mode, blobs are saved by the enqueuing threads while the references of the previously saved mails
+     * are published. References are published by batches of at most {@link RabbitMQMailQueueConfiguration#getEnqueueBatchSize()}
+     * messages, a partially filled batch being published after {@link RabbitMQMailQueueConfiguration#getEnqueueBatchLinger()}.
+     * Each batch is published with publisher confirms, and its view entries are then stored at once.
+     *
+     * Batches waiting for the previous ones to be published are buffered. A failing batch fails its own enqueues only,
+     * a batch taking more than {@link #BATCH_PUBLICATION_TIMEOUT} to be published being failed. Should the pipeline
+     * terminate, it is replaced by a new one and the enqueues it had not published yet are failed.
+     */
+    private class Batching {
+        private final FluxSink<PendingEnqueue> sink;
+        private final Set<PendingEnqueue> queued;
+        private final Disposable subscription;
+        private volatile boolean terminated;
+
+        Batching(RabbitMQMailQueueConfiguration configuration) {
+            UnicastProcessor<PendingEnqueue> processor = UnicastProcessor.create();
+            this.sink = processor.sink();
+            this.queued = ConcurrentHashMap.newKeySet();
+            this.subscription = processor.bufferTimeout(configuration.getEnqueueBatchSize(), configuration.getEnqueueBatchLinger())
+                .onBackpressureBuffer()
+                .publishOn(Schedulers.elastic())
+                .concatMap(batch -> {
+                    queued.removeAll(batch);
+                    return publishBatch(batch);
+                })
+                .subscribe(
+                    any -> { },
+                    e -> restart(this, e, configuration),
+                    () -> restart(this, new IllegalStateException("Batched enqueues completed"), configuration));
+        }
+
+        void submit(PendingEnqueue pendingEnqueue) {
+            queued.add(pendingEnqueue);
+            sink.next(pendingEnqueue);
+            if (terminated) {
+                failQueued(new MailQueue.MailQueueException("Batched enqueues in " + name.asString() + " stopped"));
+            }
+        }
+
+        void terminate(Throwable e) {
+            terminated = true;
+            failQueued(e);
+        }
+
+        private void failQueued(Throwable e) {
+            failPending(ImmutableList.copyOf(queued), e);
+        }
+
+        void dispose() {
+            subscription.dispose();
+        }
+    }
+
+    private void restart(Batching failed, Throwable e, RabbitMQMailQueueConfiguration configuration) {
+        LOGGER.error("Batched enqueues in {} stopped, restarting them", name.asString(), e);
+        batching.ifPresent(reference -> reference.compareAndSet(failed, new Batching(configuration)));
+        failed.terminate(e);
+    }
+
+    void close() {
+        batching.ifPresent(reference -> reference.get().dispose());
     }
 
     void enQueue(Mail mail) throws MailQueue.MailQueueException {
         EnqueueId enqueueId = EnqueueId.generate();
         saveMail(mail)
             .map(partIds -> new MailReference(enqueueId, mail, partIds))
-            .flatMap(Throwing.function(this::publishReferenceToRabbit).sneakyThrow())
-            .flatMap(mailQueueView::storeMail)
+            .flatMap(Throwing.function(this::publish).sneakyThrow())
             .thenEmpty(Mono.fromRunnable(enqueueMetric::increment))
             .block();
     }
@@ -82,20 +191,78 @@ class Enqueuer {
         }
     }
 
-    private Mono<EnqueuedItem> publishReferenceToRabbit(MailReference mailReference) throws MailQueue.MailQueueException {
-        OutboundMessage data = new OutboundMessage(
+    private Mono<Void> publish(MailReference mailReference) throws MailQueue.MailQueueException {
+        PendingEnqueue pendingEnqueue = new PendingEnqueue(
             name.toRabbitExchangeName().asString(),
-            EMPTY_ROUTING_KEY,
-            getMailReferenceBytes(mailReference));
-        return sender.send(Mono.just(data))
-            .then(Mono.just(
-                EnqueuedItem.builder()
-                    .enqueueId(mailReference.getEnqueueId())
-                    .mailQueueName(name)
-                    .mail(mailReference.getMail())
-                    .enqueuedTime(clock.instant())
-                    .mimeMessagePartsId(mailReference.getPartsId())
-                    .build()));
+            getMailReferenceBytes(mailReference),
+            EnqueuedItem.builder()
+                .enqueueId(mailReference.getEnqueueId())
+                .mailQueueName(name)
+                .mail(mailReference.getMail())
+                .enqueuedTime(clock.instant())
+                .mimeMessagePartsId(mailReference.getPartsId())
+                .build());
+
+        return batching
+            .<Mono<Void>>map(reference -> {
+                reference.get().submit(pendingEnqueue);
+                return pendingEnqueue.result;
+            })
+            .orElseGet(() -> publishReferenceToRabbit(pendingEnqueue)
+                .then(storeInView(pendingEnqueue.enqueuedItem)));
+    }
+
+    private Mono<Void> publishReferenceToRabbit(OutboundMessage data) {
+        return metricFactory.runPublishingTimerMetric(ENQUEUE_PUBLISH_TIMER_METRIC_NAME_PREFIX + name.asString(),
+            sender.send(Mono.just(data)));
+    }
+
+    private Mono<Void> storeInView(EnqueuedItem enqueuedItem) {
+        return metricFactory.runPublishingTimerMetric(ENQUEUE_VIEW_STORE_TIMER_METRIC_NAME_PREFIX + name.asString(),
+            mailQueueView.storeMail(enqueuedItem));
+    }
+
+    private Mono<Void> publishBatch(List<PendingEnqueue> batch) {
+        return Mono.defer(() -> metricFactory.runPublishingTimerMetric(ENQUEUE_PUBLISH_TIMER_METRIC_NAME_PREFIX + name.asString(),
+                sender.sendWithPublishConfirms(Flux.fromIterable(batch))
+                    .collectList()))
+            .flatMap(results -> storeConfirmedInView(results)
+                .doOnSuccess(any -> results.forEach(this::completeConfirmed)))
+            .timeout(BATCH_PUBLICATION_TIMEOUT, Mono.defer(() -> Mono.error(new MailQueue.MailQueueException(
+                "Timeout while waiting for RabbitMQ to confirm a batch of " + batch.size() + " enqueues"))))
+            .then(Mono.fromRunnable(() -> failPending(batch, new MailQueue.MailQueueException("RabbitMQ did not confirm the enqueue"))))
+            .onErrorResume(e -> {
+                LOGGER.error("Failed to enqueue a batch of {} mails in {}", batch.size(), name.asString(), e);
+                failPending(batch, e);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void failPending(List<PendingEnqueue> batch, Throwable e) {
+        batch.stream()
+            .filter(pendingEnqueue -> !pendingEnqueue.result.isTerminated())
+            .forEach(pendingEnqueue -> pendingEnqueue.result.onError(e));
+    }
+
+    private Mono<Void> storeConfirmedInView(List<OutboundMessageResult> results) {
+        List<EnqueuedItem> confirmedItems = results.stream()
+            .filter(OutboundMessageResult::isAck)
+            .map(result -> ((PendingEnqueue) result.getOutboundMessage()).enqueuedItem)
+            .collect(Guavate.toImmutableList());
+
+        return metricFactory.runPublishingTimerMetric(ENQUEUE_VIEW_STORE_TIMER_METRIC_NAME_PREFIX + name.asString(),
+            mailQueueView.storeMails(confirmedItems));
+    }
+
+    private void completeConfirmed(OutboundMessageResult result) {
+        PendingEnqueue pendingEnqueue = (PendingEnqueue) result.getOutboundMessage();
+        if (result.isAck()) {
+            pendingEnqueue.result.onComplete();
+        } else {
+            pendingEnqueue.result.onError(new MailQueue.MailQueueException("RabbitMQ did not confirm the enqueue of "
+                + pendingEnqueue.enqueuedItem.getMail().getName()));
+        }
     }
 
     private byte[] getMailReferenceBytes(MailReference mailReference) throws MailQueue.MailQueueException {
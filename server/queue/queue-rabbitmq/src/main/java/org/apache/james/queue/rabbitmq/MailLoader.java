@@ -29,6 +29,8 @@ import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.mailet.Mail;
 
+import reactor.core.publisher.Mono;
+
 class MailLoader {
     private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
     private final BlobId.Factory blobIdFactory;
@@ -38,18 +40,22 @@ class MailLoader {
         this.blobIdFactory = blobIdFactory;
     }
 
-    MailWithEnqueueId load(MailReferenceDTO dto) throws MailQueue.MailQueueException {
-        try {
-            MailReference mailReference = dto.toMailReference(blobIdFactory);
+    Mono<MailWithEnqueueId> load(MailReferenceDTO dto) {
+        MailReference mailReference = dto.toMailReference(blobIdFactory);
 
+        return mimeMessageStore.read(mailReference.getPartsId())
+            .flatMap(mimeMessage -> attachMessage(mailReference, mimeMessage));
+    }
+
+    private Mono<MailWithEnqueueId> attachMessage(MailReference mailReference, MimeMessage mimeMessage) {
+        try {
             Mail mail = mailReference.getMail();
-            MimeMessage mimeMessage = mimeMessageStore.read(mailReference.getPartsId()).block();
             mail.setMessage(mimeMessage);
-            return new MailWithEnqueueId(mailReference.getEnqueueId(), mail);
+            return Mono.just(new MailWithEnqueueId(mailReference.getEnqueueId(), mail));
         } catch (AddressException e) {
-            throw new MailQueue.MailQueueException("Failed to parse mail address", e);
+            return Mono.error(new MailQueue.MailQueueException("Failed to parse mail address", e));
         } catch (MessagingException e) {
-            throw new MailQueue.MailQueueException("Failed to generate mime message", e);
+            return Mono.error(new MailQueue.MailQueueException("Failed to generate mime message", e));
         }
     }
 }
@@ -108,6 +108,10 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
         return mailQueueView.browse();
     }
 
+    void close() {
+        enqueuer.close();
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -32,6 +32,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.mail.internet.MimeMessage;
 
@@ -47,11 +48,11 @@ import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 
-import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.rabbitmq.BindingSpecification;
 import reactor.rabbitmq.ExchangeSpecification;
 import reactor.rabbitmq.QueueSpecification;
@@ -64,7 +65,7 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
         private final ReactorRabbitMQChannelPool reactorRabbitMQChannelPool;
         private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
         private final MailReferenceSerializer mailReferenceSerializer;
-        private final Function<MailReferenceDTO, MailWithEnqueueId> mailLoader;
+        private final Function<MailReferenceDTO, Mono<MailWithEnqueueId>> mailLoader;
         private final MailQueueView.Factory mailQueueViewFactory;
         private final Clock clock;
         private final MailQueueItemDecoratorFactory decoratorFactory;
@@ -88,7 +89,7 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
             this.clock = clock;
             this.decoratorFactory = decoratorFactory;
             this.mailReferenceSerializer = new MailReferenceSerializer();
-            this.mailLoader = Throwing.function(new MailLoader(mimeMessageStore, blobIdFactory)::load).sneakyThrow();
+            this.mailLoader = new MailLoader(mimeMessageStore, blobIdFactory)::load;
             this.configuration = configuration;
         }
 
@@ -100,9 +101,9 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
                 metricFactory,
                 mailQueueName,
                 new Enqueuer(mailQueueName, reactorRabbitMQChannelPool, mimeMessageStore, mailReferenceSerializer,
-                    metricFactory, mailQueueView, clock),
+                    metricFactory, mailQueueView, clock, configuration),
                 new Dequeuer(mailQueueName, reactorRabbitMQChannelPool, mailLoader, mailReferenceSerializer,
-                    metricFactory, mailQueueView),
+                    metricFactory, mailQueueView, configuration),
                 mailQueueView,
                 decoratorFactory);
 
@@ -132,6 +133,10 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
         RabbitMQMailQueue retrieveInstanceFor(MailQueueName name) {
             return instantiatedQueues.computeIfAbsent(name, privateFactory::create);
         }
+
+        void close() {
+            instantiatedQueues.values().forEach(RabbitMQMailQueue::close);
+        }
     }
 
     private final RabbitMQMailQueueManagement mqManagementApi;
@@ -150,6 +155,11 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
         this.mailQueueObjectPool = new RabbitMQMailQueueObjectPool();
     }
 
+    @PreDestroy
+    public void close() {
+        mailQueueObjectPool.close();
+    }
+
     @Override
     public Optional<RabbitMQMailQueue> getQueue(String name) {
         return getQueueFromRabbitServer(MailQueueName.fromString(name));
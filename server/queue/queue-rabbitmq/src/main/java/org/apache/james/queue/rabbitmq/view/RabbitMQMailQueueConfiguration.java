@@ -19,16 +19,28 @@
 
 package org.apache.james.queue.rabbitmq.view;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.Preconditions;
 
 public class RabbitMQMailQueueConfiguration {
     private static final boolean DEFAULT_SIZE_METRICS_ENABLED = true;
+    private static final int DEFAULT_ENQUEUE_BATCH_SIZE = 1;
+    private static final Duration DEFAULT_ENQUEUE_BATCH_LINGER = Duration.ofMillis(10);
+    private static final int DEFAULT_DEQUEUE_PREFETCH = 5;
+    private static final int DEFAULT_DEQUEUE_CONCURRENCY = 1;
 
     public static class Builder {
         private Optional<Boolean> sizeMetricsEnabled;
+        private Optional<Integer> enqueueBatchSize = Optional.empty();
+        private Optional<Duration> enqueueBatchLinger = Optional.empty();
+        private Optional<Integer> dequeuePrefetch = Optional.empty();
+        private Optional<Integer> dequeueConcurrency = Optional.empty();
 
         public Builder sizeMetricsEnabled(boolean sizeMetricsEnabled) {
             this.sizeMetricsEnabled = Optional.of(sizeMetricsEnabled);
@@ -40,12 +52,68 @@ public class RabbitMQMailQueueConfiguration {
             return this;
         }
 
+        public Builder enqueueBatchSize(int enqueueBatchSize) {
+            Preconditions.checkArgument(enqueueBatchSize > 0, "enqueueBatchSize needs to be strictly positive");
+            this.enqueueBatchSize = Optional.of(enqueueBatchSize);
+            return this;
+        }
+
+        public Builder enqueueBatchSize(Optional<Integer> enqueueBatchSize) {
+            enqueueBatchSize.ifPresent(this::enqueueBatchSize);
+            return this;
+        }
+
+        public Builder enqueueBatchLinger(Duration enqueueBatchLinger) {
+            Preconditions.checkArgument(!enqueueBatchLinger.isNegative() && !enqueueBatchLinger.isZero(), "enqueueBatchLinger needs to be strictly positive");
+            this.enqueueBatchLinger = Optional.of(enqueueBatchLinger);
+            return this;
+        }
+
+        public Builder enqueueBatchLinger(Optional<Duration> enqueueBatchLinger) {
+            enqueueBatchLinger.ifPresent(this::enqueueBatchLinger);
+            return this;
+        }
+
+        public Builder dequeuePrefetch(int dequeuePrefetch) {
+            Preconditions.checkArgument(dequeuePrefetch > 0, "dequeuePrefetch needs to be strictly positive");
+            this.dequeuePrefetch = Optional.of(dequeuePrefetch);
+            return this;
+        }
+
+        public Builder dequeuePrefetch(Optional<Integer> dequeuePrefetch) {
+            dequeuePrefetch.ifPresent(this::dequeuePrefetch);
+            return this;
+        }
+
+        public Builder dequeueConcurrency(int dequeueConcurrency) {
+            Preconditions.checkArgument(dequeueConcurrency > 0, "dequeueConcurrency needs to be strictly positive");
+            this.dequeueConcurrency = Optional.of(dequeueConcurrency);
+            return this;
+        }
+
+        public Builder dequeueConcurrency(Optional<Integer> dequeueConcurrency) {
+            dequeueConcurrency.ifPresent(this::dequeueConcurrency);
+            return this;
+        }
+
         public RabbitMQMailQueueConfiguration build() {
-            return new RabbitMQMailQueueConfiguration(sizeMetricsEnabled.orElse(DEFAULT_SIZE_METRICS_ENABLED));
+            int dequeueConcurrency = this.dequeueConcurrency.orElse(DEFAULT_DEQUEUE_CONCURRENCY);
+            int dequeuePrefetch = this.dequeuePrefetch.orElse(Math.max(DEFAULT_DEQUEUE_PREFETCH, dequeueConcurrency));
+            Preconditions.checkState(dequeuePrefetch >= dequeueConcurrency, "dequeuePrefetch needs to be greater than or equal to dequeueConcurrency");
+
+            return new RabbitMQMailQueueConfiguration(sizeMetricsEnabled.orElse(DEFAULT_SIZE_METRICS_ENABLED),
+                enqueueBatchSize.orElse(DEFAULT_ENQUEUE_BATCH_SIZE),
+                enqueueBatchLinger.orElse(DEFAULT_ENQUEUE_BATCH_LINGER),
+                dequeuePrefetch,
+                dequeueConcurrency);
         }
     }
 
     public static final String SIZE_METRICS_ENABLED_PROPERTY = "mailqueue.size.metricsEnabled";
+    public static final String ENQUEUE_BATCH_SIZE_PROPERTY = "mailqueue.enqueue.batch.size";
+    public static final String ENQUEUE_BATCH_LINGER_PROPERTY = "mailqueue.enqueue.batch.linger";
+    public static final String DEQUEUE_PREFETCH_PROPERTY = "mailqueue.dequeue.prefetch";
+    public static final String DEQUEUE_CONCURRENCY_PROPERTY = "mailqueue.dequeue.concurrency";
 
     public static Builder builder() {
         return new Builder();
@@ -54,6 +122,11 @@ public class RabbitMQMailQueueConfiguration {
     public static RabbitMQMailQueueConfiguration from(Configuration configuration) {
         return builder()
             .sizeMetricsEnabled(Optional.ofNullable(configuration.getBoolean(SIZE_METRICS_ENABLED_PROPERTY, null)))
+            .enqueueBatchSize(Optional.ofNullable(configuration.getInteger(ENQUEUE_BATCH_SIZE_PROPERTY, null)))
+            .enqueueBatchLinger(Optional.ofNullable(configuration.getString(ENQUEUE_BATCH_LINGER_PROPERTY, null))
+                .map(DurationParser::parse))
+            .dequeuePrefetch(Optional.ofNullable(configuration.getInteger(DEQUEUE_PREFETCH_PROPERTY, null)))
+            .dequeueConcurrency(Optional.ofNullable(configuration.getInteger(DEQUEUE_CONCURRENCY_PROPERTY, null)))
             .build();
     }
 
@@ -70,27 +143,60 @@ public class RabbitMQMailQueueConfiguration {
     }
 
     private final boolean sizeMetricsEnabled;
+    private final int enqueueBatchSize;
+    private final Duration enqueueBatchLinger;
+    private final int dequeuePrefetch;
+    private final int dequeueConcurrency;
 
-    private RabbitMQMailQueueConfiguration(boolean sizeMetricsEnabled) {
+    private RabbitMQMailQueueConfiguration(boolean sizeMetricsEnabled, int enqueueBatchSize, Duration enqueueBatchLinger,
+                                           int dequeuePrefetch, int dequeueConcurrency) {
         this.sizeMetricsEnabled = sizeMetricsEnabled;
+        this.enqueueBatchSize = enqueueBatchSize;
+        this.enqueueBatchLinger = enqueueBatchLinger;
+        this.dequeuePrefetch = dequeuePrefetch;
+        this.dequeueConcurrency = dequeueConcurrency;
     }
 
     public boolean isSizeMetricsEnabled() {
         return sizeMetricsEnabled;
     }
 
+    public int getEnqueueBatchSize() {
+        return enqueueBatchSize;
+    }
+
+    public Duration getEnqueueBatchLinger() {
+        return enqueueBatchLinger;
+    }
+
+    public boolean isEnqueueBatchingEnabled() {
+        return enqueueBatchSize > 1;
+    }
+
+    public int getDequeuePrefetch() {
+        return dequeuePrefetch;
+    }
+
+    public int getDequeueConcurrency() {
+        return dequeueConcurrency;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof RabbitMQMailQueueConfiguration) {
             RabbitMQMailQueueConfiguration that = (RabbitMQMailQueueConfiguration) o;
 
-            return Objects.equals(this.sizeMetricsEnabled, that.sizeMetricsEnabled);
+            return Objects.equals(this.sizeMetricsEnabled, that.sizeMetricsEnabled)
+                && Objects.equals(this.enqueueBatchSize, that.enqueueBatchSize)
+                && Objects.equals(this.enqueueBatchLinger, that.enqueueBatchLinger)
+                && Objects.equals(this.dequeuePrefetch, that.dequeuePrefetch)
+                && Objects.equals(this.dequeueConcurrency, that.dequeueConcurrency);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(sizeMetricsEnabled);
+        return Objects.hash(sizeMetricsEnabled, enqueueBatchSize, enqueueBatchLinger, dequeuePrefetch, dequeueConcurrency);
     }
 }
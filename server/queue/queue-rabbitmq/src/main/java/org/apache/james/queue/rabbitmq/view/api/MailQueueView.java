@@ -19,11 +19,17 @@
 
 package org.apache.james.queue.rabbitmq.view.api;
 
+import java.util.Collection;
+import java.util.Set;
+
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.rabbitmq.EnqueueId;
 import org.apache.james.queue.rabbitmq.EnqueuedItem;
 import org.apache.james.queue.rabbitmq.MailQueueName;
 
+import com.github.steveash.guavate.Guavate;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface MailQueueView {
@@ -36,10 +42,22 @@ public interface MailQueueView {
 
     Mono<Void> storeMail(EnqueuedItem enqueuedItem);
 
+    default Mono<Void> storeMails(Collection<EnqueuedItem> enqueuedItems) {
+        return Flux.fromIterable(enqueuedItems)
+            .flatMap(this::storeMail)
+            .then();
+    }
+
     long delete(DeleteCondition deleteCondition);
 
     Mono<Boolean> isPresent(EnqueueId id);
 
+    default Mono<Set<EnqueueId>> retainPresent(Collection<EnqueueId> ids) {
+        return Flux.fromIterable(ids)
+            .filterWhen(this::isPresent)
+            .collect(Guavate.toImmutableSet());
+    }
+
     ManageableMailQueue.MailQueueIterator browse();
 
     long getSize();
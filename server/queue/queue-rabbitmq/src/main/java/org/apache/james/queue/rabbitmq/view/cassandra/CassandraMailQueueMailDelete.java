@@ -20,6 +20,8 @@
 package org.apache.james.queue.rabbitmq.view.cassandra;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
 import javax.inject.Inject;
@@ -59,6 +61,10 @@ public class CassandraMailQueueMailDelete {
         return deletedMailsDao.isDeleted(mailQueueName, enqueueId);
     }
 
+    Mono<Set<EnqueueId>> retainDeleted(Collection<EnqueueId> enqueueIds, MailQueueName mailQueueName) {
+        return deletedMailsDao.retainDeleted(mailQueueName, enqueueIds);
+    }
+
     void updateBrowseStart(MailQueueName mailQueueName) {
         findNewBrowseStart(mailQueueName)
             .flatMap(newBrowseStart -> updateNewBrowseStart(mailQueueName, newBrowseStart))
@@ -21,6 +21,7 @@ package org.apache.james.queue.rabbitmq.view.cassandra;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.Collection;
 
 import javax.inject.Inject;
 
@@ -31,6 +32,8 @@ import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Bucke
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 import org.apache.mailet.Mail;
 
+import com.github.steveash.guavate.Guavate;
+
 import reactor.core.publisher.Mono;
 
 public class CassandraMailQueueMailStore {
@@ -57,6 +60,12 @@ public class CassandraMailQueueMailStore {
         return enqueuedMailsDao.insert(enqueuedItemAndSlicing);
     }
 
+    Mono<Void> storeMails(Collection<EnqueuedItem> enqueuedItems) {
+        return enqueuedMailsDao.insert(enqueuedItems.stream()
+            .map(this::addSliceContext)
+            .collect(Guavate.toImmutableList()));
+    }
+
     Mono<Void> initializeBrowseStart(MailQueueName mailQueueName) {
         return browseStartDao
             .insertInitialBrowseStart(mailQueueName, currentSliceStartInstant());
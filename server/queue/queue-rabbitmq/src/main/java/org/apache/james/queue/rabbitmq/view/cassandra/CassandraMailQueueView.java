@@ -19,6 +19,9 @@
 
 package org.apache.james.queue.rabbitmq.view.cassandra;
 
+import java.util.Collection;
+import java.util.Set;
+
 import javax.inject.Inject;
 
 import org.apache.james.queue.api.ManageableMailQueue;
@@ -31,6 +34,8 @@ import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMai
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.EventsourcingConfigurationManagement;
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 
+import com.github.steveash.guavate.Guavate;
+
 import reactor.core.publisher.Mono;
 
 public class CassandraMailQueueView implements MailQueueView {
@@ -85,6 +90,11 @@ public class CassandraMailQueueView implements MailQueueView {
         return storeHelper.storeMail(enqueuedItem);
     }
 
+    @Override
+    public Mono<Void> storeMails(Collection<EnqueuedItem> enqueuedItems) {
+        return storeHelper.storeMails(enqueuedItems);
+    }
+
     @Override
     public ManageableMailQueue.MailQueueIterator browse() {
         return new CassandraMailQueueBrowser.CassandraMailQueueIterator(
@@ -127,4 +137,12 @@ public class CassandraMailQueueView implements MailQueueView {
         return cassandraMailQueueMailDelete.isDeleted(id, mailQueueName)
                 .map(bool -> !bool);
     }
+
+    @Override
+    public Mono<Set<EnqueueId>> retainPresent(Collection<EnqueueId> ids) {
+        return cassandraMailQueueMailDelete.retainDeleted(ids, mailQueueName)
+            .map(deleted -> ids.stream()
+                .filter(id -> !deleted.contains(id))
+                .collect(Guavate.toImmutableSet()));
+    }
 }
@@ -21,12 +21,16 @@ package org.apache.james.queue.rabbitmq.view.cassandra;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DeletedMailTable.ENQUEUE_ID;
 import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DeletedMailTable.QUEUE_NAME;
 import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.DeletedMailTable.TABLE_NAME;
 
+import java.util.Collection;
+import java.util.Set;
+
 import javax.inject.Inject;
 
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
@@ -35,6 +39,7 @@ import org.apache.james.queue.rabbitmq.MailQueueName;
 
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.github.steveash.guavate.Guavate;
 
 import reactor.core.publisher.Mono;
 
@@ -42,12 +47,14 @@ public class DeletedMailsDAO {
 
     private final CassandraAsyncExecutor executor;
     private final PreparedStatement selectOne;
+    private final PreparedStatement selectAmong;
     private final PreparedStatement insertOne;
 
     @Inject
     DeletedMailsDAO(Session session) {
         this.executor = new CassandraAsyncExecutor(session);
         this.selectOne = prepareSelectExist(session);
+        this.selectAmong = prepareSelectAmong(session);
         this.insertOne = prepareInsert(session);
     }
 
@@ -64,6 +71,13 @@ public class DeletedMailsDAO {
             .and(eq(ENQUEUE_ID, bindMarker(ENQUEUE_ID))));
     }
 
+    private PreparedStatement prepareSelectAmong(Session session) {
+        return session.prepare(select(ENQUEUE_ID)
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(in(ENQUEUE_ID, bindMarker(ENQUEUE_ID))));
+    }
+
     Mono<Void> markAsDeleted(MailQueueName mailQueueName, EnqueueId enqueueId) {
         return executor.executeVoid(insertOne.bind()
             .setString(QUEUE_NAME, mailQueueName.asString())
@@ -77,6 +91,17 @@ public class DeletedMailsDAO {
                 .setUUID(ENQUEUE_ID, enqueueId.asUUID()));
     }
 
+    Mono<Set<EnqueueId>> retainDeleted(MailQueueName mailQueueName, Collection<EnqueueId> enqueueIds) {
+        return executor.executeRows(
+            selectAmong.bind()
+                .setString(QUEUE_NAME, mailQueueName.asString())
+                .setList(ENQUEUE_ID, enqueueIds.stream()
+                    .map(EnqueueId::asUUID)
+                    .collect(Guavate.toImmutableList())))
+            .map(row -> EnqueueId.of(row.getUUID(ENQUEUE_ID)))
+            .collect(Guavate.toImmutableSet());
+    }
+
     Mono<Boolean> isStillEnqueued(MailQueueName mailQueueName, EnqueueId enqueueId) {
         return isDeleted(mailQueueName, enqueueId)
             .map(b -> !b);
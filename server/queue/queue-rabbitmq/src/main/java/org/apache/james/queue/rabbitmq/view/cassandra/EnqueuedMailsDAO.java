@@ -46,11 +46,14 @@ import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUti
 import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUtil.toRawAttributeMap;
 import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUtil.toTupleList;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.mail.MimeMessagePartsId;
@@ -62,21 +65,32 @@ import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 import org.apache.mailet.Mail;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TupleType;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class EnqueuedMailsDAO {
+    // Cassandra default batch_size_warn_threshold_in_kb, ten times below batch_size_fail_threshold_in_kb
+    static final int MAX_BATCH_SIZE_IN_BYTES = 5 * 1024;
 
     private final CassandraAsyncExecutor executor;
     private final PreparedStatement selectFrom;
     private final PreparedStatement insert;
+    private final PreparedStatement selectBlobIds;
     private final BlobId.Factory blobFactory;
     private final TupleType userHeaderNameHeaderValueTriple;
+    private final ProtocolVersion protocolVersion;
+    private final CodecRegistry codecRegistry;
 
     @Inject
     EnqueuedMailsDAO(Session session, BlobId.Factory blobIdFactory) {
@@ -84,8 +98,11 @@ public class EnqueuedMailsDAO {
 
         this.selectFrom = prepareSelectFrom(session);
         this.insert = prepareInsert(session);
+        this.selectBlobIds = prepareSelectBlobIds(session);
         this.blobFactory = blobIdFactory;
         this.userHeaderNameHeaderValueTriple = session.getCluster().getMetadata().newTupleType(text(), text(), text());
+        this.protocolVersion = session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+        this.codecRegistry = session.getCluster().getConfiguration().getCodecRegistry();
     }
 
     private PreparedStatement prepareSelectFrom(Session session) {
@@ -96,6 +113,11 @@ public class EnqueuedMailsDAO {
             .and(eq(BUCKET_ID, bindMarker(BUCKET_ID))));
     }
 
+    private PreparedStatement prepareSelectBlobIds(Session session) {
+        return session.prepare(select(HEADER_BLOB_ID, BODY_BLOB_ID)
+            .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
             .value(QUEUE_NAME, bindMarker(QUEUE_NAME))
@@ -118,6 +140,55 @@ public class EnqueuedMailsDAO {
     }
 
     Mono<Void> insert(EnqueuedItemWithSlicingContext enqueuedItemWithSlicing) {
+        return executor.executeVoid(bindInsert(enqueuedItemWithSlicing));
+    }
+
+    /**
+     * Items are grouped by partition, each partition being written with unlogged batches. Batching items
+     * across partitions would put the load of the fan-out on the coordinator.
+     *
+     * Each batch is capped to {@link #MAX_BATCH_SIZE_IN_BYTES} of estimated request size so that batches of large
+     * mail rows stay below Cassandra batch size thresholds. A row too big to share a batch is inserted on its own.
+     */
+    Mono<Void> insert(Collection<EnqueuedItemWithSlicingContext> enqueuedItemsWithSlicing) {
+        return Flux.fromIterable(enqueuedItemsWithSlicing.stream()
+                .collect(Guavate.toImmutableListMultimap(item -> Pair.of(item.getEnqueuedItem().getMailQueueName(), item.getSlicingContext())))
+                .asMap()
+                .values())
+            .flatMapIterable(this::asBatches)
+            .flatMap(executor::executeVoid)
+            .then();
+    }
+
+    private List<Statement> asBatches(Collection<EnqueuedItemWithSlicingContext> partition) {
+        ImmutableList.Builder<Statement> statements = ImmutableList.builder();
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        int batchSize = 0;
+        for (EnqueuedItemWithSlicingContext item : partition) {
+            BoundStatement statement = bindInsert(item);
+            int insertSize = statement.requestSizeInBytes(protocolVersion, codecRegistry);
+            if (batch.size() > 0 && batchSize + insertSize > MAX_BATCH_SIZE_IN_BYTES) {
+                statements.add(asStatement(batch));
+                batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+                batchSize = 0;
+            }
+            batch.add(statement);
+            batchSize += insertSize;
+        }
+        if (batch.size() > 0) {
+            statements.add(asStatement(batch));
+        }
+        return statements.build();
+    }
+
+    private Statement asStatement(BatchStatement batch) {
+        if (batch.size() == 1) {
+            return batch.getStatements().iterator().next();
+        }
+        return batch;
+    }
+
+    private BoundStatement bindInsert(EnqueuedItemWithSlicingContext enqueuedItemWithSlicing) {
         EnqueuedItem enqueuedItem = enqueuedItemWithSlicing.getEnqueuedItem();
         EnqueuedItemWithSlicingContext.SlicingContext slicingContext = enqueuedItemWithSlicing.getSlicingContext();
         Mail mail = enqueuedItem.getMail();
@@ -149,7 +220,7 @@ public class EnqueuedMailsDAO {
             .map(MailAddress::asString)
             .ifPresent(mailAddress -> statement.setString(SENDER, mailAddress));
 
-        return executor.executeVoid(statement);
+        return statement;
     }
 
     Flux<EnqueuedItemWithSlicingContext> selectEnqueuedMails(
@@ -163,4 +234,11 @@ public class EnqueuedMailsDAO {
             .map(row -> EnqueuedMailsDaoUtil.toEnqueuedMail(row, blobFactory));
     }
 
+    Flux<BlobId> listBlobs() {
+        return executor.executeRows(selectBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobFactory.from(row.getString(HEADER_BLOB_ID)),
+                blobFactory.from(row.getString(BODY_BLOB_ID))));
+    }
+
 }
@@ -0,0 +1,156 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq;
+
+import static org.apache.james.queue.api.Mails.defaultMail;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.internet.MimeMessage;
+
+import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.Store;
+import org.apache.james.blob.mail.MimeMessagePartsId;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
+import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
+import reactor.rabbitmq.Sender;
+
+class EnqueuerTest {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final MimeMessagePartsId PARTS_ID = MimeMessagePartsId.builder()
+        .headerBlobId(BLOB_ID_FACTORY.from("header"))
+        .bodyBlobId(BLOB_ID_FACTORY.from("body"))
+        .build();
+    private static final RabbitMQMailQueueConfiguration BATCHING = RabbitMQMailQueueConfiguration.builder()
+        .enqueueBatchSize(2)
+        .enqueueBatchLinger(Duration.ofMillis(1))
+        .build();
+
+    private Sender sender;
+    private Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
+    private Enqueuer testee;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactorRabbitMQChannelPool channelPool = mock(ReactorRabbitMQChannelPool.class);
+        sender = mock(Sender.class);
+        when(channelPool.getSender()).thenReturn(sender);
+        mimeMessageStore = mock(Store.class);
+        when(mimeMessageStore.save(any())).thenReturn(Mono.just(PARTS_ID));
+        MailQueueView mailQueueView = mock(MailQueueView.class);
+        when(mailQueueView.storeMails(any())).thenReturn(Mono.empty());
+
+        testee = new Enqueuer(MailQueueName.fromString("spool"), channelPool, mimeMessageStore, new MailReferenceSerializer(),
+            new RecordingMetricFactory(), mailQueueView, Clock.systemUTC(), BATCHING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testee.close();
+    }
+
+    @Test
+    void enqueuesShouldSucceedWhenBatchesPileUpWhilePublishing() throws Exception {
+        int threadCount = 600;
+        CountDownLatch allSaved = new CountDownLatch(threadCount);
+        when(mimeMessageStore.save(any())).then(any -> {
+            allSaved.countDown();
+            return Mono.just(PARTS_ID);
+        });
+        AtomicInteger publicationCount = new AtomicInteger(0);
+        when(sender.sendWithPublishConfirms(any())).then(invocation -> {
+            Flux<OutboundMessageResult> confirms = confirmAll(invocation.getArgument(0));
+            if (publicationCount.getAndIncrement() == 0) {
+                return Mono.fromRunnable(() -> awaitUninterruptibly(allSaved))
+                    .then(Mono.delay(Duration.ofMillis(100)))
+                    .thenMany(confirms);
+            }
+            return confirms;
+        });
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> testee.enQueue(defaultMail().name("name" + threadNumber).build()))
+            .threadCount(threadCount)
+            .operationCount(1)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThatCode(() -> testee.enQueue(defaultMail().name("last").build()))
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void enqueuesShouldSucceedAfterAFailedPublication() throws Exception {
+        AtomicInteger publicationCount = new AtomicInteger(0);
+        when(sender.sendWithPublishConfirms(any())).then(invocation -> {
+            if (publicationCount.getAndIncrement() == 0) {
+                return Flux.error(new RuntimeException("RabbitMQ is down"));
+            }
+            return confirmAll(invocation.getArgument(0));
+        });
+
+        assertThatThrownBy(() -> testee.enQueue(defaultMail().name("failing").build()))
+            .isInstanceOf(RuntimeException.class);
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> testee.enQueue(defaultMail().name("name" + threadNumber + "-" + step).build()))
+            .threadCount(10)
+            .operationCount(10)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        assertThat(publicationCount.get()).isGreaterThan(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<OutboundMessageResult> confirmAll(Publisher<OutboundMessage> messages) {
+        return Flux.from(messages)
+            .map(message -> new OutboundMessageResult(message, true));
+    }
+
+    private void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -46,6 +46,7 @@ import org.apache.james.blob.mail.MimeMessageStore;
 import org.apache.james.eventsourcing.eventstore.cassandra.CassandraEventStoreModule;
 import org.apache.james.metrics.api.Gauge;
 import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.MailQueueContract;
 import org.apache.james.queue.api.MailQueueMetricContract;
 import org.apache.james.queue.api.MailQueueMetricExtension;
 import org.apache.james.queue.api.ManageableMailQueue;
@@ -56,8 +57,10 @@ import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule;
 import org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewTestFactory;
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMailQueueViewConfiguration;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.apache.james.util.streams.Iterators;
 import org.apache.james.utils.UpdatableTickingClock;
+import org.apache.mailet.Attribute;
 import org.apache.mailet.Mail;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -68,6 +71,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import org.mockito.ArgumentCaptor;
 
 import com.github.fge.lambdas.Throwing;
+import com.google.common.base.Strings;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -101,6 +105,7 @@ class RabbitMQMailQueueTest {
 
     @AfterEach
     void tearDown() {
+        mailQueueFactory.close();
         mqManagementApi.deleteAllQueues();
     }
 
@@ -290,6 +295,72 @@ class RabbitMQMailQueueTest {
         }
     }
 
+    @Nested
+    class EnqueueBatchingEnabled implements MailQueueContract {
+        @RegisterExtension
+        MailQueueMetricExtension mailQueueMetricExtension = new MailQueueMetricExtension();
+
+        @BeforeEach
+        void setup(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) throws Exception {
+            setUp(cassandra,
+                metricTestSystem,
+                RabbitMQMailQueueConfiguration.builder()
+                    .sizeMetricsEnabled(true)
+                    .enqueueBatchSize(10)
+                    .enqueueBatchLinger(Duration.ofMillis(5))
+                    .build());
+        }
+
+        @Override
+        public MailQueue getMailQueue() {
+            return mailQueue;
+        }
+
+        @Test
+        void concurrentEnqueuesOfBigMailsShouldSucceed() throws Exception {
+            String bigValue = Strings.repeat("0123456789", 2 * 1024);
+            int threadCount = 10;
+
+            ConcurrentTestRunner.builder()
+                .operation((threadNumber, step) -> getMailQueue().enQueue(defaultMail()
+                    .name("name" + threadNumber + "-" + step)
+                    .attribute(Attribute.convertToAttribute("big", bigValue))
+                    .build()))
+                .threadCount(threadCount)
+                .operationCount(1)
+                .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+            assertThat(Flux.from(getMailQueue().deQueue())
+                    .take(threadCount)
+                    .map(item -> item.getMail().getName())
+                    .collectList()
+                    .block(Duration.ofMinutes(1)))
+                .hasSize(threadCount);
+        }
+    }
+
+    @Nested
+    class ConcurrentDequeue implements MailQueueContract {
+        @RegisterExtension
+        MailQueueMetricExtension mailQueueMetricExtension = new MailQueueMetricExtension();
+
+        @BeforeEach
+        void setup(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) throws Exception {
+            setUp(cassandra,
+                metricTestSystem,
+                RabbitMQMailQueueConfiguration.builder()
+                    .sizeMetricsEnabled(true)
+                    .dequeuePrefetch(20)
+                    .dequeueConcurrency(10)
+                    .build());
+        }
+
+        @Override
+        public MailQueue getMailQueue() {
+            return mailQueue;
+        }
+    }
+
     private void setUp(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem, RabbitMQMailQueueConfiguration configuration) throws Exception {
         CassandraBlobStore blobStore = new CassandraBlobStore(cassandra.getConf());
         MimeMessageStore.Factory mimeMessageStoreFactory = MimeMessageStore.factory(blobStore);
@@ -20,6 +20,9 @@
 package org.apache.james.queue.rabbitmq.view;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
 
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.junit.jupiter.api.Test;
@@ -49,4 +52,96 @@ class RabbitMQMailQueueConfigurationTest {
         assertThat(actual.isSizeMetricsEnabled())
             .isEqualTo(false);
     }
+
+    @Test
+    void enqueueBatchingShouldBeDisabledByDefault() {
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(new PropertiesConfiguration());
+
+        assertThat(actual.isEnqueueBatchingEnabled())
+            .isFalse();
+    }
+
+    @Test
+    void fromShouldReturnConfiguredEnqueueBatching() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.ENQUEUE_BATCH_SIZE_PROPERTY, 32);
+        configuration.addProperty(RabbitMQMailQueueConfiguration.ENQUEUE_BATCH_LINGER_PROPERTY, "20ms");
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual)
+            .isEqualTo(RabbitMQMailQueueConfiguration.builder()
+                .sizeMetricsEnabled(true)
+                .enqueueBatchSize(32)
+                .enqueueBatchLinger(Duration.ofMillis(20))
+                .build());
+        assertThat(actual.isEnqueueBatchingEnabled())
+            .isTrue();
+    }
+
+    @Test
+    void enqueueBatchSizeShouldBeStrictlyPositive() {
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.builder().enqueueBatchSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void enqueueBatchLingerShouldBeStrictlyPositive() {
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.builder().enqueueBatchLinger(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldReturnConfiguredDequeueSettings() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.DEQUEUE_PREFETCH_PROPERTY, 20);
+        configuration.addProperty(RabbitMQMailQueueConfiguration.DEQUEUE_CONCURRENCY_PROPERTY, 8);
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual)
+            .isEqualTo(RabbitMQMailQueueConfiguration.builder()
+                .sizeMetricsEnabled(true)
+                .dequeuePrefetch(20)
+                .dequeueConcurrency(8)
+                .build());
+    }
+
+    @Test
+    void dequeueShouldDefaultToSequentialProcessing() {
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(new PropertiesConfiguration());
+
+        assertThat(actual.getDequeueConcurrency()).isEqualTo(1);
+        assertThat(actual.getDequeuePrefetch()).isEqualTo(5);
+    }
+
+    @Test
+    void dequeuePrefetchShouldDefaultToConcurrencyWhenGreater() {
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.builder()
+            .sizeMetricsEnabled(true)
+            .dequeueConcurrency(16)
+            .build();
+
+        assertThat(actual.getDequeuePrefetch()).isEqualTo(16);
+    }
+
+    @Test
+    void buildShouldThrowWhenPrefetchIsLowerThanConcurrency() {
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.builder()
+                .sizeMetricsEnabled(true)
+                .dequeuePrefetch(2)
+                .dequeueConcurrency(4)
+                .build())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void dequeuePrefetchShouldBeStrictlyPositive() {
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.builder().dequeuePrefetch(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dequeueConcurrencyShouldBeStrictlyPositive() {
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.builder().dequeueConcurrency(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
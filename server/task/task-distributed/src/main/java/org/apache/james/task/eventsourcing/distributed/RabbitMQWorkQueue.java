@@ -23,25 +23,31 @@ package org.apache.james.task.eventsourcing.distributed;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.james.backends.rabbitmq.Constants;
 import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
 import org.apache.james.server.task.json.JsonTaskSerializer;
 import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
 import org.apache.james.task.TaskId;
 import org.apache.james.task.TaskManagerWorker;
+import org.apache.james.task.TaskType;
 import org.apache.james.task.TaskWithId;
 import org.apache.james.task.WorkQueue;
+import org.apache.james.task.WorkerConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Delivery;
 
 import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 import reactor.core.publisher.UnicastProcessor;
 import reactor.core.scheduler.Schedulers;
 import reactor.rabbitmq.AcknowledgableDelivery;
@@ -55,6 +61,52 @@ import reactor.rabbitmq.ReceiverOptions;
 import reactor.rabbitmq.Sender;
 
 public class RabbitMQWorkQueue implements WorkQueue {
+    /**
+     * Acknowledges the delivery of a task once the worker starts running it, so that prefetched tasks still waiting in
+     * the worker are redelivered if this node stops.
+     */
+    private static class AcknowledgeOnStartTask implements Task {
+        private final Task task;
+        private final Acknowledgement acknowledgement;
+
+        private AcknowledgeOnStartTask(Task task, Acknowledgement acknowledgement) {
+            this.task = task;
+            this.acknowledgement = acknowledgement;
+        }
+
+        @Override
+        public Result run() throws InterruptedException {
+            acknowledgement.ack();
+            return task.run();
+        }
+
+        @Override
+        public TaskType type() {
+            return task.type();
+        }
+
+        @Override
+        public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+            return task.details();
+        }
+    }
+
+    private static class Acknowledgement {
+        private final AcknowledgableDelivery delivery;
+        private final AtomicBoolean acknowledged;
+
+        private Acknowledgement(AcknowledgableDelivery delivery) {
+            this.delivery = delivery;
+            this.acknowledged = new AtomicBoolean(false);
+        }
+
+        private void ack() {
+            if (acknowledged.compareAndSet(false, true)) {
+                delivery.ack();
+            }
+        }
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RabbitMQWorkQueue.class);
 
     // Need at least one by receivers plus a shared one for senders
@@ -71,6 +123,7 @@ public class RabbitMQWorkQueue implements WorkQueue {
     private final TaskManagerWorker worker;
     private final ReactorRabbitMQChannelPool channelPool;
     private final JsonTaskSerializer taskSerializer;
+    private final int prefetch;
     private Sender sender;
     private Receiver receiver;
     private UnicastProcessor<TaskId> sendCancelRequestsQueue;
@@ -81,9 +134,20 @@ public class RabbitMQWorkQueue implements WorkQueue {
     private Receiver cancelRequestListener;
 
     public RabbitMQWorkQueue(TaskManagerWorker worker, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, JsonTaskSerializer taskSerializer) {
+        this(worker, reactorRabbitMQChannelPool, taskSerializer, WorkerConfiguration.DEFAULT.getPrefetch());
+    }
+
+    /**
+     * @param prefetch count of unacknowledged tasks RabbitMQ delivers to this node, and that are handed over to the
+     *                 worker at once. Tasks are acknowledged when the worker starts them, hence waiting tasks held by
+     *                 the worker are redelivered if this node stops.
+     */
+    public RabbitMQWorkQueue(TaskManagerWorker worker, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, JsonTaskSerializer taskSerializer, int prefetch) {
+        Preconditions.checkArgument(prefetch > 0, "'prefetch' needs to be strictly positive");
         this.worker = worker;
         this.channelPool = reactorRabbitMQChannelPool;
         this.taskSerializer = taskSerializer;
+        this.prefetch = prefetch;
     }
 
     @Override
@@ -102,20 +166,26 @@ public class RabbitMQWorkQueue implements WorkQueue {
 
     private void consumeWorkqueue() {
         receiver = new Receiver(new ReceiverOptions().connectionMono(channelPool.getConnectionMono()));
-        receiverHandle = receiver.consumeManualAck(QUEUE_NAME, new ConsumeOptions())
+        receiverHandle = receiver.consumeManualAck(QUEUE_NAME, new ConsumeOptions().qos(prefetch))
             .subscribeOn(Schedulers.elastic())
-            .concatMap(this::executeTask)
+            .flatMap(this::executeTask, prefetch)
             .subscribe();
     }
 
     private Mono<Task.Result> executeTask(AcknowledgableDelivery delivery) {
-        delivery.ack();
+        Acknowledgement acknowledgement = new Acknowledgement(delivery);
         String json = new String(delivery.getBody(), StandardCharsets.UTF_8);
 
         TaskId taskId = TaskId.fromString(delivery.getProperties().getHeaders().get(TASK_ID).toString());
 
         return deserialize(json, taskId)
-            .flatMap(task -> executeOnWorker(taskId, task));
+            .flatMap(task -> executeOnWorker(taskId, new AcknowledgeOnStartTask(task, acknowledgement)))
+            .doFinally(signal -> {
+                // a cancellation means this work queue is closing: tasks not started yet need to be redelivered
+                if (signal != SignalType.CANCEL) {
+                    acknowledgement.ack();
+                }
+            });
     }
 
     private Mono<Task> deserialize(String json, TaskId taskId) {
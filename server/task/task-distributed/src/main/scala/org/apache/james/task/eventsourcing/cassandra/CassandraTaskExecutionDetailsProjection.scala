@@ -21,6 +21,7 @@ package org.apache.james.task.eventsourcing.cassandra
 
 import javax.inject.Inject
 import org.apache.james.task.eventsourcing.TaskExecutionDetailsProjection
+import org.apache.james.task.TaskExecutionDetails.AdditionalInformation
 import org.apache.james.task.{TaskExecutionDetails, TaskId}
 
 import scala.compat.java8.OptionConverters._
@@ -36,4 +37,14 @@ class CassandraTaskExecutionDetailsProjection  @Inject()(cassandraTaskExecutionD
 
   override def update(details: TaskExecutionDetails): Unit =
     cassandraTaskExecutionDetailsProjectionDAO.saveDetails(details).block()
+
+  /**
+   * Only the additional information column is written, so that a concurrent status change is not overridden. The
+   * write time is the snapshot timestamp, so that a snapshot taken before the task finished can not override its
+   * final additional information.
+   */
+  override def updateAdditionalInformation(taskId: TaskId, additionalInformation: AdditionalInformation): Unit =
+    load(taskId)
+      .filter(TaskExecutionDetailsProjection.acceptsUpdate(additionalInformation))
+      .foreach(_ => cassandraTaskExecutionDetailsProjectionDAO.saveAdditionalInformation(taskId, additionalInformation).block())
 }
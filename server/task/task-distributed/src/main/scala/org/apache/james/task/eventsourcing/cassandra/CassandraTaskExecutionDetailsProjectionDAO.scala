@@ -18,10 +18,12 @@
  * ***************************************************************/
 package org.apache.james.task.eventsourcing.cassandra
 
+import java.time.Instant
+import java.time.temporal.ChronoUnit
 import java.util.Optional
 
 import com.datastax.driver.core.querybuilder.QueryBuilder
-import com.datastax.driver.core.querybuilder.QueryBuilder.{bindMarker, insertInto, select}
+import com.datastax.driver.core.querybuilder.QueryBuilder.{bindMarker, insertInto, select, set, timestamp, update}
 import com.datastax.driver.core.{BoundStatement, Row, Session, UDTValue}
 import javax.inject.Inject
 import org.apache.james.backends.cassandra.init.{CassandraTypesProvider, CassandraZonedDateTimeModule}
@@ -34,6 +36,8 @@ import reactor.core.publisher.{Flux, Mono}
 import scala.compat.java8.OptionConverters._
 
 class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typesProvider: CassandraTypesProvider, jsonTaskAdditionalInformationSerializer: JsonTaskAdditionalInformationSerializer) {
+  private val WRITE_TIMESTAMP = "writeTimestamp"
+
   private val cassandraAsyncExecutor = new CassandraAsyncExecutor(session)
   private val dateType = typesProvider.getDefinedUserType(CassandraZonedDateTimeModule.ZONED_DATE_TIME)
 
@@ -52,6 +56,11 @@ class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typ
     .value(ADDITIONAL_INFORMATION, bindMarker(ADDITIONAL_INFORMATION))
   )
 
+  private val updateAdditionalInformationStatement = session.prepare(update(TABLE_NAME)
+    .using(timestamp(bindMarker(WRITE_TIMESTAMP)))
+    .`with`(set(ADDITIONAL_INFORMATION, bindMarker(ADDITIONAL_INFORMATION)))
+    .where(QueryBuilder.eq(TASK_ID, bindMarker(TASK_ID))))
+
   private val selectStatement = session.prepare(select().from(TABLE_NAME)
     .where(QueryBuilder.eq(TASK_ID, bindMarker(TASK_ID))))
 
@@ -82,6 +91,19 @@ class CassandraTaskExecutionDetailsProjectionDAO @Inject()(session: Session, typ
     cassandraAsyncExecutor.executeVoid(fullyBoundStatement);
   }
 
+  /**
+   * Written with the snapshot timestamp as write time, so that a late polling snapshot loses against the details
+   * written once the task finished. Lightweight transactions are not used as they can not be mixed with the plain
+   * writes of saveDetails on the same row.
+   */
+  def saveAdditionalInformation(taskId: TaskId, additionalInformation: TaskExecutionDetails.AdditionalInformation): Mono[Void] =
+    cassandraAsyncExecutor.executeVoid(updateAdditionalInformationStatement.bind()
+      .setLong(WRITE_TIMESTAMP, toMicros(additionalInformation.timestamp))
+      .setUUID(TASK_ID, taskId.getValue)
+      .setString(ADDITIONAL_INFORMATION, jsonTaskAdditionalInformationSerializer.serialize(additionalInformation)))
+
+  private def toMicros(instant: Instant): Long = ChronoUnit.MICROS.between(Instant.EPOCH, instant)
+
   private def bindOptionalStringValue(statement: BoundStatement, fieldName: String, fieldValue: Optional[String]) = {
     fieldValue.asScala match {
       case Some(value) => statement.setString(fieldName, value)
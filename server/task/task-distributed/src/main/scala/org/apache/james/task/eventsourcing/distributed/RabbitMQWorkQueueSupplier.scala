@@ -25,11 +25,15 @@ import javax.inject.Inject
 import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool
 import org.apache.james.eventsourcing.EventSourcingSystem
 import org.apache.james.server.task.json.JsonTaskSerializer
-import org.apache.james.task.SerialTaskManagerWorker
+import org.apache.james.task.{PooledTaskManagerWorker, WorkerConfiguration}
 import org.apache.james.task.eventsourcing.{WorkQueueSupplier, WorkerStatusListener}
 
 class RabbitMQWorkQueueSupplier @Inject()(private val rabbitMQConnectionPool: ReactorRabbitMQChannelPool,
-                                private val jsonTaskSerializer: JsonTaskSerializer) extends WorkQueueSupplier {
+                                private val jsonTaskSerializer: JsonTaskSerializer,
+                                private val workerConfiguration: WorkerConfiguration) extends WorkQueueSupplier {
+
+  def this(rabbitMQConnectionPool: ReactorRabbitMQChannelPool, jsonTaskSerializer: JsonTaskSerializer) =
+    this(rabbitMQConnectionPool, jsonTaskSerializer, WorkerConfiguration.DEFAULT)
 
   val DEFAULT_ADDITIONAL_INFORMATION_POLLING_INTERVAL =  Duration.ofSeconds(30)
   override def apply(eventSourcingSystem: EventSourcingSystem): RabbitMQWorkQueue = {
@@ -39,8 +43,8 @@ class RabbitMQWorkQueueSupplier @Inject()(private val rabbitMQConnectionPool: Re
   @VisibleForTesting
   def apply(eventSourcingSystem: EventSourcingSystem, additionalInformationPollingInterval: Duration): RabbitMQWorkQueue = {
     val listener = WorkerStatusListener(eventSourcingSystem)
-    val worker = new SerialTaskManagerWorker(listener, additionalInformationPollingInterval)
-    val rabbitMQWorkQueue = new RabbitMQWorkQueue(worker, rabbitMQConnectionPool, jsonTaskSerializer)
+    val worker = new PooledTaskManagerWorker(listener, additionalInformationPollingInterval, workerConfiguration)
+    val rabbitMQWorkQueue = new RabbitMQWorkQueue(worker, rabbitMQConnectionPool, jsonTaskSerializer, workerConfiguration.getPrefetch)
     rabbitMQWorkQueue
   }
 }
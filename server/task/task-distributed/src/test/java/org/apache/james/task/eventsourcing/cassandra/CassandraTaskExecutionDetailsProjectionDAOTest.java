@@ -22,11 +22,13 @@ package org.apache.james.task.eventsourcing.cassandra;
 
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_2;
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_UPDATED;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -37,6 +39,7 @@ import org.apache.james.backends.cassandra.init.CassandraZonedDateTimeModule;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
 import org.apache.james.server.task.json.dto.MemoryReferenceWithCounterTaskAdditionalInformationDTO;
+import org.apache.james.task.MemoryReferenceWithCounterTask;
 import org.apache.james.task.TaskExecutionDetails;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -111,4 +114,26 @@ class CassandraTaskExecutionDetailsProjectionDAOTest {
         Stream<TaskExecutionDetails> taskExecutionDetails = testee.listDetails().toStream();
         assertThat(taskExecutionDetails).containsOnly(TASK_EXECUTION_DETAILS_UPDATED());
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveAdditionalInformationShouldUpdateAdditionalInformation() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION()).block();
+        MemoryReferenceWithCounterTask.AdditionalInformation additionalInformation = new MemoryReferenceWithCounterTask.AdditionalInformation(10, Instant.now());
+
+        testee.saveAdditionalInformation(TASK_ID(), additionalInformation).block();
+
+        assertThat(testee.readDetails(TASK_ID()).block().getAdditionalInformation())
+            .contains(additionalInformation);
+    }
+
+    @Test
+    void saveAdditionalInformationShouldNotOverrideDetailsSavedAfterTheSnapshot() {
+        testee.saveDetails(TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION()).block();
+        MemoryReferenceWithCounterTask.AdditionalInformation additionalInformation = new MemoryReferenceWithCounterTask.AdditionalInformation(10, Instant.parse("2007-07-03T10:16:30.00Z"));
+
+        testee.saveAdditionalInformation(TASK_ID(), additionalInformation).block();
+
+        assertThat(testee.readDetails(TASK_ID()).block())
+            .isEqualTo(TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION());
+    }
+}
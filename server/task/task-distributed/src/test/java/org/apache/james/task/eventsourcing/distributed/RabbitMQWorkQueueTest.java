@@ -171,6 +171,31 @@ class RabbitMQWorkQueueTest {
         }
     }
 
+    @Test
+    void tasksNotStartedByTheWorkerShouldBeRedeliveredWhenTheWorkQueueStops() {
+        testee.close();
+        ImmediateWorker idleWorker = new ImmediateWorker() {
+            @Override
+            public Mono<Task.Result> executeTask(TaskWithId taskWithId) {
+                tasks.add(taskWithId);
+                return Mono.never();
+            }
+        };
+        RabbitMQWorkQueue idleWorkQueue = new RabbitMQWorkQueue(idleWorker, rabbitMQExtension.getRabbitChannelPool(), serializer, 2);
+        idleWorkQueue.start();
+
+        idleWorkQueue.submit(TASK_WITH_ID);
+        idleWorkQueue.submit(TASK_WITH_ID_2);
+        await().atMost(FIVE_HUNDRED_MILLISECONDS).until(() -> idleWorker.tasks.size() == 2);
+        idleWorkQueue.close();
+
+        testee = new RabbitMQWorkQueue(worker, rabbitMQExtension.getRabbitChannelPool(), serializer);
+        testee.start();
+
+        await().atMost(TWO_SECONDS).until(() -> worker.results.size() == 2);
+        assertThat(worker.tasks).containsExactlyInAnyOrder(TASK_WITH_ID, TASK_WITH_ID_2);
+    }
+
     @Test
     void tasksShouldBeConsumedSequentially() {
         AtomicLong counter = new AtomicLong(0L);
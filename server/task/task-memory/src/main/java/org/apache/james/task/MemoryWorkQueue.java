@@ -36,8 +36,7 @@ public class MemoryWorkQueue implements WorkQueue {
         this.tasks = UnicastProcessor.create();
         this.subscription = tasks
             .subscribeOn(Schedulers.elastic())
-            .limitRate(1)
-            .concatMap(this::dispatchTaskToWorker)
+            .flatMap(this::dispatchTaskToWorker)
             .subscribe();
     }
 
@@ -0,0 +1,295 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.james.util.MDCBuilder;
+import org.apache.james.util.concurrent.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs up to {@link WorkerConfiguration#getConcurrency()} tasks at once.
+ *
+ * Submitted tasks wait until both a worker slot and a slot for their {@link TaskType} are available. When several
+ * waiting tasks could start, the one with the highest priority goes first, then the oldest one.
+ */
+public class PooledTaskManagerWorker implements TaskManagerWorker {
+
+    private static class PendingTask {
+        private final TaskWithId taskWithId;
+        private final int priority;
+        private final long sequenceNumber;
+        private final CompletableFuture<Task.Result> result;
+
+        private PendingTask(TaskWithId taskWithId, int priority, long sequenceNumber) {
+            this.taskWithId = taskWithId;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+            this.result = new CompletableFuture<>();
+        }
+
+        private TaskType type() {
+            return taskWithId.getTask().type();
+        }
+    }
+
+    /**
+     * Interrupting the executor {@link Future} does not stop the task body right away: its worker slot is only freed
+     * once {@link #completion} is completed, that is when the body returns or when it was cancelled before starting.
+     */
+    private static class RunningTask {
+        private final AtomicBoolean started;
+        private final AtomicBoolean cancelRequested;
+        private final CompletableFuture<Task.Result> completion;
+        private Future<?> future;
+
+        private RunningTask() {
+            this.started = new AtomicBoolean(false);
+            this.cancelRequested = new AtomicBoolean(false);
+            this.completion = new CompletableFuture<>();
+        }
+
+        private boolean start() {
+            return started.compareAndSet(false, true);
+        }
+
+        private void cancel() {
+            cancelRequested.set(true);
+            future.cancel(true);
+            if (start()) {
+                completion.completeExceptionally(new CancellationException());
+            }
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledTaskManagerWorker.class);
+    private static final Comparator<PendingTask> PRIORITY_ORDER = Comparator.<PendingTask>comparingInt(pendingTask -> pendingTask.priority)
+        .reversed()
+        .thenComparingLong(pendingTask -> pendingTask.sequenceNumber);
+
+    private final ExecutorService taskExecutor;
+    private final Listener listener;
+    private final WorkerConfiguration configuration;
+    private final Duration pollingInterval;
+    private final Set<TaskId> cancelledTasks;
+    private final Map<TaskId, RunningTask> runningTasks;
+    private final Object lock;
+    private final NavigableSet<PendingTask> pendingTasks;
+    private final Multiset<TaskType> runningTaskTypes;
+    private long nextSequenceNumber;
+
+    public PooledTaskManagerWorker(Listener listener, Duration pollingInterval, WorkerConfiguration configuration) {
+        this.pollingInterval = pollingInterval;
+        this.configuration = configuration;
+        this.taskExecutor = Executors.newFixedThreadPool(configuration.getConcurrency(), NamedThreadFactory.withName("task executor"));
+        this.listener = listener;
+        this.cancelledTasks = Sets.newConcurrentHashSet();
+        this.runningTasks = new ConcurrentHashMap<>();
+        this.lock = new Object();
+        this.pendingTasks = new TreeSet<>(PRIORITY_ORDER);
+        this.runningTaskTypes = HashMultiset.create();
+        this.nextSequenceNumber = 0;
+    }
+
+    @Override
+    public Mono<Task.Result> executeTask(TaskWithId taskWithId) {
+        if (!cancelledTasks.remove(taskWithId.getId())) {
+            PendingTask pendingTask;
+            synchronized (lock) {
+                pendingTask = new PendingTask(taskWithId, configuration.priority(taskWithId.getTask().type()), nextSequenceNumber++);
+                pendingTasks.add(pendingTask);
+            }
+            startPendingTasks();
+
+            return Mono.fromFuture(pendingTask.result);
+        } else {
+            listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+            return Mono.empty();
+        }
+    }
+
+    private void startPendingTasks() {
+        ImmutableList.Builder<PendingTask> startedTasks = ImmutableList.builder();
+        synchronized (lock) {
+            Iterator<PendingTask> candidates = pendingTasks.iterator();
+            while (runningTaskTypes.size() < configuration.getConcurrency() && candidates.hasNext()) {
+                PendingTask candidate = candidates.next();
+                if (runningTaskTypes.count(candidate.type()) < configuration.concurrencyLimit(candidate.type())) {
+                    candidates.remove();
+                    runningTaskTypes.add(candidate.type());
+                    TaskWithId taskWithId = candidate.taskWithId;
+                    RunningTask runningTask = new RunningTask();
+                    runningTasks.put(taskWithId.getId(), runningTask);
+                    runningTask.future = taskExecutor.submit(() -> execute(taskWithId, runningTask));
+                    startedTasks.add(candidate);
+                }
+            }
+        }
+        startedTasks.build().forEach(this::followExecution);
+    }
+
+    private void execute(TaskWithId taskWithId, RunningTask runningTask) {
+        if (!runningTask.start()) {
+            return;
+        }
+        try {
+            runningTask.completion.complete(runWithMdc(taskWithId, runningTask));
+        } catch (Throwable e) {
+            runningTask.completion.completeExceptionally(e);
+        }
+    }
+
+    private void followExecution(PendingTask startedTask) {
+        TaskWithId taskWithId = startedTask.taskWithId;
+        Disposable polling = pollAdditionalInformation(taskWithId).subscribe();
+        RunningTask runningTask = runningTasks.get(taskWithId.getId());
+
+        runningTask.completion.whenComplete((result, error) -> {
+            polling.dispose();
+            synchronized (lock) {
+                runningTasks.remove(taskWithId.getId());
+                runningTaskTypes.remove(startedTask.type());
+            }
+            if (error == null) {
+                startedTask.result.complete(result);
+            } else {
+                handleExecutionError(taskWithId, listener, error);
+                startedTask.result.complete(Task.Result.PARTIAL);
+            }
+            startPendingTasks();
+        });
+    }
+
+    private void handleExecutionError(TaskWithId taskWithId, Listener listener, Throwable exception) {
+        if (exception instanceof CancellationException) {
+            listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+        } else {
+            listener.failed(taskWithId.getId(), taskWithId.getTask().details(), exception);
+        }
+    }
+
+    private Flux<TaskExecutionDetails.AdditionalInformation> pollAdditionalInformation(TaskWithId taskWithId) {
+        return Mono.fromCallable(() -> taskWithId.getTask().details())
+            .delayElement(pollingInterval, Schedulers.elastic())
+            .repeat()
+            .<TaskExecutionDetails.AdditionalInformation>handle((maybeDetails, sink) -> maybeDetails.ifPresent(sink::next))
+            .doOnNext(information -> listener.updated(taskWithId.getId(), information));
+    }
+
+    private Task.Result runWithMdc(TaskWithId taskWithId, RunningTask runningTask) {
+        return MDCBuilder.withMdc(
+            MDCBuilder.create()
+                .addContext(Task.TASK_ID, taskWithId.getId())
+                .addContext(Task.TASK_TYPE, taskWithId.getTask().type())
+                .addContext(Task.TASK_DETAILS, taskWithId.getTask().details()),
+            () -> run(taskWithId, runningTask));
+    }
+
+    private Task.Result run(TaskWithId taskWithId, RunningTask runningTask) {
+        listener.started(taskWithId.getId());
+        try {
+            return taskWithId.getTask()
+                .run()
+                .onComplete(result -> listener.completed(taskWithId.getId(), result, taskWithId.getTask().details()))
+                .onFailure(() -> {
+                    LOGGER.error("Task was partially performed. Check logs for more details. Taskid : " + taskWithId.getId());
+                    listener.failed(taskWithId.getId(), taskWithId.getTask().details());
+                });
+        } catch (InterruptedException e) {
+            listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+            return Task.Result.PARTIAL;
+        } catch (Exception e) {
+            if (runningTask.cancelRequested.get()) {
+                // tasks wrapping the InterruptedException caused by the cancellation
+                listener.cancelled(taskWithId.getId(), taskWithId.getTask().details());
+                return Task.Result.PARTIAL;
+            }
+            LOGGER.error("Error while running task {}", taskWithId.getId(), e);
+            listener.failed(taskWithId.getId(), taskWithId.getTask().details(), e);
+            return Task.Result.PARTIAL;
+        }
+    }
+
+    @Override
+    public void cancelTask(TaskId taskId) {
+        Optional<PendingTask> cancelledPendingTask;
+        Optional<RunningTask> cancelledRunningTask;
+        synchronized (lock) {
+            cancelledPendingTask = removePendingTask(taskId);
+            cancelledRunningTask = Optional.ofNullable(runningTasks.get(taskId));
+            if (!cancelledPendingTask.isPresent() && !cancelledRunningTask.isPresent()) {
+                cancelledTasks.add(taskId);
+            }
+        }
+
+        if (cancelledPendingTask.isPresent()) {
+            TaskWithId taskWithId = cancelledPendingTask.get().taskWithId;
+            listener.cancelled(taskId, taskWithId.getTask().details());
+            cancelledPendingTask.get().result.complete(null);
+        } else {
+            cancelledRunningTask.ifPresent(RunningTask::cancel);
+        }
+    }
+
+    private Optional<PendingTask> removePendingTask(TaskId taskId) {
+        Optional<PendingTask> pendingTask = pendingTasks.stream()
+            .filter(task -> task.taskWithId.getId().equals(taskId))
+            .findFirst();
+        pendingTask.ifPresent(pendingTasks::remove);
+        return pendingTask;
+    }
+
+    @Override
+    public void fail(TaskId taskId, Optional<TaskExecutionDetails.AdditionalInformation> additionalInformation, String errorMessage, Throwable reason) {
+        listener.failed(taskId, additionalInformation, errorMessage, reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        taskExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,181 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.task;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.configuration2.Configuration;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Describes how many tasks a {@link PooledTaskManagerWorker} runs at once, and in which order waiting tasks are picked.
+ *
+ * <ul>
+ *     <li><b>concurrency</b>: maximum count of tasks running at the same time on this worker. Defaults to 1.</li>
+ *     <li><b>concurrency.&lt;taskType&gt;</b>: maximum count of tasks of a given type running at the same time.
+ *     Defaults to <b>concurrency</b>.</li>
+ *     <li><b>priority.&lt;taskType&gt;</b>: waiting tasks with a higher priority start first, tasks of equal priority
+ *     start in submission order. Defaults to 0.</li>
+ *     <li><b>prefetch</b>: maximum count of tasks taken from the work queue and not completed yet, including the running
+ *     ones. Priorities can only reorder prefetched tasks. Defaults to <b>concurrency</b>.</li>
+ * </ul>
+ */
+public class WorkerConfiguration {
+    public static final int DEFAULT_CONCURRENCY = 1;
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final String CONCURRENCY = "concurrency";
+    private static final String PREFETCH = "prefetch";
+    private static final String PRIORITY = "priority";
+
+    public static class Builder {
+        private Optional<Integer> concurrency;
+        private Optional<Integer> prefetch;
+        private final ImmutableMap.Builder<TaskType, Integer> concurrencyLimits;
+        private final ImmutableMap.Builder<TaskType, Integer> priorities;
+
+        private Builder() {
+            concurrency = Optional.empty();
+            prefetch = Optional.empty();
+            concurrencyLimits = ImmutableMap.builder();
+            priorities = ImmutableMap.builder();
+        }
+
+        public Builder concurrency(int concurrency) {
+            Preconditions.checkArgument(concurrency > 0, "'concurrency' needs to be strictly positive");
+            this.concurrency = Optional.of(concurrency);
+            return this;
+        }
+
+        public Builder prefetch(int prefetch) {
+            Preconditions.checkArgument(prefetch > 0, "'prefetch' needs to be strictly positive");
+            this.prefetch = Optional.of(prefetch);
+            return this;
+        }
+
+        public Builder concurrencyLimit(TaskType taskType, int concurrencyLimit) {
+            Preconditions.checkArgument(concurrencyLimit > 0, "'concurrencyLimit' needs to be strictly positive");
+            concurrencyLimits.put(taskType, concurrencyLimit);
+            return this;
+        }
+
+        public Builder priority(TaskType taskType, int priority) {
+            priorities.put(taskType, priority);
+            return this;
+        }
+
+        public WorkerConfiguration build() {
+            int concurrency = this.concurrency.orElse(DEFAULT_CONCURRENCY);
+            int prefetch = this.prefetch.orElse(concurrency);
+            Preconditions.checkState(prefetch >= concurrency, "'prefetch' can not be lower than 'concurrency'");
+
+            return new WorkerConfiguration(concurrency, prefetch, concurrencyLimits.build(), priorities.build());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final WorkerConfiguration DEFAULT = builder().build();
+
+    public static WorkerConfiguration from(Configuration configuration) {
+        Builder builder = builder();
+        Optional.ofNullable(configuration.getInteger(CONCURRENCY, null)).ifPresent(builder::concurrency);
+        Optional.ofNullable(configuration.getInteger(PREFETCH, null)).ifPresent(builder::prefetch);
+        taskTypeValues(configuration, CONCURRENCY).forEach(builder::concurrencyLimit);
+        taskTypeValues(configuration, PRIORITY).forEach(builder::priority);
+        return builder.build();
+    }
+
+    private static Map<TaskType, Integer> taskTypeValues(Configuration configuration, String prefix) {
+        ImmutableMap.Builder<TaskType, Integer> values = ImmutableMap.builder();
+        Iterator<String> keys = configuration.getKeys(prefix);
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (key.startsWith(prefix + ".")) {
+                values.put(TaskType.of(key.substring(prefix.length() + 1)), configuration.getInt(key));
+            }
+        }
+        return values.build();
+    }
+
+    private final int concurrency;
+    private final int prefetch;
+    private final ImmutableMap<TaskType, Integer> concurrencyLimits;
+    private final ImmutableMap<TaskType, Integer> priorities;
+
+    private WorkerConfiguration(int concurrency, int prefetch, ImmutableMap<TaskType, Integer> concurrencyLimits, ImmutableMap<TaskType, Integer> priorities) {
+        this.concurrency = concurrency;
+        this.prefetch = prefetch;
+        this.concurrencyLimits = concurrencyLimits;
+        this.priorities = priorities;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public int concurrencyLimit(TaskType taskType) {
+        return concurrencyLimits.getOrDefault(taskType, concurrency);
+    }
+
+    public int priority(TaskType taskType) {
+        return priorities.getOrDefault(taskType, DEFAULT_PRIORITY);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof WorkerConfiguration) {
+            WorkerConfiguration that = (WorkerConfiguration) o;
+
+            return Objects.equals(this.concurrency, that.concurrency)
+                && Objects.equals(this.prefetch, that.prefetch)
+                && Objects.equals(this.concurrencyLimits, that.concurrencyLimits)
+                && Objects.equals(this.priorities, that.priorities);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(concurrency, prefetch, concurrencyLimits, priorities);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("concurrency", concurrency)
+            .add("prefetch", prefetch)
+            .add("concurrencyLimits", concurrencyLimits)
+            .add("priorities", priorities)
+            .toString();
+    }
+}
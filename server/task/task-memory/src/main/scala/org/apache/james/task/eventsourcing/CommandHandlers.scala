@@ -83,10 +83,18 @@ class FailCommandHandler(private val loadHistory: TaskAggregateId => History) ex
   }
 }
 
-class UpdateCommandHandler(private val loadHistory: TaskAggregateId => History) extends TaskCommandHandler[UpdateAdditionalInformation] {
+/**
+ * Progress of running tasks is periodically reported. Appending each report to the history of the task would make it
+ * grow with the task duration, hence the latest report is stored as a snapshot in the projection instead.
+ */
+class UpdateCommandHandler(private val loadHistory: TaskAggregateId => History,
+                           private val executionDetailsProjection: TaskExecutionDetailsProjection) extends TaskCommandHandler[UpdateAdditionalInformation] {
   override def handledClass: Class[UpdateAdditionalInformation] = classOf[UpdateAdditionalInformation]
 
   override def handle(command: UpdateAdditionalInformation): util.List[_ <: Event] = {
-    loadAggregate(loadHistory, command.id).update(command.additionalInformation)
+    if (loadAggregate(loadHistory, command.id).acceptsUpdate(command.additionalInformation)) {
+      executionDetailsProjection.updateAdditionalInformation(command.id, command.additionalInformation)
+    }
+    util.Collections.emptyList()
   }
 }
\ No newline at end of file
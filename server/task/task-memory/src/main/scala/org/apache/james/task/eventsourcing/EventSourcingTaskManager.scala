@@ -61,7 +61,7 @@ class EventSourcingTaskManager @Inject @VisibleForTesting private[eventsourcing]
       new CompleteCommandHandler(loadHistory),
       new CancelCommandHandler(loadHistory),
       new FailCommandHandler(loadHistory),
-      new UpdateCommandHandler(loadHistory)),
+      new UpdateCommandHandler(loadHistory, executionDetailsProjection)),
     subscribers = Set(
       executionDetailsProjection.asSubscriber(hostname),
       workDispatcher,
@@ -52,8 +52,6 @@ class TaskAggregate private(val aggregateId: TaskAggregateId, private val histor
       None
   }
 
-  private def createEvent(event: EventId => Event): Option[Event] = Some(event(history.getNextEventId))
-
   private def createEventIfNotFinishedAsJavaList(event: EventId => Event): util.List[Event] = optionToJavaList(createEventIfNotFinished(event))
 
   private[eventsourcing] def start(hostname: Hostname): util.List[Event] =
@@ -62,12 +60,11 @@ class TaskAggregate private(val aggregateId: TaskAggregateId, private val histor
   private[eventsourcing] def requestCancel(hostname: Hostname): util.List[Event] =
     createEventIfNotFinishedAsJavaList(CancelRequested(aggregateId, _, hostname))
 
-  private[eventsourcing] def update(additionalInformation: AdditionalInformation): util.List[Event] =
-    optionToJavaList(currentDecisionProjection.status match {
-      case Status.IN_PROGRESS if currentDecisionProjection.additionalInformationIsOlderThan(additionalInformation.timestamp) => createEvent(AdditionalInformationUpdated(aggregateId, _, additionalInformation))
-      case Status.CANCEL_REQUESTED if currentDecisionProjection.additionalInformationIsOlderThan(additionalInformation.timestamp) => createEvent(AdditionalInformationUpdated(aggregateId, _, additionalInformation))
-      case _ => None
-    })
+  private[eventsourcing] def acceptsUpdate(additionalInformation: AdditionalInformation): Boolean =
+    currentDecisionProjection.status match {
+      case Status.IN_PROGRESS | Status.CANCEL_REQUESTED => currentDecisionProjection.additionalInformationIsOlderThan(additionalInformation.timestamp)
+      case _ => false
+    }
 
   private[eventsourcing] def complete(result: Result, additionalInformation: Option[AdditionalInformation]): util.List[Event] =
     createEventIfNotFinishedAsJavaList(Completed(aggregateId, _, result, additionalInformation))
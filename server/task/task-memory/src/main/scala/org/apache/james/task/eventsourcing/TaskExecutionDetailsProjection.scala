@@ -21,7 +21,8 @@ package org.apache.james.task.eventsourcing
 import java.util.concurrent.ConcurrentHashMap
 
 import org.apache.james.eventsourcing.Subscriber
-import org.apache.james.task.{Hostname, TaskExecutionDetails, TaskId}
+import org.apache.james.task.TaskExecutionDetails.AdditionalInformation
+import org.apache.james.task.{Hostname, TaskExecutionDetails, TaskId, TaskManager}
 import scala.compat.java8.OptionConverters._
 
 import scala.jdk.CollectionConverters._
@@ -49,11 +50,23 @@ trait TaskExecutionDetailsProjection {
       .map(updater)
       .foreach(update)
 
+  def updateAdditionalInformation(taskId: TaskId, additionalInformation: AdditionalInformation): Unit =
+    load(taskId)
+      .filter(TaskExecutionDetailsProjection.acceptsUpdate(additionalInformation))
+      .map(_.updateInformation(additionalInformation))
+      .foreach(update)
+
   def load(taskId: TaskId): Option[TaskExecutionDetails]
   def list: List[TaskExecutionDetails]
   def update(details: TaskExecutionDetails): Unit
 }
 
+object TaskExecutionDetailsProjection {
+  def acceptsUpdate(additionalInformation: AdditionalInformation)(details: TaskExecutionDetails): Boolean =
+    (details.getStatus == TaskManager.Status.IN_PROGRESS || details.getStatus == TaskManager.Status.CANCEL_REQUESTED) &&
+      details.getAdditionalInformation.asScala.forall(current => additionalInformation.timestamp.isAfter(current.timestamp))
+}
+
 class MemoryTaskExecutionDetailsProjection() extends TaskExecutionDetailsProjection {
   private[this] val details = new ConcurrentHashMap[TaskId, TaskExecutionDetails]
 
@@ -62,4 +75,15 @@ class MemoryTaskExecutionDetailsProjection() extends TaskExecutionDetailsProject
   override def list: List[TaskExecutionDetails] = this.details.values().asScala.toList
 
   override def update(details: TaskExecutionDetails): Unit = this.details.put(details.taskId, details)
+
+  /**
+   * The check and the update are applied atomically, so that a snapshot can not revert a concurrent status change.
+   */
+  override def updateAdditionalInformation(taskId: TaskId, additionalInformation: AdditionalInformation): Unit =
+    this.details.computeIfPresent(taskId, (_, current) =>
+      if (TaskExecutionDetailsProjection.acceptsUpdate(additionalInformation)(current)) {
+        current.updateInformation(additionalInformation)
+      } else {
+        current
+      })
 }
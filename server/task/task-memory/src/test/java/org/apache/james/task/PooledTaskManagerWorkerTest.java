@@ -0,0 +1,202 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import reactor.core.publisher.Mono;
+
+class PooledTaskManagerWorkerTest {
+    private static final Duration UPDATE_INFORMATION_POLLING_DURATION = Duration.ofSeconds(1);
+
+    private TaskManagerWorker.Listener listener;
+    private PooledTaskManagerWorker worker;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        worker.close();
+    }
+
+    private void createWorker(WorkerConfiguration configuration) {
+        listener = mock(TaskManagerWorker.Listener.class);
+        worker = new PooledTaskManagerWorker(listener, UPDATE_INFORMATION_POLLING_DURATION, configuration);
+    }
+
+    private TaskWithId blockingTask(CountDownLatch latch) {
+        return new TaskWithId(TaskId.generateTaskId(), new MemoryReferenceTask(() -> {
+            latch.await();
+            return Task.Result.COMPLETED;
+        }));
+    }
+
+    @Test
+    void tasksShouldRunConcurrentlyUpToConcurrency() {
+        createWorker(WorkerConfiguration.builder()
+            .concurrency(2)
+            .build());
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskWithId first = blockingTask(latch);
+        TaskWithId second = blockingTask(latch);
+
+        worker.executeTask(first).subscribe();
+        worker.executeTask(second).subscribe();
+
+        Awaitility.waitAtMost(org.awaitility.Duration.TEN_SECONDS)
+            .untilAsserted(() -> {
+                verify(listener).started(first.getId());
+                verify(listener).started(second.getId());
+            });
+        latch.countDown();
+    }
+
+    @Test
+    void tasksShouldWaitForAWorkerSlot() {
+        createWorker(WorkerConfiguration.builder()
+            .concurrency(1)
+            .build());
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskWithId first = blockingTask(latch);
+        TaskWithId second = new TaskWithId(TaskId.generateTaskId(), new CompletedTask());
+
+        worker.executeTask(first).subscribe();
+        Mono<Task.Result> secondResult = worker.executeTask(second).cache();
+        secondResult.subscribe();
+
+        Awaitility.waitAtMost(org.awaitility.Duration.TEN_SECONDS)
+            .untilAsserted(() -> verify(listener).started(first.getId()));
+        verify(listener, never()).started(second.getId());
+
+        latch.countDown();
+        assertThat(secondResult.block(Duration.ofSeconds(10))).isEqualTo(Task.Result.COMPLETED);
+    }
+
+    @Test
+    void tasksShouldNotExceedTheirTypeConcurrencyLimit() {
+        createWorker(WorkerConfiguration.builder()
+            .concurrency(2)
+            .concurrencyLimit(MemoryReferenceTask.TYPE, 1)
+            .build());
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskWithId first = blockingTask(latch);
+        TaskWithId second = blockingTask(latch);
+        TaskWithId otherType = new TaskWithId(TaskId.generateTaskId(), new CompletedTask());
+
+        worker.executeTask(first).subscribe();
+        worker.executeTask(second).subscribe();
+        Mono<Task.Result> otherTypeResult = worker.executeTask(otherType).cache();
+        otherTypeResult.subscribe();
+
+        assertThat(otherTypeResult.block(Duration.ofSeconds(10))).isEqualTo(Task.Result.COMPLETED);
+        verify(listener).started(first.getId());
+        verify(listener, never()).started(second.getId());
+        latch.countDown();
+    }
+
+    @Test
+    void waitingTasksWithHigherPriorityShouldStartFirst() {
+        createWorker(WorkerConfiguration.builder()
+            .priority(CompletedTask.TYPE, 10)
+            .build());
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskWithId running = blockingTask(latch);
+        TaskWithId lowPriority = blockingTask(new CountDownLatch(0));
+        TaskWithId highPriority = new TaskWithId(TaskId.generateTaskId(), new CompletedTask());
+
+        worker.executeTask(running).subscribe();
+        Mono<Task.Result> lowPriorityResult = worker.executeTask(lowPriority).cache();
+        lowPriorityResult.subscribe();
+        worker.executeTask(highPriority).subscribe();
+        latch.countDown();
+        lowPriorityResult.block(Duration.ofSeconds(10));
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).started(running.getId());
+        inOrder.verify(listener).started(highPriority.getId());
+        inOrder.verify(listener).started(lowPriority.getId());
+    }
+
+    @Test
+    void cancelledTasksShouldKeepTheirWorkerSlotUntilTheyReturn() throws Exception {
+        createWorker(WorkerConfiguration.builder()
+            .concurrency(1)
+            .build());
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskWithId interruptionIgnoring = new TaskWithId(TaskId.generateTaskId(), new MemoryReferenceTask(() -> {
+            awaitIgnoringInterruptions(latch);
+            return Task.Result.COMPLETED;
+        }));
+        TaskWithId waiting = new TaskWithId(TaskId.generateTaskId(), new CompletedTask());
+
+        worker.executeTask(interruptionIgnoring).subscribe();
+        Mono<Task.Result> waitingResult = worker.executeTask(waiting).cache();
+        waitingResult.subscribe();
+        Awaitility.waitAtMost(org.awaitility.Duration.TEN_SECONDS)
+            .untilAsserted(() -> verify(listener).started(interruptionIgnoring.getId()));
+
+        worker.cancelTask(interruptionIgnoring.getId());
+        Thread.sleep(500);
+        verify(listener, never()).started(waiting.getId());
+
+        latch.countDown();
+        assertThat(waitingResult.block(Duration.ofSeconds(10))).isEqualTo(Task.Result.COMPLETED);
+    }
+
+    private void awaitIgnoringInterruptions(CountDownLatch latch) {
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                // keeps running despite the cancellation
+            }
+        }
+    }
+
+    @Test
+    void cancellingAWaitingTaskShouldNotRunIt() {
+        createWorker(WorkerConfiguration.DEFAULT);
+        CountDownLatch latch = new CountDownLatch(1);
+        TaskWithId running = blockingTask(latch);
+        TaskWithId waiting = new TaskWithId(TaskId.generateTaskId(), new CompletedTask());
+
+        worker.executeTask(running).subscribe();
+        Mono<Task.Result> waitingResult = worker.executeTask(waiting).cache();
+        waitingResult.subscribe();
+
+        worker.cancelTask(waiting.getId());
+        latch.countDown();
+
+        assertThat(waitingResult.blockOptional(Duration.ofSeconds(10))).isEmpty();
+        verify(listener).cancelled(waiting.getId(), Optional.empty());
+        verify(listener, never()).started(waiting.getId());
+    }
+}
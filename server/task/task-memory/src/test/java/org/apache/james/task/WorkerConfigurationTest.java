@@ -0,0 +1,90 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+package org.apache.james.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.junit.jupiter.api.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class WorkerConfigurationTest {
+    private static final TaskType TASK_TYPE = TaskType.of("full-reindexing");
+
+    @Test
+    void shouldMatchBeanContract() {
+        EqualsVerifier.forClass(WorkerConfiguration.class)
+            .verify();
+    }
+
+    @Test
+    void fromShouldReturnDefaultWhenEmpty() {
+        assertThat(WorkerConfiguration.from(new PropertiesConfiguration()))
+            .isEqualTo(WorkerConfiguration.DEFAULT);
+    }
+
+    @Test
+    void fromShouldReadConfiguredValues() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("concurrency", 4);
+        configuration.addProperty("prefetch", 8);
+        configuration.addProperty("concurrency.full-reindexing", 1);
+        configuration.addProperty("priority.full-reindexing", -5);
+
+        assertThat(WorkerConfiguration.from(configuration))
+            .isEqualTo(WorkerConfiguration.builder()
+                .concurrency(4)
+                .prefetch(8)
+                .concurrencyLimit(TASK_TYPE, 1)
+                .priority(TASK_TYPE, -5)
+                .build());
+    }
+
+    @Test
+    void prefetchShouldDefaultToConcurrency() {
+        assertThat(WorkerConfiguration.builder().concurrency(4).build().getPrefetch())
+            .isEqualTo(4);
+    }
+
+    @Test
+    void concurrencyLimitShouldDefaultToConcurrency() {
+        assertThat(WorkerConfiguration.builder().concurrency(4).build().concurrencyLimit(TASK_TYPE))
+            .isEqualTo(4);
+    }
+
+    @Test
+    void priorityShouldDefaultToZero() {
+        assertThat(WorkerConfiguration.DEFAULT.priority(TASK_TYPE))
+            .isEqualTo(WorkerConfiguration.DEFAULT_PRIORITY);
+    }
+
+    @Test
+    void concurrencyShouldBeStrictlyPositive() {
+        assertThatThrownBy(() -> WorkerConfiguration.builder().concurrency(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void buildShouldThrowWhenPrefetchIsLowerThanConcurrency() {
+        assertThatThrownBy(() -> WorkerConfiguration.builder().concurrency(4).prefetch(2).build())
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
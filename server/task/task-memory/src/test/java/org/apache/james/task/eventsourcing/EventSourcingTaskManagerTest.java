@@ -22,11 +22,14 @@ package org.apache.james.task.eventsourcing;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
 
+import java.util.concurrent.CountDownLatch;
+
 import org.apache.james.eventsourcing.eventstore.EventStore;
 import org.apache.james.eventsourcing.eventstore.memory.InMemoryEventStore;
 import org.apache.james.task.CountDownLatchExtension;
 import org.apache.james.task.Hostname;
 import org.apache.james.task.MemoryReferenceTask;
+import org.apache.james.task.MemoryReferenceWithCounterTask;
 import org.apache.james.task.MemoryWorkQueue;
 import org.apache.james.task.SerialTaskManagerWorker;
 import org.apache.james.task.Task;
@@ -97,6 +100,23 @@ class EventSourcingTaskManagerTest implements TaskManagerContract {
                 .containsOnly(HOSTNAME));
     }
 
+    @Test
+    void additionalInformationUpdatesShouldNotBeAppendedToTheEventStore(CountDownLatch countDownLatch) throws Exception {
+        TaskId taskId = taskManager.submit(new MemoryReferenceWithCounterTask(counter -> {
+            counter.incrementAndGet();
+            countDownLatch.await();
+            return Task.Result.COMPLETED;
+        }));
+        TaskAggregateId aggregateId = new TaskAggregateId(taskId);
+
+        CALMLY_AWAIT.untilAsserted(() ->
+            assertThat(taskManager.getExecutionDetails(taskId).getStatus()).isEqualTo(TaskManager.Status.IN_PROGRESS));
+        Thread.sleep(UPDATE_INFORMATION_POLLING_INTERVAL.multipliedBy(3).toMillis());
+
+        assertThat(eventStore.getEventsOfAggregate(aggregateId).getEvents())
+            .noneMatch(event -> event instanceof AdditionalInformationUpdated);
+    }
+
     @Test
     void cancelRequestedTaskShouldKeepOriginHostname() {
         TaskId taskId = taskManager.submit(new MemoryReferenceTask(() -> {
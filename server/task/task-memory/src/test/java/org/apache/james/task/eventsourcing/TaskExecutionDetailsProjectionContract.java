@@ -21,17 +21,23 @@
 package org.apache.james.task.eventsourcing;
 
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS;
+import static org.apache.james.task.TaskExecutionDetailsFixture.DATE;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_2;
+import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_UPDATED;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION;
 import static org.apache.james.task.TaskExecutionDetailsFixture.TASK_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static scala.jdk.javaapi.CollectionConverters.asJava;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import org.apache.james.task.MemoryReferenceWithCounterTask;
 import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskManager;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
 import org.junit.jupiter.api.Test;
 
 import scala.compat.java8.OptionConverters;
@@ -69,6 +75,74 @@ public interface TaskExecutionDetailsProjectionContract {
         assertThat(taskExecutionDetails).contains(TASK_EXECUTION_DETAILS_UPDATED());
     }
 
+    @Test
+    default void updateAdditionalInformationShouldUpdateTasksInProgress() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION());
+
+        MemoryReferenceWithCounterTask.AdditionalInformation snapshot = new MemoryReferenceWithCounterTask.AdditionalInformation(6, DATE().plusSeconds(1));
+        testee.updateAdditionalInformation(TASK_ID(), snapshot);
+
+        Optional<TaskExecutionDetails> taskExecutionDetails = OptionConverters.toJava(testee.load(TASK_ID()));
+        assertThat(taskExecutionDetails.flatMap(TaskExecutionDetails::getAdditionalInformation)).contains(snapshot);
+        assertThat(taskExecutionDetails.map(TaskExecutionDetails::getStatus)).contains(TaskManager.Status.IN_PROGRESS);
+    }
+
+    @Test
+    default void updateAdditionalInformationShouldIgnoreOlderInformation() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION());
+
+        testee.updateAdditionalInformation(TASK_ID(), new MemoryReferenceWithCounterTask.AdditionalInformation(6, DATE().minusSeconds(1)));
+
+        Optional<TaskExecutionDetails> taskExecutionDetails = OptionConverters.toJava(testee.load(TASK_ID()));
+        assertThat(taskExecutionDetails).contains(TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION());
+    }
+
+    @Test
+    default void updateAdditionalInformationShouldIgnoreFinishedTasks() {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION());
+
+        testee.updateAdditionalInformation(TASK_ID(), new MemoryReferenceWithCounterTask.AdditionalInformation(6, DATE().plusSeconds(1)));
+
+        Optional<TaskExecutionDetails> taskExecutionDetails = OptionConverters.toJava(testee.load(TASK_ID()));
+        assertThat(taskExecutionDetails).contains(TASK_EXECUTION_DETAILS_WITH_ADDITIONAL_INFORMATION());
+    }
+
+    @Test
+    default void updateAdditionalInformationRacingWithCompletionShouldNotRevertTheStatus() throws Exception {
+        TaskExecutionDetailsProjection testee = testee();
+        testee.update(TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION());
+        TaskExecutionDetails completed = TASK_EXECUTION_DETAILS_IN_PROGRESS_WITH_ADDITIONAL_INFORMATION()
+            .completed(Optional.of(new MemoryReferenceWithCounterTask.AdditionalInformation(100, DATE().plusSeconds(100))));
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, operationNumber) -> {
+                if (threadNumber == 0 && operationNumber == 0) {
+                    testee.update(completed);
+                } else {
+                    testee.updateAdditionalInformation(TASK_ID(),
+                        new MemoryReferenceWithCounterTask.AdditionalInformation(operationNumber, DATE().plusSeconds(1 + operationNumber)));
+                }
+            })
+            .threadCount(4)
+            .operationCount(10)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+
+        Optional<TaskExecutionDetails> taskExecutionDetails = OptionConverters.toJava(testee.load(TASK_ID()));
+        assertThat(taskExecutionDetails.map(TaskExecutionDetails::getStatus)).contains(TaskManager.Status.COMPLETED);
+    }
+
+    @Test
+    default void updateAdditionalInformationShouldNotCreateMissingRecords() {
+        TaskExecutionDetailsProjection testee = testee();
+
+        testee.updateAdditionalInformation(TASK_ID(), new MemoryReferenceWithCounterTask.AdditionalInformation(6, DATE()));
+
+        assertThat(OptionConverters.toJava(testee.load(TASK_ID()))).isEmpty();
+    }
+
     @Test
     default void loadShouldReturnEmptyWhenNone() {
         TaskExecutionDetailsProjection testee = testee();